@@ -0,0 +1,278 @@
+package net.syneil.graph;
+
+import java.util.*;
+
+/**
+ * A topological order maintained as edges are added and removed, by the algorithm of Pearce and Kelly. Adding an edge
+ * whose source already precedes its target costs nothing; otherwise only the vertices whose positions lie between the
+ * target's and the source's, and which are reachable from the target or reach the source, are visited and reordered
+ * amongst their own positions. The same search detects the edges that would close a cycle, which are refused.
+ * <p>
+ * This holds the arcs of the graph it orders, counting parallel edges, so that the searches need not ask the graph
+ * for its adjacency. A graph enforcing its {@link GraphProperties.Cyclicity#ACYCLIC acyclicity} with one must keep it
+ * informed of every vertex and edge it adds or removes.
+ *
+ * @param <V> the type used for vertices
+ */
+public final class DynamicTopologicalOrder<V> implements TopologicalOrder<V> {
+    /**
+     * The node of each vertex
+     */
+    private final Map<V, Node<V>> nodes = new HashMap<>();
+
+    /**
+     * The node at each position, or null where a vertex has been removed
+     */
+    private ArrayList<Node<V>> byPosition = new ArrayList<>();
+
+    /**
+     * The number of positions left empty by removed vertices
+     */
+    private int holes;
+
+    /**
+     * Adds a vertex at the end of the order.
+     *
+     * @param vertex the vertex
+     *
+     * @return true if the vertex was not already ordered, false otherwise
+     */
+    public boolean addVertex(V vertex) {
+        Objects.requireNonNull(vertex);
+        if (nodes.containsKey(vertex)) {
+            return false;
+        }
+        var node = new Node<>(vertex, byPosition.size());
+        nodes.put(vertex, node);
+        byPosition.add(node);
+        return true;
+    }
+
+    /**
+     * Removes a vertex and its arcs.
+     *
+     * @param vertex the vertex
+     *
+     * @return true if the vertex was ordered, false otherwise
+     */
+    public boolean removeVertex(V vertex) {
+        Objects.requireNonNull(vertex);
+        Node<V> node = nodes.remove(vertex);
+        if (node == null) {
+            return false;
+        }
+        node.out.keySet().forEach(target -> target.in.remove(node));
+        node.in.keySet().forEach(source -> source.out.remove(node));
+        byPosition.set(node.position, null);
+        if (++holes > byPosition.size() / 2) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Adds an arc from one vertex to another, reordering the vertices if the target precedes the source, and adding
+     * the vertices if necessary. Nothing is changed if the arc would close a cycle.
+     *
+     * @param source the source vertex
+     * @param target the target vertex
+     *
+     * @return true if the arc was added, false if it would close a cycle
+     */
+    public boolean addEdge(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        if (source.equals(target)) {
+            return false;
+        }
+        addVertex(source);
+        addVertex(target);
+        Node<V> from = nodes.get(source), to = nodes.get(target);
+        if (!from.out.containsKey(to) && to.position < from.position && !reorder(from, to)) {
+            return false;
+        }
+        from.out.merge(to, 1, Integer::sum);
+        to.in.merge(from, 1, Integer::sum);
+        return true;
+    }
+
+    /**
+     * Removes one arc from one vertex to another. The order remains valid, so nothing is reordered.
+     *
+     * @param source the source vertex
+     * @param target the target vertex
+     *
+     * @return true if there was such an arc, false otherwise
+     */
+    public boolean removeEdge(V source, V target) {
+        Node<V> from = nodes.get(Objects.requireNonNull(source)), to = nodes.get(Objects.requireNonNull(target));
+        if (from == null || to == null || !from.out.containsKey(to)) {
+            return false;
+        }
+        from.out.computeIfPresent(to, (node, count) -> count == 1 ? null : count - 1);
+        to.in.computeIfPresent(from, (node, count) -> count == 1 ? null : count - 1);
+        return true;
+    }
+
+    @Override
+    public List<V> asList() {
+        if (holes > 0) {
+            compact();
+        }
+        return new AbstractList<>() {
+            @Override
+            public V get(int index) {
+                return byPosition.get(index).vertex;
+            }
+
+            @Override
+            public int size() {
+                return byPosition.size();
+            }
+        };
+    }
+
+    @Override
+    public boolean precedes(V a, V b) {
+        Node<V> first = nodes.get(a), second = nodes.get(b);
+        return first != null && second != null && first.position < second.position;
+    }
+
+    /**
+     * Restores the order for a new arc whose target precedes its source. The vertices reachable from the target without
+     * passing the source's position, and those reaching the source without passing the target's, are moved so that the
+     * former all follow the latter, using only the positions they already occupy.
+     *
+     * @return true if the order was restored, false if the target reaches the source
+     */
+    private boolean reorder(Node<V> from, Node<V> to) {
+        List<Node<V>> forward = new ArrayList<>();
+        if (!searchForward(to, from.position, forward)) {
+            forward.forEach(node -> node.visited = false);
+            return false;
+        }
+        List<Node<V>> backward = new ArrayList<>();
+        searchBackward(from, to.position, backward);
+
+        Comparator<Node<V>> byPositionOrder = Comparator.comparingInt(node -> node.position);
+        forward.sort(byPositionOrder);
+        backward.sort(byPositionOrder);
+        int[] positions = new int[forward.size() + backward.size()];
+        int i = 0;
+        for (Node<V> node : backward) {
+            positions[i++] = node.position;
+        }
+        for (Node<V> node : forward) {
+            positions[i++] = node.position;
+        }
+        Arrays.sort(positions);
+        i = 0;
+        for (Node<V> node : backward) {
+            place(node, positions[i++]);
+        }
+        for (Node<V> node : forward) {
+            place(node, positions[i++]);
+        }
+        return true;
+    }
+
+    private void place(Node<V> node, int position) {
+        node.visited = false;
+        node.position = position;
+        byPosition.set(position, node);
+    }
+
+    /**
+     * Collects the nodes reachable from a start node through positions before a bound.
+     *
+     * @return false if the node at the bound was reached, true otherwise
+     */
+    private static <V> boolean searchForward(Node<V> start, int bound, List<Node<V>> visited) {
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        start.visited = true;
+        visited.add(start);
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            for (Node<V> next : stack.pop().out.keySet()) {
+                if (next.position == bound) {
+                    return false;
+                }
+                if (!next.visited && next.position < bound) {
+                    next.visited = true;
+                    visited.add(next);
+                    stack.push(next);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects the nodes reaching a start node through positions after a bound.
+     */
+    private static <V> void searchBackward(Node<V> start, int bound, List<Node<V>> visited) {
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        start.visited = true;
+        visited.add(start);
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            for (Node<V> previous : stack.pop().in.keySet()) {
+                if (!previous.visited && previous.position > bound) {
+                    previous.visited = true;
+                    visited.add(previous);
+                    stack.push(previous);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renumbers the positions to remove the holes left by removed vertices, keeping the order.
+     */
+    private void compact() {
+        var compacted = new ArrayList<Node<V>>(nodes.size());
+        for (Node<V> node : byPosition) {
+            if (node != null) {
+                node.position = compacted.size();
+                compacted.add(node);
+            }
+        }
+        byPosition = compacted;
+        holes = 0;
+    }
+
+    /**
+     * A vertex with its position and arcs
+     */
+    private static final class Node<V> {
+        /**
+         * The vertex
+         */
+        private final V vertex;
+
+        /**
+         * The number of arcs to each target
+         */
+        private final Map<Node<V>, Integer> out = new HashMap<>();
+
+        /**
+         * The number of arcs from each source
+         */
+        private final Map<Node<V>, Integer> in = new HashMap<>();
+
+        /**
+         * The position of the vertex in the order
+         */
+        private int position;
+
+        /**
+         * Whether the vertex has been visited by the search in progress
+         */
+        private boolean visited;
+
+        private Node(V vertex, int position) {
+            this.vertex = vertex;
+            this.position = position;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import java.util.Optional;
  * @see Orientation
  * @see Looping
  * @see Multiplicity
+ * @see Cyclicity
  */
 @Builder
 @ToString
@@ -30,6 +31,11 @@ public final class GraphProperties {
      */
     private final Multiplicity multiplicity;
 
+    /**
+     * The cyclicity of the graph
+     */
+    private final Cyclicity cyclicity;
+
     /**
      * @return the orientation of the graph, optionally
      */
@@ -51,6 +57,13 @@ public final class GraphProperties {
         return Optional.ofNullable(multiplicity);
     }
 
+    /**
+     * @return the cyclicity of the graph, optionally
+     */
+    public Optional<Cyclicity> getCyclicity() {
+        return Optional.ofNullable(cyclicity);
+    }
+
     /**
      * The orientation of a graph
      */
@@ -95,4 +108,20 @@ public final class GraphProperties {
          */
         MULTIPLE
     }
+
+    /**
+     * The cyclicity of a graph
+     */
+    public enum Cyclicity {
+        /**
+         * Edges may form cycles
+         */
+        CYCLIC,
+
+        /**
+         * The edges must not form a cycle: a directed graph must be a DAG, and an undirected graph a forest. Self-loops
+         * are cycles, whatever the looping policy
+         */
+        ACYCLIC
+    }
 }
@@ -1,5 +1,7 @@
 package net.syneil.graph;
 
+import java.util.Collection;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +30,23 @@ public interface MutableGraph<V, E extends Edge<V>> extends Graph<V, E> {
      */
     boolean removeVertex(V v);
 
+    /**
+     * Removes several vertices from this graph, along with every edge connected to any of them. Implementations may
+     * take the opportunity to compact their storage afterwards.
+     *
+     * @param vs the vertices to remove
+     *
+     * @return true if the graph was updated as a result of this call; false otherwise
+     */
+    default boolean removeVertices(Collection<? extends V> vs) {
+        Objects.requireNonNull(vs);
+        boolean updated = false;
+        for (V v : vs) {
+            updated |= removeVertex(v);
+        }
+        return updated;
+    }
+
     /**
      * Adds an edge to this graph.
      *
@@ -0,0 +1,51 @@
+package net.syneil.graph;
+
+import java.util.function.Predicate;
+
+/**
+ * An edge that is valid for an interval of time, from its start (inclusive) to its end (exclusive). Times are longs in
+ * any unit, such as milliseconds since the epoch; an edge that has not ended has an end of {@link Long#MAX_VALUE}.
+ *
+ * @param <V> the type used for vertices
+ */
+public interface TemporalEdge<V> extends Edge<V> {
+    /**
+     * Creates a predicate that tests if edges are valid at a time
+     *
+     * @param time the time
+     *
+     * @return a predicate that evaluates to true for edges valid at the time
+     */
+    static Predicate<TemporalEdge<?>> validAt(long time) {
+        return edge -> edge.isValidAt(time);
+    }
+
+    /**
+     * @return the first time at which this edge is valid
+     */
+    long getStart();
+
+    /**
+     * @return the first time after its start at which this edge is no longer valid
+     */
+    long getEnd();
+
+    /**
+     * @param time a time
+     *
+     * @return true if this edge is valid at the time
+     */
+    default boolean isValidAt(long time) {
+        return getStart() <= time && time < getEnd();
+    }
+
+    /**
+     * @param from the start of a window of time, inclusive
+     * @param to the end of the window, exclusive
+     *
+     * @return true if this edge is valid at any time in the window
+     */
+    default boolean isValidDuring(long from, long to) {
+        return getStart() < to && from < getEnd() && from < to;
+    }
+}
@@ -0,0 +1,27 @@
+package net.syneil.graph;
+
+import java.util.List;
+
+/**
+ * A topological order of the vertices of a directed acyclic graph: every edge runs from a vertex earlier in the order
+ * to one later in it.
+ *
+ * @param <V> the type used for vertices
+ */
+public interface TopologicalOrder<V> {
+    /**
+     * Returns the vertices in this order. The list is an unmodifiable view, which is only valid until the graph is next
+     * modified.
+     *
+     * @return the vertices, each before all of the vertices it has edges to
+     */
+    List<V> asList();
+
+    /**
+     * @param a a vertex
+     * @param b another vertex
+     *
+     * @return true if both vertices are ordered and the first comes before the second, false otherwise
+     */
+    boolean precedes(V a, V b);
+}
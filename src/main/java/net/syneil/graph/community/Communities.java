@@ -0,0 +1,203 @@
+package net.syneil.graph.community;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties.Orientation;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.compact.VertexIndex;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * The communities of the vertices of a graph, as found by {@link CommunityDetection}. Communities are numbered densely
+ * from 0, in the order of their first vertices, and held as a primitive array by the vertices' indices in the {@link
+ * #getGraph() compact graph} examined, so that even the communities of very large graphs take little memory.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class Communities<V, E extends Edge<V>> {
+    /**
+     * The graph examined
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The community of each vertex, by index
+     */
+    private final int[] membership;
+
+    /**
+     * The number of communities
+     */
+    private final int count;
+
+    /**
+     * The modularity of the communities, for the resolution with which they were found
+     */
+    private final double modularity;
+
+    /**
+     * The first position in {@link #members} of each community, plus the end of the last
+     */
+    private final int[] starts;
+
+    /**
+     * The indices of the vertices, grouped by community and in order of index within each
+     */
+    private final int[] members;
+
+    Communities(CompactGraph<V, E> graph, int[] membership, int count, double modularity) {
+        this.graph = graph;
+        this.membership = membership;
+        this.count = count;
+        this.modularity = modularity;
+        this.starts = new int[count + 1];
+        this.members = new int[membership.length];
+        for (int community : membership) {
+            starts[community + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            starts[c + 1] += starts[c];
+        }
+        int[] next = Arrays.copyOf(starts, count);
+        for (int v = 0; v < membership.length; v++) {
+            members[next[membership[v]]++] = v;
+        }
+    }
+
+    /**
+     * @return the graph examined, whose indices the primitive results are by
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the vertex's community
+     */
+    public int communityOfIndex(int vertex) {
+        return membership[vertex];
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the vertex's community, or -1 if it is not in the graph
+     */
+    public int communityOf(V vertex) {
+        Objects.requireNonNull(vertex);
+        int index = graph.indexOf(vertex);
+        return index < 0 ? -1 : membership[index];
+    }
+
+    /**
+     * @return a copy of the community of each vertex, by index
+     */
+    public int[] communities() {
+        return membership.clone();
+    }
+
+    /**
+     * @return the number of communities
+     */
+    public int getCommunityCount() {
+        return count;
+    }
+
+    /**
+     * @return the modularity of the communities, treating the graph as undirected
+     */
+    public double getModularity() {
+        return modularity;
+    }
+
+    /**
+     * @return the number of vertices in each community
+     */
+    public int[] sizes() {
+        int[] sizes = new int[count];
+        for (int c = 0; c < count; c++) {
+            sizes[c] = starts[c + 1] - starts[c];
+        }
+        return sizes;
+    }
+
+    /**
+     * @param community a community
+     *
+     * @return the vertices in the community, in order of index
+     */
+    public List<V> members(int community) {
+        Objects.checkIndex(community, count);
+        int start = starts[community], end = starts[community + 1];
+        return new AbstractList<>() {
+            @Override
+            public V get(int i) {
+                return graph.vertexAt(members[start + Objects.checkIndex(i, end - start)]);
+            }
+
+            @Override
+            public int size() {
+                return end - start;
+            }
+        };
+    }
+
+    /**
+     * Builds the quotient graph: one vertex for each community, and one edge for each pair of communities joined by any
+     * edges, labelled with their total weight. The edges within a community become a self-loop labelled with their
+     * total weight. The quotient graph has the orientation of the graph examined; in a directed graph, the edges from
+     * one community to another are summed separately from those back.
+     *
+     * @param weight the weight of each edge
+     *
+     * @return the quotient graph, whose vertices are the communities
+     */
+    public CompactGraph<Integer, LabelledEdge<Integer, Double>> quotientGraph(ToDoubleFunction<? super E> weight) {
+        Objects.requireNonNull(weight);
+        boolean undirected = graph.getProperties().getOrientation().orElse(DIRECTED) == UNDIRECTED;
+        Orientation orientation = undirected ? UNDIRECTED : DIRECTED;
+        CompactGraph.Builder<Integer, LabelledEdge<Integer, Double>> builder = CompactGraph.builder(
+                VertexIndex.identity(count), orientation, (source, target) -> new ObjectLabelledEdge<>(source, target,
+                                                                                                       0.0));
+        double[] sums = new double[count];
+        int[] stamps = new int[count], touched = new int[count];
+        for (int c = 0; c < count; c++) {
+            int size = 0;
+            for (int i = starts[c]; i < starts[c + 1]; i++) {
+                int v = members[i];
+                for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                    int u = graph.target(p), d = membership[u];
+                    // an undirected edge is held at both ends: count it from its lesser community, or by halves
+                    if (undirected && d < c) {
+                        continue;
+                    }
+                    if (stamps[d] != c + 1) {
+                        stamps[d] = c + 1;
+                        sums[d] = 0.0;
+                        touched[size++] = d;
+                    }
+                    double w = weight.applyAsDouble(graph.edge(p));
+                    sums[d] += undirected && d == c && u != v ? w / 2 : w;
+                }
+            }
+            Arrays.sort(touched, 0, size);
+            for (int j = 0; j < size; j++) {
+                int d = touched[j];
+                builder.edge(c, d, new ObjectLabelledEdge<>(c, d, sums[d]));
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,532 @@
+package net.syneil.graph.community;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.internal.Tasks;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.internal.Hashing.mix;
+
+/**
+ * Detects communities in graphs: sets of vertices more densely connected among themselves than to the rest of the
+ * graph. Graphs are treated as undirected and weighted, with the weights of edges given by a function, such as
+ * {@code LabelledEdge::getLabel} for edges labelled with numbers:
+ * <pre>
+ *     Communities&lt;String, LabelledEdge&lt;String, Double&gt;&gt; communities =
+ *             CommunityDetection.leiden(customers, LabelledEdge::getLabel);
+ * </pre>
+ * Louvain's method and its refinement, Leiden's, maximise modularity: they move vertices between communities while
+ * modularity grows, then aggregate each community into one vertex and repeat on the smaller graph. The moves are
+ * evaluated in parallel, over one of several interleaved phases of the vertices at a time, against primitive arrays of
+ * the communities' total strengths; they are applied in order on one thread, each only if it still gains, so that the
+ * communities found are the same whatever the parallelism. Leiden's method refines each community before aggregating
+ * it, so that every community found is connected.
+ * <p>
+ * Label propagation is cheaper, and suits the largest graphs: every vertex repeatedly takes the label of greatest
+ * weight among its neighbours, asynchronously and in place, until few labels change. Ties are broken at random, so its
+ * result on more than one thread depends on the order in which the threads run.
+ */
+public final class CommunityDetection {
+    /**
+     * The number of interleaved phases in which moves are evaluated and applied by Louvain's and Leiden's methods
+     */
+    private static final int PHASES = 16;
+
+    private CommunityDetection() {
+    }
+
+    /**
+     * Detects communities by Louvain's method, with the default options.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param weight the weight of each edge
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the communities found
+     *
+     * @throws IllegalArgumentException if any weight is negative, infinite or NaN
+     */
+    public static <V, E extends Edge<V>> Communities<V, E> louvain(Graph<V, ? extends E> graph,
+                                                                   ToDoubleFunction<? super E> weight) {
+        return louvain(graph, weight, CommunityOptions.defaults());
+    }
+
+    /**
+     * Detects communities by Louvain's method.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param weight the weight of each edge
+     * @param options the parallelism, resolution and stopping criteria
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the communities found
+     *
+     * @throws IllegalArgumentException if any weight is negative, infinite or NaN, or any option is invalid
+     */
+    public static <V, E extends Edge<V>> Communities<V, E> louvain(Graph<V, ? extends E> graph,
+                                                                   ToDoubleFunction<? super E> weight,
+                                                                   CommunityOptions options) {
+        return modularity(graph, weight, options, false);
+    }
+
+    /**
+     * Detects communities by Leiden's method, with the default options.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param weight the weight of each edge
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the communities found, each of them connected
+     *
+     * @throws IllegalArgumentException if any weight is negative, infinite or NaN
+     */
+    public static <V, E extends Edge<V>> Communities<V, E> leiden(Graph<V, ? extends E> graph,
+                                                                  ToDoubleFunction<? super E> weight) {
+        return leiden(graph, weight, CommunityOptions.defaults());
+    }
+
+    /**
+     * Detects communities by Leiden's method.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param weight the weight of each edge
+     * @param options the parallelism, resolution and stopping criteria
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the communities found, each of them connected
+     *
+     * @throws IllegalArgumentException if any weight is negative, infinite or NaN, or any option is invalid
+     */
+    public static <V, E extends Edge<V>> Communities<V, E> leiden(Graph<V, ? extends E> graph,
+                                                                  ToDoubleFunction<? super E> weight,
+                                                                  CommunityOptions options) {
+        return modularity(graph, weight, options, true);
+    }
+
+    /**
+     * Detects communities by label propagation, with every edge of weight 1 and the default options.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the communities found
+     */
+    public static <V, E extends Edge<V>> Communities<V, E> labelPropagation(Graph<V, ? extends E> graph) {
+        return labelPropagation(graph, edge -> 1.0, CommunityOptions.defaults());
+    }
+
+    /**
+     * Detects communities by label propagation.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param weight the weight of each edge
+     * @param options the parallelism, seed and stopping criteria; the resolution is used only for the modularity of
+     * the result
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the communities found
+     *
+     * @throws IllegalArgumentException if any weight is negative, infinite or NaN, or any option is invalid
+     */
+    public static <V, E extends Edge<V>> Communities<V, E> labelPropagation(Graph<V, ? extends E> graph,
+                                                                            ToDoubleFunction<? super E> weight,
+                                                                            CommunityOptions options) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(weight);
+        validate(options);
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            return Tasks.run(pool, () -> {
+                WeightedAdjacency adjacency = WeightedAdjacency.of(compact, weight);
+                int[] labels = propagate(adjacency, options);
+                int count = relabel(labels);
+                return new Communities<>(compact, labels, count,
+                                         adjacency.modularity(labels, count, options.getResolution()));
+            }, "detecting communities");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void validate(CommunityOptions options) {
+        Objects.requireNonNull(options);
+        if (options.getParallelism() < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (!(options.getResolution() > 0.0) || Double.isInfinite(options.getResolution())) {
+            throw new IllegalArgumentException("Resolution must be positive and finite");
+        }
+        if (options.getMaxIterations() < 1) {
+            throw new IllegalArgumentException("Maximum iterations must be positive");
+        }
+        if (!(options.getTolerance() >= 0.0)) {
+            throw new IllegalArgumentException("Tolerance must not be negative");
+        }
+    }
+
+    private static <V, E extends Edge<V>> Communities<V, E> modularity(Graph<V, ? extends E> graph,
+                                                                       ToDoubleFunction<? super E> weight,
+                                                                       CommunityOptions options, boolean refine) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(weight);
+        validate(options);
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            return Tasks.run(pool, () -> {
+                WeightedAdjacency original = WeightedAdjacency.of(compact, weight);
+                int[] membership = optimise(original, options, refine);
+                int count = relabel(membership);
+                return new Communities<>(compact, membership, count,
+                                         original.modularity(membership, count, options.getResolution()));
+            }, "detecting communities");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Moves, refines and aggregates level by level until no level aggregates any vertices.
+     *
+     * @return the community of each vertex of the original graph, not yet numbered densely
+     */
+    private static int[] optimise(WeightedAdjacency original, CommunityOptions options, boolean refine) {
+        int n = original.size();
+        // the vertex of the current level's graph into which each original vertex has been aggregated
+        int[] nodeOf = IntStream.range(0, n).toArray();
+        WeightedAdjacency level = original;
+        int[] initial = IntStream.range(0, n).toArray();
+        while (true) {
+            int[] partition = move(level, initial, options);
+            int[] aggregates = refine ? refine(level, partition, options.getResolution()) : partition.clone();
+            int aggregateCount = relabel(aggregates);
+            if (aggregateCount == level.size()) {
+                int[] communities = partition;
+                return IntStream.range(0, n).parallel().map(v -> communities[nodeOf[v]]).toArray();
+            }
+            int[] groups = aggregates;
+            IntStream.range(0, n).parallel().forEach(v -> nodeOf[v] = groups[nodeOf[v]]);
+            // each aggregated vertex starts in the community of the vertices aggregated into it, of which there are
+            // no more than the aggregated vertices
+            relabel(partition);
+            initial = new int[aggregateCount];
+            for (int v = 0; v < level.size(); v++) {
+                initial[aggregates[v]] = partition[v];
+            }
+            level = level.aggregate(aggregates, aggregateCount);
+        }
+    }
+
+    /**
+     * Moves vertices between communities, pass by pass, while modularity grows by more than the tolerance.
+     *
+     * @param adjacency the graph
+     * @param initial the community each vertex starts in, in {@code [0, n)}
+     *
+     * @return the community of each vertex, in {@code [0, n)}
+     */
+    private static int[] move(WeightedAdjacency adjacency, int[] initial, CommunityOptions options) {
+        int n = adjacency.size();
+        double total = adjacency.total, resolution = options.getResolution();
+        int[] community = initial.clone(), sizes = new int[n], targets = new int[n];
+        double[] totals = new double[n], weightsTo = new double[n], weightsFrom = new double[n];
+        for (int v = 0; v < n; v++) {
+            totals[community[v]] += adjacency.strengths[v];
+            sizes[community[v]]++;
+        }
+        if (total == 0.0) {
+            return community;
+        }
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        double modularity = adjacency.modularity(community, n, resolution);
+        for (int iteration = 0; iteration < options.getMaxIterations(); iteration++) {
+            int[] before = community.clone();
+            double[] totalsBefore = totals.clone();
+            int[] sizesBefore = sizes.clone();
+            int moves = 0;
+            for (int phase = 0; phase < PHASES && phase < n; phase++) {
+                int first = phase, count = (n - phase + PHASES - 1) / PHASES;
+                IntStream.range(0, count).parallel().forEach(i -> {
+                    int v = first + i * PHASES;
+                    Scratch row = scratch.get();
+                    row.gather(adjacency, community, v);
+                    int from = community[v], best = from;
+                    double strength = adjacency.strengths[v], weightFrom = row.weightTo(from);
+                    double bestGain = weightFrom - resolution * strength * (totals[from] - strength) / total;
+                    for (int j = 0; j < row.size; j++) {
+                        int to = row.touched[j];
+                        double gain = row.weights[to] - resolution * strength * totals[to] / total;
+                        if (to != from && gain > bestGain && (sizes[from] > 1 || sizes[to] > 1 || to < from)) {
+                            best = to;
+                            bestGain = gain;
+                        }
+                    }
+                    targets[v] = best;
+                    weightsTo[v] = row.weightTo(best);
+                    weightsFrom[v] = weightFrom;
+                });
+                for (int v = first; v < n; v += PHASES) {
+                    int from = community[v], to = targets[v];
+                    if (to == from || sizes[from] == 1 && sizes[to] == 1 && to > from) {
+                        continue;
+                    }
+                    double strength = adjacency.strengths[v];
+                    double gain = weightsTo[v] - resolution * strength * totals[to] / total
+                            - weightsFrom[v] + resolution * strength * (totals[from] - strength) / total;
+                    if (gain > 0.0) {
+                        totals[from] -= strength;
+                        totals[to] += strength;
+                        sizes[from]--;
+                        sizes[to]++;
+                        community[v] = to;
+                        moves++;
+                    }
+                }
+            }
+            double next = adjacency.modularity(community, n, resolution);
+            if (next < modularity) {
+                // moves evaluated together undid each other's gains
+                System.arraycopy(before, 0, community, 0, n);
+                System.arraycopy(totalsBefore, 0, totals, 0, n);
+                System.arraycopy(sizesBefore, 0, sizes, 0, n);
+                break;
+            }
+            boolean converged = moves == 0 || next - modularity <= options.getTolerance();
+            modularity = next;
+            if (converged) {
+                break;
+            }
+        }
+        return community;
+    }
+
+    /**
+     * Refines each community, in parallel, by merging its vertices greedily into well-connected subcommunities,
+     * starting from singletons: a vertex joins the subcommunity it gains most modularity by joining, if it is alone and
+     * both it and the subcommunity are well connected to the rest of the community.
+     *
+     * @return the subcommunity of each vertex, in {@code [0, n)}, each within a community of the partition
+     */
+    private static int[] refine(WeightedAdjacency adjacency, int[] partition, double resolution) {
+        int n = adjacency.size();
+        double total = adjacency.total;
+        int[] starts = new int[n + 1], members = new int[n];
+        for (int v = 0; v < n; v++) {
+            starts[partition[v] + 1]++;
+        }
+        for (int c = 0; c < n; c++) {
+            starts[c + 1] += starts[c];
+        }
+        int[] next = Arrays.copyOf(starts, n);
+        for (int v = 0; v < n; v++) {
+            members[next[partition[v]]++] = v;
+        }
+        int[] refined = IntStream.range(0, n).toArray(), sizes = new int[n];
+        Arrays.fill(sizes, 1);
+        double[] subTotals = adjacency.strengths.clone(), external = new double[n];
+        if (total == 0.0) {
+            return refined;
+        }
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        IntStream.range(0, n).parallel().filter(c -> starts[c + 1] - starts[c] > 1).forEach(c -> {
+            Scratch row = scratch.get();
+            double communityTotal = 0.0;
+            for (int i = starts[c]; i < starts[c + 1]; i++) {
+                int v = members[i];
+                communityTotal += adjacency.strengths[v];
+                for (int p = adjacency.offsets[v]; p < adjacency.offsets[v + 1]; p++) {
+                    int u = adjacency.neighbours[p];
+                    if (u != v && partition[u] == c) {
+                        external[v] += adjacency.weights[p];
+                    }
+                }
+            }
+            for (int i = starts[c]; i < starts[c + 1]; i++) {
+                int v = members[i];
+                double strength = adjacency.strengths[v];
+                if (sizes[refined[v]] > 1
+                        || external[v] < resolution * strength * (communityTotal - strength) / total) {
+                    continue;
+                }
+                row.gather(adjacency, refined, v, partition, c);
+                int best = -1;
+                double bestGain = 0.0;
+                for (int j = 0; j < row.size; j++) {
+                    int s = row.touched[j];
+                    double gain = row.weights[s] - resolution * strength * subTotals[s] / total;
+                    if (s != refined[v] && row.weights[s] > 0.0 && gain >= bestGain
+                            && external[s] >= resolution * subTotals[s] * (communityTotal - subTotals[s]) / total) {
+                        best = s;
+                        bestGain = gain;
+                    }
+                }
+                if (best >= 0) {
+                    sizes[refined[v]]--;
+                    refined[v] = best;
+                    sizes[best]++;
+                    subTotals[best] += strength;
+                    external[best] += external[v] - 2 * row.weights[best];
+                }
+            }
+        });
+        return refined;
+    }
+
+    /**
+     * Propagates labels asynchronously: in each pass, chunks of the vertices are relabelled in parallel, each vertex
+     * taking the label of greatest weight among its neighbours' current labels.
+     *
+     * @return the label of each vertex, in {@code [0, n)}
+     */
+    private static int[] propagate(WeightedAdjacency adjacency, CommunityOptions options) {
+        int n = adjacency.size();
+        int[] labels = IntStream.range(0, n).toArray();
+        int chunks = Math.max(1, Math.min(n, options.getParallelism() * 4));
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        for (int iteration = 0; iteration < options.getMaxIterations(); iteration++) {
+            long seed = options.getSeed() + mix(iteration);
+            long changed = IntStream.range(0, chunks).parallel().mapToLong(chunk -> {
+                Scratch row = scratch.get();
+                SplittableRandom random = new SplittableRandom(mix(seed + mix(chunk)));
+                long count = 0;
+                for (int v = (int) ((long) n * chunk / chunks); v < (long) n * (chunk + 1) / chunks; v++) {
+                    row.gather(adjacency, labels, v);
+                    int current = labels[v], best = current, ties = 0;
+                    double bestWeight = row.weightTo(current);
+                    for (int j = 0; j < row.size; j++) {
+                        int label = row.touched[j];
+                        double weight = row.weights[label];
+                        if (weight > bestWeight) {
+                            best = label;
+                            bestWeight = weight;
+                            ties = 1;
+                        } else if (weight == bestWeight && best != current && random.nextInt(++ties) == 0) {
+                            best = label;
+                        }
+                    }
+                    if (best != current) {
+                        labels[v] = best;
+                        count++;
+                    }
+                }
+                return count;
+            }).sum();
+            if (changed <= options.getTolerance() * n) {
+                break;
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Numbers labels densely, in the order in which they first appear.
+     *
+     * @param labels labels in {@code [0, labels.length)}, renumbered in place
+     *
+     * @return the number of distinct labels
+     */
+    private static int relabel(int[] labels) {
+        int[] numbers = new int[labels.length];
+        Arrays.fill(numbers, -1);
+        int count = 0;
+        for (int v = 0; v < labels.length; v++) {
+            if (numbers[labels[v]] < 0) {
+                numbers[labels[v]] = count++;
+            }
+            labels[v] = numbers[labels[v]];
+        }
+        return count;
+    }
+
+    /**
+     * The weights from one vertex to each community, or label, among its neighbours, in arrays reused from vertex to
+     * vertex by one thread
+     */
+    private static final class Scratch {
+        /**
+         * The weight to each community touched, valid only where the stamp is current
+         */
+        private final double[] weights;
+
+        /**
+         * The gathering in which each community's weight was last set
+         */
+        private final int[] stamps;
+
+        /**
+         * The communities touched, in the order first touched
+         */
+        private int[] touched = new int[16];
+
+        /**
+         * The number of communities touched
+         */
+        private int size;
+
+        /**
+         * The number of the current gathering, never 0
+         */
+        private int stamp;
+
+        private Scratch(int n) {
+            this.weights = new double[n];
+            this.stamps = new int[n];
+        }
+
+        /**
+         * Gathers the weights from a vertex to the communities of its neighbours other than itself.
+         */
+        private void gather(WeightedAdjacency adjacency, int[] community, int v) {
+            gather(adjacency, community, v, null, 0);
+        }
+
+        /**
+         * Gathers the weights from a vertex to the communities of its neighbours other than itself, only counting
+         * neighbours in a given part of a partition, if one is given.
+         */
+        private void gather(WeightedAdjacency adjacency, int[] community, int v, int[] partition, int part) {
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            size = 0;
+            for (int p = adjacency.offsets[v]; p < adjacency.offsets[v + 1]; p++) {
+                int u = adjacency.neighbours[p];
+                if (u == v || partition != null && partition[u] != part) {
+                    continue;
+                }
+                int c = community[u];
+                if (stamps[c] != stamp) {
+                    stamps[c] = stamp;
+                    weights[c] = 0.0;
+                    if (size == touched.length) {
+                        touched = Arrays.copyOf(touched, size * 2);
+                    }
+                    touched[size++] = c;
+                }
+                weights[c] += adjacency.weights[p];
+            }
+        }
+
+        /**
+         * @return the weight gathered to a community, or 0 if none of the vertex's neighbours is in it
+         */
+        private double weightTo(int c) {
+            return stamps[c] == stamp ? weights[c] : 0.0;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.syneil.graph.community;
+
+import lombok.Builder;
+import lombok.ToString;
+
+/**
+ * The configuration of {@link CommunityDetection}. Any option not set takes its default.
+ */
+@Builder
+@ToString
+public final class CommunityOptions {
+    /**
+     * The default greatest number of passes over the vertices at each level
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 20;
+
+    /**
+     * The default least gain in modularity for which another pass is made
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+
+    /**
+     * The number of threads detecting communities
+     */
+    private final Integer parallelism;
+
+    /**
+     * The resolution of modularity: higher resolutions favour smaller communities
+     */
+    private final Double resolution;
+
+    /**
+     * The greatest number of passes over the vertices at each level, or in all for label propagation
+     */
+    private final Integer maxIterations;
+
+    /**
+     * The least gain in modularity, or for label propagation the least proportion of vertices relabelled, for which
+     * another pass is made
+     */
+    private final Double tolerance;
+
+    /**
+     * The seed of the randomness with which label propagation breaks ties
+     */
+    private final Long seed;
+
+    /**
+     * @return the options with every default
+     */
+    public static CommunityOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return the number of threads detecting communities; the number of available processors by default
+     */
+    public int getParallelism() {
+        return parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * @return the resolution of modularity; 1 by default
+     */
+    public double getResolution() {
+        return resolution == null ? 1.0 : resolution;
+    }
+
+    /**
+     * @return the greatest number of passes over the vertices at each level
+     */
+    public int getMaxIterations() {
+        return maxIterations == null ? DEFAULT_MAX_ITERATIONS : maxIterations;
+    }
+
+    /**
+     * @return the least gain for which another pass is made
+     */
+    public double getTolerance() {
+        return tolerance == null ? DEFAULT_TOLERANCE : tolerance;
+    }
+
+    /**
+     * @return the seed of the randomness of label propagation; 0 by default
+     */
+    public long getSeed() {
+        return seed == null ? 0L : seed;
+    }
+}
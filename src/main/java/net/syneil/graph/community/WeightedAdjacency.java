@@ -0,0 +1,228 @@
+package net.syneil.graph.community;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+
+/**
+ * The symmetric weighted adjacency matrix of a graph in compressed sparse row form, with edge directions ignored and
+ * the weights of parallel edges summed. A self-loop of weight w is held as an entry of 2w on the diagonal, so that the
+ * strength of every vertex (the sum of its row) counts it twice, as its degree would.
+ */
+final class WeightedAdjacency {
+    /**
+     * The first position of each vertex's row, plus the end of the last row
+     */
+    final int[] offsets;
+
+    /**
+     * The column of the entry at each position, distinct within each row
+     */
+    final int[] neighbours;
+
+    /**
+     * The entry at each position
+     */
+    final double[] weights;
+
+    /**
+     * The sum of each row
+     */
+    final double[] strengths;
+
+    /**
+     * The sum of every entry, which is twice the total weight of the edges
+     */
+    final double total;
+
+    WeightedAdjacency(int[] offsets, int[] neighbours, double[] weights) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.weights = weights;
+        int n = offsets.length - 1;
+        this.strengths = new double[n];
+        double sum = 0.0;
+        for (int v = 0; v < n; v++) {
+            for (int p = offsets[v]; p < offsets[v + 1]; p++) {
+                strengths[v] += weights[p];
+            }
+            sum += strengths[v];
+        }
+        this.total = sum;
+    }
+
+    static <V, E extends Edge<V>> WeightedAdjacency of(CompactGraph<V, E> graph, ToDoubleFunction<? super E> weight) {
+        int n = graph.index().size();
+        boolean directed = graph.getProperties().getOrientation().orElse(DIRECTED) == DIRECTED;
+        int[] counts = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                counts[v + 1]++;
+                int w = graph.target(p);
+                if (directed && w != v) {
+                    counts[w + 1]++;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            counts[v + 1] += counts[v];
+        }
+        int[] next = Arrays.copyOf(counts, n), columns = new int[counts[n]];
+        double[] entries = new double[counts[n]];
+        for (int v = 0; v < n; v++) {
+            for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                int w = graph.target(p);
+                double x = weight.applyAsDouble(graph.edge(p));
+                if (!(x >= 0.0) || Double.isInfinite(x)) {
+                    throw new IllegalArgumentException("Invalid weight " + x + " of " + graph.edge(p));
+                }
+                columns[next[v]] = w;
+                entries[next[v]++] = w == v ? 2 * x : x;
+                if (directed && w != v) {
+                    columns[next[w]] = v;
+                    entries[next[w]++] = x;
+                }
+            }
+        }
+        return merged(counts, columns, entries);
+    }
+
+    /**
+     * Sums the entries of each row with equal columns, compacting the rows towards the front.
+     */
+    private static WeightedAdjacency merged(int[] counts, int[] columns, double[] entries) {
+        int n = counts.length - 1;
+        int[] offsets = new int[n + 1], slot = new int[n];
+        Arrays.fill(slot, -1);
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            int rowStart = size;
+            for (int p = counts[v]; p < counts[v + 1]; p++) {
+                int w = columns[p];
+                if (slot[w] < rowStart) {
+                    slot[w] = size;
+                    columns[size] = w;
+                    entries[size++] = entries[p];
+                } else {
+                    entries[slot[w]] += entries[p];
+                }
+            }
+            offsets[v + 1] = size;
+        }
+        return new WeightedAdjacency(offsets, Arrays.copyOf(columns, size), Arrays.copyOf(entries, size));
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Computes the modularity of a partition of the vertices:
+     * {@code Q = Σ_c (in_c / 2m - γ (tot_c / 2m)²)}, where {@code in_c} is the sum of the entries within community c
+     * and {@code tot_c} the sum of its vertices' strengths.
+     *
+     * @param membership the community of each vertex, in {@code [0, count)}
+     * @param count the number of communities
+     * @param resolution the resolution γ
+     *
+     * @return the modularity, or 0 if there are no edges
+     */
+    double modularity(int[] membership, int count, double resolution) {
+        if (total == 0.0) {
+            return 0.0;
+        }
+        double inside = IntStream.range(0, size()).parallel().mapToDouble(v -> {
+            double sum = 0.0;
+            for (int p = offsets[v]; p < offsets[v + 1]; p++) {
+                if (membership[neighbours[p]] == membership[v]) {
+                    sum += weights[p];
+                }
+            }
+            return sum;
+        }).sum();
+        double[] totals = new double[count];
+        for (int v = 0; v < size(); v++) {
+            totals[membership[v]] += strengths[v];
+        }
+        double expected = 0.0;
+        for (double t : totals) {
+            expected += t * t;
+        }
+        return inside / total - resolution * expected / (total * total);
+    }
+
+    /**
+     * Aggregates the vertices of each community into one vertex, whose entry with another is the sum of the entries
+     * between their members, and whose diagonal entry is the sum of the entries within it.
+     *
+     * @param membership the community of each vertex, in {@code [0, count)}
+     * @param count the number of communities
+     *
+     * @return the adjacency of the communities
+     */
+    WeightedAdjacency aggregate(int[] membership, int count) {
+        int n = size();
+        int[] starts = new int[count + 1], members = new int[n];
+        for (int v = 0; v < n; v++) {
+            starts[membership[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            starts[c + 1] += starts[c];
+        }
+        int[] next = Arrays.copyOf(starts, count);
+        for (int v = 0; v < n; v++) {
+            members[next[membership[v]]++] = v;
+        }
+        int[] counts = new int[count + 1];
+        int[][] rowColumns = new int[count][];
+        double[][] rowEntries = new double[count][];
+        ThreadLocal<double[]> sums = ThreadLocal.withInitial(() -> new double[count]);
+        ThreadLocal<int[]> stamps = ThreadLocal.withInitial(() -> new int[count]);
+        IntStream.range(0, count).parallel().forEach(c -> {
+            double[] sum = sums.get();
+            int[] stamp = stamps.get();
+            int[] touched = new int[16];
+            int size = 0;
+            for (int i = starts[c]; i < starts[c + 1]; i++) {
+                int v = members[i];
+                for (int p = offsets[v]; p < offsets[v + 1]; p++) {
+                    int d = membership[neighbours[p]];
+                    if (stamp[d] != c + 1) {
+                        stamp[d] = c + 1;
+                        sum[d] = 0.0;
+                        if (size == touched.length) {
+                            touched = Arrays.copyOf(touched, size * 2);
+                        }
+                        touched[size++] = d;
+                    }
+                    sum[d] += weights[p];
+                }
+            }
+            int[] columns = Arrays.copyOf(touched, size);
+            double[] entries = new double[size];
+            for (int j = 0; j < size; j++) {
+                entries[j] = sum[columns[j]];
+            }
+            rowColumns[c] = columns;
+            rowEntries[c] = entries;
+        });
+        for (int c = 0; c < count; c++) {
+            counts[c + 1] = counts[c] + rowColumns[c].length;
+        }
+        int[] columns = new int[counts[count]];
+        double[] entries = new double[counts[count]];
+        for (int c = 0; c < count; c++) {
+            System.arraycopy(rowColumns[c], 0, columns, counts[c], rowColumns[c].length);
+            System.arraycopy(rowEntries[c], 0, entries, counts[c], rowEntries[c].length);
+        }
+        return new WeightedAdjacency(counts, columns, entries);
+    }
+}
@@ -0,0 +1,619 @@
+package net.syneil.graph.compact;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.GraphProperties.Cyclicity;
+import net.syneil.graph.GraphProperties.Looping;
+import net.syneil.graph.GraphProperties.Multiplicity;
+import net.syneil.graph.GraphProperties.Orientation;
+import net.syneil.graph.edge.UnlabelledEdge;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Looping.PERMITTED;
+import static net.syneil.graph.GraphProperties.Multiplicity.MULTIPLE;
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * An immutable graph in compressed sparse row form. Each vertex is identified by an index in {@code [0, n)}, and the
+ * targets of the edges from every vertex are held in a single {@code int} array, sorted within each vertex's range of
+ * positions. Adjacency tests are binary searches, and neighbours can be scanned as contiguous primitive ranges, which
+ * makes this the representation of choice for algorithms that traverse a graph many times.
+ * <p>
+ * In {@link Orientation#UNDIRECTED undirected} graphs every edge is held at a position in the range of both of its
+ * vertices (self-loops only once), but is only {@link #edges() streamed} once.
+ * <p>
+ * Edge instances may be retained, in which case the query methods return them; otherwise edges are created on demand
+ * by an edge factory. The primitive accessors ({@link #offset}, {@link #target}, {@link #edge(int)}) are intended for
+ * algorithms:
+ * <pre>
+ *     for (int p = graph.offset(v); p &lt; graph.offset(v + 1); p++) {
+ *         int w = graph.target(p);
+ *     }
+ * </pre>
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class CompactGraph<V, E extends Edge<V>> implements Graph<V, E> {
+    /**
+     * The properties of this graph
+     */
+    private final GraphProperties properties;
+
+    /**
+     * Whether every edge is held in the ranges of both of its vertices
+     */
+    private final boolean undirected;
+
+    /**
+     * The mapping between vertices and their indices
+     */
+    private final VertexIndex<V> index;
+
+    /**
+     * The first position of the range of each vertex, plus the end of the last range
+     */
+    private final int[] offsets;
+
+    /**
+     * The index of the target of the edge at each position
+     */
+    private final int[] targets;
+
+    /**
+     * The edge at each position, or null where edges are created on demand
+     */
+    private final Object[] edges;
+
+    /**
+     * Creates edges that were not retained
+     */
+    private final BiFunction<? super V, ? super V, ? extends E> edgeFactory;
+
+    /**
+     * The number of edges in this graph
+     */
+    private final long edgeCount;
+
+    private CompactGraph(GraphProperties properties,
+                         VertexIndex<V> index,
+                         int[] offsets,
+                         int[] targets,
+                         Object[] edges,
+                         BiFunction<? super V, ? super V, ? extends E> edgeFactory,
+                         long edgeCount) {
+        this.properties = properties;
+        this.undirected = properties.getOrientation().orElse(DIRECTED) == UNDIRECTED;
+        this.index = index;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.edges = edges;
+        this.edgeFactory = edgeFactory;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Creates a compact copy of a graph, retaining its edge instances and all of its properties, including any declared
+     * cyclicity. Vertices are indexed in the order in which the graph streams them. If the graph is already compact, it
+     * is returned as it is.
+     *
+     * @param graph the graph to copy
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return a compact graph with the same vertices and edges
+     */
+    @SuppressWarnings("unchecked")
+    public static <V, E extends Edge<V>> CompactGraph<V, E> copyOf(Graph<V, ? extends E> graph) {
+        Objects.requireNonNull(graph);
+        if (graph instanceof CompactGraph) {
+            return (CompactGraph<V, E>) graph;
+        }
+        VertexIndex<V> index = VertexIndex.of(graph.vertices().collect(Collectors.toList()));
+        GraphProperties properties = graph.getProperties();
+        Builder<V, E> builder = new Builder<>(index,
+                                              properties.getOrientation().orElse(DIRECTED),
+                                              properties.getMultiplicity().orElse(MULTIPLE),
+                                              properties.getLooping().orElse(PERMITTED),
+                                              properties.getCyclicity().orElse(null),
+                                              (source, target) -> {
+                                                  throw new IllegalStateException("All edges are retained");
+                                              });
+        graph.edges().forEach(edge -> builder.edge(index.indexOf(edge.getSource()), index.indexOf(edge.getTarget()),
+                                                   edge));
+        return builder.build();
+    }
+
+    /**
+     * Creates a compact copy of a graph, as by {@link #copyOf(Graph)}, with its vertices renumbered by an ordering.
+     *
+     * @param graph the graph to copy
+     * @param ordering the numbering of the vertices
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return a compact graph with the same vertices and edges, indexed in the ordering's order
+     */
+    public static <V, E extends Edge<V>> CompactGraph<V, E> copyOf(Graph<V, ? extends E> graph,
+                                                                  VertexOrdering ordering) {
+        Objects.requireNonNull(ordering);
+        CompactGraph<V, E> compact = copyOf(graph);
+        return compact.permute(ordering.order(compact));
+    }
+
+    /**
+     * Creates a builder of compact graphs whose edges are {@link UnlabelledEdge}s created on demand, unless edge
+     * instances are given to the builder.
+     *
+     * @param index the vertices of the graph
+     * @param orientation the orientation of the graph
+     * @param <V> the type used for vertices
+     *
+     * @return the builder
+     */
+    public static <V> Builder<V, Edge<V>> builder(VertexIndex<V> index, Orientation orientation) {
+        return new Builder<>(index, orientation, MULTIPLE, PERMITTED, null, UnlabelledEdge::new);
+    }
+
+    /**
+     * Creates a builder of compact graphs.
+     *
+     * @param index the vertices of the graph
+     * @param orientation the orientation of the graph
+     * @param edgeFactory creates the edges for which no instance is given to the builder
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the builder
+     */
+    public static <V, E extends Edge<V>> Builder<V, E> builder(VertexIndex<V> index,
+                                                              Orientation orientation,
+                                                              BiFunction<? super V, ? super V, ? extends E>
+                                                                      edgeFactory) {
+        return new Builder<>(index, orientation, MULTIPLE, PERMITTED, null, edgeFactory);
+    }
+
+    // ---- primitive accessors
+
+    /**
+     * @return the mapping between the vertices of this graph and their indices
+     */
+    public VertexIndex<V> index() {
+        return index;
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the index of the vertex, or -1 if it is not in this graph
+     */
+    public int indexOf(V vertex) {
+        return index.indexOf(vertex);
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the vertex
+     */
+    public V vertexAt(int vertex) {
+        return index.vertexAt(vertex);
+    }
+
+    /**
+     * Gives the first position of a vertex's range; the range ends at the first position of the next vertex. The
+     * offset of the index one past the last vertex is the total number of positions.
+     *
+     * @param vertex the index of a vertex, or the number of vertices
+     *
+     * @return the first position of the vertex's range
+     */
+    public int offset(int vertex) {
+        return offsets[vertex];
+    }
+
+    /**
+     * @param position a position
+     *
+     * @return the index of the target of the edge at the position
+     */
+    public int target(int position) {
+        return targets[position];
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the number of positions in the vertex's range; that is, its out-degree counting multiple edges
+     */
+    public int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the indices of the targets in the vertex's range, in ascending order and including any repeats
+     */
+    public IntStream targets(int vertex) {
+        return Arrays.stream(targets, offsets[vertex], offsets[vertex + 1]);
+    }
+
+    /**
+     * @param position a position
+     *
+     * @return the edge at the position
+     */
+    public E edge(int position) {
+        int source = Arrays.binarySearch(offsets, position);
+        if (source < 0) {
+            source = -source - 2;
+        } else {
+            // skip the ranges of vertices without edges, which share their offset with the next vertex
+            while (offsets[source + 1] == position) {
+                source++;
+            }
+        }
+        return edge(source, position);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E edge(int source, int position) {
+        Object edge = edges == null ? null : edges[position];
+        if (edge != null) {
+            return (E) edge;
+        }
+        return edgeFactory.apply(index.vertexAt(source), index.vertexAt(targets[position]));
+    }
+
+    /**
+     * @param source the index of the source vertex
+     * @param target the index of the target vertex
+     *
+     * @return true if there is an edge from the source to the target
+     */
+    public boolean hasEdge(int source, int target) {
+        return Arrays.binarySearch(targets, offsets[source], offsets[source + 1], target) >= 0;
+    }
+
+    /**
+     * @return the number of positions, which is the number of edges counted once from each vertex they connect
+     */
+    public int size() {
+        return targets.length;
+    }
+
+    /**
+     * Renumbers the vertices of this graph. The copy has the same vertices and edges, and retains the same edge
+     * instances; only the indices, and so the layout in memory, differ.
+     *
+     * @param permutation the new index of each vertex
+     *
+     * @return the renumbered graph
+     *
+     * @throws IllegalArgumentException if the permutation is not of the number of vertices in this graph
+     */
+    public CompactGraph<V, E> permute(Permutation permutation) {
+        Objects.requireNonNull(permutation);
+        int n = index.size(), positions = targets.length;
+        if (permutation.size() != n) {
+            throw new IllegalArgumentException("Cannot permute " + n + " vertices by a permutation of "
+                                                       + permutation.size());
+        }
+        int[] from = new int[positions], to = new int[positions];
+        for (int v = 0; v < n; v++) {
+            for (int p = offsets[v]; p < offsets[v + 1]; p++) {
+                from[p] = permutation.newIndex(v);
+                to[p] = permutation.newIndex(targets[p]);
+            }
+        }
+
+        // as in the builder, sort stably by new target and then by new source
+        int[] byTarget = Builder.countingSort(to, IntStream.range(0, positions).toArray(), n);
+        int[] order = Builder.countingSort(from, byTarget, n);
+
+        int[] newOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            newOffsets[permutation.newIndex(v) + 1] = offsets[v + 1] - offsets[v];
+        }
+        for (int v = 0; v < n; v++) {
+            newOffsets[v + 1] += newOffsets[v];
+        }
+        int[] newTargets = new int[positions];
+        Object[] newEdges = edges == null ? null : new Object[positions];
+        for (int p = 0; p < positions; p++) {
+            newTargets[p] = to[order[p]];
+            if (newEdges != null) {
+                newEdges[p] = edges[order[p]];
+            }
+        }
+        return new CompactGraph<>(properties, permutation.apply(index), newOffsets, newTargets, newEdges, edgeFactory,
+                                  edgeCount);
+    }
+
+    // ---- Graph
+
+    @Override
+    public long numberOfVertices() {
+        return index.size();
+    }
+
+    @Override
+    public long numberOfEdges() {
+        return edgeCount;
+    }
+
+    @Override
+    public Stream<? extends V> vertices() {
+        return index.vertices();
+    }
+
+    @Override
+    public Stream<? extends E> edges() {
+        return IntStream.range(0, index.size())
+                        .boxed()
+                        .flatMap(source -> IntStream.range(offsets[source], offsets[source + 1])
+                                                    .filter(p -> !undirected || targets[p] >= source)
+                                                    .mapToObj(p -> edge(source, p)));
+    }
+
+    @Override
+    public boolean hasVertex(V vertex) {
+        Objects.requireNonNull(vertex);
+        return index.indexOf(vertex) >= 0;
+    }
+
+    @Override
+    public boolean hasEdge(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        int from = index.indexOf(source), to = index.indexOf(target);
+        return from >= 0 && to >= 0 && hasEdge(from, to);
+    }
+
+    /**
+     * Returns an unmodifiable view of the neighbours of a vertex, whose membership test is a binary search.
+     *
+     * @param v the vertex whose neighbours are to be found
+     *
+     * @return the neighbours of the vertex, or the empty set if it is not in this graph
+     */
+    @Override
+    public Set<? extends V> neighbours(V v) {
+        Objects.requireNonNull(v);
+        int source = index.indexOf(v);
+        if (source < 0) {
+            return Collections.emptySet();
+        }
+        return new AbstractSet<V>() {
+            @Override
+            public int size() {
+                return (int) distinctTargets(source).count();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                int target = index.indexOf(o);
+                return target >= 0 && hasEdge(source, target);
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return distinctTargets(source).mapToObj(index::vertexAt).iterator();
+            }
+        };
+    }
+
+    private IntStream distinctTargets(int source) {
+        int from = offsets[source];
+        return IntStream.range(from, offsets[source + 1])
+                        .filter(p -> p == from || targets[p] != targets[p - 1])
+                        .map(p -> targets[p]);
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        int from = index.indexOf(source), to = index.indexOf(target);
+        if (from < 0 || to < 0) {
+            return List.of();
+        }
+        int p = Arrays.binarySearch(targets, offsets[from], offsets[from + 1], to);
+        if (p < 0) {
+            return List.of();
+        }
+        int first = p, last = p;
+        while (first > offsets[from] && targets[first - 1] == to) {
+            first--;
+        }
+        while (last + 1 < offsets[from + 1] && targets[last + 1] == to) {
+            last++;
+        }
+        return IntStream.rangeClosed(first, last).mapToObj(position -> edge(from, position))
+                        .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source) {
+        Objects.requireNonNull(source);
+        int from = index.indexOf(source);
+        if (from < 0) {
+            return List.of();
+        }
+        return IntStream.range(offsets[from], offsets[from + 1]).mapToObj(p -> edge(from, p))
+                        .collect(Collectors.toList());
+    }
+
+    @Override
+    public GraphProperties getProperties() {
+        return properties;
+    }
+
+    /**
+     * Accumulates the edges of a {@link CompactGraph}, given as vertex indices, and sorts them into compressed sparse
+     * row form on {@link #build()}. Sorting is by two stable counting sorts, so takes time linear in the number of
+     * vertices and edges.
+     *
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     */
+    public static final class Builder<V, E extends Edge<V>> {
+        private final VertexIndex<V> index;
+        private final Orientation orientation;
+        private final Multiplicity multiplicity;
+        private final Looping looping;
+        private final Cyclicity cyclicity;
+        private final BiFunction<? super V, ? super V, ? extends E> edgeFactory;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private Object[] edges;
+        private int size;
+
+        private Builder(VertexIndex<V> index,
+                        Orientation orientation,
+                        Multiplicity multiplicity,
+                        Looping looping,
+                        Cyclicity cyclicity,
+                        BiFunction<? super V, ? super V, ? extends E> edgeFactory) {
+            this.index = Objects.requireNonNull(index);
+            this.orientation = Objects.requireNonNull(orientation);
+            this.multiplicity = Objects.requireNonNull(multiplicity);
+            this.looping = Objects.requireNonNull(looping);
+            this.cyclicity = cyclicity;
+            this.edgeFactory = Objects.requireNonNull(edgeFactory);
+        }
+
+        /**
+         * Adds an edge to be created on demand.
+         *
+         * @param source the index of the source vertex
+         * @param target the index of the target vertex
+         *
+         * @return this builder
+         */
+        public Builder<V, E> edge(int source, int target) {
+            return edge(source, target, null);
+        }
+
+        /**
+         * Adds an edge.
+         *
+         * @param source the index of the source vertex
+         * @param target the index of the target vertex
+         * @param edge the edge instance to retain, or null if it should be created on demand
+         *
+         * @return this builder
+         */
+        public Builder<V, E> edge(int source, int target, E edge) {
+            if (source < 0 || source >= index.size() || target < 0 || target >= index.size()) {
+                throw new IndexOutOfBoundsException("Edge " + source + "->" + target + " is not between vertices in "
+                                                            + "[0, " + index.size() + ")");
+            }
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+                if (edges != null) {
+                    edges = Arrays.copyOf(edges, size * 2);
+                }
+            }
+            if (edge != null && edges == null) {
+                edges = new Object[sources.length];
+            }
+            sources[size] = source;
+            targets[size] = target;
+            if (edges != null) {
+                edges[size] = edge;
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * @return the compact graph of the vertices and edges given
+         */
+        public CompactGraph<V, E> build() {
+            boolean undirected = orientation == UNDIRECTED;
+            int n = index.size();
+
+            // expand undirected edges into a position at each end
+            int positions = size;
+            if (undirected) {
+                for (int i = 0; i < size; i++) {
+                    if (sources[i] != targets[i]) {
+                        positions++;
+                    }
+                }
+            }
+            int[] from = new int[positions], to = new int[positions], edgeIds = new int[positions];
+            for (int i = 0, p = 0; i < size; i++) {
+                from[p] = sources[i];
+                to[p] = targets[i];
+                edgeIds[p++] = i;
+                if (undirected && sources[i] != targets[i]) {
+                    from[p] = targets[i];
+                    to[p] = sources[i];
+                    edgeIds[p++] = i;
+                }
+            }
+
+            // stable counting sort by target, then by source, leaves each source's targets in order
+            int[] byTarget = countingSort(to, IntStream.range(0, positions).toArray(), n);
+            int[] order = countingSort(from, byTarget, n);
+
+            int[] offsets = new int[n + 1];
+            for (int p = 0; p < positions; p++) {
+                offsets[from[p] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] sortedTargets = new int[positions];
+            Object[] sortedEdges = edges == null ? null : new Object[positions];
+            for (int p = 0; p < positions; p++) {
+                sortedTargets[p] = to[order[p]];
+                if (sortedEdges != null) {
+                    sortedEdges[p] = edges[edgeIds[order[p]]];
+                }
+            }
+            var properties = GraphProperties.builder()
+                                            .orientation(orientation)
+                                            .multiplicity(multiplicity)
+                                            .looping(looping)
+                                            .cyclicity(cyclicity)
+                                            .build();
+            return new CompactGraph<>(properties, index, offsets, sortedTargets, sortedEdges, edgeFactory, size);
+        }
+
+        /**
+         * Stably sorts a sequence of positions by a key of each position.
+         *
+         * @param keys the key of each position, in {@code [0, n)}
+         * @param sequence the positions to sort
+         * @param n the number of distinct keys
+         *
+         * @return the positions sorted by key
+         */
+        private static int[] countingSort(int[] keys, int[] sequence, int n) {
+            int[] starts = new int[n + 1];
+            for (int key : keys) {
+                starts[key + 1]++;
+            }
+            for (int k = 0; k < n; k++) {
+                starts[k + 1] += starts[k];
+            }
+            int[] sorted = new int[sequence.length];
+            for (int position : sequence) {
+                sorted[starts[keys[position]]++] = position;
+            }
+            return sorted;
+        }
+    }
+}
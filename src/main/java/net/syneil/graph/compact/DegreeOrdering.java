@@ -0,0 +1,15 @@
+package net.syneil.graph.compact;
+
+/**
+ * Orders vertices by decreasing degree.
+ *
+ * @see VertexOrdering#degreeDescending()
+ */
+final class DegreeOrdering {
+    private DegreeOrdering() {
+    }
+
+    static Permutation order(CompactGraph<?, ?> graph) {
+        return Permutation.of(Neighbourhoods.of(graph).byDegree(true));
+    }
+}
@@ -0,0 +1,34 @@
+package net.syneil.graph.compact;
+
+/**
+ * An index of the integers {@code [0, size)}, each of which is its own index
+ */
+final class IdentityVertexIndex implements VertexIndex<Integer> {
+    private final int size;
+
+    IdentityVertexIndex(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative size: " + size);
+        }
+        this.size = size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int indexOf(Object vertex) {
+        if (vertex instanceof Integer) {
+            int value = (Integer) vertex;
+            return value >= 0 && value < size ? value : -1;
+        }
+        return -1;
+    }
+
+    @Override
+    public Integer vertexAt(int index) {
+        return index;
+    }
+}
@@ -0,0 +1,48 @@
+package net.syneil.graph.compact;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * An index backed by an array of vertices and a hash map of their positions
+ *
+ * @param <V> the type used for vertices
+ */
+final class MapVertexIndex<V> implements VertexIndex<V> {
+    private final Object[] vertices;
+    private final Map<Object, Integer> indices;
+
+    MapVertexIndex(Object[] vertices) {
+        this.vertices = vertices;
+        this.indices = new HashMap<>(vertices.length * 4 / 3 + 1);
+        for (int i = 0; i < vertices.length; i++) {
+            if (indices.put(vertices[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate vertex: " + vertices[i]);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return vertices.length;
+    }
+
+    @Override
+    public int indexOf(Object vertex) {
+        return indices.getOrDefault(vertex, -1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V vertexAt(int index) {
+        return (V) vertices[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<V> vertices() {
+        return Arrays.stream(vertices).map(vertex -> (V) vertex);
+    }
+}
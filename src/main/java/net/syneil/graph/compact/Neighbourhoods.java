@@ -0,0 +1,103 @@
+package net.syneil.graph.compact;
+
+import java.util.Arrays;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+
+/**
+ * The neighbourhoods of the vertices of a compact graph with edge directions ignored, in compressed sparse row form.
+ * A neighbour joined by several edges appears several times; self-loops are dropped.
+ */
+final class Neighbourhoods {
+    /**
+     * The first position of each vertex's neighbours, plus the end of the last vertex's
+     */
+    final int[] offsets;
+
+    /**
+     * The neighbour at each position
+     */
+    final int[] neighbours;
+
+    private Neighbourhoods(int[] offsets, int[] neighbours) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    static Neighbourhoods of(CompactGraph<?, ?> graph) {
+        int n = graph.index().size();
+        boolean directed = graph.getProperties().getOrientation().orElse(DIRECTED) == DIRECTED;
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                int w = graph.target(p);
+                if (w != v) {
+                    offsets[v + 1]++;
+                    if (directed) {
+                        offsets[w + 1]++;
+                    }
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, n), neighbours = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                int w = graph.target(p);
+                if (w != v) {
+                    neighbours[next[v]++] = w;
+                    if (directed) {
+                        neighbours[next[w]++] = v;
+                    }
+                }
+            }
+        }
+        return new Neighbourhoods(offsets, neighbours);
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the number of neighbours of a vertex, counting repeats
+     */
+    int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * Sorts vertices by degree, stably, by counting sort.
+     *
+     * @param descending true to put the highest degrees first
+     *
+     * @return the vertices in order of degree
+     */
+    int[] byDegree(boolean descending) {
+        int n = size(), maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            maxDegree = Math.max(maxDegree, degree(v));
+        }
+        int[] starts = new int[maxDegree + 2];
+        for (int v = 0; v < n; v++) {
+            starts[key(v, maxDegree, descending) + 1]++;
+        }
+        for (int k = 0; k <= maxDegree; k++) {
+            starts[k + 1] += starts[k];
+        }
+        int[] sorted = new int[n];
+        for (int v = 0; v < n; v++) {
+            sorted[starts[key(v, maxDegree, descending)]++] = v;
+        }
+        return sorted;
+    }
+
+    private int key(int vertex, int maxDegree, boolean descending) {
+        return descending ? maxDegree - degree(vertex) : degree(vertex);
+    }
+}
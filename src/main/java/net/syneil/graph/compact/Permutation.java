@@ -0,0 +1,118 @@
+package net.syneil.graph.compact;
+
+import java.util.Arrays;
+
+/**
+ * A renumbering of the vertex indices {@code [0, size)}: each vertex's old index is mapped to a new one. Permutations
+ * are produced by {@link VertexOrdering vertex orderings} and applied to {@link CompactGraph#permute compact graphs}.
+ */
+public final class Permutation {
+    /**
+     * The old index of the vertex at each new index
+     */
+    private final int[] newToOld;
+
+    /**
+     * The new index of the vertex at each old index
+     */
+    private final int[] oldToNew;
+
+    private Permutation(int[] newToOld, int[] oldToNew) {
+        this.newToOld = newToOld;
+        this.oldToNew = oldToNew;
+    }
+
+    /**
+     * Creates a permutation from an ordering of the old indices.
+     *
+     * @param order the old indices, in their new order; that is, {@code order[i]} is given the new index {@code i}
+     *
+     * @return the permutation
+     *
+     * @throws IllegalArgumentException if the order does not hold every index in {@code [0, order.length)} once
+     */
+    public static Permutation of(int... order) {
+        int[] newToOld = order.clone(), oldToNew = new int[order.length];
+        Arrays.fill(oldToNew, -1);
+        for (int i = 0; i < newToOld.length; i++) {
+            int old = newToOld[i];
+            if (old < 0 || old >= newToOld.length || oldToNew[old] >= 0) {
+                throw new IllegalArgumentException("Not a permutation of [0, " + order.length + "): " + old);
+            }
+            oldToNew[old] = i;
+        }
+        return new Permutation(newToOld, oldToNew);
+    }
+
+    /**
+     * @param size the number of indices
+     *
+     * @return the permutation leaving every index as it is
+     */
+    public static Permutation identity(int size) {
+        int[] indices = new int[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = i;
+        }
+        return new Permutation(indices, indices.clone());
+    }
+
+    /**
+     * @return the number of indices permuted
+     */
+    public int size() {
+        return newToOld.length;
+    }
+
+    /**
+     * @param oldIndex an index before the permutation
+     *
+     * @return the index after it
+     */
+    public int newIndex(int oldIndex) {
+        return oldToNew[oldIndex];
+    }
+
+    /**
+     * @param newIndex an index after the permutation
+     *
+     * @return the index before it
+     */
+    public int oldIndex(int newIndex) {
+        return newToOld[newIndex];
+    }
+
+    /**
+     * @return the permutation undoing this one
+     */
+    public Permutation inverse() {
+        return new Permutation(oldToNew, newToOld);
+    }
+
+    /**
+     * @return the old indices, in their new order
+     */
+    public int[] toArray() {
+        return newToOld.clone();
+    }
+
+    /**
+     * Renumbers the vertices of an index.
+     *
+     * @param index an index of the permuted size
+     * @param <V> the type used for vertices
+     *
+     * @return an index in which each vertex has its new index
+     */
+    public <V> VertexIndex<V> apply(VertexIndex<V> index) {
+        if (index.size() != size()) {
+            throw new IllegalArgumentException("Index of " + index.size() + " vertices cannot be permuted by a "
+                                                       + "permutation of " + size());
+        }
+        Object[] vertices = new Object[size()];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = index.vertexAt(newToOld[i]);
+        }
+        return new MapVertexIndex<>(vertices);
+    }
+}
@@ -0,0 +1,170 @@
+package net.syneil.graph.compact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders vertices by the Rabbit ordering: incremental aggregation of vertices into communities by modularity, then a
+ * depth-first numbering of the resulting dendrogram.
+ *
+ * @see VertexOrdering#rabbit()
+ */
+final class RabbitOrdering {
+    /**
+     * The neighbourhoods of the vertices
+     */
+    private final Neighbourhoods neighbourhoods;
+
+    /**
+     * The community each vertex was merged into, or the vertex itself if it has not been merged
+     */
+    private final int[] parent;
+
+    /**
+     * The total degree of the community represented by each vertex
+     */
+    private final long[] strength;
+
+    /**
+     * The weights of the edges from the community represented by each vertex to other communities, created when first
+     * needed; keys may name communities that have since been merged into others
+     */
+    private final List<Map<Integer, Long>> adjacency;
+
+    /**
+     * The first and last vertex merged into each vertex, and the next vertex merged into the same one, or -1
+     */
+    private final int[] firstChild, lastChild, nextSibling;
+
+    private RabbitOrdering(Neighbourhoods neighbourhoods) {
+        int n = neighbourhoods.size();
+        this.neighbourhoods = neighbourhoods;
+        this.parent = new int[n];
+        this.strength = new long[n];
+        this.adjacency = new ArrayList<>(Collections.nCopies(n, null));
+        this.firstChild = new int[n];
+        this.lastChild = new int[n];
+        this.nextSibling = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            strength[v] = neighbourhoods.degree(v);
+        }
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(lastChild, -1);
+        Arrays.fill(nextSibling, -1);
+    }
+
+    static Permutation order(CompactGraph<?, ?> graph) {
+        var rabbit = new RabbitOrdering(Neighbourhoods.of(graph));
+        for (int u : rabbit.neighbourhoods.byDegree(false)) {
+            rabbit.aggregate(u);
+        }
+        return Permutation.of(rabbit.dendrogramOrder());
+    }
+
+    /**
+     * Merges a vertex's community into the neighbouring community that most increases modularity, if any does.
+     */
+    private void aggregate(int u) {
+        // twice the number of edges
+        double volume = neighbourhoods.neighbours.length;
+        if (volume == 0) {
+            return;
+        }
+        Map<Integer, Long> weights = resolve(u);
+        int best = -1;
+        double bestGain = 0;
+        for (Map.Entry<Integer, Long> entry : weights.entrySet()) {
+            int v = entry.getKey();
+            double gain = entry.getValue() - strength[u] * (double) strength[v] / volume;
+            if (gain > bestGain || (gain == bestGain && best >= 0 && v < best)) {
+                best = v;
+                bestGain = gain;
+            }
+        }
+        if (best < 0) {
+            return;
+        }
+        parent[u] = best;
+        strength[best] += strength[u];
+        Map<Integer, Long> target = resolve(best);
+        weights.forEach((v, weight) -> target.merge(v, weight, Long::sum));
+        target.remove(best);
+        target.remove(u);
+        adjacency.set(u, null);
+        if (lastChild[best] < 0) {
+            firstChild[best] = u;
+        } else {
+            nextSibling[lastChild[best]] = u;
+        }
+        lastChild[best] = u;
+    }
+
+    /**
+     * Rewrites the adjacency of a community in terms of the current communities, dropping its internal edges.
+     */
+    private Map<Integer, Long> resolve(int community) {
+        Map<Integer, Long> resolved = new HashMap<>();
+        if (adjacency.get(community) == null) {
+            int[] offsets = neighbourhoods.offsets, neighbours = neighbourhoods.neighbours;
+            for (int p = offsets[community]; p < offsets[community + 1]; p++) {
+                resolved.merge(find(neighbours[p]), 1L, Long::sum);
+            }
+        } else {
+            adjacency.get(community).forEach((v, weight) -> resolved.merge(find(v), weight, Long::sum));
+        }
+        resolved.remove(community);
+        adjacency.set(community, resolved);
+        return resolved;
+    }
+
+    private int find(int v) {
+        int root = v;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[v] != root) {
+            int next = parent[v];
+            parent[v] = root;
+            v = next;
+        }
+        return root;
+    }
+
+    /**
+     * Numbers the vertices by a pre-order traversal of the dendrogram, visiting the vertices merged into each vertex in
+     * the order they were merged, so that every community is numbered contiguously.
+     */
+    private int[] dendrogramOrder() {
+        int n = parent.length;
+        int[] order = new int[n], stack = new int[n];
+        int filled = 0;
+        for (int root = 0; root < n; root++) {
+            if (parent[root] != root) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0) {
+                int v = stack[--top];
+                order[filled++] = v;
+                // push the children in reverse so that they are popped in merge order
+                int children = 0;
+                for (int c = firstChild[v]; c >= 0; c = nextSibling[c]) {
+                    stack[top + children++] = c;
+                }
+                for (int i = top, j = top + children - 1; i < j; i++, j--) {
+                    int swap = stack[i];
+                    stack[i] = stack[j];
+                    stack[j] = swap;
+                }
+                top += children;
+            }
+        }
+        return order;
+    }
+}
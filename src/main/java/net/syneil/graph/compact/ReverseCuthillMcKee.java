@@ -0,0 +1,159 @@
+package net.syneil.graph.compact;
+
+import java.util.Arrays;
+
+/**
+ * Orders vertices by the reverse Cuthill–McKee algorithm, starting each connected component from a pseudo-peripheral
+ * vertex found as by George and Liu.
+ *
+ * @see VertexOrdering#reverseCuthillMcKee()
+ */
+final class ReverseCuthillMcKee {
+    /**
+     * The neighbourhoods of the vertices
+     */
+    private final Neighbourhoods neighbourhoods;
+
+    /**
+     * The vertices in their new order, as far as it is known
+     */
+    private final int[] order;
+
+    /**
+     * Whether each vertex has been put in the order
+     */
+    private final boolean[] ordered;
+
+    /**
+     * The queue of breadth-first searches for peripheral vertices
+     */
+    private final int[] queue;
+
+    /**
+     * The depth of each vertex in the last search for peripheral vertices that reached it
+     */
+    private final int[] depth;
+
+    /**
+     * The search that last reached each vertex, so that searches need not be cleared
+     */
+    private final int[] reachedBy;
+
+    /**
+     * The number of searches for peripheral vertices so far
+     */
+    private int searches;
+
+    /**
+     * The number of vertices reached by the last search
+     */
+    private int reached;
+
+    private ReverseCuthillMcKee(Neighbourhoods neighbourhoods) {
+        int n = neighbourhoods.size();
+        this.neighbourhoods = neighbourhoods;
+        this.order = new int[n];
+        this.ordered = new boolean[n];
+        this.queue = new int[n];
+        this.depth = new int[n];
+        this.reachedBy = new int[n];
+    }
+
+    static Permutation order(CompactGraph<?, ?> graph) {
+        var rcm = new ReverseCuthillMcKee(Neighbourhoods.of(graph));
+        int filled = 0;
+        for (int start : rcm.neighbourhoods.byDegree(false)) {
+            if (!rcm.ordered[start]) {
+                filled = rcm.cuthillMcKee(rcm.peripheral(start), filled);
+            }
+        }
+        int[] order = rcm.order;
+        for (int i = 0, j = order.length - 1; i < j; i++, j--) {
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return Permutation.of(order);
+    }
+
+    /**
+     * Appends a connected component to the order, breadth-first from a root, visiting the neighbours of each vertex in
+     * increasing order of degree.
+     *
+     * @return the number of vertices ordered
+     */
+    private int cuthillMcKee(int root, int filled) {
+        int[] offsets = neighbourhoods.offsets, neighbours = neighbourhoods.neighbours;
+        long[] keys = new long[0];
+        order[filled++] = root;
+        ordered[root] = true;
+        for (int head = filled - 1; head < filled; head++) {
+            int u = order[head], found = 0;
+            for (int p = offsets[u]; p < offsets[u + 1]; p++) {
+                int w = neighbours[p];
+                if (!ordered[w]) {
+                    ordered[w] = true;
+                    if (found == keys.length) {
+                        keys = Arrays.copyOf(keys, Math.max(8, 2 * found));
+                    }
+                    keys[found++] = (long) neighbourhoods.degree(w) << 32 | w;
+                }
+            }
+            Arrays.sort(keys, 0, found);
+            for (int i = 0; i < found; i++) {
+                order[filled++] = (int) keys[i];
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * Finds a vertex of high eccentricity in the component of a vertex: repeatedly searches from the vertex of least
+     * degree in the deepest level of the last search, while that increases the depth.
+     */
+    private int peripheral(int start) {
+        int root = start, eccentricity = search(root);
+        while (true) {
+            int candidate = -1;
+            for (int i = 0; i < reached; i++) {
+                int v = queue[i];
+                if (depth[v] == eccentricity
+                        && (candidate < 0 || neighbourhoods.degree(v) < neighbourhoods.degree(candidate))) {
+                    candidate = v;
+                }
+            }
+            int next = search(candidate);
+            if (next <= eccentricity) {
+                return root;
+            }
+            root = candidate;
+            eccentricity = next;
+        }
+    }
+
+    /**
+     * Searches breadth-first from a vertex, recording the depth of every vertex reached.
+     *
+     * @return the greatest depth reached
+     */
+    private int search(int root) {
+        int[] offsets = neighbourhoods.offsets, neighbours = neighbourhoods.neighbours;
+        int stamp = ++searches;
+        queue[0] = root;
+        depth[root] = 0;
+        reachedBy[root] = stamp;
+        reached = 1;
+        for (int head = 0; head < reached; head++) {
+            int u = queue[head];
+            for (int p = offsets[u]; p < offsets[u + 1]; p++) {
+                int w = neighbours[p];
+                if (reachedBy[w] != stamp) {
+                    reachedBy[w] = stamp;
+                    depth[w] = depth[u] + 1;
+                    queue[reached++] = w;
+                }
+            }
+        }
+        return depth[queue[reached - 1]];
+    }
+}
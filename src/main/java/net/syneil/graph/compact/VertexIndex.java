@@ -0,0 +1,63 @@
+package net.syneil.graph.compact;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A bijection between the vertices of a graph and the integers {@code [0, size)}.
+ *
+ * @param <V> the type used for vertices
+ */
+public interface VertexIndex<V> {
+    /**
+     * Creates an index over a list of distinct vertices, in which each vertex's index is its position in the list.
+     *
+     * @param vertices the vertices
+     * @param <V> the type used for vertices
+     *
+     * @return the index
+     *
+     * @throws IllegalArgumentException if the vertices are not distinct
+     */
+    static <V> VertexIndex<V> of(List<? extends V> vertices) {
+        return new MapVertexIndex<>(vertices.toArray());
+    }
+
+    /**
+     * Creates an index over the integers {@code [0, size)}, each of which is its own index. No storage is needed.
+     *
+     * @param size the number of vertices
+     *
+     * @return the index
+     */
+    static VertexIndex<Integer> identity(int size) {
+        return new IdentityVertexIndex(size);
+    }
+
+    /**
+     * @return the number of vertices indexed
+     */
+    int size();
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the index of the vertex, or -1 if it is not indexed
+     */
+    int indexOf(Object vertex);
+
+    /**
+     * @param index an index in {@code [0, size)}
+     *
+     * @return the vertex at the index
+     */
+    V vertexAt(int index);
+
+    /**
+     * @return the vertices, in index order
+     */
+    default Stream<V> vertices() {
+        return IntStream.range(0, size()).mapToObj(this::vertexAt);
+    }
+}
@@ -0,0 +1,51 @@
+package net.syneil.graph.compact;
+
+/**
+ * A strategy for numbering the vertices of a graph so that vertices used together have nearby indices, and so lie near
+ * each other in memory once the graph is {@link CompactGraph#permute permuted}. Traversals and iterative algorithms
+ * then touch fewer cache lines. Every ordering ignores edge directions.
+ *
+ * @see CompactGraph#copyOf(net.syneil.graph.Graph, VertexOrdering)
+ */
+@FunctionalInterface
+public interface VertexOrdering {
+    /**
+     * @param graph a graph
+     *
+     * @return the new numbering of the graph's vertices
+     */
+    Permutation order(CompactGraph<?, ?> graph);
+
+    /**
+     * The reverse Cuthill–McKee ordering: each connected component is numbered in breadth-first order from a
+     * pseudo-peripheral vertex, visiting neighbours in increasing order of degree, and the whole order is reversed.
+     * This keeps every edge's vertices close together (a small bandwidth), and suits mesh-like and road-like graphs.
+     *
+     * @return the ordering
+     */
+    static VertexOrdering reverseCuthillMcKee() {
+        return ReverseCuthillMcKee::order;
+    }
+
+    /**
+     * Numbers the vertices in decreasing order of degree, so that the most used vertices share cache lines. Ties keep
+     * their original order. This suits graphs with skewed degree distributions.
+     *
+     * @return the ordering
+     */
+    static VertexOrdering degreeDescending() {
+        return DegreeOrdering::order;
+    }
+
+    /**
+     * The Rabbit ordering: vertices are merged, from the lowest degree upwards, into the neighbouring community that
+     * most increases modularity, forming a dendrogram of communities; the vertices are then numbered by a depth-first
+     * traversal of the dendrogram, so that every community occupies a contiguous range of indices. This suits social
+     * and web graphs with community structure.
+     *
+     * @return the ordering
+     */
+    static VertexOrdering rabbit() {
+        return RabbitOrdering::order;
+    }
+}
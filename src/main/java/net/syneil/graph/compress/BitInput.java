@@ -0,0 +1,75 @@
+package net.syneil.graph.compress;
+
+/**
+ * Reads the codes written by a {@link BitOutput} from an array of longs, from any bit position.
+ */
+final class BitInput {
+    private final long[] words;
+    private long position;
+
+    /**
+     * @param words the bits
+     * @param position the position of the first bit to read
+     */
+    BitInput(long[] words, long position) {
+        this.words = words;
+        this.position = position;
+    }
+
+    /**
+     * @param length the number of bits to read, from 0 to 64
+     *
+     * @return the bits read, as the low bits of a value
+     */
+    long readBits(int length) {
+        if (length == 0) {
+            return 0L;
+        }
+        int word = (int) (position >>> 6), offset = (int) (position & 63), free = 64 - offset;
+        position += length;
+        long high = (words[word] << offset) >>> (64 - length);
+        return length <= free ? high : high | words[word + 1] >>> (64 - (length - free));
+    }
+
+    /**
+     * @return a number read in unary
+     */
+    int readUnary() {
+        int zeros = 0;
+        while (true) {
+            int offset = (int) (position & 63);
+            long bits = words[(int) (position >>> 6)] << offset;
+            if (bits != 0L) {
+                int leading = Long.numberOfLeadingZeros(bits);
+                position += leading + 1;
+                return zeros + leading;
+            }
+            zeros += 64 - offset;
+            position += 64 - offset;
+        }
+    }
+
+    /**
+     * @return a number read in γ code
+     */
+    long readGamma() {
+        int msb = readUnary();
+        return ((1L << msb) | readBits(msb)) - 1;
+    }
+
+    /**
+     * @return a number read in ζ code with shrinking factor k
+     */
+    long readZeta(int k) {
+        int h = readUnary();
+        long left = 1L << (h * k);
+        return left + readMinimalBinary((1L << ((h + 1) * k)) - left) - 1;
+    }
+
+    private long readMinimalBinary(long bound) {
+        int bits = 64 - Long.numberOfLeadingZeros(bound - 1);
+        long shorter = (1L << bits) - bound;
+        long x = readBits(bits - 1);
+        return x < shorter ? x : ((x << 1) | readBits(1)) - shorter;
+    }
+}
@@ -0,0 +1,104 @@
+package net.syneil.graph.compress;
+
+import java.util.Arrays;
+
+/**
+ * Writes a stream of bits, most significant first, into a growing array of longs, with the instantaneous codes used by
+ * {@link CompressedGraph}. Every code writes a natural number, that is, one that is not negative.
+ */
+final class BitOutput {
+    private long[] words = new long[16];
+    private long position;
+
+    /**
+     * @return the number of bits written
+     */
+    long position() {
+        return position;
+    }
+
+    /**
+     * Writes the low bits of a value.
+     *
+     * @param value the value
+     * @param length the number of bits to write, from 0 to 64
+     */
+    void writeBits(long value, int length) {
+        if (length == 0) {
+            return;
+        }
+        int word = (int) (position >>> 6), free = 64 - (int) (position & 63);
+        if (word + 1 >= words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        long bits = length == 64 ? value : value & ((1L << length) - 1);
+        if (length <= free) {
+            words[word] |= bits << (free - length);
+        } else {
+            int rest = length - free;
+            words[word] |= bits >>> rest;
+            words[word + 1] |= bits << (64 - rest);
+        }
+        position += length;
+    }
+
+    /**
+     * Writes a number in unary: as that many zeros, then a one.
+     */
+    void writeUnary(int n) {
+        for (int zeros = n; zeros > 0; zeros -= 64) {
+            writeBits(0L, Math.min(zeros, 64));
+        }
+        writeBits(1L, 1);
+    }
+
+    /**
+     * Writes a number in Elias' γ code, which takes {@code 2⌊log₂(x + 1)⌋ + 1} bits.
+     */
+    void writeGamma(long x) {
+        long value = x + 1;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        writeUnary(msb);
+        writeBits(value, msb);
+    }
+
+    /**
+     * Writes a number in Boldi and Vigna's ζ code with shrinking factor k, which suits the power-law distributed gaps
+     * between successors better than γ.
+     */
+    void writeZeta(long x, int k) {
+        long value = x + 1;
+        int h = (63 - Long.numberOfLeadingZeros(value)) / k;
+        writeUnary(h);
+        long left = 1L << (h * k);
+        writeMinimalBinary(value - left, (1L << ((h + 1) * k)) - left);
+    }
+
+    /**
+     * Writes a number below a bound in the fewest bits that allow every such number to be decoded.
+     */
+    private void writeMinimalBinary(long x, long bound) {
+        int bits = 64 - Long.numberOfLeadingZeros(bound - 1);
+        long shorter = (1L << bits) - bound;
+        if (x < shorter) {
+            writeBits(x, bits - 1);
+        } else {
+            writeBits(x + shorter, bits);
+        }
+    }
+
+    /**
+     * Empties this output, keeping its array.
+     */
+    void clear() {
+        Arrays.fill(words, 0, (int) (position >>> 6) + 1, 0L);
+        position = 0;
+    }
+
+    /**
+     * @return the bits written, in as few words as hold them
+     */
+    long[] toArray() {
+        return Arrays.copyOf(words, (int) ((position + 63) >>> 6));
+    }
+}
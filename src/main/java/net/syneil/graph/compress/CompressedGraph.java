@@ -0,0 +1,597 @@
+package net.syneil.graph.compress;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.compact.VertexIndex;
+import net.syneil.graph.compact.VertexOrdering;
+import net.syneil.graph.edge.UnlabelledEdge;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Multiplicity.SINGLE;
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * An immutable graph whose adjacency lists are compressed into a bit stream after the BV format of Boldi and Vigna's
+ * WebGraph. Each vertex is identified by an index in {@code [0, n)}, and its successors (the targets of its edges, or
+ * in undirected graphs its neighbours) are held as a sorted list of distinct indices, coded as:
+ * <ul>
+ * <li>its length, in γ code;</li>
+ * <li>a <em>reference</em>: how many vertices back, within a window, lies a vertex whose list is most similar;</li>
+ * <li>the <em>copy blocks</em>: run lengths saying which successors of the referenced vertex are also successors of
+ * this one;</li>
+ * <li>the <em>intervals</em>: runs of consecutive indices among the successors not copied, as left ends and lengths;
+ * </li>
+ * <li>the remaining <em>residual</em> successors, as gaps in ζ code: the first from the vertex's own index, the rest
+ * from each other.</li>
+ * </ul>
+ * Graphs with locality - where vertices with similar lists have nearby indices, and successors are close to their
+ * vertices - compress to a few bits per edge. Renumbering vertices with a {@link VertexOrdering} first helps those that
+ * do not have it already.
+ * <p>
+ * Each vertex's list starts at a bit offset kept in {@link EliasFano} form, so lists can be decoded in any order; a
+ * decoded list that refers to another decodes that too, so chains of references are limited in length. Scanning every
+ * list in order with {@link #forEachSuccessorList} instead reuses the lists decoded within the window. Edges are
+ * created on demand by an edge factory; parallel edges are not kept.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class CompressedGraph<V, E extends Edge<V>> implements Graph<V, E> {
+    /**
+     * The default number of preceding vertices whose lists a list may refer to
+     */
+    public static final int DEFAULT_WINDOW = 7;
+
+    /**
+     * The default maximum length of a chain of references
+     */
+    public static final int DEFAULT_MAX_REFERENCE_CHAIN = 3;
+
+    /**
+     * The shrinking factor of the ζ code of residual gaps
+     */
+    private static final int ZETA_K = 3;
+
+    /**
+     * The length of the shortest run of consecutive successors coded as an interval
+     */
+    private static final int MIN_INTERVAL_LENGTH = 4;
+
+    private static final int[] NO_SUCCESSORS = new int[0];
+
+    /**
+     * The properties of this graph
+     */
+    private final GraphProperties properties;
+
+    /**
+     * Whether every edge is held in the lists of both of its vertices
+     */
+    private final boolean undirected;
+
+    /**
+     * The mapping between vertices and their indices
+     */
+    private final VertexIndex<V> index;
+
+    /**
+     * The coded lists of all vertices
+     */
+    private final long[] bits;
+
+    /**
+     * The bit offset of each vertex's list
+     */
+    private final EliasFano offsets;
+
+    /**
+     * The number of preceding vertices whose lists a list may refer to
+     */
+    private final int window;
+
+    /**
+     * Creates the edges of this graph
+     */
+    private final BiFunction<? super V, ? super V, ? extends E> edgeFactory;
+
+    /**
+     * The number of successors of all vertices
+     */
+    private final long successorCount;
+
+    /**
+     * The number of edges in this graph
+     */
+    private final long edgeCount;
+
+    private CompressedGraph(GraphProperties properties,
+                            VertexIndex<V> index,
+                            long[] bits,
+                            EliasFano offsets,
+                            int window,
+                            BiFunction<? super V, ? super V, ? extends E> edgeFactory,
+                            long successorCount,
+                            long edgeCount) {
+        this.properties = properties;
+        this.undirected = properties.getOrientation().orElse(DIRECTED) == UNDIRECTED;
+        this.index = index;
+        this.bits = bits;
+        this.offsets = offsets;
+        this.window = window;
+        this.edgeFactory = edgeFactory;
+        this.successorCount = successorCount;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Creates a compressed copy of a graph, with {@link UnlabelledEdge}s and the default window and reference chain.
+     * Vertices are indexed as by {@link CompactGraph#copyOf(Graph)}.
+     *
+     * @param graph the graph to copy
+     * @param <V> the type used for vertices
+     *
+     * @return a compressed graph with the same vertices, and an edge for each pair of vertices the graph connects
+     */
+    public static <V> CompressedGraph<V, Edge<V>> copyOf(Graph<V, ?> graph) {
+        return copyOf(graph, UnlabelledEdge::new, DEFAULT_WINDOW, DEFAULT_MAX_REFERENCE_CHAIN);
+    }
+
+    /**
+     * Creates a compressed copy of a graph. Vertices are indexed as by {@link CompactGraph#copyOf(Graph)}.
+     *
+     * @param graph the graph to copy
+     * @param edgeFactory creates an edge between two vertices
+     * @param window the number of preceding vertices whose lists a list may refer to; larger windows compress better
+     *         but build more slowly
+     * @param maxReferenceChain the maximum length of a chain of references; longer chains compress better but make
+     *         random access slower
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return a compressed graph with the same vertices, and an edge for each pair of vertices the graph connects
+     */
+    @SuppressWarnings("unchecked")
+    public static <V, E extends Edge<V>> CompressedGraph<V, E> copyOf(Graph<V, ?> graph,
+                                                                     BiFunction<? super V, ? super V, ? extends E>
+                                                                             edgeFactory,
+                                                                     int window,
+                                                                     int maxReferenceChain) {
+        Objects.requireNonNull(edgeFactory);
+        if (window < 0 || maxReferenceChain < 0) {
+            throw new IllegalArgumentException("Window and reference chain must not be negative");
+        }
+        CompactGraph<V, ?> compact = CompactGraph.copyOf((Graph<V, Edge<V>>) graph);
+        GraphProperties source = compact.getProperties();
+        GraphProperties properties = GraphProperties.builder()
+                                                    .orientation(source.getOrientation().orElse(DIRECTED))
+                                                    .looping(source.getLooping().orElse(null))
+                                                    .multiplicity(SINGLE)
+                                                    .cyclicity(source.getCyclicity().orElse(null))
+                                                    .build();
+        int n = compact.index().size();
+        BitOutput out = new BitOutput(), trial = new BitOutput();
+        long[] starts = new long[n];
+        int[][] recent = new int[window + 1][];
+        int[] chains = new int[n];
+        long successorCount = 0L, loops = 0L;
+        for (int v = 0; v < n; v++) {
+            int[] successors = distinctTargets(compact, v);
+            recent[v % (window + 1)] = successors;
+            successorCount += successors.length;
+            loops += Arrays.binarySearch(successors, v) >= 0 ? 1 : 0;
+            int best = 0;
+            long bestSize = Long.MAX_VALUE;
+            for (int r = 0; r <= Math.min(window, v) && successors.length > 0; r++) {
+                int[] reference = r == 0 ? null : recent[(v - r) % (window + 1)];
+                if (r > 0 && (reference.length == 0 || chains[v - r] >= maxReferenceChain)) {
+                    continue;
+                }
+                trial.clear();
+                encode(trial, v, successors, r, reference);
+                if (trial.position() < bestSize) {
+                    best = r;
+                    bestSize = trial.position();
+                }
+            }
+            chains[v] = best == 0 ? 0 : chains[v - best] + 1;
+            starts[v] = out.position();
+            encode(out, v, successors, best, best == 0 ? null : recent[(v - best) % (window + 1)]);
+        }
+        long edgeCount = properties.getOrientation().orElseThrow() == UNDIRECTED
+                ? (successorCount + loops) / 2 : successorCount;
+        return new CompressedGraph<>(properties, compact.index(), out.toArray(), new EliasFano(starts), window,
+                                     edgeFactory, successorCount, edgeCount);
+    }
+
+    private static int[] distinctTargets(CompactGraph<?, ?> graph, int vertex) {
+        return graph.targets(vertex).distinct().toArray();
+    }
+
+    /**
+     * Codes one vertex's list, with respect to a referenced list if the reference is not 0.
+     */
+    private static void encode(BitOutput out, int vertex, int[] successors, int reference, int[] referenced) {
+        out.writeGamma(successors.length);
+        if (successors.length == 0) {
+            return;
+        }
+        out.writeGamma(reference);
+        int[] residuals = successors;
+        if (reference > 0) {
+            residuals = new int[successors.length];
+            int residualCount = 0, copied = 0;
+            List<Integer> blocks = new ArrayList<>();
+            boolean copying = true;
+            int run = 0;
+            for (int i = 0, j = 0; i < referenced.length; i++) {
+                while (j < successors.length && successors[j] < referenced[i]) {
+                    residuals[residualCount++] = successors[j++];
+                }
+                boolean shared = j < successors.length && successors[j] == referenced[i];
+                if (shared) {
+                    j++;
+                    copied++;
+                }
+                if (shared != copying) {
+                    blocks.add(run);
+                    copying = shared;
+                    run = 0;
+                }
+                run++;
+            }
+            for (int s : successors) {
+                if (s > referenced[referenced.length - 1]) {
+                    residuals[residualCount++] = s;
+                }
+            }
+            out.writeGamma(blocks.size());
+            for (int b = 0; b < blocks.size(); b++) {
+                out.writeGamma(blocks.get(b) - (b == 0 ? 0 : 1));
+            }
+            assert copied + residualCount == successors.length;
+            residuals = Arrays.copyOf(residuals, residualCount);
+        }
+        residuals = encodeIntervals(out, vertex, residuals);
+        for (int i = 0; i < residuals.length; i++) {
+            long gap = i == 0 ? naturalOf(residuals[0] - (long) vertex) : residuals[i] - residuals[i - 1] - 1L;
+            out.writeZeta(gap, ZETA_K);
+        }
+    }
+
+    /**
+     * Codes the runs of at least {@link #MIN_INTERVAL_LENGTH} consecutive indices among the successors not copied, as
+     * their left ends and lengths: the first left end from the vertex's own index, the rest from the end of the run
+     * before. Nothing is coded if every successor was copied.
+     *
+     * @return the successors in no run, which are left to code as residuals
+     */
+    private static int[] encodeIntervals(BitOutput out, int vertex, int[] extras) {
+        if (extras.length == 0) {
+            return extras;
+        }
+        int[] residuals = new int[extras.length];
+        List<int[]> intervals = new ArrayList<>();
+        int residualCount = 0;
+        for (int i = 0; i < extras.length; ) {
+            int j = i + 1;
+            while (j < extras.length && extras[j] == extras[j - 1] + 1) {
+                j++;
+            }
+            if (j - i >= MIN_INTERVAL_LENGTH) {
+                intervals.add(new int[] {extras[i], j - i});
+            } else {
+                for (int k = i; k < j; k++) {
+                    residuals[residualCount++] = extras[k];
+                }
+            }
+            i = j;
+        }
+        out.writeGamma(intervals.size());
+        long end = 0L;
+        for (int i = 0; i < intervals.size(); i++) {
+            int left = intervals.get(i)[0], length = intervals.get(i)[1];
+            out.writeGamma(i == 0 ? naturalOf(left - (long) vertex) : left - end - 1);
+            out.writeGamma(length - MIN_INTERVAL_LENGTH);
+            end = (long) left + length;
+        }
+        return residualCount == extras.length ? extras : Arrays.copyOf(residuals, residualCount);
+    }
+
+    private static long naturalOf(long x) {
+        return x >= 0 ? x << 1 : -(x << 1) - 1;
+    }
+
+    private static long integerOf(long n) {
+        return (n & 1L) == 0L ? n >>> 1 : -((n + 1) >>> 1);
+    }
+
+    /**
+     * Decodes one vertex's list from its bits.
+     *
+     * @param referenced the lists of preceding vertices, looked up by vertex
+     */
+    private static int[] decode(BitInput in, int vertex, IntFunction<int[]> referenced) {
+        int degree = (int) in.readGamma();
+        if (degree == 0) {
+            return NO_SUCCESSORS;
+        }
+        int reference = (int) in.readGamma();
+        int[] successors = new int[degree];
+        int copied = 0;
+        if (reference > 0) {
+            int[] copyFrom = referenced.apply(vertex - reference);
+            int blocks = (int) in.readGamma(), i = 0;
+            boolean copying = true;
+            for (int b = 0; b < blocks; b++) {
+                int run = (int) in.readGamma() + (b == 0 ? 0 : 1);
+                if (copying) {
+                    System.arraycopy(copyFrom, i, successors, copied, run);
+                    copied += run;
+                }
+                i += run;
+                copying = !copying;
+            }
+            if (copying) {
+                System.arraycopy(copyFrom, i, successors, copied, copyFrom.length - i);
+                copied += copyFrom.length - i;
+            }
+        }
+        if (copied == degree) {
+            return successors;
+        }
+        int[] extras = copied == 0 ? successors : new int[degree - copied];
+        int intervals = (int) in.readGamma(), inIntervals = 0;
+        long end = 0L;
+        for (int i = 0; i < intervals; i++) {
+            long left = i == 0 ? vertex + integerOf(in.readGamma()) : end + in.readGamma() + 1;
+            int length = (int) in.readGamma() + MIN_INTERVAL_LENGTH;
+            for (int k = 0; k < length; k++) {
+                extras[inIntervals++] = (int) (left + k);
+            }
+            end = left + length;
+        }
+        int residualCount = extras.length - inIntervals;
+        if (residualCount > 0) {
+            int[] residuals = inIntervals == 0 ? extras : new int[residualCount];
+            residuals[0] = (int) (vertex + integerOf(in.readZeta(ZETA_K)));
+            for (int r = 1; r < residualCount; r++) {
+                residuals[r] = (int) (residuals[r - 1] + in.readZeta(ZETA_K) + 1);
+            }
+            mergeInto(extras, inIntervals, residuals);
+        }
+        if (copied > 0) {
+            mergeInto(successors, copied, extras);
+        }
+        return successors;
+    }
+
+    /**
+     * Merges a sorted array into the sorted prefix of another, from the back, in place.
+     *
+     * @param into the array whose prefix is sorted, with room after it for the other
+     * @param length the length of the prefix
+     * @param from the array to merge in
+     */
+    private static void mergeInto(int[] into, int length, int[] from) {
+        for (int i = length - 1, j = from.length - 1, k = length + from.length - 1; j >= 0; k--) {
+            into[k] = i >= 0 && into[i] > from[j] ? into[i--] : from[j--];
+        }
+    }
+
+    // ---- primitive accessors
+
+    /**
+     * @return the mapping between the vertices of this graph and their indices
+     */
+    public VertexIndex<V> index() {
+        return index;
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the index of the vertex, or -1 if it is not in this graph
+     */
+    public int indexOf(V vertex) {
+        return index.indexOf(vertex);
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the vertex
+     */
+    public V vertexAt(int vertex) {
+        return index.vertexAt(vertex);
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the number of successors of the vertex, read without decoding them
+     */
+    public int outdegree(int vertex) {
+        Objects.checkIndex(vertex, index.size());
+        return (int) new BitInput(bits, offsets.get(vertex)).readGamma();
+    }
+
+    /**
+     * Decodes the successors of a vertex, and those of any vertices its list refers to.
+     *
+     * @param vertex the index of a vertex
+     *
+     * @return the indices of the vertex's successors, in ascending order
+     */
+    public int[] successors(int vertex) {
+        Objects.checkIndex(vertex, index.size());
+        return decode(new BitInput(bits, offsets.get(vertex)), vertex, this::successors);
+    }
+
+    /**
+     * @param source the index of the source vertex
+     * @param target the index of the target vertex
+     *
+     * @return true if the target is a successor of the source
+     */
+    public boolean hasEdge(int source, int target) {
+        return Arrays.binarySearch(successors(source), target) >= 0;
+    }
+
+    /**
+     * Receives the successor lists of a {@link CompressedGraph}, in order of vertex.
+     */
+    @FunctionalInterface
+    public interface SuccessorListVisitor {
+        /**
+         * @param vertex the index of a vertex
+         * @param successors the indices of its successors in ascending order, which must not be modified
+         */
+        void visit(int vertex, int[] successors);
+    }
+
+    /**
+     * Decodes the successor lists of every vertex, in order, reading the bits once and reusing the lists decoded within
+     * the window instead of decoding references again.
+     *
+     * @param visitor the receiver of the lists
+     */
+    public void forEachSuccessorList(SuccessorListVisitor visitor) {
+        Objects.requireNonNull(visitor);
+        int[][] recent = new int[window + 1][];
+        BitInput in = new BitInput(bits, 0L);
+        for (int v = 0; v < index.size(); v++) {
+            int[] successors = decode(in, v, w -> recent[w % (window + 1)]);
+            recent[v % (window + 1)] = successors;
+            visitor.visit(v, successors);
+        }
+    }
+
+    /**
+     * @return the number of bits this graph's adjacency takes, counting the lists and their offsets but not the vertex
+     *         index
+     */
+    public long sizeInBits() {
+        return 64L * bits.length + offsets.sizeInBits();
+    }
+
+    /**
+     * @return the number of bits taken for each successor, or 0 if there are none
+     */
+    public double bitsPerSuccessor() {
+        return successorCount == 0L ? 0.0 : (double) sizeInBits() / successorCount;
+    }
+
+    // ---- Graph
+
+    @Override
+    public long numberOfVertices() {
+        return index.size();
+    }
+
+    @Override
+    public long numberOfEdges() {
+        return edgeCount;
+    }
+
+    @Override
+    public Stream<? extends V> vertices() {
+        return index.vertices();
+    }
+
+    @Override
+    public Stream<? extends E> edges() {
+        return IntStream.range(0, index.size())
+                        .boxed()
+                        .flatMap(source -> Arrays.stream(successors(source))
+                                                 .filter(target -> !undirected || target >= source)
+                                                 .mapToObj(target -> edge(source, target)));
+    }
+
+    private E edge(int source, int target) {
+        return edgeFactory.apply(index.vertexAt(source), index.vertexAt(target));
+    }
+
+    @Override
+    public boolean hasVertex(V vertex) {
+        Objects.requireNonNull(vertex);
+        return index.indexOf(vertex) >= 0;
+    }
+
+    @Override
+    public boolean hasEdge(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        int from = index.indexOf(source), to = index.indexOf(target);
+        return from >= 0 && to >= 0 && hasEdge(from, to);
+    }
+
+    /**
+     * Returns an unmodifiable view of the neighbours of a vertex, decoded once, whose membership test is a binary
+     * search.
+     *
+     * @param v the vertex whose neighbours are to be found
+     *
+     * @return the neighbours of the vertex, or the empty set if it is not in this graph
+     */
+    @Override
+    public Set<? extends V> neighbours(V v) {
+        Objects.requireNonNull(v);
+        int source = index.indexOf(v);
+        if (source < 0) {
+            return Collections.emptySet();
+        }
+        int[] successors = successors(source);
+        return new AbstractSet<V>() {
+            @Override
+            public int size() {
+                return successors.length;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                int target = index.indexOf(o);
+                return target >= 0 && Arrays.binarySearch(successors, target) >= 0;
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return Arrays.stream(successors).mapToObj(index::vertexAt).iterator();
+            }
+        };
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        int from = index.indexOf(source), to = index.indexOf(target);
+        return from >= 0 && to >= 0 && hasEdge(from, to) ? List.of(edge(from, to)) : List.of();
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source) {
+        Objects.requireNonNull(source);
+        int from = index.indexOf(source);
+        if (from < 0) {
+            return List.of();
+        }
+        List<E> edges = new ArrayList<>();
+        for (int target : successors(from)) {
+            edges.add(edge(from, target));
+        }
+        return edges;
+    }
+
+    @Override
+    public GraphProperties getProperties() {
+        return properties;
+    }
+}
@@ -0,0 +1,93 @@
+package net.syneil.graph.compress;
+
+/**
+ * A non-decreasing sequence of longs in Elias–Fano form, which takes {@code 2 + ⌈log₂(u / n)⌉} bits per element for n
+ * elements up to u, with constant-time access. Each element is split into low bits, stored verbatim, and high bits,
+ * stored in unary as the positions of ones in a bit vector; the position of every 64th one is sampled, so that the ones
+ * before any element need only be counted within a few words.
+ */
+final class EliasFano {
+    /**
+     * The number of elements
+     */
+    private final int size;
+
+    /**
+     * The number of low bits of each element stored verbatim
+     */
+    private final int lowBits;
+
+    /**
+     * The low bits of the elements, packed
+     */
+    private final long[] lower;
+
+    /**
+     * The bit vector of the high bits, least significant bit first: element i sets bit {@code i + (x >>> lowBits)}
+     */
+    private final long[] upper;
+
+    /**
+     * The position in the bit vector of every 64th one
+     */
+    private final long[] samples;
+
+    /**
+     * @param values a non-decreasing sequence of numbers that are not negative
+     */
+    EliasFano(long[] values) {
+        this.size = values.length;
+        long last = size == 0 ? 0L : values[size - 1];
+        long perElement = size == 0 ? 0L : last / size;
+        this.lowBits = perElement == 0L ? 0 : 63 - Long.numberOfLeadingZeros(perElement);
+        BitOutput low = new BitOutput();
+        this.upper = new long[(int) ((size + (last >>> lowBits) + 64) >>> 6)];
+        this.samples = new long[(size + 63) >>> 6];
+        for (int i = 0; i < size; i++) {
+            if (values[i] < 0L || i > 0 && values[i] < values[i - 1]) {
+                throw new IllegalArgumentException("Sequence must be non-decreasing and not negative");
+            }
+            low.writeBits(values[i], lowBits);
+            long bit = i + (values[i] >>> lowBits);
+            upper[(int) (bit >>> 6)] |= 1L << (bit & 63);
+            if ((i & 63) == 0) {
+                samples[i >>> 6] = bit;
+            }
+        }
+        this.lower = low.toArray();
+    }
+
+    /**
+     * @param i the index of an element
+     *
+     * @return the element
+     */
+    long get(int i) {
+        long start = samples[i >>> 6];
+        int word = (int) (start >>> 6), skip = i & 63;
+        long bits = upper[word] & (-1L << (start & 63));
+        for (int ones = Long.bitCount(bits); skip >= ones; ones = Long.bitCount(bits)) {
+            skip -= ones;
+            bits = upper[++word];
+        }
+        for (; skip > 0; skip--) {
+            bits &= bits - 1;
+        }
+        long high = ((long) word << 6) + Long.numberOfTrailingZeros(bits) - i;
+        return high << lowBits | new BitInput(lower, (long) i * lowBits).readBits(lowBits);
+    }
+
+    /**
+     * @return the number of elements
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bits this sequence takes
+     */
+    long sizeInBits() {
+        return 64L * (lower.length + upper.length + samples.length);
+    }
+}
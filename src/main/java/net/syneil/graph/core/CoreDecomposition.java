@@ -0,0 +1,215 @@
+package net.syneil.graph.core;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The core numbers of the vertices of a graph, as found by {@link KCores}. The k-core of a graph is its largest
+ * subgraph in which every vertex has at least k neighbours; a vertex's core number is the largest k for which it is in
+ * the k-core, and the graph's degeneracy is the largest core number of any vertex.
+ * <p>
+ * Core numbers are held as a primitive array by the vertices' indices in the {@link #getGraph() compact graph}
+ * decomposed. The decomposition also gives a degeneracy ordering, in which every vertex has at most the degeneracy
+ * neighbours after it, which suits clique and triangle enumeration; and a view of the k-core for any k.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class CoreDecomposition<V, E extends Edge<V>> {
+    /**
+     * The graph decomposed
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The core number of each vertex, by index
+     */
+    private final int[] cores;
+
+    /**
+     * The indices of the vertices in a degeneracy ordering
+     */
+    private final int[] order;
+
+    /**
+     * The number of vertices with each core number or more
+     */
+    private final int[] atLeast;
+
+    CoreDecomposition(CompactGraph<V, E> graph, int[] cores, int[] order) {
+        this.graph = graph;
+        this.cores = cores;
+        this.order = order;
+        int degeneracy = Arrays.stream(cores).max().orElse(0);
+        this.atLeast = new int[degeneracy + 2];
+        for (int core : cores) {
+            atLeast[core]++;
+        }
+        for (int k = degeneracy - 1; k >= 0; k--) {
+            atLeast[k] += atLeast[k + 1];
+        }
+    }
+
+    /**
+     * @return the graph decomposed, whose indices the primitive results are by
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the vertex's core number
+     */
+    public int coreNumberOfIndex(int vertex) {
+        return cores[vertex];
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the vertex's core number, or -1 if it is not in the graph
+     */
+    public int coreNumber(V vertex) {
+        Objects.requireNonNull(vertex);
+        int index = graph.indexOf(vertex);
+        return index < 0 ? -1 : cores[index];
+    }
+
+    /**
+     * @return the core number of each vertex, by index
+     */
+    public int[] coreNumbers() {
+        return cores.clone();
+    }
+
+    /**
+     * @return the largest core number of any vertex, or 0 if the graph has none
+     */
+    public int getDegeneracy() {
+        return atLeast.length - 2;
+    }
+
+    /**
+     * @param k a core number
+     *
+     * @return the number of vertices in the k-core
+     */
+    public int coreSize(int k) {
+        return k <= 0 ? cores.length : k < atLeast.length ? atLeast[k] : 0;
+    }
+
+    /**
+     * @return the indices of the vertices in a degeneracy ordering: the order in which they were peeled
+     */
+    public int[] degeneracyOrder() {
+        return order.clone();
+    }
+
+    /**
+     * @return the vertices in a degeneracy ordering
+     */
+    public List<V> degeneracyOrdering() {
+        return Arrays.stream(order).mapToObj(graph::vertexAt).collect(Collectors.toList());
+    }
+
+    /**
+     * Gives a read-only view of the k-core: the vertices with core number at least k, and the edges between them. The
+     * view computes nothing until it is queried, and answers each query by filtering the graph's own.
+     *
+     * @param k a core number
+     *
+     * @return the k-core
+     */
+    public Graph<V, E> kCore(int k) {
+        return new KCore(k);
+    }
+
+    /**
+     * A view of the k-core
+     */
+    private final class KCore implements Graph<V, E> {
+        /**
+         * The least core number of the vertices in this core
+         */
+        private final int k;
+
+        private KCore(int k) {
+            this.k = k;
+        }
+
+        private boolean contains(V vertex) {
+            int index = graph.indexOf(vertex);
+            return index >= 0 && cores[index] >= k;
+        }
+
+        private boolean containsBoth(E edge) {
+            return contains(edge.getSource()) && contains(edge.getTarget());
+        }
+
+        @Override
+        public long numberOfVertices() {
+            return coreSize(k);
+        }
+
+        @Override
+        public long numberOfEdges() {
+            return edges().count();
+        }
+
+        @Override
+        public Stream<? extends E> edges() {
+            return graph.edges().filter(this::containsBoth);
+        }
+
+        @Override
+        public Stream<? extends V> vertices() {
+            return IntStream.range(0, cores.length).filter(v -> cores[v] >= k).mapToObj(graph::vertexAt);
+        }
+
+        @Override
+        public boolean hasVertex(V vertex) {
+            Objects.requireNonNull(vertex);
+            return contains(vertex);
+        }
+
+        @Override
+        public boolean hasEdge(V source, V target) {
+            return hasVertex(source) && hasVertex(target) && graph.hasEdge(source, target);
+        }
+
+        @Override
+        public Set<? extends V> neighbours(V v) {
+            return hasVertex(v) ? graph.neighbours(v).stream().filter(this::contains).collect(Collectors.toSet())
+                                : Set.of();
+        }
+
+        @Override
+        public List<? extends E> getEdges(V source, V target) {
+            return hasVertex(source) && hasVertex(target) ? graph.getEdges(source, target) : List.of();
+        }
+
+        @Override
+        public List<? extends E> getEdges(V source) {
+            return hasVertex(source)
+                    ? graph.getEdges(source).stream().filter(this::containsBoth).collect(Collectors.toList())
+                    : List.of();
+        }
+
+        @Override
+        public GraphProperties getProperties() {
+            return graph.getProperties();
+        }
+    }
+}
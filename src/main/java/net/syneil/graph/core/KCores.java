@@ -0,0 +1,181 @@
+package net.syneil.graph.core;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.internal.Tasks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Decomposes graphs into their k-cores by peeling: repeatedly removing a vertex of least remaining degree, whose
+ * remaining degree when removed is its core number. Graphs are decomposed as simple and undirected: edge directions are
+ * ignored, vertices joined by several edges are neighbours once, and self-loops are dropped.
+ * <p>
+ * The sequential algorithm is Batagelj and Zaversnik's, which keeps the vertices in buckets by remaining degree, in one
+ * array, so that peeling takes time linear in the number of vertices and edges. The parallel one peels in levels, as
+ * in Kabir and Madduri's PKC: at level k, every vertex of remaining degree k is removed at once, and the neighbours
+ * brought down to k are removed in the next round of the same level, with remaining degrees updated atomically.
+ */
+public final class KCores {
+    private KCores() {
+    }
+
+    /**
+     * Decomposes a graph on one thread.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the decomposition, whose degeneracy ordering is the order of peeling
+     */
+    public static <V, E extends Edge<V>> CoreDecomposition<V, E> decompose(Graph<V, ? extends E> graph) {
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        SimpleAdjacency adjacency = SimpleAdjacency.of(compact);
+        int n = adjacency.size(), maxDegree = 0;
+        int[] degrees = new int[n];
+        for (int v = 0; v < n; v++) {
+            degrees[v] = adjacency.degree(v);
+            maxDegree = Math.max(maxDegree, degrees[v]);
+        }
+        // vertices sorted by degree, the start of each degree's bucket, and each vertex's position
+        int[] starts = new int[maxDegree + 1];
+        for (int v = 0; v < n; v++) {
+            starts[degrees[v]]++;
+        }
+        for (int d = 0, start = 0; d <= maxDegree; d++) {
+            int count = starts[d];
+            starts[d] = start;
+            start += count;
+        }
+        int[] vertices = new int[n], positions = new int[n];
+        for (int v = 0; v < n; v++) {
+            positions[v] = starts[degrees[v]]++;
+            vertices[positions[v]] = v;
+        }
+        for (int d = maxDegree; d > 0; d--) {
+            starts[d] = starts[d - 1];
+        }
+        starts[0] = 0;
+        for (int i = 0; i < n; i++) {
+            int v = vertices[i];
+            for (int p = adjacency.offsets[v]; p < adjacency.offsets[v + 1]; p++) {
+                int u = adjacency.neighbours[p];
+                if (degrees[u] > degrees[v]) {
+                    // move u to the front of its bucket, then shrink the bucket past it
+                    int du = degrees[u], pu = positions[u], pw = starts[du], w = vertices[pw];
+                    if (u != w) {
+                        vertices[pu] = w;
+                        positions[w] = pu;
+                        vertices[pw] = u;
+                        positions[u] = pw;
+                    }
+                    starts[du]++;
+                    degrees[u]--;
+                }
+            }
+        }
+        return new CoreDecomposition<>(compact, degrees, vertices);
+    }
+
+    /**
+     * Decomposes a graph in parallel.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param parallelism the number of threads peeling; 1 to peel sequentially
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the decomposition, whose degeneracy ordering is the order of the rounds of peeling
+     */
+    public static <V, E extends Edge<V>> CoreDecomposition<V, E> decompose(Graph<V, ? extends E> graph,
+                                                                           int parallelism) {
+        Objects.requireNonNull(graph);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (parallelism == 1) {
+            return decompose(graph);
+        }
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        SimpleAdjacency adjacency = SimpleAdjacency.of(compact);
+        int n = adjacency.size();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            AtomicIntegerArray degrees = new AtomicIntegerArray(n);
+            int[] cores = new int[n];
+            Tasks.run(pool, () -> {
+                IntStream.range(0, n).parallel().forEach(v -> degrees.set(v, adjacency.degree(v)));
+                return null;
+            }, "decomposing graph");
+            Arrays.fill(cores, -1);
+            int[] order = new int[n];
+            int peeled = 0;
+            while (peeled < n) {
+                // the next level is the least remaining degree
+                int k = Tasks.run(pool, () -> IntStream.range(0, n).parallel().filter(v -> cores[v] < 0)
+                                                       .map(degrees::get).min().orElseThrow(), "decomposing graph");
+                int[] frontier = Tasks.run(pool, () -> IntStream.range(0, n).parallel()
+                                                                .filter(v -> cores[v] < 0 && degrees.get(v) <= k)
+                                                                .toArray(), "decomposing graph");
+                while (frontier.length > 0) {
+                    for (int v : frontier) {
+                        cores[v] = k;
+                    }
+                    System.arraycopy(frontier, 0, order, peeled, frontier.length);
+                    peeled += frontier.length;
+                    int[] round = frontier;
+                    frontier = Tasks.run(pool, () -> peel(adjacency, degrees, cores, round, k, parallelism),
+                                         "decomposing graph");
+                }
+            }
+            return new CoreDecomposition<>(compact, cores, order);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Removes a round of vertices at a level, in chunks, decrementing the remaining degrees of their neighbours above
+     * the level.
+     *
+     * @return the neighbours brought down to the level, which are to be removed in the next round
+     */
+    private static int[] peel(SimpleAdjacency adjacency, AtomicIntegerArray degrees, int[] cores, int[] round, int k,
+                              int parallelism) {
+        int chunks = Math.min(round.length, parallelism * 4);
+        List<int[]> next = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            int[] found = new int[16];
+            int size = 0;
+            for (int i = chunk; i < round.length; i += chunks) {
+                int v = round[i];
+                for (int p = adjacency.offsets[v]; p < adjacency.offsets[v + 1]; p++) {
+                    int u = adjacency.neighbours[p];
+                    if (cores[u] >= 0 || degrees.get(u) <= k) {
+                        continue;
+                    }
+                    int degree = degrees.decrementAndGet(u);
+                    if (degree == k) {
+                        if (size == found.length) {
+                            found = Arrays.copyOf(found, size * 2);
+                        }
+                        found[size++] = u;
+                    } else if (degree < k) {
+                        // another thread brought it down to the level first
+                        degrees.incrementAndGet(u);
+                    }
+                }
+            }
+            return Arrays.copyOf(found, size);
+        }).collect(Collectors.toList());
+        return next.stream().flatMapToInt(Arrays::stream).toArray();
+    }
+}
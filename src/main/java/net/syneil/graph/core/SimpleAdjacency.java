@@ -0,0 +1,87 @@
+package net.syneil.graph.core;
+
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.Arrays;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+
+/**
+ * The neighbourhoods of the vertices of a compact graph as a simple undirected graph, in compressed sparse row form:
+ * edge directions are ignored, each neighbour appears once however many edges join it, and self-loops are dropped.
+ */
+final class SimpleAdjacency {
+    /**
+     * The first position of each vertex's neighbours, plus the end of the last vertex's
+     */
+    final int[] offsets;
+
+    /**
+     * The neighbour at each position, in ascending order within each vertex's range
+     */
+    final int[] neighbours;
+
+    private SimpleAdjacency(int[] offsets, int[] neighbours) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    static SimpleAdjacency of(CompactGraph<?, ?> graph) {
+        int n = graph.index().size();
+        boolean directed = graph.getProperties().getOrientation().orElse(DIRECTED) == DIRECTED;
+        int[] counts = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                int w = graph.target(p);
+                if (w != v) {
+                    counts[v + 1]++;
+                    if (directed) {
+                        counts[w + 1]++;
+                    }
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            counts[v + 1] += counts[v];
+        }
+        int[] next = Arrays.copyOf(counts, n), all = new int[counts[n]];
+        for (int v = 0; v < n; v++) {
+            for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                int w = graph.target(p);
+                if (w != v) {
+                    all[next[v]++] = w;
+                    if (directed) {
+                        all[next[w]++] = v;
+                    }
+                }
+            }
+        }
+        // sort and deduplicate each range, compacting the ranges towards the front
+        int[] offsets = new int[n + 1];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            Arrays.sort(all, counts[v], counts[v + 1]);
+            for (int p = counts[v]; p < counts[v + 1]; p++) {
+                if (p == counts[v] || all[p] != all[p - 1]) {
+                    all[size++] = all[p];
+                }
+            }
+            offsets[v + 1] = size;
+        }
+        return new SimpleAdjacency(offsets, size == all.length ? all : Arrays.copyOf(all, size));
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the number of neighbours of a vertex
+     */
+    int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+}
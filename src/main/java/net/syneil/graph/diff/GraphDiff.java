@@ -0,0 +1,278 @@
+package net.syneil.graph.diff;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties.Orientation;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.compact.VertexIndex;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * The differences between two graphs: the vertices and edges removed from one, and those added to make the other.
+ * Edges have no equality of their own, so two edges are taken to be the same if they join the same vertices and are
+ * {@link #sameLabels() equivalent}; in a multigraph, each edge of one graph is matched with at most one of the other.
+ * <p>
+ * The graphs are compared in time linear in their size: the vertices of both are numbered together, each graph copied
+ * into a {@link CompactGraph} over that numbering, so that its edges are sorted into adjacency rows, and the rows of
+ * each vertex merged. If both graphs are undirected, an edge matches its reverse.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class GraphDiff<V, E extends Edge<V>> {
+    /**
+     * The vertices only in the graph compared from
+     */
+    private final List<V> removedVertices;
+
+    /**
+     * The vertices only in the graph compared to
+     */
+    private final List<V> addedVertices;
+
+    /**
+     * The edges only in the graph compared from
+     */
+    private final List<E> removedEdges;
+
+    /**
+     * The edges only in the graph compared to
+     */
+    private final List<E> addedEdges;
+
+    private GraphDiff(List<V> removedVertices, List<V> addedVertices, List<E> removedEdges, List<E> addedEdges) {
+        this.removedVertices = removedVertices;
+        this.addedVertices = addedVertices;
+        this.removedEdges = removedEdges;
+        this.addedEdges = addedEdges;
+    }
+
+    /**
+     * @param <E> the type used for edges
+     *
+     * @return the default equivalence of edges joining the same vertices: {@link LabelledEdge labelled edges} are
+     * equivalent if their labels are equal, and any other edges are equivalent
+     */
+    public static <E extends Edge<?>> BiPredicate<E, E> sameLabels() {
+        return (a, b) -> !(a instanceof LabelledEdge) || !(b instanceof LabelledEdge)
+                ? !(a instanceof LabelledEdge) && !(b instanceof LabelledEdge)
+                : Objects.equals(((LabelledEdge<?, ?>) a).getLabel(), ((LabelledEdge<?, ?>) b).getLabel());
+    }
+
+    /**
+     * Compares two graphs, taking edges joining the same vertices to be the same if they have {@link #sameLabels() the
+     * same labels}.
+     *
+     * @param before the graph to compare from
+     * @param after the graph to compare to
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the differences from one graph to the other
+     */
+    public static <V, E extends Edge<V>> GraphDiff<V, E> of(Graph<V, ? extends E> before,
+                                                            Graph<V, ? extends E> after) {
+        return of(before, after, sameLabels());
+    }
+
+    /**
+     * Compares two graphs.
+     *
+     * @param before the graph to compare from
+     * @param after the graph to compare to
+     * @param equivalence whether an edge of the one graph is the same as an edge of the other joining the same
+     * vertices
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the differences from one graph to the other
+     */
+    public static <V, E extends Edge<V>> GraphDiff<V, E> of(Graph<V, ? extends E> before, Graph<V, ? extends E> after,
+                                                            BiPredicate<? super E, ? super E> equivalence) {
+        Objects.requireNonNull(before);
+        Objects.requireNonNull(after);
+        Objects.requireNonNull(equivalence);
+        boolean undirected = before.getProperties().getOrientation().orElse(DIRECTED) == UNDIRECTED
+                && after.getProperties().getOrientation().orElse(DIRECTED) == UNDIRECTED;
+        Map<V, Integer> ids = new HashMap<>();
+        List<V> vertices = new ArrayList<>(), removedVertices = new ArrayList<>(), addedVertices = new ArrayList<>();
+        before.vertices().forEach(vertex -> {
+            if (ids.putIfAbsent(vertex, ids.size()) == null) {
+                vertices.add(vertex);
+            }
+        });
+        int shared = ids.size();
+        boolean[] kept = new boolean[shared];
+        after.vertices().forEach(vertex -> {
+            Integer id = ids.putIfAbsent(vertex, ids.size());
+            if (id == null) {
+                vertices.add(vertex);
+                addedVertices.add(vertex);
+            } else if (id < shared) {
+                kept[id] = true;
+            }
+        });
+        before.vertices().forEach(vertex -> {
+            int id = ids.get(vertex);
+            if (!kept[id]) {
+                kept[id] = true; // report each vertex once, however many times it is streamed
+                removedVertices.add(vertex);
+            }
+        });
+        VertexIndex<V> index = VertexIndex.of(vertices);
+        Orientation orientation = undirected ? UNDIRECTED : DIRECTED;
+        CompactGraph<V, E> from = rows(before, index, orientation), to = rows(after, index, orientation);
+        List<E> removedEdges = new ArrayList<>(), addedEdges = new ArrayList<>();
+        for (int v = 0; v < vertices.size(); v++) {
+            int p = from.offset(v), q = to.offset(v), pEnd = from.offset(v + 1), qEnd = to.offset(v + 1);
+            if (undirected) {
+                // an undirected edge is in the rows of both its vertices; take it only from the row of the first
+                while (p < pEnd && from.target(p) < v) {
+                    p++;
+                }
+                while (q < qEnd && to.target(q) < v) {
+                    q++;
+                }
+            }
+            while (p < pEnd || q < qEnd) {
+                int x = p < pEnd ? from.target(p) : Integer.MAX_VALUE, y = q < qEnd ? to.target(q) : Integer.MAX_VALUE;
+                if (x < y) {
+                    removedEdges.add(from.edge(p++));
+                } else if (x > y) {
+                    addedEdges.add(to.edge(q++));
+                } else {
+                    int pGroup = p, qGroup = q;
+                    while (pGroup < pEnd && from.target(pGroup) == x) {
+                        pGroup++;
+                    }
+                    while (qGroup < qEnd && to.target(qGroup) == x) {
+                        qGroup++;
+                    }
+                    match(from, p, pGroup, to, q, qGroup, equivalence, removedEdges, addedEdges);
+                    p = pGroup;
+                    q = qGroup;
+                }
+            }
+        }
+        return new GraphDiff<>(removedVertices, addedVertices, removedEdges, addedEdges);
+    }
+
+    /**
+     * Copies a graph into adjacency rows, by the vertex numbering shared by both graphs compared, with each row in
+     * ascending order of target
+     */
+    private static <V, E extends Edge<V>> CompactGraph<V, E> rows(Graph<V, ? extends E> graph, VertexIndex<V> index,
+                                                                  Orientation orientation) {
+        CompactGraph.Builder<V, E> builder = CompactGraph.builder(index, orientation, (source, target) -> {
+            throw new IllegalStateException("All edges are retained");
+        });
+        graph.edges().forEach(edge -> builder.edge(index.indexOf(edge.getSource()), index.indexOf(edge.getTarget()),
+                                                   edge));
+        return builder.build();
+    }
+
+    /**
+     * Pairs off the equivalent edges between the same two vertices in each graph; the rest are removed or added
+     */
+    private static <V, E extends Edge<V>> void match(CompactGraph<V, E> from, int p, int pEnd,
+                                                     CompactGraph<V, E> to, int q, int qEnd,
+                                                     BiPredicate<? super E, ? super E> equivalence,
+                                                     List<E> removedEdges, List<E> addedEdges) {
+        if (pEnd - p == 1 && qEnd - q == 1) {
+            // the usual case, even in a multigraph
+            if (!equivalence.test(from.edge(p), to.edge(q))) {
+                removedEdges.add(from.edge(p));
+                addedEdges.add(to.edge(q));
+            }
+            return;
+        }
+        boolean[] matched = new boolean[qEnd - q];
+        for (int i = p; i < pEnd; i++) {
+            E edge = from.edge(i);
+            int j = 0;
+            while (j < matched.length && (matched[j] || !equivalence.test(edge, to.edge(q + j)))) {
+                j++;
+            }
+            if (j < matched.length) {
+                matched[j] = true;
+            } else {
+                removedEdges.add(edge);
+            }
+        }
+        for (int j = 0; j < matched.length; j++) {
+            if (!matched[j]) {
+                addedEdges.add(to.edge(q + j));
+            }
+        }
+    }
+
+    /**
+     * Determines whether two graphs have the same vertices and the same edges, as {@link #of(Graph, Graph)} compares
+     * them.
+     *
+     * @param a a graph
+     * @param b another graph
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return true if the graphs differ in no vertex or edge
+     */
+    public static <V, E extends Edge<V>> boolean equal(Graph<V, ? extends E> a, Graph<V, ? extends E> b) {
+        return GraphDiff.<V, E>of(a, b).isEmpty();
+    }
+
+    /**
+     * @return true if the graphs compared have the same vertices and edges
+     */
+    public boolean isEmpty() {
+        return removedVertices.isEmpty() && addedVertices.isEmpty() && removedEdges.isEmpty() && addedEdges.isEmpty();
+    }
+
+    /**
+     * @return the vertices only in the graph compared from, in the order it streams them
+     */
+    public Stream<V> removedVertices() {
+        return removedVertices.stream();
+    }
+
+    /**
+     * @return the vertices only in the graph compared to, in the order it streams them
+     */
+    public Stream<V> addedVertices() {
+        return addedVertices.stream();
+    }
+
+    /**
+     * @return the edges only in the graph compared from, grouped by source vertex
+     */
+    public Stream<E> removedEdges() {
+        return removedEdges.stream();
+    }
+
+    /**
+     * @return the edges only in the graph compared to, grouped by source vertex
+     */
+    public Stream<E> addedEdges() {
+        return addedEdges.stream();
+    }
+
+    /**
+     * @return the number of vertices and edges removed and added
+     */
+    public long size() {
+        return (long) removedVertices.size() + addedVertices.size() + removedEdges.size() + addedEdges.size();
+    }
+
+    @Override
+    public String toString() {
+        return "GraphDiff(-" + removedVertices.size() + " +" + addedVertices.size() + " vertices, -"
+                + removedEdges.size() + " +" + addedEdges.size() + " edges)";
+    }
+}
@@ -0,0 +1,258 @@
+package net.syneil.graph.diff;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.internal.SparseRows;
+import net.syneil.graph.internal.Tasks;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static net.syneil.graph.internal.Hashing.mix;
+
+/**
+ * A hash of the structure of a graph, after the Weisfeiler–Lehman test: every vertex starts with a colour, by default
+ * the same for all, and each iteration recolours every vertex, in parallel, with a hash of its colour and the multiset
+ * of its neighbours' colours (in a directed graph, those of its successors and of its predecessors separately). The
+ * hash of the graph combines the multisets of colours of every iteration, so that it does not depend on how the
+ * vertices are numbered or streamed: isomorphic graphs always have the same hash, and graphs with different hashes are
+ * never isomorphic. Graphs with the same hash are very likely isomorphic, but not certainly; edge labels are ignored.
+ * <p>
+ * Graphs that differ a little share most of their colours, so a bottom-k sketch of the distinct colours is kept too,
+ * from which the {@link #similarity similarity} of two graphs can be estimated without either graph: near-identical
+ * graphs can be found by comparing their hashes and sketches alone.
+ */
+public final class StructuralHash {
+    /**
+     * The options the hash was computed with
+     */
+    private final StructuralHashOptions options;
+
+    /**
+     * The hash of the graph
+     */
+    private final long hash;
+
+    /**
+     * The least distinct colours of every iteration, in ascending order
+     */
+    private final long[] sketch;
+
+    private StructuralHash(StructuralHashOptions options, long hash, long[] sketch) {
+        this.options = options;
+        this.hash = hash;
+        this.sketch = sketch;
+    }
+
+    /**
+     * Hashes the structure of a graph with the default options.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     *
+     * @return the hash
+     */
+    public static StructuralHash of(Graph<?, ?> graph) {
+        return of(graph, StructuralHashOptions.defaults());
+    }
+
+    /**
+     * Hashes the structure of a graph, starting every vertex with the same colour.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param options the number of iterations, the sketch size, the parallelism and the seed
+     *
+     * @return the hash
+     */
+    public static StructuralHash of(Graph<?, ?> graph, StructuralHashOptions options) {
+        return of(graph, vertex -> 0L, options);
+    }
+
+    /**
+     * Hashes the structure of a graph, starting each vertex with a colour of its own, so that graphs alike in structure
+     * but not in their vertices hash differently.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param colour the initial colour of each vertex; equal vertices must have equal colours, such as their {@link
+     * Object#hashCode() hash codes}
+     * @param options the number of iterations, the sketch size, the parallelism and the seed
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the hash
+     *
+     * @throws IllegalArgumentException if any option is invalid
+     */
+    public static <V, E extends Edge<V>> StructuralHash of(Graph<V, ? extends E> graph,
+                                                           ToLongFunction<? super V> colour,
+                                                           StructuralHashOptions options) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(colour);
+        Objects.requireNonNull(options);
+        if (options.getParallelism() < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (options.getIterations() < 0) {
+            throw new IllegalArgumentException("Iterations must not be negative");
+        }
+        if (options.getSketchSize() < 1) {
+            throw new IllegalArgumentException("Sketch size must be positive");
+        }
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            return Tasks.run(pool, () -> refine(compact, colour, options), "hashing a graph");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <V> StructuralHash refine(CompactGraph<V, ?> graph, ToLongFunction<? super V> colour,
+                                             StructuralHashOptions options) {
+        int n = graph.index().size();
+        boolean directed = graph.getProperties().getOrientation().orElse(DIRECTED) != UNDIRECTED;
+        SparseRows predecessors = directed ? SparseRows.transpose(n, graph::offset, graph::target) : null;
+        long seed = mix(options.getSeed()), successorSalt = mix(seed + 1), predecessorSalt = mix(seed + 2);
+        long[] colours = new long[n], next = new long[n];
+        IntStream.range(0, n).parallel()
+                 .forEach(v -> colours[v] = mix(seed ^ colour.applyAsLong(graph.vertexAt(v))));
+        long hash = mix(seed + n);
+        long[] sketch = new long[0];
+        for (int iteration = 0; ; iteration++) {
+            long salt = mix(seed + iteration + 3);
+            long[] current = iteration % 2 == 0 ? colours : next, recoloured = iteration % 2 == 0 ? next : colours;
+            // tagging each colour with its iteration keeps the colours of different iterations apart
+            long[] tagged = IntStream.range(0, n).parallel().mapToLong(v -> mix(current[v] ^ salt)).toArray();
+            // the sum of mixed colours is a hash of their multiset, whatever order they are summed in
+            hash = mix(hash + Arrays.stream(tagged).parallel().sum());
+            sketch = bottom(sketch, tagged, options.getSketchSize());
+            if (iteration == options.getIterations()) {
+                return new StructuralHash(options, hash, sketch);
+            }
+            IntStream.range(0, n).parallel().forEach(v -> {
+                long successors = 0L;
+                for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                    successors += mix(current[graph.target(p)] ^ successorSalt);
+                }
+                long recolour = mix(current[v] + successors);
+                if (predecessors != null) {
+                    long sum = 0L;
+                    for (int p = predecessors.offsets[v]; p < predecessors.offsets[v + 1]; p++) {
+                        sum += mix(current[predecessors.columns[p]] ^ predecessorSalt);
+                    }
+                    recolour = mix(recolour + sum);
+                }
+                recoloured[v] = recolour;
+            });
+        }
+    }
+
+    /**
+     * Merges the least distinct values of an array into a sketch.
+     *
+     * @param sketch the least distinct values so far, in ascending order
+     * @param values the values to merge, reordered
+     * @param size the greatest number of values to keep
+     *
+     * @return the least distinct values of both, in ascending order
+     */
+    private static long[] bottom(long[] sketch, long[] values, int size) {
+        Arrays.parallelSort(values);
+        long[] merged = new long[size];
+        int count = 0;
+        for (int i = 0, j = 0; count < size && (i < sketch.length || j < values.length); ) {
+            long value = j == values.length || i < sketch.length && sketch[i] <= values[j] ? sketch[i++] : values[j++];
+            if (count == 0 || merged[count - 1] != value) {
+                merged[count++] = value;
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    /**
+     * @return the hash of the graph, the same for isomorphic graphs
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return the options the hash was computed with
+     */
+    public StructuralHashOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Estimates the similarity of two graphs: the Jaccard similarity of the sets of colours of their vertices over
+     * every iteration, which is 1 for isomorphic graphs and falls as they differ in more neighbourhoods.
+     *
+     * @param other the hash of another graph
+     *
+     * @return the estimated similarity, in [0, 1]
+     *
+     * @throws IllegalArgumentException if the hashes were computed with different iterations, sketch sizes or seeds
+     */
+    public double similarity(StructuralHash other) {
+        Objects.requireNonNull(other);
+        if (options.getIterations() != other.options.getIterations()
+                || options.getSketchSize() != other.options.getSketchSize()
+                || options.getSeed() != other.options.getSeed()) {
+            throw new IllegalArgumentException("Hashes computed with different options cannot be compared");
+        }
+        if (sketch.length == 0 || other.sketch.length == 0) {
+            return sketch.length == other.sketch.length ? 1.0 : 0.0;
+        }
+        // the least values of the union are a sample of it; those in both sketches are a sample of the intersection
+        int union = 0, both = 0;
+        for (int i = 0, j = 0; union < options.getSketchSize() && (i < sketch.length || j < other.sketch.length);
+             union++) {
+            if (j == other.sketch.length || i < sketch.length && sketch[i] < other.sketch[j]) {
+                i++;
+            } else if (i == sketch.length || other.sketch[j] < sketch[i]) {
+                j++;
+            } else {
+                both++;
+                i++;
+                j++;
+            }
+        }
+        return (double) both / union;
+    }
+
+    /**
+     * @param o another object
+     *
+     * @return true if the other object is a structural hash with the same hash and sketch, computed with the same
+     * options
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StructuralHash)) {
+            return false;
+        }
+        StructuralHash other = (StructuralHash) o;
+        return hash == other.hash && Arrays.equals(sketch, other.sketch)
+                && options.getIterations() == other.options.getIterations()
+                && options.getSketchSize() == other.options.getSketchSize()
+                && options.getSeed() == other.options.getSeed();
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return "StructuralHash(" + Long.toHexString(hash) + ")";
+    }
+}
@@ -0,0 +1,77 @@
+package net.syneil.graph.diff;
+
+import lombok.Builder;
+import lombok.ToString;
+
+/**
+ * The configuration of a {@link StructuralHash}. Any option not set takes its default. Only hashes computed with the
+ * same number of iterations, sketch size and seed can be compared.
+ */
+@Builder
+@ToString
+public final class StructuralHashOptions {
+    /**
+     * The default number of refinements of the vertices' colours
+     */
+    public static final int DEFAULT_ITERATIONS = 3;
+
+    /**
+     * The default number of colours kept in the sketch
+     */
+    public static final int DEFAULT_SKETCH_SIZE = 256;
+
+    /**
+     * The number of threads refining the colours
+     */
+    private final Integer parallelism;
+
+    /**
+     * The number of refinements of the vertices' colours: each takes in the structure one more hop from each vertex
+     */
+    private final Integer iterations;
+
+    /**
+     * The number of colours kept in the sketch: more estimate the similarity of graphs more closely
+     */
+    private final Integer sketchSize;
+
+    /**
+     * The seed of the hash functions
+     */
+    private final Long seed;
+
+    /**
+     * @return the options with every default
+     */
+    public static StructuralHashOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return the number of threads; the number of available processors by default
+     */
+    public int getParallelism() {
+        return parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * @return the number of refinements of the vertices' colours
+     */
+    public int getIterations() {
+        return iterations == null ? DEFAULT_ITERATIONS : iterations;
+    }
+
+    /**
+     * @return the number of colours kept in the sketch
+     */
+    public int getSketchSize() {
+        return sketchSize == null ? DEFAULT_SKETCH_SIZE : sketchSize;
+    }
+
+    /**
+     * @return the seed of the hash functions; 0 by default
+     */
+    public long getSeed() {
+        return seed == null ? 0L : seed;
+    }
+}
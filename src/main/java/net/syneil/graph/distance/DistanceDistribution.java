@@ -0,0 +1,224 @@
+package net.syneil.graph.distance;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.Objects;
+
+/**
+ * The distances in a graph, as estimated by {@link HyperBall}: the neighbourhood function, which counts the pairs of
+ * vertices within each distance of each other, and the statistics that follow from it; and for each vertex, the number
+ * of vertices it reaches and its harmonic and closeness centrality. Per-vertex estimates are held as primitive arrays
+ * by the vertices' indices in the {@link #getGraph() compact graph} examined.
+ * <p>
+ * Distances are measured along edges from each vertex, or against them if the balls were transposed; the pair of a
+ * vertex with itself is at distance 0, and pairs of vertices that do not reach each other are at no distance at all.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class DistanceDistribution<V, E extends Edge<V>> {
+    /**
+     * The default fraction of the pairs of vertices at a positive distance from each other within the effective
+     * diameter
+     */
+    public static final double DEFAULT_EFFECTIVE_FRACTION = 0.9;
+
+    /**
+     * The graph examined
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The estimated number of pairs of vertices within each distance, from 0 to the last distance at which any ball
+     * grew
+     */
+    private final double[] function;
+
+    /**
+     * The estimated number of vertices each vertex reaches, itself included
+     */
+    private final double[] reach;
+
+    /**
+     * The estimated sum of the reciprocals of the distances from each vertex to the other vertices it reaches
+     */
+    private final double[] harmonic;
+
+    /**
+     * The estimated sum of the distances from each vertex to the vertices it reaches
+     */
+    private final double[] distances;
+
+    DistanceDistribution(CompactGraph<V, E> graph, double[] function, double[] reach, double[] harmonic,
+                         double[] distances) {
+        this.graph = graph;
+        this.function = function;
+        this.reach = reach;
+        this.harmonic = harmonic;
+        this.distances = distances;
+    }
+
+    /**
+     * @return the graph examined, whose indices the per-vertex estimates are by
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return a copy of the neighbourhood function: the estimated number of ordered pairs of vertices within each
+     * distance of each other, from 0 to the diameter
+     */
+    public double[] neighbourhoodFunction() {
+        return function.clone();
+    }
+
+    /**
+     * @return the last distance at which any ball grew, which is the diameter unless the growth of the last balls went
+     * undetected, or their growth was cut short by the greatest distance given
+     */
+    public int getDiameter() {
+        return function.length - 1;
+    }
+
+    /**
+     * @return the estimated fraction of the ordered pairs of vertices at a positive distance from each other that are
+     * at each distance, from 0 to the diameter
+     */
+    public double[] distanceDistribution() {
+        double[] distribution = new double[function.length];
+        double pairs = function[function.length - 1] - function[0];
+        for (int t = 1; t < function.length && pairs > 0.0; t++) {
+            distribution[t] = (function[t] - function[t - 1]) / pairs;
+        }
+        return distribution;
+    }
+
+    /**
+     * @return the estimated average distance between the ordered pairs of vertices at a positive distance from each
+     * other, or 0 if there are none
+     */
+    public double getAverageDistance() {
+        double[] distribution = distanceDistribution();
+        double average = 0.0;
+        for (int t = 1; t < distribution.length; t++) {
+            average += t * distribution[t];
+        }
+        return average;
+    }
+
+    /**
+     * @return the estimated effective diameter: the distance within which 90% of the ordered pairs of vertices at a
+     * positive distance from each other are
+     */
+    public double getEffectiveDiameter() {
+        return getEffectiveDiameter(DEFAULT_EFFECTIVE_FRACTION);
+    }
+
+    /**
+     * Estimates the distance within which a fraction of the ordered pairs of vertices at a positive distance from each
+     * other are, interpolating linearly between whole distances.
+     *
+     * @param fraction the fraction, in {@code (0, 1]}
+     *
+     * @return the effective diameter, or 0 if no pairs of vertices are at a positive distance
+     *
+     * @throws IllegalArgumentException if the fraction is not in {@code (0, 1]}
+     */
+    public double getEffectiveDiameter(double fraction) {
+        if (!(fraction > 0.0 && fraction <= 1.0)) {
+            throw new IllegalArgumentException("Fraction must be in (0, 1]");
+        }
+        double pairs = function[function.length - 1] - function[0], wanted = fraction * pairs;
+        for (int t = 1; t < function.length; t++) {
+            double within = function[t] - function[0];
+            if (within >= wanted) {
+                double before = function[t - 1] - function[0];
+                return t - 1 + (wanted - before) / (within - before);
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the estimated number of vertices the vertex reaches, itself included
+     */
+    public double reach(int vertex) {
+        return reach[vertex];
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the estimated number of vertices the vertex reaches, itself included, or -1 if it is not in the graph
+     */
+    public double reach(V vertex) {
+        int index = indexOf(vertex);
+        return index < 0 ? -1 : reach[index];
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the vertex's estimated harmonic centrality: the sum of the reciprocals of its distances to the other
+     * vertices
+     */
+    public double harmonicCentrality(int vertex) {
+        return harmonic[vertex];
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the vertex's estimated harmonic centrality, or -1 if it is not in the graph
+     */
+    public double harmonicCentrality(V vertex) {
+        int index = indexOf(vertex);
+        return index < 0 ? -1 : harmonic[index];
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the vertex's estimated closeness centrality: the reciprocal of the sum of its distances to the vertices
+     * it reaches, or 0 if it reaches none
+     */
+    public double closenessCentrality(int vertex) {
+        return distances[vertex] > 0.0 ? 1.0 / distances[vertex] : 0.0;
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the vertex's estimated closeness centrality, or -1 if it is not in the graph
+     */
+    public double closenessCentrality(V vertex) {
+        int index = indexOf(vertex);
+        return index < 0 ? -1 : closenessCentrality(index);
+    }
+
+    /**
+     * @return a copy of the estimated harmonic centrality of each vertex, by index
+     */
+    public double[] harmonicCentralities() {
+        return harmonic.clone();
+    }
+
+    /**
+     * @return the estimated closeness centrality of each vertex, by index
+     */
+    public double[] closenessCentralities() {
+        double[] closeness = new double[distances.length];
+        for (int v = 0; v < closeness.length; v++) {
+            closeness[v] = closenessCentrality(v);
+        }
+        return closeness;
+    }
+
+    private int indexOf(V vertex) {
+        return graph.indexOf(Objects.requireNonNull(vertex));
+    }
+}
@@ -0,0 +1,277 @@
+package net.syneil.graph.distance;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.internal.SparseRows;
+import net.syneil.graph.internal.Tasks;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.internal.Hashing.mix;
+
+/**
+ * Estimates the distances in a graph by Boldi and Vigna's HyperBall, a refinement of Palmer, Gibbons and Faloutsos's
+ * approximate neighbourhood function. Each vertex keeps a HyperLogLog counter of the ball of vertices within distance t
+ * of it; the balls at distance t + 1 are the unions of the balls of each vertex's neighbours at distance t, so every
+ * iteration costs one pass over the edges, whatever the number of vertices in the balls. The sizes of the balls give
+ * the neighbourhood function of the graph, from which its distance distribution, average distance and effective
+ * diameter follow, and, as they grow, each vertex's harmonic and closeness centrality.
+ * <p>
+ * Counters are arrays of six-bit registers, packed ten to a long and merged by a broadword maximum; only the counters
+ * of neighbours that changed in the previous iteration are merged. Vertices are split into blocks of consecutive
+ * indices, computed in parallel, and sums are taken in the order of the blocks, so the estimates are the same whatever
+ * the parallelism.
+ */
+public final class HyperBall {
+    /**
+     * The number of vertices in a block
+     */
+    private static final int BLOCK_SIZE = 1024;
+
+    private HyperBall() {
+    }
+
+    /**
+     * Estimates the distances in a graph with the default options.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the estimated distance distribution and centralities
+     */
+    public static <V, E extends Edge<V>> DistanceDistribution<V, E> run(Graph<V, ? extends E> graph) {
+        return run(graph, HyperBallOptions.defaults());
+    }
+
+    /**
+     * Estimates the distances in a graph.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param options the parallelism, precision, direction and limit on distance
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the estimated distance distribution and centralities
+     *
+     * @throws IllegalArgumentException if any option is invalid, or the counters of every vertex are too many to hold
+     * in an array at the precision given
+     */
+    public static <V, E extends Edge<V>> DistanceDistribution<V, E> run(Graph<V, ? extends E> graph,
+                                                                        HyperBallOptions options) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(options);
+        if (options.getParallelism() < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (options.getLog2m() < HyperBallOptions.MIN_LOG2M || options.getLog2m() > HyperBallOptions.MAX_LOG2M) {
+            throw new IllegalArgumentException("log2m must be in [" + HyperBallOptions.MIN_LOG2M + ", "
+                                                       + HyperBallOptions.MAX_LOG2M + "]");
+        }
+        if (options.getMaxDistance() < 0) {
+            throw new IllegalArgumentException("Maximum distance must not be negative");
+        }
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        HyperLogLogCounters counters = new HyperLogLogCounters(options.getLog2m());
+        long words = (long) compact.index().size() * counters.words;
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many vertices for counters of 2^" + options.getLog2m()
+                                                       + " registers");
+        }
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            return Tasks.run(pool, () -> new Balls<>(compact, counters, options).grow(), "estimating distances");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The counters of the balls around every vertex, as they grow
+     *
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     */
+    private static final class Balls<V, E extends Edge<V>> {
+        /**
+         * The graph
+         */
+        private final CompactGraph<V, E> graph;
+
+        /**
+         * The layout of the counters
+         */
+        private final HyperLogLogCounters counters;
+
+        /**
+         * The greatest distance to which balls are grown
+         */
+        private final int maxDistance;
+
+        /**
+         * The number of vertices
+         */
+        private final int n;
+
+        /**
+         * The number of blocks of vertices
+         */
+        private final int blocks;
+
+        /**
+         * The first position of each vertex's neighbours, whose balls its ball grows from, plus the end of the last
+         */
+        private final int[] offsets;
+
+        /**
+         * The neighbours of each vertex
+         */
+        private final int[] neighbours;
+
+        /**
+         * The estimated size of each vertex's ball
+         */
+        private final double[] sizes;
+
+        /**
+         * The sum over each vertex's ball of the reciprocals of the distances to the vertices in it
+         */
+        private final double[] harmonic;
+
+        /**
+         * The sum over each vertex's ball of the distances to the vertices in it
+         */
+        private final double[] distances;
+
+        /**
+         * The counters at the last distance
+         */
+        private long[] current;
+
+        /**
+         * The counters at the next distance
+         */
+        private long[] next;
+
+        /**
+         * Whether each counter changed at the last distance
+         */
+        private boolean[] changed;
+
+        /**
+         * Whether each counter changed at the next distance
+         */
+        private boolean[] changing;
+
+        private Balls(CompactGraph<V, E> graph, HyperLogLogCounters counters, HyperBallOptions options) {
+            this.graph = graph;
+            this.counters = counters;
+            this.maxDistance = options.getMaxDistance();
+            this.n = graph.index().size();
+            this.blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            if (options.isTransposed()) {
+                SparseRows transposed = SparseRows.transpose(n, graph::offset, graph::target);
+                this.offsets = transposed.offsets;
+                this.neighbours = transposed.columns;
+            } else {
+                this.offsets = IntStream.rangeClosed(0, n).map(graph::offset).toArray();
+                this.neighbours = IntStream.range(0, graph.size()).map(graph::target).toArray();
+            }
+            this.current = new long[n * counters.words];
+            this.next = new long[n * counters.words];
+            this.sizes = new double[n];
+            this.harmonic = new double[n];
+            this.distances = new double[n];
+            this.changed = new boolean[n];
+            this.changing = new boolean[n];
+            long seed = mix(options.getSeed());
+            IntStream.range(0, n).parallel().forEach(v -> {
+                counters.add(current, v, mix(seed + v));
+                sizes[v] = counters.count(current, v);
+                changed[v] = true;
+            });
+        }
+
+        private DistanceDistribution<V, E> grow() {
+            double[] function = new double[16];
+            function[0] = sum(sizes);
+            int distance = 0;
+            while (distance < maxDistance) {
+                int t = distance + 1;
+                long growing = IntStream.range(0, blocks).parallel().mapToLong(block -> grow(block, t)).sum();
+                if (growing == 0) {
+                    break;
+                }
+                long[] counters = current;
+                current = next;
+                next = counters;
+                boolean[] flags = changed;
+                changed = changing;
+                changing = flags;
+                distance = t;
+                if (distance == function.length) {
+                    function = Arrays.copyOf(function, distance * 2);
+                }
+                function[distance] = sum(sizes);
+            }
+            return new DistanceDistribution<>(graph, Arrays.copyOf(function, distance + 1), sizes, harmonic,
+                                              distances);
+        }
+
+        /**
+         * Grows the balls of a block of vertices to a distance, from the balls of their neighbours that changed at
+         * the distance before.
+         *
+         * @return the number of balls that grew
+         */
+        private long grow(int block, int t) {
+            int first = block * BLOCK_SIZE, last = Math.min(n, first + BLOCK_SIZE), words = counters.words;
+            System.arraycopy(current, first * words, next, first * words, (last - first) * words);
+            long growing = 0;
+            for (int v = first; v < last; v++) {
+                boolean grew = false;
+                for (int p = offsets[v]; p < offsets[v + 1]; p++) {
+                    int w = neighbours[p];
+                    if (changed[w] && w != v) {
+                        grew |= counters.union(next, v, current, w);
+                    }
+                }
+                changing[v] = grew;
+                if (grew) {
+                    growing++;
+                    double size = counters.count(next, v);
+                    // the estimate may fall where it changes method; sizes are kept monotonic
+                    if (size > sizes[v]) {
+                        harmonic[v] += (size - sizes[v]) / t;
+                        distances[v] += (size - sizes[v]) * t;
+                        sizes[v] = size;
+                    }
+                }
+            }
+            return growing;
+        }
+
+        /**
+         * Sums by block, in block order, so that the sum does not depend on the parallelism
+         */
+        private double sum(double[] values) {
+            double[] sums = new double[blocks];
+            IntStream.range(0, blocks).parallel().forEach(block -> {
+                double sum = 0.0;
+                for (int v = block * BLOCK_SIZE; v < Math.min(n, (block + 1) * BLOCK_SIZE); v++) {
+                    sum += values[v];
+                }
+                sums[block] = sum;
+            });
+            double sum = 0.0;
+            for (double value : sums) {
+                sum += value;
+            }
+            return sum;
+        }
+    }
+}
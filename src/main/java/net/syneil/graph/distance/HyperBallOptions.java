@@ -0,0 +1,96 @@
+package net.syneil.graph.distance;
+
+import lombok.Builder;
+import lombok.ToString;
+
+/**
+ * The configuration of {@link HyperBall}. Any option not set takes its default.
+ */
+@Builder
+@ToString
+public final class HyperBallOptions {
+    /**
+     * The default base-2 logarithm of the number of registers in each counter, for a relative standard deviation of
+     * about 9%
+     */
+    public static final int DEFAULT_LOG2M = 7;
+
+    /**
+     * The least base-2 logarithm of the number of registers in each counter
+     */
+    public static final int MIN_LOG2M = 4;
+
+    /**
+     * The greatest base-2 logarithm of the number of registers in each counter
+     */
+    public static final int MAX_LOG2M = 16;
+
+    /**
+     * The number of threads computing
+     */
+    private final Integer parallelism;
+
+    /**
+     * The base-2 logarithm of the number of registers in each counter: each one more doubles the memory used and
+     * divides the relative standard deviation of the estimates by √2
+     */
+    private final Integer log2m;
+
+    /**
+     * The greatest distance to which balls are grown
+     */
+    private final Integer maxDistance;
+
+    /**
+     * Whether balls grow against the direction of edges, so that each holds the vertices from which its centre can be
+     * reached, as harmonic and closeness centrality are usually defined for directed graphs
+     */
+    private final Boolean transposed;
+
+    /**
+     * The seed of the hashing of vertices into counters
+     */
+    private final Long seed;
+
+    /**
+     * @return the options with every default
+     */
+    public static HyperBallOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return the number of threads computing; the number of available processors by default
+     */
+    public int getParallelism() {
+        return parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * @return the base-2 logarithm of the number of registers in each counter
+     */
+    public int getLog2m() {
+        return log2m == null ? DEFAULT_LOG2M : log2m;
+    }
+
+    /**
+     * @return the greatest distance to which balls are grown; unbounded by default
+     */
+    public int getMaxDistance() {
+        return maxDistance == null ? Integer.MAX_VALUE : maxDistance;
+    }
+
+    /**
+     * @return whether balls grow against the direction of edges; false by default
+     */
+    public boolean isTransposed() {
+        return transposed != null && transposed;
+    }
+
+    /**
+     * @return the seed of the hashing of vertices; 0 by default
+     */
+    public long getSeed() {
+        return seed == null ? 0L : seed;
+    }
+}
@@ -0,0 +1,157 @@
+package net.syneil.graph.distance;
+
+/**
+ * An array of HyperLogLog counters, each of 2<sup>log2m</sup> registers of six bits, packed ten to a long. The counters
+ * are held in an external array of longs, of {@link #words} longs per counter, so that two generations of counters can
+ * share one layout; registers are combined by a broadword maximum, ten at a time.
+ */
+final class HyperLogLogCounters {
+    /**
+     * The number of bits in each register
+     */
+    static final int REGISTER_WIDTH = 6;
+
+    /**
+     * The number of registers in each long
+     */
+    static final int REGISTERS_PER_WORD = Long.SIZE / REGISTER_WIDTH;
+
+    /**
+     * The greatest value of a register
+     */
+    private static final int MAX_REGISTER = (1 << REGISTER_WIDTH) - 1;
+
+    /**
+     * The lowest bit of each register in a long
+     */
+    private static final long LOW_BITS;
+
+    /**
+     * The highest bit of each register in a long
+     */
+    private static final long HIGH_BITS;
+
+    static {
+        long low = 0L;
+        for (int i = 0; i < REGISTERS_PER_WORD; i++) {
+            low |= 1L << (i * REGISTER_WIDTH);
+        }
+        LOW_BITS = low;
+        HIGH_BITS = low << (REGISTER_WIDTH - 1);
+    }
+
+    /**
+     * The base-2 logarithm of the number of registers in each counter
+     */
+    final int log2m;
+
+    /**
+     * The number of registers in each counter
+     */
+    final int registers;
+
+    /**
+     * The number of longs in each counter
+     */
+    final int words;
+
+    /**
+     * The constant of the HyperLogLog estimate, corrected for the number of registers
+     */
+    private final double alphaMSquared;
+
+    HyperLogLogCounters(int log2m) {
+        this.log2m = log2m;
+        this.registers = 1 << log2m;
+        this.words = (registers + REGISTERS_PER_WORD - 1) / REGISTERS_PER_WORD;
+        double alpha;
+        switch (registers) {
+            case 16:
+                alpha = 0.673;
+                break;
+            case 32:
+                alpha = 0.697;
+                break;
+            case 64:
+                alpha = 0.709;
+                break;
+            default:
+                alpha = 0.7213 / (1 + 1.079 / registers);
+        }
+        this.alphaMSquared = alpha * registers * registers;
+    }
+
+    /**
+     * Adds an element, by its hash, to a counter.
+     *
+     * @param counters the counters
+     * @param counter the counter to add to
+     * @param hash a uniformly distributed hash of the element
+     */
+    void add(long[] counters, int counter, long hash) {
+        int register = (int) (hash >>> (Long.SIZE - log2m));
+        int value = Math.min(MAX_REGISTER, Long.numberOfLeadingZeros(hash << log2m) + 1);
+        int word = counter * words + register / REGISTERS_PER_WORD, shift = register % REGISTERS_PER_WORD
+                * REGISTER_WIDTH;
+        long current = counters[word] >>> shift & MAX_REGISTER;
+        if (value > current) {
+            counters[word] = counters[word] & ~((long) MAX_REGISTER << shift) | (long) value << shift;
+        }
+    }
+
+    /**
+     * Merges one counter into another, as the union of their sets.
+     *
+     * @param target the counters holding the counter merged into
+     * @param t the counter merged into
+     * @param source the counters holding the counter merged from
+     * @param s the counter merged from
+     *
+     * @return true if the counter merged into changed, false otherwise
+     */
+    boolean union(long[] target, int t, long[] source, int s) {
+        boolean changed = false;
+        for (int i = t * words, j = s * words, end = i + words; i < end; i++, j++) {
+            long merged = max(target[i], source[j]);
+            if (merged != target[i]) {
+                target[i] = merged;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Computes the greatest of each pair of registers packed into two longs, without unpacking them: the high bit of
+     * each register of {@code (((x | H) - (y & ~H)) | (x ^ y)) ^ (x | ~y)} is set exactly where x's register is less
+     * than y's, after Boldi and Vigna, and spreading it over the register gives a mask selecting y's.
+     */
+    static long max(long x, long y) {
+        long less = ((((x | HIGH_BITS) - (y & ~HIGH_BITS)) | (x ^ y)) ^ (x | ~y)) & HIGH_BITS;
+        long mask = (less << 1) - (less >>> (REGISTER_WIDTH - 1));
+        return x & ~mask | y & mask;
+    }
+
+    /**
+     * @param counters the counters
+     * @param counter a counter
+     *
+     * @return the estimated number of distinct elements added to the counter
+     */
+    double count(long[] counters, int counter) {
+        double sum = 0.0;
+        int zeros = 0;
+        for (int register = 0; register < registers; register++) {
+            int value = (int) (counters[counter * words + register / REGISTERS_PER_WORD]
+                    >>> register % REGISTERS_PER_WORD * REGISTER_WIDTH & MAX_REGISTER);
+            sum += Math.scalb(1.0, -value);
+            zeros += value == 0 ? 1 : 0;
+        }
+        double estimate = alphaMSquared / sum;
+        if (estimate <= 2.5 * registers && zeros > 0) {
+            // linear counting is more accurate for small sets
+            return registers * Math.log((double) registers / zeros);
+        }
+        return estimate;
+    }
+}
@@ -0,0 +1,83 @@
+package net.syneil.graph.durable;
+
+import lombok.Builder;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * The configuration of a {@link DurableGraph}'s log. Any option not set takes its default.
+ */
+@Builder
+@ToString
+public final class DurabilityOptions {
+    /**
+     * The default size of a log segment, in bytes
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    /**
+     * The default number of operations between automatic checkpoints
+     */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 1L << 20;
+
+    /**
+     * The default interval between syncs under {@link SyncPolicy#INTERVAL}
+     */
+    public static final Duration DEFAULT_SYNC_INTERVAL = Duration.ofMillis(100);
+
+    /**
+     * When operations are synced
+     */
+    private final SyncPolicy syncPolicy;
+
+    /**
+     * The interval between syncs under {@link SyncPolicy#INTERVAL}
+     */
+    private final Duration syncInterval;
+
+    /**
+     * The size in bytes beyond which the log moves to a new segment
+     */
+    private final Long segmentSize;
+
+    /**
+     * The number of operations after which a checkpoint is taken automatically, or zero to only take them on request
+     */
+    private final Long checkpointInterval;
+
+    /**
+     * @return the options with every default
+     */
+    public static DurabilityOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return when operations are synced; {@link SyncPolicy#ALWAYS} by default
+     */
+    public SyncPolicy getSyncPolicy() {
+        return syncPolicy == null ? SyncPolicy.ALWAYS : syncPolicy;
+    }
+
+    /**
+     * @return the interval between syncs under {@link SyncPolicy#INTERVAL}
+     */
+    public Duration getSyncInterval() {
+        return syncInterval == null ? DEFAULT_SYNC_INTERVAL : syncInterval;
+    }
+
+    /**
+     * @return the size in bytes beyond which the log moves to a new segment
+     */
+    public long getSegmentSize() {
+        return segmentSize == null ? DEFAULT_SEGMENT_SIZE : segmentSize;
+    }
+
+    /**
+     * @return the number of operations after which a checkpoint is taken automatically, or zero for none
+     */
+    public long getCheckpointInterval() {
+        return checkpointInterval == null ? DEFAULT_CHECKPOINT_INTERVAL : checkpointInterval;
+    }
+}
@@ -0,0 +1,549 @@
+package net.syneil.graph.durable;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.MutableGraph;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+import static net.syneil.graph.durable.LogRecord.*;
+
+/**
+ * A mutable graph whose mutations survive crashes. Every mutation that changes the wrapped graph is appended to a
+ * write-ahead log of segment files in a directory, and is synced to the device according to a {@link SyncPolicy}.
+ * Checkpoints, snapshots of the whole graph, are taken every so many operations or on request, after which the log
+ * segments they cover are deleted. {@link #open Opening} a directory recovers the graph from the latest checkpoint and
+ * the operations logged after it, ignoring an operation torn by a crash at the end of the log.
+ * <p>
+ * Vertices and edges are stored as strings by a {@link GraphCodec}; an edge removed by {@link #removeEdge} is found
+ * again on recovery by its vertices and encoded label. Mutations may be made from several threads: each is applied and
+ * logged under the graph's lock, but waits for its sync outside it, so that concurrent mutations share syncs. Reads
+ * take the lock too, and the streams of vertices and edges are of copies.
+ * <pre>
+ *     var options = DurabilityOptions.builder().syncPolicy(SyncPolicy.INTERVAL).build();
+ *     try (var graph = DurableGraph.open(directory, new EdgeListGraph&lt;&gt;(), GraphCodec.strings(EdgeFactory.labelled()),
+ *                                        options)) {
+ *         graph.addEdge(new ObjectLabelledEdge&lt;&gt;("a", "b", "knows"));
+ *     }
+ * </pre>
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public class DurableGraph<V, E extends Edge<V>> implements MutableGraph<V, E>, Closeable {
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * The graph holding the vertices and edges
+     */
+    private final MutableGraph<V, E> graph;
+
+    /**
+     * Converts vertices and edges to and from strings
+     */
+    private final GraphCodec<V, E> codec;
+
+    /**
+     * The directory of the log and checkpoints
+     */
+    private final Path directory;
+
+    /**
+     * The configuration of the log
+     */
+    private final DurabilityOptions options;
+
+    /**
+     * The log of operations since the last checkpoint
+     */
+    private final WriteAheadLog log;
+
+    /**
+     * Syncs the log at intervals under {@link SyncPolicy#INTERVAL}; null otherwise
+     */
+    private final ScheduledExecutorService syncer;
+
+    /**
+     * Held while a checkpoint is taken
+     */
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+
+    /**
+     * The number of operations logged since the last checkpoint
+     */
+    private long operationsSinceCheckpoint;
+
+    /**
+     * Whether logging has failed, leaving the log behind the graph; no more mutations are accepted
+     */
+    private volatile boolean failed;
+
+    /**
+     * Whether this graph has been closed
+     */
+    private volatile boolean closed;
+
+    private DurableGraph(MutableGraph<V, E> graph,
+                         GraphCodec<V, E> codec,
+                         Path directory,
+                         DurabilityOptions options,
+                         long lastSequence) throws IOException {
+        this.graph = graph;
+        this.codec = codec;
+        this.directory = directory;
+        this.options = options;
+        this.log = new WriteAheadLog(directory, options.getSegmentSize(), lastSequence);
+        if (options.getSyncPolicy() == SyncPolicy.INTERVAL) {
+            long interval = options.getSyncInterval().toNanos();
+            this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "graph-log-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.NANOSECONDS);
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    /**
+     * Opens a durable graph in a directory with the {@link DurabilityOptions#defaults() default options}.
+     *
+     * @param directory the directory of the log and checkpoints
+     * @param graph the empty graph to hold the vertices and edges
+     * @param codec converts vertices and edges to and from strings
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the durable graph
+     *
+     * @throws IOException if the directory cannot be read or written, or its latest checkpoint is corrupt
+     * @see #open(Path, MutableGraph, GraphCodec, DurabilityOptions)
+     */
+    public static <V, E extends Edge<V>> DurableGraph<V, E> open(Path directory,
+                                                                 MutableGraph<V, E> graph,
+                                                                 GraphCodec<V, E> codec) throws IOException {
+        return open(directory, graph, codec, DurabilityOptions.defaults());
+    }
+
+    /**
+     * Opens a durable graph in a directory, recovering into an empty graph the vertices and edges logged there before.
+     * The directory is created if need be.
+     *
+     * @param directory the directory of the log and checkpoints
+     * @param graph the empty graph to hold the vertices and edges, which must afterwards only be modified through the
+     *         durable graph
+     * @param codec converts vertices and edges to and from strings
+     * @param options the configuration of the log
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the durable graph
+     *
+     * @throws IOException if the directory cannot be read or written, or its latest checkpoint is corrupt
+     * @throws IllegalArgumentException if the graph is not empty
+     */
+    public static <V, E extends Edge<V>> DurableGraph<V, E> open(Path directory,
+                                                                 MutableGraph<V, E> graph,
+                                                                 GraphCodec<V, E> codec,
+                                                                 DurabilityOptions options) throws IOException {
+        Objects.requireNonNull(directory);
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(codec);
+        Objects.requireNonNull(options);
+        if (!graph.isEmpty()) {
+            throw new IllegalArgumentException("The graph to recover into must be empty");
+        }
+        Files.createDirectories(directory);
+        long lastSequence = recover(directory, graph, codec);
+        return new DurableGraph<>(graph, codec, directory, options, lastSequence);
+    }
+
+    // ---- recovery
+
+    /**
+     * Loads the latest checkpoint and replays the log after it, truncating the log at the first torn or corrupt
+     * operation.
+     *
+     * @return the sequence number of the last operation recovered
+     */
+    private static <V, E extends Edge<V>> long recover(Path directory, MutableGraph<V, E> graph,
+                                                       GraphCodec<V, E> codec) throws IOException {
+        List<Path> checkpoints = checkpoints(directory);
+        long lastSequence = 0;
+        if (!checkpoints.isEmpty()) {
+            Path latest = checkpoints.get(checkpoints.size() - 1);
+            lastSequence = sequenceOf(latest);
+            try (var reader = new LogRecord.Reader(Files.newInputStream(latest), Files.size(latest))) {
+                LogRecord record;
+                while ((record = reader.next()) != null && record.operation != END) {
+                    apply(record, graph, codec);
+                }
+                if (record == null) {
+                    throw new IOException("Checkpoint is incomplete or corrupt: " + latest);
+                }
+            }
+        }
+
+        List<Path> segments = WriteAheadLog.segments(directory);
+        boolean truncated = false;
+        for (Path segment : segments) {
+            long sequence = WriteAheadLog.firstSequenceOf(segment) - 1;
+            if (truncated || sequence > lastSequence) {
+                // operations after a torn one, or after a gap, cannot be applied in order
+                truncated = true;
+                Files.delete(segment);
+                continue;
+            }
+            long size = Files.size(segment);
+            try (var reader = new LogRecord.Reader(Files.newInputStream(segment), size)) {
+                LogRecord record;
+                while ((record = reader.next()) != null) {
+                    if (++sequence > lastSequence) {
+                        apply(record, graph, codec);
+                        lastSequence = sequence;
+                    }
+                }
+                if (reader.validLength() < size) {
+                    truncated = true;
+                    try (FileChannel channel = FileChannel.open(segment, WRITE)) {
+                        channel.truncate(reader.validLength());
+                        channel.force(false);
+                    }
+                }
+            }
+        }
+        return lastSequence;
+    }
+
+    private static <V, E extends Edge<V>> void apply(LogRecord record, MutableGraph<V, E> graph,
+                                                     GraphCodec<V, E> codec) throws IOException {
+        String[] arguments = record.arguments;
+        switch (record.operation) {
+            case ADD_VERTEX:
+                graph.addVertex(codec.decodeVertex(arguments[0]));
+                return;
+            case REMOVE_VERTEX:
+                graph.removeVertex(codec.decodeVertex(arguments[0]));
+                return;
+            case ADD_EDGE:
+                graph.addEdge(codec.decodeEdge(arguments[0], arguments[1], arguments[2]));
+                return;
+            case REMOVE_EDGE:
+                V source = codec.decodeVertex(arguments[0]), target = codec.decodeVertex(arguments[1]);
+                graph.getEdges(source, target)
+                     .stream()
+                     .filter(edge -> Objects.equals(arguments[2], codec.encodeLabel(edge)))
+                     .findFirst()
+                     .ifPresent(graph::removeEdge);
+                return;
+            case REMOVE_EDGES:
+                graph.removeEdges(codec.decodeVertex(arguments[0]), codec.decodeVertex(arguments[1]));
+                return;
+        }
+        throw new IOException("Unknown operation in log: " + record.operation);
+    }
+
+    // ---- checkpoints
+
+    /**
+     * Takes a checkpoint: the log moves to a new segment, the graph as of the end of the old one is written to a new
+     * checkpoint file, and then the older checkpoints and log segments are deleted. Mutations are only held up while
+     * the graph's vertices and edges are copied.
+     *
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void checkpoint() throws IOException {
+        checkpointLock.lock();
+        try {
+            takeCheckpoint();
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    private void takeCheckpoint() throws IOException {
+        List<V> vertices;
+        List<E> edges;
+        long sequence;
+        synchronized (this) {
+            ensureUsable();
+            vertices = graph.vertices().collect(Collectors.toList());
+            edges = graph.edges().collect(Collectors.toList());
+            sequence = log.rotate();
+            operationsSinceCheckpoint = 0;
+        }
+        String name = CHECKPOINT_PREFIX + String.format("%020d", sequence);
+        Path temporary = directory.resolve(name + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+            for (V vertex : vertices) {
+                write(out, new LogRecord(ADD_VERTEX, codec.encodeVertex(vertex)));
+            }
+            for (E edge : edges) {
+                write(out, addEdgeRecord(edge));
+            }
+            write(out, new LogRecord(END));
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(name), ATOMIC_MOVE, REPLACE_EXISTING);
+        log.deleteSegmentsBefore(sequence + 1);
+        for (Path checkpoint : checkpoints(directory)) {
+            if (sequenceOf(checkpoint) < sequence) {
+                Files.deleteIfExists(checkpoint);
+            }
+        }
+    }
+
+    private static void write(OutputStream out, LogRecord record) throws IOException {
+        var framed = record.frame();
+        out.write(framed.array(), 0, framed.limit());
+    }
+
+    private static List<Path> checkpoints(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches(CHECKPOINT_PREFIX + "\\d+"))
+                        .sorted((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)))
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private static long sequenceOf(Path checkpoint) {
+        return Long.parseLong(checkpoint.getFileName().toString().substring(CHECKPOINT_PREFIX.length()));
+    }
+
+    // ---- logging
+
+    private LogRecord addEdgeRecord(E edge) {
+        return new LogRecord(ADD_EDGE, codec.encodeVertex(edge.getSource()), codec.encodeVertex(edge.getTarget()),
+                             codec.encodeLabel(edge));
+    }
+
+    /**
+     * Appends an operation to the log; must be called under the graph's lock, once the operation has been applied
+     */
+    private long log(LogRecord record) {
+        try {
+            operationsSinceCheckpoint++;
+            return log.append(record);
+        } catch (IOException e) {
+            failed = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits for an operation to be synced if the policy requires it, and takes a checkpoint if one is due; must be
+     * called outside the graph's lock
+     */
+    private void committed(long sequence) {
+        try {
+            if (options.getSyncPolicy() == SyncPolicy.ALWAYS) {
+                log.sync(sequence);
+            }
+            if (checkpointDue() && checkpointLock.tryLock()) {
+                try {
+                    if (checkpointDue()) {
+                        takeCheckpoint();
+                    }
+                } finally {
+                    checkpointLock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            failed = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized boolean checkpointDue() {
+        long interval = options.getCheckpointInterval();
+        return interval > 0 && operationsSinceCheckpoint >= interval;
+    }
+
+    private void syncQuietly() {
+        try {
+            log.sync();
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    private void ensureUsable() {
+        if (closed) {
+            throw new IllegalStateException("Graph is closed");
+        }
+        if (failed) {
+            throw new IllegalStateException("Graph is no longer durable after a failure to write its log");
+        }
+    }
+
+    /**
+     * Syncs the log and closes it. The graph can still be read, but no longer modified.
+     *
+     * @throws IOException if the log cannot be synced
+     */
+    @Override
+    public void close() throws IOException {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+        synchronized (this) {
+            closed = true;
+            log.close();
+        }
+    }
+
+    // ---- MutableGraph
+
+    @Override
+    public boolean addVertex(V v) {
+        Objects.requireNonNull(v);
+        var record = new LogRecord(ADD_VERTEX, codec.encodeVertex(v));
+        long sequence;
+        synchronized (this) {
+            ensureUsable();
+            if (!graph.addVertex(v)) {
+                return false;
+            }
+            sequence = log(record);
+        }
+        committed(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean removeVertex(V v) {
+        Objects.requireNonNull(v);
+        var record = new LogRecord(REMOVE_VERTEX, codec.encodeVertex(v));
+        long sequence;
+        synchronized (this) {
+            ensureUsable();
+            if (!graph.removeVertex(v)) {
+                return false;
+            }
+            sequence = log(record);
+        }
+        committed(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean addEdge(E edge) {
+        Objects.requireNonNull(edge);
+        var record = addEdgeRecord(edge);
+        long sequence;
+        synchronized (this) {
+            ensureUsable();
+            if (!graph.addEdge(edge)) {
+                return false;
+            }
+            sequence = log(record);
+        }
+        committed(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean removeEdges(V source, V target) {
+        var record = new LogRecord(REMOVE_EDGES, codec.encodeVertex(Objects.requireNonNull(source)),
+                                   codec.encodeVertex(Objects.requireNonNull(target)));
+        long sequence;
+        synchronized (this) {
+            ensureUsable();
+            if (!graph.removeEdges(source, target)) {
+                return false;
+            }
+            sequence = log(record);
+        }
+        committed(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(E edge) {
+        Objects.requireNonNull(edge);
+        var record = new LogRecord(REMOVE_EDGE, codec.encodeVertex(edge.getSource()),
+                                   codec.encodeVertex(edge.getTarget()), codec.encodeLabel(edge));
+        long sequence;
+        synchronized (this) {
+            ensureUsable();
+            if (!graph.removeEdge(edge)) {
+                return false;
+            }
+            sequence = log(record);
+        }
+        committed(sequence);
+        return true;
+    }
+
+    // ---- Graph
+
+    @Override
+    public synchronized long numberOfVertices() {
+        return graph.numberOfVertices();
+    }
+
+    @Override
+    public synchronized long numberOfEdges() {
+        return graph.numberOfEdges();
+    }
+
+    @Override
+    public synchronized Stream<? extends E> edges() {
+        return graph.edges().collect(Collectors.toList()).stream();
+    }
+
+    @Override
+    public synchronized Stream<? extends V> vertices() {
+        return graph.vertices().collect(Collectors.toList()).stream();
+    }
+
+    @Override
+    public synchronized boolean hasVertex(V vertex) {
+        return graph.hasVertex(vertex);
+    }
+
+    @Override
+    public synchronized boolean hasEdge(V source, V target) {
+        return graph.hasEdge(source, target);
+    }
+
+    @Override
+    public synchronized Set<? extends V> neighbours(V v) {
+        return graph.neighbours(v);
+    }
+
+    @Override
+    public synchronized List<? extends E> getEdges(V source, V target) {
+        return graph.getEdges(source, target);
+    }
+
+    @Override
+    public synchronized List<? extends E> getEdges(V source) {
+        return graph.getEdges(source);
+    }
+
+    @Override
+    public GraphProperties getProperties() {
+        return graph.getProperties();
+    }
+}
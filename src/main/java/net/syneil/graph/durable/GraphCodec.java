@@ -0,0 +1,81 @@
+package net.syneil.graph.durable;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.io.EdgeFactory;
+import net.syneil.graph.io.GraphExporter;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Converts the vertices and edges of a graph to and from the strings stored in a {@link DurableGraph}'s log and
+ * checkpoints, in the same terms as the importers and exporters of the {@code io} package.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class GraphCodec<V, E extends Edge<V>> {
+    /**
+     * Encodes vertices
+     */
+    private final Function<? super V, String> vertexEncoder;
+
+    /**
+     * Decodes vertices
+     */
+    private final Function<String, ? extends V> vertexDecoder;
+
+    /**
+     * Encodes the labels of edges, giving null for edges without one
+     */
+    private final Function<? super E, String> labelEncoder;
+
+    /**
+     * Recreates edges from their vertices and encoded labels
+     */
+    private final EdgeFactory<V, ? extends E> edgeFactory;
+
+    /**
+     * @param vertexEncoder encodes vertices
+     * @param vertexDecoder decodes vertices
+     * @param labelEncoder encodes the labels of edges, giving null for edges without one
+     * @param edgeFactory recreates edges from their vertices and encoded labels
+     */
+    public GraphCodec(Function<? super V, String> vertexEncoder,
+                      Function<String, ? extends V> vertexDecoder,
+                      Function<? super E, String> labelEncoder,
+                      EdgeFactory<V, ? extends E> edgeFactory) {
+        this.vertexEncoder = Objects.requireNonNull(vertexEncoder);
+        this.vertexDecoder = Objects.requireNonNull(vertexDecoder);
+        this.labelEncoder = Objects.requireNonNull(labelEncoder);
+        this.edgeFactory = Objects.requireNonNull(edgeFactory);
+    }
+
+    /**
+     * Creates a codec for graphs of string vertices, whose edge labels are encoded by {@link GraphExporter#labelOf}.
+     *
+     * @param edgeFactory recreates edges from their vertices and labels
+     * @param <E> the type used for edges
+     *
+     * @return the codec
+     */
+    public static <E extends Edge<String>> GraphCodec<String, E> strings(EdgeFactory<String, ? extends E> edgeFactory) {
+        return new GraphCodec<>(Function.identity(), Function.identity(), GraphExporter::labelOf, edgeFactory);
+    }
+
+    String encodeVertex(V vertex) {
+        return Objects.requireNonNull(vertexEncoder.apply(vertex));
+    }
+
+    V decodeVertex(String vertex) {
+        return vertexDecoder.apply(vertex);
+    }
+
+    String encodeLabel(E edge) {
+        return labelEncoder.apply(edge);
+    }
+
+    E decodeEdge(String source, String target, String label) {
+        return edgeFactory.create(decodeVertex(source), decodeVertex(target), label);
+    }
+}
@@ -0,0 +1,147 @@
+package net.syneil.graph.durable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * An operation stored in a log segment or checkpoint: an operation code and its string arguments, any of which may be
+ * null. On disk each record is framed by its length and a CRC-32 checksum, so that a record torn by a crash, or
+ * otherwise corrupted, is recognised when it is read back.
+ */
+final class LogRecord {
+    static final byte ADD_VERTEX = 1;
+    static final byte REMOVE_VERTEX = 2;
+    static final byte ADD_EDGE = 3;
+    static final byte REMOVE_EDGE = 4;
+    static final byte REMOVE_EDGES = 5;
+
+    /**
+     * Marks the end of a complete checkpoint
+     */
+    static final byte END = 0;
+
+    /**
+     * The number of bytes framing each record
+     */
+    static final int FRAME_SIZE = Integer.BYTES * 2;
+
+    /**
+     * The operation code
+     */
+    final byte operation;
+
+    /**
+     * The arguments of the operation
+     */
+    final String[] arguments;
+
+    LogRecord(byte operation, String... arguments) {
+        this.operation = operation;
+        this.arguments = arguments;
+    }
+
+    /**
+     * @return this record, framed for writing
+     */
+    ByteBuffer frame() {
+        var payload = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(payload)) {
+            out.writeByte(operation);
+            out.writeByte(arguments.length);
+            for (String argument : arguments) {
+                if (argument == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] bytes = payload.toByteArray();
+        var crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer framed = ByteBuffer.allocate(FRAME_SIZE + bytes.length);
+        framed.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+        return framed;
+    }
+
+    /**
+     * Reads framed records from a file, stopping at its end or at the first record that is incomplete or fails its
+     * checksum.
+     */
+    static final class Reader implements Closeable {
+        private final DataInputStream in;
+
+        /**
+         * The size of the file
+         */
+        private final long size;
+
+        /**
+         * The number of bytes of valid records read so far
+         */
+        private long validLength;
+
+        Reader(InputStream in, long size) {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            this.size = size;
+        }
+
+        /**
+         * @return the next record, or null if there are no more valid records
+         *
+         * @throws IOException if the file cannot be read
+         */
+        LogRecord next() throws IOException {
+            if (size - validLength < FRAME_SIZE) {
+                return null;
+            }
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 2 || length > size - validLength - FRAME_SIZE) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            var crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+            validLength += FRAME_SIZE + length;
+            return decode(payload);
+        }
+
+        private static LogRecord decode(byte[] payload) throws IOException {
+            var data = new DataInputStream(new ByteArrayInputStream(payload));
+            byte operation = data.readByte();
+            String[] arguments = new String[data.readUnsignedByte()];
+            for (int i = 0; i < arguments.length; i++) {
+                int length = data.readInt();
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    data.readFully(bytes);
+                    arguments[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+            return new LogRecord(operation, arguments);
+        }
+
+        /**
+         * @return the number of bytes of valid records read, after which any remaining bytes are torn or corrupt
+         */
+        long validLength() {
+            return validLength;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package net.syneil.graph.durable;
+
+/**
+ * When the operations written to a {@link DurableGraph}'s log are forced to the storage device. The stricter the
+ * policy, the fewer operations a crash of the machine can lose, and the lower the throughput of mutations.
+ */
+public enum SyncPolicy {
+    /**
+     * Every mutation returns only once its operation is on the device. Mutations made concurrently from several threads
+     * share a single sync (group commit), so throughput grows with the number of writers.
+     */
+    ALWAYS,
+
+    /**
+     * Operations are synced by a background thread at a fixed {@link DurabilityOptions#getSyncInterval() interval};
+     * a crash may lose the operations of the last interval.
+     */
+    INTERVAL,
+
+    /**
+     * Operations are buffered and written to the operating system when the buffer fills, and are only synced when the
+     * log moves to a new segment, at checkpoints and on closing; a crash may lose any operations since.
+     */
+    NEVER
+}
@@ -0,0 +1,269 @@
+package net.syneil.graph.durable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A log of operations held in a directory as a sequence of segment files, each named after the sequence number of its
+ * first operation. Operations are numbered consecutively from one, and are appended to a buffer that is written to the
+ * current segment when it fills or when the log is synced.
+ * <p>
+ * {@link #sync(long) Syncing} implements group commit: the thread that finds no sync in progress writes the buffer and
+ * forces the segment to the device for every operation appended so far, without holding the log's lock, so that other
+ * threads can go on appending; threads that find a sync in progress wait for it, and only start another if it did not
+ * cover their operations.
+ */
+final class WriteAheadLog implements Closeable {
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    /**
+     * The size of the buffer of operations not yet written to the segment
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The directory of the segments
+     */
+    private final Path directory;
+
+    /**
+     * The size in bytes beyond which a new segment is started
+     */
+    private final long segmentSize;
+
+    /**
+     * The operations not yet written to the current segment
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * The current segment
+     */
+    private FileChannel channel;
+
+    /**
+     * The size of the current segment, including the buffered operations
+     */
+    private long segmentBytes;
+
+    /**
+     * The sequence number of the last operation appended
+     */
+    private long lastSequence;
+
+    /**
+     * The sequence number of the last operation known to be on the device
+     */
+    private long durableSequence;
+
+    /**
+     * Whether a thread is forcing the current segment to the device
+     */
+    private boolean syncing;
+
+    /**
+     * Creates a log whose next operation starts a new segment, replacing any segment of the same name.
+     *
+     * @param directory the directory of the segments
+     * @param segmentSize the size in bytes beyond which a new segment is started
+     * @param lastSequence the sequence number of the last operation already logged
+     */
+    WriteAheadLog(Path directory, long segmentSize, long lastSequence) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.lastSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(directory.resolve(PREFIX + String.format("%020d", lastSequence + 1) + SUFFIX),
+                                   CREATE, WRITE, TRUNCATE_EXISTING);
+        segmentBytes = 0;
+    }
+
+    /**
+     * Appends an operation, starting a new segment first if the current one is full.
+     *
+     * @param record the operation
+     *
+     * @return the sequence number of the operation
+     */
+    synchronized long append(LogRecord record) throws IOException {
+        ensureOpen();
+        ByteBuffer framed = record.frame();
+        if (segmentBytes > 0 && segmentBytes + framed.remaining() > segmentSize) {
+            rotate();
+        }
+        segmentBytes += framed.remaining();
+        if (framed.remaining() > buffer.remaining()) {
+            drain();
+        }
+        if (framed.remaining() > buffer.remaining()) {
+            writeFully(framed);
+        } else {
+            buffer.put(framed);
+        }
+        return ++lastSequence;
+    }
+
+    /**
+     * Returns once an operation is on the device, syncing the current segment if need be.
+     *
+     * @param sequence the sequence number of the operation
+     */
+    void sync(long sequence) throws IOException {
+        while (true) {
+            FileChannel segment;
+            long upTo;
+            synchronized (this) {
+                while (syncing && durableSequence < sequence) {
+                    awaitSync();
+                }
+                if (durableSequence >= sequence) {
+                    return;
+                }
+                ensureOpen();
+                drain();
+                syncing = true;
+                segment = channel;
+                upTo = lastSequence;
+            }
+            boolean forced = false;
+            try {
+                segment.force(false);
+                forced = true;
+            } finally {
+                synchronized (this) {
+                    syncing = false;
+                    if (forced) {
+                        durableSequence = Math.max(durableSequence, upTo);
+                    }
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Syncs every operation appended so far.
+     */
+    void sync() throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = lastSequence;
+        }
+        sync(sequence);
+    }
+
+    /**
+     * Syncs and closes the current segment, so that the next operation starts a new one.
+     *
+     * @return the sequence number of the last operation in the closed segment
+     */
+    synchronized long rotate() throws IOException {
+        ensureOpen();
+        closeSegment();
+        openSegment();
+        return lastSequence;
+    }
+
+    /**
+     * Deletes the segments all of whose operations precede an operation.
+     *
+     * @param sequence the sequence number of the first operation to keep
+     */
+    void deleteSegmentsBefore(long sequence) throws IOException {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequenceOf(segments.get(i + 1)) <= sequence) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            closeSegment();
+            channel = null;
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        while (syncing) {
+            awaitSync();
+        }
+        drain();
+        channel.force(false);
+        channel.close();
+        durableSequence = lastSequence;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private void awaitSync() throws InterruptedIOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while syncing log");
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            throw new IOException("Log is closed");
+        }
+    }
+
+    /**
+     * @param directory a directory
+     *
+     * @return the segments in the directory, in order
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(WriteAheadLog::isSegment)
+                        .sorted((a, b) -> Long.compare(firstSequenceOf(a), firstSequenceOf(b)))
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX)
+                && name.substring(PREFIX.length(), name.length() - SUFFIX.length()).matches("\\d+");
+    }
+
+    /**
+     * @param segment a segment
+     *
+     * @return the sequence number of the segment's first operation
+     */
+    static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,83 @@
+package net.syneil.graph.edge;
+
+import lombok.Getter;
+import lombok.ToString;
+import net.syneil.graph.TemporalEdge;
+
+import java.util.Objects;
+
+/**
+ * An edge between two vertices that is valid for an interval of time
+ *
+ * @param <V> the type used for vertices
+ */
+@Getter
+@ToString
+public class IntervalEdge<V> implements TemporalEdge<V> {
+    /**
+     * The source vertex of this edge
+     */
+    private final V source;
+
+    /**
+     * The target vertex of this edge
+     */
+    private final V target;
+
+    /**
+     * The first time at which this edge is valid
+     */
+    private final long start;
+
+    /**
+     * The first time after its start at which this edge is no longer valid
+     */
+    private final long end;
+
+    /**
+     * @param source the source vertex
+     * @param target the target vertex
+     * @param start the first time at which the edge is valid
+     * @param end the first time after its start at which the edge is no longer valid
+     *
+     * @throws IllegalArgumentException if the end is before the start
+     */
+    public IntervalEdge(V source, V target, long start, long end) {
+        if (end < start) {
+            throw new IllegalArgumentException("Edge cannot end at " + end + " before it starts at " + start);
+        }
+        this.source = source;
+        this.target = target;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates an edge that is valid from a time on.
+     *
+     * @param source the source vertex
+     * @param target the target vertex
+     * @param start the first time at which the edge is valid
+     * @param <V> the type used for vertices
+     *
+     * @return the edge, with no end
+     */
+    public static <V> IntervalEdge<V> from(V source, V target, long start) {
+        return new IntervalEdge<>(source, target, start, Long.MAX_VALUE);
+    }
+
+    @Override
+    public boolean connects(V vertex) {
+        return Objects.equals(vertex, source) || Objects.equals(vertex, target);
+    }
+
+    @Override
+    public boolean hasSource(V vertex) {
+        return Objects.equals(vertex, source);
+    }
+
+    @Override
+    public boolean hasTarget(V vertex) {
+        return Objects.equals(vertex, target);
+    }
+}
@@ -1,6 +1,7 @@
 package net.syneil.graph.edgelist;
 
 import net.syneil.graph.*;
+import net.syneil.graph.GraphProperties.Cyclicity;
 import net.syneil.graph.GraphProperties.Looping;
 import net.syneil.graph.GraphProperties.Multiplicity;
 import net.syneil.graph.GraphProperties.Orientation;
@@ -14,6 +15,8 @@ import java.util.stream.Stream;
 
 import static net.syneil.graph.Edge.isBetween;
 import static net.syneil.graph.Edge.isFrom;
+import static net.syneil.graph.GraphProperties.Cyclicity.ACYCLIC;
+import static net.syneil.graph.GraphProperties.Cyclicity.CYCLIC;
 import static net.syneil.graph.GraphProperties.Looping.PERMITTED;
 import static net.syneil.graph.GraphProperties.Multiplicity.MULTIPLE;
 import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
@@ -23,6 +26,11 @@ import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
  * A graph described by a set of vertices and a set of edges
  */
 public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
+    /**
+     * A batch removal that shrinks the vertex or edge count by at least this factor triggers a {@link #compact()}
+     */
+    private static final int COMPACTION_FACTOR = 2;
+
     /**
      * The properties of this graph, with no empties
      */
@@ -37,7 +45,7 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
      * The operation that tries to remove an edge and returns true if successful; defined at construct-time for
      * optimisation
      */
-    private final BiPredicate<Set<E>, E> removeEdgePredicate;
+    private final BiPredicate<EdgeListGraph<V, E>, E> removeEdgePredicate;
 
     /**
      * The test for if adding an edge would violation this graph's multiplicity property; defined at construct-time for
@@ -55,19 +63,30 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
     private final Predicate<E> loopingViolationPredicate;
 
     /**
-     * The vertices of this graph
+     * The test for if an edge just added violates this graph's cyclicity property; defined at construct-time for
+     * optimisation
      */
-    private final Set<V> vertices = new HashSet<>();
+    private final BiPredicate<EdgeListGraph<V, E>, E> cycleViolationPredicate;
+
+    /**
+     * The topological order of the vertices, maintained only for directed acyclic graphs
+     */
+    private final DynamicTopologicalOrder<V> topologicalOrder;
+
+    /**
+     * The vertices of this graph, each mapped to the set of edges incident to it (whether as source or target)
+     */
+    private Map<V, Set<E>> incidence = new HashMap<>();
 
     /**
      * The edges of this graph
      */
-    private final Set<E> edges = new HashSet<>();
+    private Set<E> edges = new HashSet<>();
 
     /**
      * Creates an empty graph with default properties. The defaults are: {@link Multiplicity#MULTIPLE multiple} edges
-     * allowed between the same two nodes; {@link Orientation#DIRECTED directed} edges; and {@link Looping#PERMITTED
-     * self-loops} permitted.
+     * allowed between the same two nodes; {@link Orientation#DIRECTED directed} edges; {@link Looping#PERMITTED
+     * self-loops} permitted; and {@link Cyclicity#CYCLIC cycles} permitted.
      */
     public EdgeListGraph() {
         this(null);
@@ -76,8 +95,8 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
     /**
      * Creates an empty graph with the specified properties. If any of the properties are {@link Optional#empty()
      * undefined}, defaults will be assumed in their place. The defaults are: {@link Multiplicity#MULTIPLE multiple}
-     * edges allowed between the same two nodes; {@link Orientation#DIRECTED directed} edges; and {@link
-     * Looping#PERMITTED self-loops} permitted.
+     * edges allowed between the same two nodes; {@link Orientation#DIRECTED directed} edges; {@link Looping#PERMITTED
+     * self-loops} permitted; and {@link Cyclicity#CYCLIC cycles} permitted.
      *
      * @param properties the properties of this graph; null implies defaults
      */
@@ -87,29 +106,100 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
         var multiplicity = props.flatMap(GraphProperties::getMultiplicity).orElse(MULTIPLE);
         var orientation = props.flatMap(GraphProperties::getOrientation).orElse(DIRECTED);
         var looping = props.flatMap(GraphProperties::getLooping).orElse(PERMITTED);
+        var cyclicity = props.flatMap(GraphProperties::getCyclicity).orElse(CYCLIC);
         this.properties = GraphProperties.builder()
                                          .multiplicity(multiplicity)
                                          .orientation(orientation)
                                          .looping(looping)
+                                         .cyclicity(cyclicity)
                                          .build();
         edgeMatchPredicateSupplier = createEdgeMatchPredicateSupplier(orientation);
         removeEdgePredicate = createRemoveEdgePredicate(orientation);
         multiplicityViolationPredicate = createMultiplicityViolationCheck(multiplicity, orientation);
         loopingViolationPredicate = createLoopingViolationPredicate(looping);
         neighboursFunction = createNeighboursFunction(orientation);
+        cycleViolationPredicate = createCycleViolationPredicate(cyclicity, orientation);
+        topologicalOrder = cyclicity == ACYCLIC && orientation == DIRECTED ? new DynamicTopologicalOrder<>() : null;
     }
 
     @Override
     public boolean addVertex(V v) {
         Objects.requireNonNull(v);
-        return vertices.add(v);
+        if (incidence.containsKey(v)) {
+            return false;
+        }
+        incidence.put(v, new HashSet<>());
+        Optional.ofNullable(topologicalOrder).ifPresent(order -> order.addVertex(v));
+        return true;
     }
 
+    /**
+     * Removes a vertex and every edge incident to it. The incident edges are found through the vertex's incidence set,
+     * so the cost is proportional to the degree of the vertex rather than to the size of the graph.
+     *
+     * @param v the vertex to remove
+     *
+     * @return true if the graph was updated as a result of this call; false otherwise
+     */
     @Override
     public boolean removeVertex(V v) {
         Objects.requireNonNull(v);
-        // must NOT short-circuit the disjunction
-        return vertices.remove(v) | edges.removeIf(e -> e.connects(v));
+        Set<E> incident = incidence.remove(v);
+        if (incident == null) {
+            return false;
+        }
+        incident.forEach(this::unlink);
+        Optional.ofNullable(topologicalOrder).ifPresent(order -> order.removeVertex(v));
+        return true;
+    }
+
+    /**
+     * Removes several vertices and every edge incident to any of them. The cost is proportional to the sum of the
+     * degrees of the removed vertices. If the batch removes a large proportion of the graph, the underlying storage is
+     * compacted afterwards so that the memory used by the removed elements may be reclaimed.
+     *
+     * @param vs the vertices to remove
+     *
+     * @return true if the graph was updated as a result of this call; false otherwise
+     */
+    @Override
+    public boolean removeVertices(Collection<? extends V> vs) {
+        Objects.requireNonNull(vs);
+        int verticesBefore = incidence.size(), edgesBefore = edges.size();
+        vs.forEach(this::removeVertex);
+        int verticesAfter = incidence.size(), edgesAfter = edges.size();
+        if (verticesAfter < verticesBefore / COMPACTION_FACTOR || edgesAfter < edgesBefore / COMPACTION_FACTOR) {
+            compact();
+        }
+        return verticesAfter != verticesBefore;
+    }
+
+    /**
+     * Rebuilds the hash tables backing this graph at a size fit for their current contents. Hash-based collections
+     * never shrink by themselves, so after removing most of a graph the tables still occupy the space of the original.
+     */
+    public void compact() {
+        var compacted = new HashMap<V, Set<E>>(incidence.size() * 4 / 3 + 1);
+        incidence.forEach((vertex, incident) -> compacted.put(vertex, new HashSet<>(incident)));
+        incidence = compacted;
+        edges = new HashSet<>(edges);
+    }
+
+    /**
+     * Removes an edge from the edge set and from the incidence sets of both of its vertices, if they are still present.
+     *
+     * @param edge the edge to remove
+     *
+     * @return true if the edge was a part of this graph
+     */
+    private boolean unlink(E edge) {
+        if (!edges.remove(edge)) {
+            return false;
+        }
+        Optional.ofNullable(incidence.get(edge.getSource())).ifPresent(incident -> incident.remove(edge));
+        Optional.ofNullable(incidence.get(edge.getTarget())).ifPresent(incident -> incident.remove(edge));
+        Optional.ofNullable(topologicalOrder).ifPresent(order -> order.removeEdge(edge.getSource(), edge.getTarget()));
+        return true;
     }
 
     @Override
@@ -125,13 +215,22 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
             throw new GraphPropertyViolationException("Edge would violate the looping constraint of this graph");
         }
 
-        return edges.add(edge);
+        if (!edges.add(edge)) {
+            return false;
+        }
+        if (cycleViolationPredicate.test(this, edge)) {
+            edges.remove(edge);
+            throw new GraphPropertyViolationException("Edge would violate the cyclicity constraint of this graph");
+        }
+        incidence.get(edge.getSource()).add(edge);
+        incidence.get(edge.getTarget()).add(edge);
+        return true;
     }
 
     @Override
     public boolean hasVertex(V vertex) {
         Objects.requireNonNull(vertex);
-        return vertices.contains(vertex);
+        return incidence.containsKey(vertex);
     }
 
     @Override
@@ -149,18 +248,26 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
     public boolean removeEdges(V source, V target) {
         Objects.requireNonNull(source);
         Objects.requireNonNull(target);
-        return edges.removeIf(edgeMatchPredicateSupplier.apply(source, target));
+        Set<E> incident = incidence.get(source);
+        if (incident == null) {
+            return false;
+        }
+        var matches = incident.stream()
+                              .filter(edgeMatchPredicateSupplier.apply(source, target))
+                              .collect(Collectors.toList());
+        matches.forEach(this::unlink);
+        return !matches.isEmpty();
     }
 
     @Override
     public boolean removeEdge(E edge) {
         Objects.requireNonNull(edge);
-        return removeEdgePredicate.test(edges, edge);
+        return removeEdgePredicate.test(this, edge);
     }
 
     @Override
     public long numberOfVertices() {
-        return vertices.size();
+        return incidence.size();
     }
 
     @Override
@@ -170,7 +277,7 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
 
     @Override
     public Stream<? extends V> vertices() {
-        return vertices.stream();
+        return incidence.keySet().stream();
     }
 
     @Override
@@ -202,6 +309,39 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
         return properties;
     }
 
+    /**
+     * Returns the topological order of the vertices of this graph, if it is directed and {@link Cyclicity#ACYCLIC
+     * acyclic}. The order is maintained incrementally as edges are added, so reading it costs nothing beyond
+     * renumbering after vertex removals.
+     *
+     * @return the topological order of the vertices, or empty if this graph does not maintain one
+     */
+    public Optional<TopologicalOrder<V>> topologicalOrder() {
+        return Optional.ofNullable(topologicalOrder);
+    }
+
+    /**
+     * Determines if two vertices are connected, by breadth-first search of their incidence sets. Used only in
+     * undirected acyclic graphs, where an edge closes a cycle exactly when its vertices are already connected.
+     *
+     * @param source one vertex
+     * @param target another vertex
+     *
+     * @return true if there is a path between the vertices, false otherwise
+     */
+    private boolean connected(V source, V target) {
+        Set<V> seen = new HashSet<>(List.of(source));
+        Deque<V> queue = new ArrayDeque<>(seen);
+        while (!queue.isEmpty()) {
+            V vertex = queue.poll();
+            if (vertex.equals(target)) {
+                return true;
+            }
+            incidence.get(vertex).forEach(edge -> edge.other(vertex).filter(seen::add).ifPresent(queue::add));
+        }
+        return false;
+    }
+
     /**
      * Defines a graph's strategy for testing if an edge matches a source/target vertex pair according to an {@link
      * Orientation} property. That is, for {@link Orientation#DIRECTED directed} graphs, an edge matches such a pair if
@@ -236,11 +376,11 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
      *
      * @return the strategy to remove edges and return if the graph was updated as a result
      */
-    private static <V, E extends Edge<V>> BiPredicate<Set<E>, E> createRemoveEdgePredicate(Orientation orientation) {
+    private static <V, E extends Edge<V>> BiPredicate<EdgeListGraph<V, E>, E> createRemoveEdgePredicate(
+            Orientation orientation) {
         switch (orientation) {
-            case DIRECTED: return Set::remove;
-            case UNDIRECTED: return (edges, edge) -> edges.removeIf(
-                    e -> e.connects(edge.getSource()) && e.connects(edge.getTarget()));
+            case DIRECTED: return EdgeListGraph::unlink;
+            case UNDIRECTED: return (graph, edge) -> graph.removeEdges(edge.getSource(), edge.getTarget());
         }
         throw new Error();
     }
@@ -293,6 +433,33 @@ public class EdgeListGraph<V, E extends Edge<V>> implements MutableGraph<V, E> {
         throw new Error();
     }
 
+    /**
+     * Defines a graph's strategy for validating new edges' conformance to its {@link Cyclicity} property, once they
+     * have been added to the edge set. Graphs permitting {@link Cyclicity#CYCLIC cycles} cannot be violated. A
+     * {@link Orientation#DIRECTED directed} {@link Cyclicity#ACYCLIC acyclic} graph is violated if its topological
+     * order cannot accommodate the edge, and otherwise the order is updated to include it. An {@link
+     * Orientation#UNDIRECTED undirected} one is violated if the edge's vertices were already connected.
+     *
+     * @param cyclicity the cyclicity strategy
+     * @param orientation the orientation strategy
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the strategy for validating edges' conformance to a graph's cyclicity
+     */
+    private static <V, E extends Edge<V>> BiPredicate<EdgeListGraph<V, E>, E> createCycleViolationPredicate(
+            Cyclicity cyclicity,
+            Orientation orientation) {
+        if (cyclicity == CYCLIC) {
+            return ($1, $2) -> false;
+        }
+        switch (orientation) {
+            case DIRECTED: return (graph, edge) -> !graph.topologicalOrder.addEdge(edge.getSource(), edge.getTarget());
+            case UNDIRECTED: return (graph, edge) -> graph.connected(edge.getSource(), edge.getTarget());
+        }
+        throw new Error();
+    }
+
     private static <V, E extends Edge<V>> BiFunction<V, Graph<V, E>, Set<V>> createNeighboursFunction(
             final Orientation orientation) {
         switch (orientation) {
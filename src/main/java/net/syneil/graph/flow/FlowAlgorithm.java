@@ -0,0 +1,39 @@
+package net.syneil.graph.flow;
+
+/**
+ * The algorithms available for finding maximum flows.
+ */
+public enum FlowAlgorithm {
+    /**
+     * The highest-label push-relabel algorithm with the gap and global relabelling heuristics. Usually the faster
+     * choice on large, dense or hard networks.
+     */
+    PUSH_RELABEL {
+        @Override
+        long maxFlow(ResidualNetwork network, int source, int sink) {
+            return PushRelabel.maxFlow(network, source, sink);
+        }
+    },
+
+    /**
+     * Dinic's blocking flow algorithm. Usually the faster choice on sparse networks with short augmenting paths, and on
+     * unit-capacity networks such as those for matching and edge connectivity.
+     */
+    DINIC {
+        @Override
+        long maxFlow(ResidualNetwork network, int source, int sink) {
+            return Dinic.maxFlow(network, source, sink);
+        }
+    };
+
+    /**
+     * Finds a maximum flow, leaving it in the residual capacities of the network.
+     *
+     * @param network a network carrying no flow
+     * @param source the index of the source vertex
+     * @param sink the index of the sink vertex
+     *
+     * @return the value of the flow
+     */
+    abstract long maxFlow(ResidualNetwork network, int source, int sink);
+}
@@ -0,0 +1,220 @@
+package net.syneil.graph.flow;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.VertexIndex;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * A flow network built from a graph and the capacities of its edges. The topology is copied once into primitive arrays,
+ * so many maximum flow problems - between different vertices, or with different capacities - can be solved on it
+ * without touching the graph again.
+ * <p>
+ * Each edge of a {@link net.syneil.graph.GraphProperties.Orientation#DIRECTED directed} graph becomes an arc with the
+ * edge's capacity; each edge of an {@link net.syneil.graph.GraphProperties.Orientation#UNDIRECTED undirected} graph can
+ * carry flow either way, up to its capacity. Parallel edges are kept separate, so every edge has its own flow.
+ * <p>
+ * A network holds the state of the flow being found, so it cannot solve two problems at once. To solve problems in
+ * parallel, give each thread its own {@link #copy()}, which shares the topology.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class FlowNetwork<V, E extends Edge<V>> {
+    /**
+     * The indices of the vertices
+     */
+    private final VertexIndex<V> index;
+
+    /**
+     * The edges, in the order their arcs were given to the network
+     */
+    private final List<E> edges;
+
+    /**
+     * The position in the network of each edge's forward arc
+     */
+    private final int[] forwardArcs;
+
+    /**
+     * The number of each edge, by identity
+     */
+    private final Map<E, Integer> edgeNumbers;
+
+    /**
+     * Whether each edge can carry flow in both directions
+     */
+    private final boolean undirected;
+
+    /**
+     * The residual network
+     */
+    private final ResidualNetwork network;
+
+    private FlowNetwork(VertexIndex<V> index,
+                        List<E> edges,
+                        int[] forwardArcs,
+                        Map<E, Integer> edgeNumbers,
+                        boolean undirected,
+                        ResidualNetwork network) {
+        this.index = index;
+        this.edges = edges;
+        this.forwardArcs = forwardArcs;
+        this.edgeNumbers = edgeNumbers;
+        this.undirected = undirected;
+        this.network = network;
+    }
+
+    /**
+     * Builds the flow network of a graph.
+     *
+     * @param graph the graph
+     * @param capacity the capacity of each edge, which must not be negative; for example {@code LabelledEdge::getLabel}
+     *         for edges labelled with their capacities
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the flow network
+     *
+     * @throws IllegalArgumentException if any capacity is negative
+     */
+    public static <V, E extends Edge<V>> FlowNetwork<V, E> of(Graph<V, ? extends E> graph,
+                                                               ToLongFunction<? super E> capacity) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(capacity);
+        VertexIndex<V> index = VertexIndex.of(graph.vertices().collect(Collectors.toList()));
+        List<E> edges = graph.edges().collect(Collectors.toList());
+        boolean undirected = graph.getProperties().getOrientation().orElse(DIRECTED) == UNDIRECTED;
+
+        int arcs = 2 * edges.size();
+        int[] tails = new int[arcs], heads = new int[arcs];
+        long[] capacities = new long[arcs];
+        Map<E, Integer> edgeNumbers = new IdentityHashMap<>(edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            E edge = edges.get(i);
+            long c = checkCapacity(capacity.applyAsLong(edge));
+            int source = index.indexOf(edge.getSource()), target = index.indexOf(edge.getTarget());
+            tails[2 * i] = source;
+            heads[2 * i] = target;
+            capacities[2 * i] = c;
+            tails[2 * i + 1] = target;
+            heads[2 * i + 1] = source;
+            capacities[2 * i + 1] = undirected ? c : 0L;
+            edgeNumbers.put(edge, i);
+        }
+        int[] positions = new int[arcs];
+        ResidualNetwork network = ResidualNetwork.of(index.size(), tails, heads, capacities, positions);
+        int[] forwardArcs = new int[edges.size()];
+        for (int i = 0; i < forwardArcs.length; i++) {
+            forwardArcs[i] = positions[2 * i];
+        }
+        return new FlowNetwork<>(index, edges, forwardArcs, edgeNumbers, undirected, network);
+    }
+
+    private static long checkCapacity(long capacity) {
+        if (capacity < 0L) {
+            throw new IllegalArgumentException("negative capacity: " + capacity);
+        }
+        return capacity;
+    }
+
+    /**
+     * @return a network with the same vertices, edges and capacities, which can solve problems independently of this
+     *         one
+     */
+    public FlowNetwork<V, E> copy() {
+        return new FlowNetwork<>(index, edges, forwardArcs, edgeNumbers, undirected, network.copy());
+    }
+
+    /**
+     * @param edge an edge of the network
+     *
+     * @return the capacity of the edge
+     *
+     * @throws IllegalArgumentException if the edge is not in the network
+     */
+    public long getCapacity(E edge) {
+        return network.capacities[forwardArcs[numberOf(edge)]];
+    }
+
+    /**
+     * Changes the capacity of an edge, for the problems solved after this call.
+     *
+     * @param edge an edge of the network
+     * @param capacity its new capacity
+     *
+     * @throws IllegalArgumentException if the edge is not in the network, or the capacity is negative
+     */
+    public void setCapacity(E edge, long capacity) {
+        int arc = forwardArcs[numberOf(edge)];
+        network.capacities[arc] = checkCapacity(capacity);
+        if (undirected) {
+            network.capacities[network.reverse[arc]] = capacity;
+        }
+    }
+
+    private int numberOf(E edge) {
+        Integer number = edgeNumbers.get(Objects.requireNonNull(edge));
+        if (number == null) {
+            throw new IllegalArgumentException("edge is not in the network: " + edge);
+        }
+        return number;
+    }
+
+    /**
+     * Finds a maximum flow from the source to the sink using push-relabel.
+     *
+     * @param source the source vertex
+     * @param sink the sink vertex
+     *
+     * @return the flow, with a minimum cut
+     *
+     * @throws IllegalArgumentException if either vertex is not in the network, or they are the same
+     * @see #maxFlow(Object, Object, FlowAlgorithm)
+     */
+    public MaxFlow<V, E> maxFlow(V source, V sink) {
+        return maxFlow(source, sink, FlowAlgorithm.PUSH_RELABEL);
+    }
+
+    /**
+     * Finds a maximum flow from the source to the sink. The sum of the capacities leaving the source must fit in a
+     * {@code long}.
+     *
+     * @param source the source vertex
+     * @param sink the sink vertex
+     * @param algorithm the algorithm to use
+     *
+     * @return the flow, with a minimum cut
+     *
+     * @throws IllegalArgumentException if either vertex is not in the network, or they are the same
+     */
+    public MaxFlow<V, E> maxFlow(V source, V sink, FlowAlgorithm algorithm) {
+        Objects.requireNonNull(algorithm);
+        int s = indexOf(source), t = indexOf(sink);
+        if (s == t) {
+            throw new IllegalArgumentException("the source and sink are the same vertex: " + source);
+        }
+        network.reset();
+        long value = algorithm.maxFlow(network, s, t);
+        long[] flows = new long[forwardArcs.length];
+        for (int i = 0; i < flows.length; i++) {
+            int arc = forwardArcs[i];
+            flows[i] = network.capacities[arc] - network.residual[arc];
+        }
+        return new MaxFlow<>(index, edges, edgeNumbers, undirected, value, flows, network.reachableFrom(s));
+    }
+
+    private int indexOf(V vertex) {
+        int i = index.indexOf(Objects.requireNonNull(vertex));
+        if (i < 0) {
+            throw new IllegalArgumentException("vertex is not in the network: " + vertex);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,135 @@
+package net.syneil.graph.flow;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.compact.VertexIndex;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A maximum flow between two vertices of a {@link FlowNetwork}, with the minimum cut that proves it maximal. The source
+ * side of the cut is the set of vertices that the source can still reach along edges with spare capacity; the cut
+ * edges are those crossing from the source side to the sink side, all of which are saturated.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class MaxFlow<V, E extends Edge<V>> {
+    /**
+     * The indices of the vertices
+     */
+    private final VertexIndex<V> index;
+
+    /**
+     * The edges of the network
+     */
+    private final List<E> edges;
+
+    /**
+     * The number of each edge, by identity
+     */
+    private final Map<E, Integer> edgeNumbers;
+
+    /**
+     * Whether each edge can carry flow in both directions
+     */
+    private final boolean undirected;
+
+    /**
+     * The value of the flow
+     */
+    private final long value;
+
+    /**
+     * The flow along each edge
+     */
+    private final long[] flows;
+
+    /**
+     * Whether each vertex is on the source side of the cut
+     */
+    private final boolean[] sourceSide;
+
+    MaxFlow(VertexIndex<V> index,
+            List<E> edges,
+            Map<E, Integer> edgeNumbers,
+            boolean undirected,
+            long value,
+            long[] flows,
+            boolean[] sourceSide) {
+        this.index = index;
+        this.edges = edges;
+        this.edgeNumbers = edgeNumbers;
+        this.undirected = undirected;
+        this.value = value;
+        this.flows = flows;
+        this.sourceSide = sourceSide;
+    }
+
+    /**
+     * @return the value of the flow, which is also the capacity of the minimum cut
+     */
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * Gives the flow along an edge. In undirected networks the flow is negative if it runs from the edge's target to
+     * its source.
+     *
+     * @param edge an edge of the network
+     *
+     * @return the flow along the edge
+     *
+     * @throws IllegalArgumentException if the edge is not in the network
+     */
+    public long getFlow(E edge) {
+        Integer number = edgeNumbers.get(Objects.requireNonNull(edge));
+        if (number == null) {
+            throw new IllegalArgumentException("edge is not in the network: " + edge);
+        }
+        return flows[number];
+    }
+
+    /**
+     * @param vertex a vertex of the network
+     *
+     * @return true if the vertex is on the source side of the minimum cut, false otherwise
+     */
+    public boolean isOnSourceSide(V vertex) {
+        int i = index.indexOf(vertex);
+        return i >= 0 && sourceSide[i];
+    }
+
+    /**
+     * @return the vertices on the source side of the minimum cut
+     */
+    public Set<V> getSourceSide() {
+        return IntStream.range(0, sourceSide.length)
+                        .filter(i -> sourceSide[i])
+                        .mapToObj(index::vertexAt)
+                        .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the vertices on the sink side of the minimum cut
+     */
+    public Set<V> getSinkSide() {
+        return IntStream.range(0, sourceSide.length)
+                        .filter(i -> !sourceSide[i])
+                        .mapToObj(index::vertexAt)
+                        .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the edges crossing the minimum cut, whose capacities sum to the value of the flow
+     */
+    public List<E> getCutEdges() {
+        return edges.stream()
+                    .filter(edge -> isOnSourceSide(edge.getSource())
+                            ? !isOnSourceSide(edge.getTarget())
+                            : undirected && isOnSourceSide(edge.getTarget()))
+                    .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,195 @@
+package net.syneil.graph.flow;
+
+import java.util.Arrays;
+
+/**
+ * The highest-label push-relabel algorithm, with the gap and global relabelling heuristics. Active vertices are kept in
+ * buckets by height and the highest is always discharged next, which bounds the running time by {@code O(V^2 sqrt(E))}.
+ * <p>
+ * When some height below {@code n} is left with no vertices, no vertex above it can reach the sink any more, and the
+ * gap heuristic lifts them all above {@code n} at once. Every {@code n} relabels, the global relabelling heuristic
+ * replaces all heights with exact residual distances to the sink (or, for vertices that cannot reach it, {@code n} plus
+ * their distance to the source). Excess that cannot reach the sink is returned to the source, so the result is a flow
+ * and not only a preflow.
+ */
+final class PushRelabel {
+    /**
+     * The sentinel for the end of a bucket's list
+     */
+    private static final int NONE = -1;
+
+    private final ResidualNetwork network;
+    private final int n;
+    private final int source;
+    private final int sink;
+    private final int[] height;
+    private final long[] excess;
+    private final int[] currentArc;
+    /**
+     * The number of vertices at each height
+     */
+    private final int[] count;
+    /**
+     * The head of the list of active vertices at each height
+     */
+    private final int[] bucket;
+    /**
+     * The next vertex in the same bucket
+     */
+    private final int[] next;
+    private final int[] queue;
+    private int highest;
+    private int relabelsSinceGlobal;
+
+    private PushRelabel(ResidualNetwork network, int source, int sink) {
+        this.network = network;
+        this.n = network.n;
+        this.source = source;
+        this.sink = sink;
+        this.height = new int[n];
+        this.excess = new long[n];
+        this.currentArc = new int[n];
+        this.count = new int[2 * n + 1];
+        this.bucket = new int[2 * n + 1];
+        this.next = new int[n];
+        this.queue = new int[n];
+        Arrays.fill(bucket, NONE);
+    }
+
+    /**
+     * Finds a maximum flow from the source to the sink, leaving it in the network's residual capacities.
+     *
+     * @return the value of the flow
+     */
+    static long maxFlow(ResidualNetwork network, int source, int sink) {
+        return new PushRelabel(network, source, sink).run();
+    }
+
+    private long run() {
+        for (int arc = network.offsets[source]; arc < network.offsets[source + 1]; arc++) {
+            push(arc, network.residual[arc]);
+        }
+        globalRelabel();
+        while (true) {
+            while (bucket[highest] == NONE) {
+                if (highest == 0) {
+                    return excess[sink];
+                }
+                highest--;
+            }
+            int u = bucket[highest];
+            bucket[highest] = next[u];
+            discharge(u);
+            if (relabelsSinceGlobal >= n) {
+                globalRelabel();
+            }
+        }
+    }
+
+    private void discharge(int u) {
+        int end = network.offsets[u + 1];
+        while (excess[u] > 0) {
+            int arc = currentArc[u];
+            if (arc == end) {
+                relabel(u);
+                if (height[u] >= 2 * n) {
+                    return;
+                }
+            } else if (network.residual[arc] > 0 && height[u] == height[network.heads[arc]] + 1) {
+                push(arc, Math.min(excess[u], network.residual[arc]));
+            } else {
+                currentArc[u]++;
+            }
+        }
+    }
+
+    private void push(int arc, long amount) {
+        if (amount == 0) {
+            return;
+        }
+        int v = network.heads[arc];
+        if (excess[v] == 0 && v != source && v != sink) {
+            activate(v);
+        }
+        network.residual[arc] -= amount;
+        network.residual[network.reverse[arc]] += amount;
+        excess[v] += amount;
+        excess[network.heads[network.reverse[arc]]] -= amount;
+    }
+
+    private void activate(int v) {
+        int h = height[v];
+        if (h < 2 * n) {
+            next[v] = bucket[h];
+            bucket[h] = v;
+        }
+    }
+
+    private void relabel(int u) {
+        relabelsSinceGlobal++;
+        int old = height[u];
+        int lowest = 2 * n;
+        for (int arc = network.offsets[u]; arc < network.offsets[u + 1]; arc++) {
+            if (network.residual[arc] > 0 && height[network.heads[arc]] + 1 < lowest) {
+                lowest = height[network.heads[arc]] + 1;
+                currentArc[u] = arc;
+            }
+        }
+        height[u] = lowest;
+        count[lowest]++;
+        if (--count[old] == 0 && old < n) {
+            gap(old);
+        }
+        highest = Math.min(height[u], 2 * n);
+    }
+
+    private void gap(int empty) {
+        for (int v = 0; v < n; v++) {
+            if (height[v] > empty && height[v] < n) {
+                count[height[v]]--;
+                height[v] = n + 1;
+                count[n + 1]++;
+                currentArc[v] = network.offsets[v];
+            }
+        }
+    }
+
+    private void globalRelabel() {
+        relabelsSinceGlobal = 0;
+        Arrays.fill(height, 2 * n);
+        height[sink] = 0;
+        distancesTo(sink);
+        height[source] = n;
+        distancesTo(source);
+        Arrays.fill(count, 0);
+        Arrays.fill(bucket, NONE);
+        highest = 0;
+        for (int v = 0; v < n; v++) {
+            count[height[v]]++;
+            currentArc[v] = network.offsets[v];
+            if (excess[v] > 0 && v != sink && v != source && height[v] < 2 * n) {
+                activate(v);
+                highest = Math.max(highest, height[v]);
+            }
+        }
+    }
+
+    /**
+     * Assigns heights by reverse breadth-first search from a root, to the vertices that do not have one yet.
+     */
+    private void distancesTo(int root) {
+        int head = 0, tail = 0;
+        queue[tail++] = root;
+        while (head < tail) {
+            int w = queue[head++];
+            for (int arc = network.offsets[w]; arc < network.offsets[w + 1]; arc++) {
+                int u = network.heads[arc];
+                // u can push to w if the reverse of w's arc to u has residual capacity
+                if (height[u] == 2 * n && network.residual[network.reverse[arc]] > 0) {
+                    height[u] = height[w] + 1;
+                    queue[tail++] = u;
+                }
+            }
+        }
+    }
+}
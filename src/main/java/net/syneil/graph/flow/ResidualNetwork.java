@@ -0,0 +1,125 @@
+package net.syneil.graph.flow;
+
+import java.util.Arrays;
+
+/**
+ * The residual network of a flow problem, held in primitive arrays. Arcs are grouped by their tail vertex in
+ * compressed sparse row form, and every arc has a reverse arc; pushing flow along an arc moves residual capacity from
+ * it to its reverse.
+ */
+final class ResidualNetwork {
+    /**
+     * The number of vertices
+     */
+    final int n;
+
+    /**
+     * The first arc of each vertex, plus the end of the last vertex's arcs
+     */
+    final int[] offsets;
+
+    /**
+     * The head vertex of each arc
+     */
+    final int[] heads;
+
+    /**
+     * The reverse of each arc
+     */
+    final int[] reverse;
+
+    /**
+     * The capacity of each arc, from which the residual capacities are reset
+     */
+    final long[] capacities;
+
+    /**
+     * The residual capacity of each arc
+     */
+    final long[] residual;
+
+    private ResidualNetwork(int n, int[] offsets, int[] heads, int[] reverse, long[] capacities) {
+        this.n = n;
+        this.offsets = offsets;
+        this.heads = heads;
+        this.reverse = reverse;
+        this.capacities = capacities;
+        this.residual = capacities.clone();
+    }
+
+    /**
+     * Creates a network from pairs of arcs: arcs {@code 2i} and {@code 2i + 1} are the reverse of each other.
+     *
+     * @param n the number of vertices
+     * @param tails the tail vertex of each arc
+     * @param heads the head vertex of each arc
+     * @param capacities the capacity of each arc
+     * @param positions filled with the position in the network of each arc given
+     *
+     * @return the network
+     */
+    static ResidualNetwork of(int n, int[] tails, int[] heads, long[] capacities, int[] positions) {
+        int arcs = tails.length;
+        int[] offsets = new int[n + 1];
+        for (int tail : tails) {
+            offsets[tail + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int arc = 0; arc < arcs; arc++) {
+            positions[arc] = next[tails[arc]]++;
+        }
+        int[] sortedHeads = new int[arcs], reverse = new int[arcs];
+        long[] sortedCapacities = new long[arcs];
+        for (int arc = 0; arc < arcs; arc++) {
+            int position = positions[arc];
+            sortedHeads[position] = heads[arc];
+            sortedCapacities[position] = capacities[arc];
+            reverse[position] = positions[arc ^ 1];
+        }
+        return new ResidualNetwork(n, offsets, sortedHeads, reverse, sortedCapacities);
+    }
+
+    /**
+     * @return a network with the same arcs and capacities, and residual capacities of its own
+     */
+    ResidualNetwork copy() {
+        return new ResidualNetwork(n, offsets, heads, reverse, capacities.clone());
+    }
+
+    /**
+     * Restores every residual capacity to the capacity of its arc, removing all flow.
+     */
+    void reset() {
+        System.arraycopy(capacities, 0, residual, 0, capacities.length);
+    }
+
+    /**
+     * Finds the vertices reachable from the source along arcs with residual capacity. After a maximum flow has been
+     * found, these are the source side of a minimum cut.
+     *
+     * @param source the source vertex
+     *
+     * @return whether each vertex is reachable from the source
+     */
+    boolean[] reachableFrom(int source) {
+        boolean[] reached = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        reached[source] = true;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = heads[arc];
+                if (residual[arc] > 0 && !reached[v]) {
+                    reached[v] = true;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return reached;
+    }
+}
@@ -0,0 +1,103 @@
+package net.syneil.graph.generate;
+
+/**
+ * Generates graphs of the Barabási–Albert preferential-attachment model, in which each new vertex attaches a fixed
+ * number of edges to existing vertices, chosen with probability proportional to their degree.
+ * <p>
+ * Preferential attachment is usually sequential, since each choice depends on the degrees left by all earlier ones.
+ * This generator instead uses the method of Sanders and Schulz: edge {@code k} from vertex {@code k / m} chooses its
+ * target by picking a uniformly random earlier position in the (virtual) list of edge endpoints, which is equivalent to
+ * picking a vertex in proportion to its degree. If the position picked holds a source, its vertex is known directly;
+ * if it holds a target, that target is resolved in the same way. As every choice is a hash of the seed and the
+ * position, any edge can be produced independently of the others.
+ * <p>
+ * The first vertex attaches to itself. If a simple graph is requested, self-loops and repeated edges from the same new
+ * vertex are dropped, so a vertex may end up with fewer than {@code m} edges.
+ */
+public class BarabasiAlbertGenerator implements GraphGenerator {
+    /**
+     * The number of edges per block
+     */
+    private static final long EDGES_PER_BLOCK = 1 << 16;
+
+    private final long vertexCount;
+    private final int edgesPerVertex;
+    private final boolean simple;
+    private final long seed;
+    private final long verticesPerBlock;
+
+    /**
+     * @param vertexCount the number of vertices
+     * @param edgesPerVertex the number of edges attached by each new vertex
+     * @param simple whether to drop self-loops and repeated edges
+     * @param seed the random seed
+     */
+    public BarabasiAlbertGenerator(long vertexCount, int edgesPerVertex, boolean simple, long seed) {
+        if (vertexCount < 0 || edgesPerVertex < 1) {
+            throw new IllegalArgumentException("Vertex count must be non-negative and edges per vertex positive");
+        }
+        this.vertexCount = vertexCount;
+        this.edgesPerVertex = edgesPerVertex;
+        this.simple = simple;
+        this.seed = seed;
+        this.verticesPerBlock = Math.max(1L, EDGES_PER_BLOCK / edgesPerVertex);
+    }
+
+    @Override
+    public long vertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return false;
+    }
+
+    @Override
+    public int blockCount() {
+        return Math.toIntExact((vertexCount + verticesPerBlock - 1) / verticesPerBlock);
+    }
+
+    @Override
+    public void generate(int block, EdgeSink sink) {
+        long[] chosen = new long[edgesPerVertex];
+        long first = block * verticesPerBlock, last = Math.min(vertexCount, first + verticesPerBlock);
+        for (long source = first; source < last; source++) {
+            int count = 0;
+            for (int i = 0; i < edgesPerVertex; i++) {
+                long target = target(source * edgesPerVertex + i);
+                if (simple && (target == source || contains(chosen, count, target))) {
+                    continue;
+                }
+                chosen[count++] = target;
+                sink.edge(source, target);
+            }
+        }
+    }
+
+    /**
+     * Resolves the target of an edge by following its random choices back to a source position.
+     *
+     * @param edge the number of the edge
+     *
+     * @return the target vertex of the edge
+     */
+    private long target(long edge) {
+        while (true) {
+            long position = SeededRandom.below(seed, edge, 2 * edge + 1);
+            if ((position & 1L) == 0L) {
+                return position / 2 / edgesPerVertex;
+            }
+            edge = position / 2;
+        }
+    }
+
+    private static boolean contains(long[] values, int count, long value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
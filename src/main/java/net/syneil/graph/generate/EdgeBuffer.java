@@ -0,0 +1,32 @@
+package net.syneil.graph.generate;
+
+import java.util.Arrays;
+
+/**
+ * Buffers the edges of a block as pairs of longs, so that they can be generated on one thread and replayed into an
+ * {@link EdgeSink} on another.
+ */
+final class EdgeBuffer implements EdgeSink {
+    private long[] endpoints = new long[1024];
+    private int size;
+
+    @Override
+    public void edge(long source, long target) {
+        if (size == endpoints.length) {
+            endpoints = Arrays.copyOf(endpoints, size * 2);
+        }
+        endpoints[size++] = source;
+        endpoints[size++] = target;
+    }
+
+    /**
+     * Hands every edge held to the sink, in the order they were received.
+     *
+     * @param sink the receiver of the edges
+     */
+    void replay(EdgeSink sink) {
+        for (int i = 0; i < size; i += 2) {
+            sink.edge(endpoints[i], endpoints[i + 1]);
+        }
+    }
+}
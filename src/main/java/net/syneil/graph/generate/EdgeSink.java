@@ -0,0 +1,23 @@
+package net.syneil.graph.generate;
+
+/**
+ * Receives the edges produced by a {@link GraphGenerator}, as pairs of vertex numbers.
+ */
+public interface EdgeSink {
+    /**
+     * Called once before any edges are produced.
+     *
+     * @param vertexCount the number of vertices of the generated graph, numbered {@code [0, vertexCount)}
+     * @param directed whether the generated edges are directed; undirected edges are produced only once
+     */
+    default void begin(long vertexCount, boolean directed) {
+    }
+
+    /**
+     * Receives an edge.
+     *
+     * @param source the number of the source vertex
+     * @param target the number of the target vertex
+     */
+    void edge(long source, long target);
+}
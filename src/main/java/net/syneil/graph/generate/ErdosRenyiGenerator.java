@@ -0,0 +1,78 @@
+package net.syneil.graph.generate;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates graphs of the Erdős–Rényi {@code G(n, p)} model, in which each possible edge between distinct vertices is
+ * present independently with probability {@code p}. Rather than testing every pair, the gap to the next present edge
+ * is drawn from a geometric distribution (the method of Batagelj and Brandes), so the time taken is proportional to
+ * the number of edges produced.
+ */
+public class ErdosRenyiGenerator implements GraphGenerator {
+    /**
+     * The expected number of edges per block
+     */
+    private static final double EDGES_PER_BLOCK = 1 << 16;
+
+    private final long vertexCount;
+    private final double probability;
+    private final boolean directed;
+    private final long seed;
+    private final long sourcesPerBlock;
+
+    /**
+     * @param vertexCount the number of vertices
+     * @param probability the probability of each edge
+     * @param directed whether to generate directed edges (each ordered pair) or undirected ones (each unordered pair)
+     * @param seed the random seed
+     */
+    public ErdosRenyiGenerator(long vertexCount, double probability, boolean directed, long seed) {
+        if (vertexCount < 0 || !(probability >= 0.0 && probability <= 1.0)) {
+            throw new IllegalArgumentException("Vertex count must be non-negative and probability in [0, 1]");
+        }
+        this.vertexCount = vertexCount;
+        this.probability = probability;
+        this.directed = directed;
+        this.seed = seed;
+        double edgesPerSource = Math.max(1.0, probability * vertexCount);
+        this.sourcesPerBlock = Math.max(1L, (long) (EDGES_PER_BLOCK / edgesPerSource));
+    }
+
+    @Override
+    public long vertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public int blockCount() {
+        return Math.toIntExact((vertexCount + sourcesPerBlock - 1) / sourcesPerBlock);
+    }
+
+    @Override
+    public void generate(int block, EdgeSink sink) {
+        if (probability == 0.0) {
+            return;
+        }
+        SplittableRandom random = SeededRandom.forBlock(seed, block);
+        double logSkip = Math.log1p(-probability);
+        long first = block * sourcesPerBlock, last = Math.min(vertexCount, first + sourcesPerBlock);
+        for (long source = first; source < last; source++) {
+            // candidate targets are numbered [0, slots) and mapped past the source, which is never a target
+            long slots = directed ? vertexCount - 1 : vertexCount - source - 1;
+            long slot = -1;
+            while (true) {
+                slot += 1 + (probability == 1.0 ? 0L : (long) Math.floor(Math.log1p(-random.nextDouble()) / logSkip));
+                if (slot >= slots || slot < 0) {
+                    break;
+                }
+                long target = directed ? (slot < source ? slot : slot + 1) : source + 1 + slot;
+                sink.edge(source, target);
+            }
+        }
+    }
+}
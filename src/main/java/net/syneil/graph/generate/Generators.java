@@ -0,0 +1,159 @@
+package net.syneil.graph.generate;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.MutableGraph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.compact.VertexIndex;
+import net.syneil.graph.internal.Tasks;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+import java.util.function.LongFunction;
+
+import static net.syneil.graph.GraphProperties.Looping.FORBIDDEN;
+import static net.syneil.graph.GraphProperties.Multiplicity.SINGLE;
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * Runs {@link GraphGenerator}s, and provides {@link EdgeSink}s that build graphs from the edges generated.
+ * <p>
+ * Blocks are generated in parallel but handed to the sink in block order, on the calling thread, so the sink need not
+ * be thread-safe and sees exactly the same sequence of edges whatever the parallelism. Only a bounded number of blocks
+ * are buffered at a time, so edges can be streamed to a sink (an exporter, say) in far greater numbers than could be
+ * held in memory.
+ * <p>
+ * For example, to build an undirected small-world graph of a million vertices:
+ * <pre>
+ *     var graph = Generators.toCompactGraph(new WattsStrogatzGenerator(1_000_000, 10, 0.1, 42L), 8);
+ * </pre>
+ */
+public final class Generators {
+    private Generators() {
+    }
+
+    /**
+     * Generates a graph on one thread per available processor.
+     *
+     * @param generator the generator
+     * @param sink the receiver of the edges
+     */
+    public static void generate(GraphGenerator generator, EdgeSink sink) {
+        generate(generator, sink, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Generates a graph.
+     *
+     * @param generator the generator
+     * @param sink the receiver of the edges
+     * @param parallelism the number of threads generating blocks
+     */
+    public static void generate(GraphGenerator generator, EdgeSink sink, int parallelism) {
+        Objects.requireNonNull(generator);
+        Objects.requireNonNull(sink);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        sink.begin(generator.vertexCount(), generator.isDirected());
+        int blocks = generator.blockCount();
+        if (parallelism == 1) {
+            for (int block = 0; block < blocks; block++) {
+                generator.generate(block, sink);
+            }
+            return;
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "graph-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Deque<Future<EdgeBuffer>> inFlight = new ArrayDeque<>();
+            for (int block = 0; block < blocks; block++) {
+                if (inFlight.size() == parallelism * 2) {
+                    Tasks.await(inFlight.removeFirst(), "generating graph").replay(sink);
+                }
+                int b = block;
+                inFlight.addLast(workers.submit(() -> {
+                    EdgeBuffer buffer = new EdgeBuffer();
+                    generator.generate(b, buffer);
+                    return buffer;
+                }));
+            }
+            while (!inFlight.isEmpty()) {
+                Tasks.await(inFlight.removeFirst(), "generating graph").replay(sink);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a sink that adds the generated vertices and edges to a graph. Every vertex is added, including those
+     * without edges. Edges that the graph's properties forbid (a repeated edge in a graph of {@link
+     * GraphProperties.Multiplicity#SINGLE single} edges, or a self-loop in a graph that {@link
+     * GraphProperties.Looping#FORBIDDEN forbids} them) are skipped rather than causing an exception.
+     *
+     * @param graph the graph to add to
+     * @param vertexMapper converts vertex numbers into vertices
+     * @param edgeFactory creates an edge between two vertices
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the sink
+     */
+    public static <V, E extends Edge<V>> EdgeSink into(MutableGraph<V, E> graph,
+                                                      LongFunction<? extends V> vertexMapper,
+                                                      BiFunction<? super V, ? super V, ? extends E> edgeFactory) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(vertexMapper);
+        Objects.requireNonNull(edgeFactory);
+        GraphProperties properties = graph.getProperties();
+        boolean single = properties.getMultiplicity().map(SINGLE::equals).orElse(false);
+        boolean noLoops = properties.getLooping().map(FORBIDDEN::equals).orElse(false);
+        boolean undirected = properties.getOrientation().map(UNDIRECTED::equals).orElse(false);
+        return new EdgeSink() {
+            @Override
+            public void begin(long vertexCount, boolean directed) {
+                for (long vertex = 0; vertex < vertexCount; vertex++) {
+                    graph.addVertex(vertexMapper.apply(vertex));
+                }
+            }
+
+            @Override
+            public void edge(long source, long target) {
+                if (noLoops && source == target) {
+                    return;
+                }
+                V from = vertexMapper.apply(source), to = vertexMapper.apply(target);
+                if (single && (graph.hasEdge(from, to) || undirected && graph.hasEdge(to, from))) {
+                    return;
+                }
+                graph.addEdge(edgeFactory.apply(from, to));
+            }
+        };
+    }
+
+    /**
+     * Generates a graph straight into compact form, with vertices numbered as generated and edges created on demand.
+     * The orientation of the graph is that of the generator.
+     *
+     * @param generator the generator; must have fewer than {@link Integer#MAX_VALUE} vertices
+     * @param parallelism the number of threads generating blocks
+     *
+     * @return the generated graph
+     */
+    public static CompactGraph<Integer, Edge<Integer>> toCompactGraph(GraphGenerator generator, int parallelism) {
+        Objects.requireNonNull(generator);
+        int vertexCount = Math.toIntExact(generator.vertexCount());
+        var builder = CompactGraph.builder(VertexIndex.identity(vertexCount),
+                                           generator.isDirected() ? DIRECTED : UNDIRECTED);
+        generate(generator, (source, target) -> builder.edge((int) source, (int) target), parallelism);
+        return builder.build();
+    }
+}
@@ -0,0 +1,34 @@
+package net.syneil.graph.generate;
+
+/**
+ * A model of random (or regular) graphs. The edges of a generator are divided into a fixed number of independent
+ * blocks, each of which can be produced on its own and always produces the same edges. Since the division into blocks
+ * depends only on the parameters of the model and never on the number of threads, generation can be spread over any
+ * number of threads and still produce the same graph for the same seed.
+ *
+ * @see Generators
+ */
+public interface GraphGenerator {
+    /**
+     * @return the number of vertices of the generated graph, numbered {@code [0, vertexCount)}
+     */
+    long vertexCount();
+
+    /**
+     * @return true if the generated edges are directed; otherwise each undirected edge is produced once
+     */
+    boolean isDirected();
+
+    /**
+     * @return the number of blocks into which the edges are divided
+     */
+    int blockCount();
+
+    /**
+     * Produces the edges of one block.
+     *
+     * @param block the block, in {@code [0, blockCount)}
+     * @param sink the receiver of the edges
+     */
+    void generate(int block, EdgeSink sink);
+}
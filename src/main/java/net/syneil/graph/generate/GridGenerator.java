@@ -0,0 +1,70 @@
+package net.syneil.graph.generate;
+
+/**
+ * Generates two-dimensional grid (lattice) graphs, in which the vertex at row {@code r} and column {@code c} is
+ * numbered {@code r * columns + c} and is connected to the vertices to its right and below. A periodic grid wraps
+ * around at its edges, forming a torus.
+ */
+public class GridGenerator implements GraphGenerator {
+    /**
+     * The approximate number of edges per block
+     */
+    private static final long EDGES_PER_BLOCK = 1 << 16;
+
+    private final long rows;
+    private final long columns;
+    private final boolean periodic;
+    private final long rowsPerBlock;
+
+    /**
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param periodic whether the grid wraps around at its edges; wrapping only applies along dimensions of length
+     *         greater than two, where it would not repeat an existing edge
+     */
+    public GridGenerator(long rows, long columns, boolean periodic) {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Rows and columns must be non-negative");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.periodic = periodic;
+        this.rowsPerBlock = Math.max(1L, EDGES_PER_BLOCK / Math.max(1L, 2 * columns));
+    }
+
+    @Override
+    public long vertexCount() {
+        return rows * columns;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return false;
+    }
+
+    @Override
+    public int blockCount() {
+        return Math.toIntExact((rows + rowsPerBlock - 1) / rowsPerBlock);
+    }
+
+    @Override
+    public void generate(int block, EdgeSink sink) {
+        long first = block * rowsPerBlock, last = Math.min(rows, first + rowsPerBlock);
+        boolean wrapColumns = periodic && columns > 2, wrapRows = periodic && rows > 2;
+        for (long row = first; row < last; row++) {
+            for (long column = 0; column < columns; column++) {
+                long vertex = row * columns + column;
+                if (column + 1 < columns) {
+                    sink.edge(vertex, vertex + 1);
+                } else if (wrapColumns) {
+                    sink.edge(vertex, row * columns);
+                }
+                if (row + 1 < rows) {
+                    sink.edge(vertex, vertex + columns);
+                } else if (wrapRows) {
+                    sink.edge(vertex, column);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package net.syneil.graph.generate;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates graphs of the R-MAT model, a recursive matrix (stochastic Kronecker) model producing skewed degree
+ * distributions and community structure. The adjacency matrix of {@code 2^scale} vertices is divided into quadrants
+ * with probabilities {@code a}, {@code b}, {@code c} and {@code d = 1 - a - b - c}, and each edge is placed by choosing
+ * a quadrant at every level of recursion. Edges are independent, so any number can be produced in parallel; repeated
+ * edges and self-loops are not removed.
+ * <p>
+ * The parameters {@code (0.57, 0.19, 0.19)} are those of the Graph500 benchmark.
+ */
+public class RMatGenerator implements GraphGenerator {
+    /**
+     * The number of edges per block
+     */
+    private static final long EDGES_PER_BLOCK = 1 << 16;
+
+    private final int scale;
+    private final long edgeCount;
+    private final double a, ab, abc;
+    private final long seed;
+
+    /**
+     * Creates a generator with the Graph500 quadrant probabilities.
+     *
+     * @param scale the base-2 logarithm of the number of vertices
+     * @param edgeCount the number of edges
+     * @param seed the random seed
+     */
+    public RMatGenerator(int scale, long edgeCount, long seed) {
+        this(scale, edgeCount, 0.57, 0.19, 0.19, seed);
+    }
+
+    /**
+     * @param scale the base-2 logarithm of the number of vertices
+     * @param edgeCount the number of edges
+     * @param a the probability of the top-left quadrant
+     * @param b the probability of the top-right quadrant
+     * @param c the probability of the bottom-left quadrant
+     * @param seed the random seed
+     */
+    public RMatGenerator(int scale, long edgeCount, double a, double b, double c, long seed) {
+        if (scale < 0 || scale > 62 || edgeCount < 0) {
+            throw new IllegalArgumentException("Scale must be in [0, 62] and edge count non-negative");
+        }
+        if (a < 0 || b < 0 || c < 0 || a + b + c > 1.0) {
+            throw new IllegalArgumentException("Quadrant probabilities must be non-negative and sum to at most 1");
+        }
+        this.scale = scale;
+        this.edgeCount = edgeCount;
+        this.a = a;
+        this.ab = a + b;
+        this.abc = a + b + c;
+        this.seed = seed;
+    }
+
+    @Override
+    public long vertexCount() {
+        return 1L << scale;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
+    }
+
+    @Override
+    public int blockCount() {
+        return Math.toIntExact((edgeCount + EDGES_PER_BLOCK - 1) / EDGES_PER_BLOCK);
+    }
+
+    @Override
+    public void generate(int block, EdgeSink sink) {
+        SplittableRandom random = SeededRandom.forBlock(seed, block);
+        long first = block * EDGES_PER_BLOCK, last = Math.min(edgeCount, first + EDGES_PER_BLOCK);
+        for (long edge = first; edge < last; edge++) {
+            long source = 0L, target = 0L;
+            for (int level = 0; level < scale; level++) {
+                double r = random.nextDouble();
+                long bit = 1L << level;
+                if (r >= abc) {
+                    source |= bit;
+                    target |= bit;
+                } else if (r >= ab) {
+                    source |= bit;
+                } else if (r >= a) {
+                    target |= bit;
+                }
+            }
+            sink.edge(source, target);
+        }
+    }
+}
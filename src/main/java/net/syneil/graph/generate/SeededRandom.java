@@ -0,0 +1,37 @@
+package net.syneil.graph.generate;
+
+import java.util.SplittableRandom;
+
+import static net.syneil.graph.internal.Hashing.mix;
+
+/**
+ * Derives independent, reproducible random streams from a seed, so that each block of a generator (or each position
+ * within one) has its own randomness regardless of the order or thread in which it is generated.
+ */
+final class SeededRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private SeededRandom() {
+    }
+
+    /**
+     * @return a random value determined by the seed and an index
+     */
+    static long hash(long seed, long index) {
+        return mix(seed + mix(index + GOLDEN_GAMMA) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return a random value in {@code [0, bound)} determined by the seed and an index
+     */
+    static long below(long seed, long index, long bound) {
+        return Long.remainderUnsigned(hash(seed, index), bound);
+    }
+
+    /**
+     * @return a random number generator for a block, determined by the seed and the block
+     */
+    static SplittableRandom forBlock(long seed, int block) {
+        return new SplittableRandom(hash(seed, block));
+    }
+}
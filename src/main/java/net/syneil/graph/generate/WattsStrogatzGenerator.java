@@ -0,0 +1,108 @@
+package net.syneil.graph.generate;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates graphs of the Watts–Strogatz small-world model. Vertices are placed on a ring and each is connected to its
+ * {@code k / 2} nearest neighbours on either side; then each of those lattice edges has its far end rewired, with
+ * probability {@code beta}, to a uniformly random vertex.
+ * <p>
+ * A rewired edge avoids self-loops, the lattice neighbours of its source and the other rewired edges of its source. For
+ * the sake of independent blocks it does not check the edges rewired by other vertices, so very rarely (with
+ * probability of the order of {@code k / n}) an edge may be produced twice.
+ */
+public class WattsStrogatzGenerator implements GraphGenerator {
+    /**
+     * The number of edges per block
+     */
+    private static final long EDGES_PER_BLOCK = 1 << 16;
+
+    private final long vertexCount;
+    private final int halfDegree;
+    private final double beta;
+    private final long seed;
+    private final long verticesPerBlock;
+
+    /**
+     * @param vertexCount the number of vertices
+     * @param degree the degree of each vertex in the initial lattice; must be even and less than the vertex count
+     * @param beta the probability of rewiring each edge
+     * @param seed the random seed
+     */
+    public WattsStrogatzGenerator(long vertexCount, int degree, double beta, long seed) {
+        if (degree < 0 || degree % 2 != 0 || (vertexCount > 0 && degree >= vertexCount)) {
+            throw new IllegalArgumentException("Degree must be even, non-negative and less than the vertex count");
+        }
+        if (!(beta >= 0.0 && beta <= 1.0)) {
+            throw new IllegalArgumentException("Rewiring probability must be in [0, 1]");
+        }
+        this.vertexCount = vertexCount;
+        this.halfDegree = degree / 2;
+        this.beta = beta;
+        this.seed = seed;
+        this.verticesPerBlock = Math.max(1L, EDGES_PER_BLOCK / Math.max(1, halfDegree));
+    }
+
+    @Override
+    public long vertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return false;
+    }
+
+    @Override
+    public int blockCount() {
+        return Math.toIntExact((vertexCount + verticesPerBlock - 1) / verticesPerBlock);
+    }
+
+    @Override
+    public void generate(int block, EdgeSink sink) {
+        SplittableRandom random = SeededRandom.forBlock(seed, block);
+        long[] rewired = new long[halfDegree];
+        long first = block * verticesPerBlock, last = Math.min(vertexCount, first + verticesPerBlock);
+        for (long source = first; source < last; source++) {
+            int count = 0;
+            for (int offset = 1; offset <= halfDegree; offset++) {
+                long target = (source + offset) % vertexCount;
+                if (random.nextDouble() < beta) {
+                    target = rewire(random, source, rewired, count);
+                    if (target < 0) {
+                        target = (source + offset) % vertexCount;
+                    } else {
+                        rewired[count++] = target;
+                    }
+                }
+                sink.edge(source, target);
+            }
+        }
+    }
+
+    /**
+     * Picks a random vertex that is neither the source, nor in its lattice neighbourhood, nor already rewired to.
+     *
+     * @return the vertex, or -1 if none could be found in a reasonable number of attempts
+     */
+    private long rewire(SplittableRandom random, long source, long[] rewired, int count) {
+        for (int attempt = 0; attempt < 64; attempt++) {
+            long candidate = random.nextLong(vertexCount);
+            long distance = Math.abs(candidate - source);
+            distance = Math.min(distance, vertexCount - distance);
+            if (distance > halfDegree && !contains(rewired, count, candidate)) {
+                return candidate;
+            }
+        }
+        return -1L;
+    }
+
+    private static boolean contains(long[] values, int count, long value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,25 @@
+package net.syneil.graph.internal;
+
+/**
+ * Hashing of primitive values.
+ * <p>
+ * Internal and unsupported: see {@link net.syneil.graph.internal}.
+ */
+public final class Hashing {
+    private Hashing() {
+    }
+
+    /**
+     * Mixes the bits of a value by the finaliser of SplitMix64, so that values differing in any bit hash to values
+     * differing in about half of their bits.
+     *
+     * @param z the value
+     *
+     * @return the mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
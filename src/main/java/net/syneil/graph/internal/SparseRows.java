@@ -0,0 +1,55 @@
+package net.syneil.graph.internal;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Rows of indices in compressed sparse row form: the entries of each row lie in one range of a single array.
+ * <p>
+ * Internal and unsupported: see {@link net.syneil.graph.internal}.
+ */
+public final class SparseRows {
+    /**
+     * The first position of each row, plus the end of the last row
+     */
+    public final int[] offsets;
+
+    /**
+     * The index at each position
+     */
+    public final int[] columns;
+
+    private SparseRows(int[] offsets, int[] columns) {
+        this.offsets = offsets;
+        this.columns = columns;
+    }
+
+    /**
+     * Transposes rows of indices into the same range: each index's row of the transpose holds the rows it is in, once
+     * for each time it is in them. Every row of the transpose is in ascending order.
+     *
+     * @param n the number of rows, and the bound of the indices in them
+     * @param offset the first position of each row, and {@code n} gives the end of the last row
+     * @param column the index at each position
+     *
+     * @return the transposed rows
+     */
+    public static SparseRows transpose(int n, IntUnaryOperator offset, IntUnaryOperator column) {
+        int size = offset.applyAsInt(n);
+        int[] offsets = new int[n + 1], columns = new int[size];
+        for (int p = 0; p < size; p++) {
+            offsets[column.applyAsInt(p) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        // visiting the rows in ascending order leaves each transposed row in ascending order
+        for (int v = 0, p = offset.applyAsInt(0); v < n; v++) {
+            for (int end = offset.applyAsInt(v + 1); p < end; p++) {
+                columns[next[column.applyAsInt(p)]++] = v;
+            }
+        }
+        return new SparseRows(offsets, columns);
+    }
+}
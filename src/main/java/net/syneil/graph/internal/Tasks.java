@@ -0,0 +1,75 @@
+package net.syneil.graph.internal;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Waiting for tasks run in parallel, and surfacing their failures as the failures of the operation that ran them.
+ * <p>
+ * Internal and unsupported: see {@link net.syneil.graph.internal}.
+ */
+public final class Tasks {
+    private Tasks() {
+    }
+
+    /**
+     * Runs an operation in a pool, so that any parallel streams it uses run in that pool rather than the common pool,
+     * and waits for its result.
+     *
+     * @param pool the pool
+     * @param operation the operation
+     * @param activity what the operation does, for the message of a cancellation
+     * @param <T> the type of the result
+     *
+     * @return the result of the operation
+     *
+     * @throws CancellationException if the thread was interrupted while waiting
+     */
+    public static <T> T run(ForkJoinPool pool, Supplier<T> operation, String activity) {
+        return await(pool.submit(operation::get), activity);
+    }
+
+    /**
+     * Waits for the result of a task. An unchecked failure of the task is rethrown as it is, and a checked one wrapped
+     * in an {@link IllegalStateException}.
+     *
+     * @param future the pending result of the task
+     * @param activity what the task does, for the message of a cancellation
+     * @param <T> the type of the result
+     *
+     * @return the result of the task
+     *
+     * @throws CancellationException if the thread was interrupted while waiting
+     */
+    public static <T> T await(Future<T> future, String activity) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while " + activity);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(checkedCause(e));
+        }
+    }
+
+    /**
+     * Rethrows the cause of a failed task if it is unchecked.
+     *
+     * @param e the failure of the task
+     *
+     * @return the cause, which is a checked exception
+     */
+    public static Throwable checkedCause(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Helpers shared by the other packages of this library. Java has no access level between packages, so they are public
+ * only so that those packages can reach them. They are not part of the library's API and are unsupported: they may
+ * change or be removed in any release, and must not be used from outside the library.
+ */
+package net.syneil.graph.internal;
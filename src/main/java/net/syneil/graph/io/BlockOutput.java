@@ -0,0 +1,138 @@
+package net.syneil.graph.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.*;
+
+/**
+ * Text output to a channel, encoded as UTF-8 and buffered in fixed-size blocks. Full blocks are compressed by a pool
+ * of workers while the next block is filled, and written to the channel in order. At most a fixed number of blocks are
+ * pending at any time, so memory use is bounded by the block size and the number of workers.
+ */
+final class BlockOutput implements Appendable, Closeable {
+    private final WritableByteChannel channel;
+    private final Compression compression;
+    private final int blockSize;
+    private final int maxPending;
+    private final ExecutorService workers;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private byte[] block;
+    private int length;
+
+    /**
+     * @param channel the channel to write to; it is not closed by this output
+     * @param compression the compression to apply to each block
+     * @param blockSize the number of bytes buffered per block
+     * @param workers the number of threads compressing blocks
+     */
+    BlockOutput(WritableByteChannel channel, Compression compression, int blockSize, int workers) {
+        this.channel = channel;
+        this.compression = compression;
+        this.blockSize = blockSize;
+        this.maxPending = workers * 2;
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "graph-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public BlockOutput append(CharSequence csq) throws IOException {
+        for (int i = 0, n = csq.length(); i < n; i++) {
+            char c = csq.charAt(i);
+            if (c >= 0x80) {
+                // slow path for the rare non-ASCII token
+                return append(csq.toString().substring(i).getBytes(StandardCharsets.UTF_8));
+            }
+            if (length == blockSize) {
+                emit();
+            }
+            block[length++] = (byte) c;
+        }
+        return this;
+    }
+
+    @Override
+    public BlockOutput append(CharSequence csq, int start, int end) throws IOException {
+        return append(csq.subSequence(start, end));
+    }
+
+    @Override
+    public BlockOutput append(char c) throws IOException {
+        return append(String.valueOf(c));
+    }
+
+    private BlockOutput append(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (length == blockSize) {
+                emit();
+            }
+            int count = Math.min(bytes.length - offset, blockSize - length);
+            System.arraycopy(bytes, offset, block, length, count);
+            length += count;
+            offset += count;
+        }
+        return this;
+    }
+
+    /**
+     * Passes the current block to a worker to be compressed, first writing out the oldest pending block if as many are
+     * pending as allowed.
+     */
+    private void emit() throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (pending.size() == maxPending) {
+            writeCompressed(pending.removeFirst());
+        }
+        byte[] full = block;
+        int fullLength = length;
+        pending.addLast(workers.submit(() -> compression.compress(full, fullLength)));
+        block = new byte[blockSize];
+        length = 0;
+    }
+
+    private void writeCompressed(Future<byte[]> future) throws IOException {
+        byte[] compressed;
+        try {
+            compressed = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing graph", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        writeFully(compressed, compressed.length);
+    }
+
+    private void writeFully(byte[] bytes, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, count);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes out everything buffered and pending, and stops the workers. The channel is left open.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            emit();
+            while (!pending.isEmpty()) {
+                writeCompressed(pending.removeFirst());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package net.syneil.graph.io;
+
+import net.syneil.graph.internal.Tasks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.*;
+
+/**
+ * Reads a line-oriented file by memory-mapping it in chunks that end on line boundaries and parsing the chunks in
+ * parallel. Parsed chunks are replayed into the sink in file order on the calling thread, while later chunks are still
+ * being parsed. At most a fixed number of chunks are in flight at any time, so memory use is bounded by the chunk size
+ * and the parallelism, regardless of the size of the file.
+ */
+public class ChunkedLineReader implements GraphReader {
+    /**
+     * The default number of bytes mapped per chunk
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 24;
+
+    /**
+     * A rough estimate of the average length of a line, used to size the record buffers
+     */
+    private static final int ESTIMATED_LINE_LENGTH = 64;
+
+    /**
+     * The parser for individual lines
+     */
+    private final LineParser parser;
+
+    /**
+     * The number of threads parsing chunks
+     */
+    private final int parallelism;
+
+    /**
+     * The number of bytes mapped per chunk; a chunk is extended if a single line is longer than this
+     */
+    private final int chunkSize;
+
+    /**
+     * The number of lines at the start of the file to ignore, such as a header row
+     */
+    private final int headerLines;
+
+    /**
+     * Creates a reader with one parsing thread per available processor and the {@link #DEFAULT_CHUNK_SIZE default
+     * chunk size}.
+     *
+     * @param parser the parser for individual lines
+     */
+    public ChunkedLineReader(LineParser parser) {
+        this(parser, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE, 0);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param parser the parser for individual lines
+     * @param parallelism the number of threads parsing chunks
+     * @param chunkSize the number of bytes mapped per chunk
+     * @param headerLines the number of lines at the start of the file to ignore
+     */
+    public ChunkedLineReader(LineParser parser, int parallelism, int chunkSize, int headerLines) {
+        Objects.requireNonNull(parser);
+        if (headerLines < 0) {
+            throw new IllegalArgumentException("Header lines must not be negative");
+        }
+        if (parallelism < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+        }
+        this.parser = parser;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.headerLines = headerLines;
+    }
+
+    @Override
+    public void read(Path path, RecordSink sink) throws IOException {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(sink);
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "graph-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Deque<Future<RecordBatch>> inFlight = new ArrayDeque<>();
+            long size = channel.size();
+            long position = skipHeader(channel, size);
+            while (position < size) {
+                MappedByteBuffer chunk = mapChunk(channel, position, size);
+                position += chunk.limit();
+                if (inFlight.size() == parallelism * 2) {
+                    await(inFlight.removeFirst()).replay(sink);
+                }
+                inFlight.addLast(workers.submit(() -> parseChunk(chunk)));
+            }
+            while (!inFlight.isEmpty()) {
+                await(inFlight.removeFirst()).replay(sink);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Finds the position just past the header lines.
+     *
+     * @param channel the file
+     * @param size the size of the file
+     *
+     * @return the position of the first line that is not part of the header
+     *
+     * @throws IOException if the file could not be read
+     */
+    private long skipHeader(FileChannel channel, long size) throws IOException {
+        long position = 0L;
+        for (int line = 0; line < headerLines && position < size; line++) {
+            long length = Math.min(chunkSize, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int newline = indexOf(buffer, (byte) '\n', 0, buffer.limit());
+            while (newline < 0 && position + length < size) {
+                length = Math.min(length * 2, Math.min(size - position, Integer.MAX_VALUE));
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                newline = indexOf(buffer, (byte) '\n', 0, buffer.limit());
+            }
+            position += newline < 0 ? length : newline + 1;
+        }
+        return position;
+    }
+
+    /**
+     * Maps the next chunk of the file, ending just after the last complete line that fits within the chunk size. If no
+     * line ends within the chunk, the mapping is grown until one does or the end of the file is reached.
+     *
+     * @param channel the file
+     * @param position the position of the start of the chunk
+     * @param size the size of the file
+     *
+     * @return the mapped chunk, limited to whole lines
+     *
+     * @throws IOException if the file could not be mapped
+     */
+    private MappedByteBuffer mapChunk(FileChannel channel, long position, long size) throws IOException {
+        long length = Math.min(chunkSize, size - position);
+        while (true) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            if (position + length == size) {
+                return buffer;
+            }
+            int lastNewline = lastIndexOf(buffer, (byte) '\n');
+            if (lastNewline >= 0) {
+                buffer.limit(lastNewline + 1);
+                return buffer;
+            }
+            if (length == Integer.MAX_VALUE) {
+                throw new GraphFormatException("Line starting at byte offset " + position + " is too long");
+            }
+            length = Math.min(Math.min(length * 2, Integer.MAX_VALUE), size - position);
+        }
+    }
+
+    /**
+     * Splits a chunk into lines and parses each of them.
+     *
+     * @param chunk the chunk, limited to whole lines
+     *
+     * @return the records found in the chunk
+     */
+    private RecordBatch parseChunk(ByteBuffer chunk) {
+        int limit = chunk.limit();
+        RecordBatch batch = new RecordBatch(limit / ESTIMATED_LINE_LENGTH);
+        int start = 0;
+        while (start < limit) {
+            int newline = indexOf(chunk, (byte) '\n', start, limit);
+            int end = newline < 0 ? limit : newline;
+            int contentEnd = end > start && chunk.get(end - 1) == '\r' ? end - 1 : end;
+            if (contentEnd > start) {
+                parser.parse(chunk, start, contentEnd, batch);
+            }
+            start = end + 1;
+        }
+        return batch;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, byte value) {
+        for (int i = buffer.limit() - 1; i >= 0; i--) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Waits for a chunk to be parsed, unwrapping any failure of the parser.
+     *
+     * @param future the pending result of parsing the chunk
+     *
+     * @return the records found in the chunk
+     *
+     * @throws IOException if the thread was interrupted while waiting
+     */
+    private static RecordBatch await(Future<RecordBatch> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading graph", e);
+        } catch (ExecutionException e) {
+            throw new IOException(Tasks.checkedCause(e));
+        }
+    }
+}
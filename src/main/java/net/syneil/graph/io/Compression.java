@@ -0,0 +1,55 @@
+package net.syneil.graph.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression applied to exported graphs. Output is compressed in independent blocks so that the blocks can be
+ * compressed in parallel.
+ *
+ * @see GraphExporter
+ */
+public enum Compression {
+    /**
+     * No compression: each block is passed through as it is
+     */
+    NONE {
+        @Override
+        byte[] compress(byte[] block, int length) {
+            return Arrays.copyOf(block, length);
+        }
+    },
+
+    /**
+     * Gzip compression. Each block is written as a separate gzip member; the concatenation of members is itself a
+     * valid gzip stream, readable by {@link java.util.zip.GZIPInputStream} and the standard command-line tools.
+     */
+    GZIP {
+        @Override
+        byte[] compress(byte[] block, int length) {
+            var compressed = new ByteArrayOutputStream(length / 4 + 64);
+            try (var gzip = new GZIPOutputStream(compressed, BUFFER_SIZE)) {
+                gzip.write(block, 0, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return compressed.toByteArray();
+        }
+    };
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Compresses a block into a self-contained unit that may be concatenated with the compressed forms of other
+     * blocks.
+     *
+     * @param block the bytes to compress
+     * @param length the number of bytes of the block in use
+     *
+     * @return the compressed block
+     */
+    abstract byte[] compress(byte[] block, int length);
+}
@@ -0,0 +1,100 @@
+package net.syneil.graph.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses edge lists in which each line holds a source, a target and optionally a label, separated by a delimiter. Blank
+ * lines and lines beginning with {@code #} are ignored; any columns after the third are ignored too, and an empty third
+ * column means the edge has no label. Fields may be enclosed in double quotes, in which case they may contain the
+ * delimiter and a doubled quote stands for a literal one.
+ */
+public class DelimitedFormat implements LineParser {
+    private static final byte QUOTE = '"';
+    private static final byte COMMENT = '#';
+
+    /**
+     * The byte separating the columns
+     */
+    private final byte delimiter;
+
+    /**
+     * @param delimiter the character separating the columns; must be a single-byte (ASCII) character
+     */
+    public DelimitedFormat(char delimiter) {
+        if (delimiter > 0x7F || delimiter == QUOTE || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Unsupported delimiter: " + delimiter);
+        }
+        this.delimiter = (byte) delimiter;
+    }
+
+    /**
+     * @return a parser for tab-separated edge lists
+     */
+    public static DelimitedFormat tsv() {
+        return new DelimitedFormat('\t');
+    }
+
+    /**
+     * @return a parser for comma-separated edge lists
+     */
+    public static DelimitedFormat csv() {
+        return new DelimitedFormat(',');
+    }
+
+    @Override
+    public void parse(ByteBuffer buffer, int from, int to, RecordSink sink) {
+        if (buffer.get(from) == COMMENT || isBlank(buffer, from, to)) {
+            return;
+        }
+        String[] fields = new String[3];
+        int field = 0, position = from;
+        while (field < fields.length && position <= to) {
+            int end = fieldEnd(buffer, position, to);
+            fields[field++] = field(buffer, position, end);
+            position = end + 1;
+        }
+        if (field < 2) {
+            throw new GraphFormatException("Expected at least two columns but found: " + LineParser.decode(buffer, from,
+                                                                                                          to));
+        }
+        sink.edge(fields[0], fields[1], fields[2] == null || fields[2].isEmpty() ? null : fields[2]);
+    }
+
+    /**
+     * Finds the end of the field starting at a position, skipping over delimiters inside quotes.
+     *
+     * @return the index of the delimiter ending the field, or the end of the line
+     */
+    private int fieldEnd(ByteBuffer buffer, int from, int to) {
+        boolean quoted = false;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == QUOTE) {
+                quoted = !quoted;
+            } else if (b == delimiter && !quoted) {
+                return i;
+            }
+        }
+        if (quoted) {
+            throw new GraphFormatException("Unterminated quote in: " + LineParser.decode(buffer, from, to));
+        }
+        return to;
+    }
+
+    private static String field(ByteBuffer buffer, int from, int to) {
+        if (to - from >= 2 && buffer.get(from) == QUOTE && buffer.get(to - 1) == QUOTE) {
+            return LineParser.decode(buffer, from + 1, to - 1).replace("\"\"", "\"");
+        }
+        return LineParser.decode(buffer, from, to);
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
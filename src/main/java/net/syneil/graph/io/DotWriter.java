@@ -0,0 +1,53 @@
+package net.syneil.graph.io;
+
+import java.io.IOException;
+
+/**
+ * Writes graphs in the <a href="https://graphviz.org/doc/info/lang.html">DOT</a> language of Graphviz. Every vertex
+ * and label is written as a quoted identifier, so any token is permitted.
+ */
+public class DotWriter implements GraphWriter {
+    @Override
+    public void start(Appendable out, boolean directed) throws IOException {
+        out.append(directed ? "digraph {\n" : "graph {\n");
+    }
+
+    @Override
+    public boolean writesVertices() {
+        return true;
+    }
+
+    @Override
+    public void vertex(Appendable out, String token) throws IOException {
+        quote(out.append("  "), token).append(";\n");
+    }
+
+    @Override
+    public void edge(Appendable out, String source, String target, String label, boolean directed)
+            throws IOException {
+        quote(out.append("  "), source).append(directed ? " -> " : " -- ");
+        quote(out, target);
+        if (label != null) {
+            quote(out.append(" [label="), label).append(']');
+        }
+        out.append(";\n");
+    }
+
+    @Override
+    public void finish(Appendable out) throws IOException {
+        out.append("}\n");
+    }
+
+    private static Appendable quote(Appendable out, String value) throws IOException {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c == '\n') {
+                out.append(value, start, i).append(c == '\n' ? "\\n" : "\\" + c);
+                start = i + 1;
+            }
+        }
+        return out.append(value, start, value.length()).append('"');
+    }
+}
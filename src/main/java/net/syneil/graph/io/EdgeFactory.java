@@ -0,0 +1,42 @@
+package net.syneil.graph.io;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edge.UnlabelledEdge;
+
+/**
+ * Creates the edges of a graph from the records read from an external source.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+@FunctionalInterface
+public interface EdgeFactory<V, E extends Edge<V>> {
+    /**
+     * @param <V> the type used for vertices
+     *
+     * @return a factory creating {@link UnlabelledEdge unlabelled edges}, ignoring any labels read
+     */
+    static <V> EdgeFactory<V, Edge<V>> unlabelled() {
+        return (source, target, label) -> new UnlabelledEdge<>(source, target);
+    }
+
+    /**
+     * @param <V> the type used for vertices
+     *
+     * @return a factory creating {@link ObjectLabelledEdge labelled edges} with the labels read
+     */
+    static <V> EdgeFactory<V, LabelledEdge<V, String>> labelled() {
+        return ObjectLabelledEdge::new;
+    }
+
+    /**
+     * @param source the source vertex
+     * @param target the target vertex
+     * @param label the label read for the edge, or null if there was none
+     *
+     * @return the edge
+     */
+    E create(V source, V target, String label);
+}
@@ -0,0 +1,87 @@
+package net.syneil.graph.io;
+
+import java.io.IOException;
+
+/**
+ * Writes edge lists with one edge per line: the source, the target and, if the edge has one, the label, separated by a
+ * delimiter. Fields containing the delimiter or a quote are enclosed in double quotes, with embedded quotes doubled, so
+ * the output can be read back by {@link DelimitedFormat}. That reads one record per line, so a field containing a line
+ * break cannot be written. Vertices without edges are not written.
+ */
+public class EdgeListWriter implements GraphWriter {
+    /**
+     * The character separating the columns
+     */
+    private final char delimiter;
+
+    /**
+     * @param delimiter the character separating the columns
+     */
+    public EdgeListWriter(char delimiter) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Unsupported delimiter: " + delimiter);
+        }
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * @return a writer of tab-separated edge lists
+     */
+    public static EdgeListWriter tsv() {
+        return new EdgeListWriter('\t');
+    }
+
+    /**
+     * @return a writer of comma-separated edge lists
+     */
+    public static EdgeListWriter csv() {
+        return new EdgeListWriter(',');
+    }
+
+    @Override
+    public boolean writesVertices() {
+        return false;
+    }
+
+    /**
+     * @throws GraphFormatException if any field contains a line break
+     */
+    @Override
+    public void edge(Appendable out, String source, String target, String label, boolean directed)
+            throws IOException {
+        checkSingleLine(source);
+        checkSingleLine(target);
+        if (label != null) {
+            checkSingleLine(label);
+        }
+        field(out, source).append(delimiter);
+        field(out, target);
+        if (label != null) {
+            field(out.append(delimiter), label);
+        }
+        out.append('\n');
+    }
+
+    private Appendable field(Appendable out, String value) throws IOException {
+        if (value.isEmpty() || value.charAt(0) == '#' || needsQuoting(value)) {
+            return out.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+        return out.append(value);
+    }
+
+    private boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkSingleLine(String value) {
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new GraphFormatException("Edge list fields cannot contain line breaks: " + value);
+        }
+    }
+}
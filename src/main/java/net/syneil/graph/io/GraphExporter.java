@@ -0,0 +1,162 @@
+package net.syneil.graph.io;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Writes graphs out through a {@link GraphWriter}. The graph's vertices and edges are streamed straight from {@link
+ * Graph#vertices()} and {@link Graph#edges()} into a block buffer, so neither the graph nor its {@link
+ * Graph#adjacencyList() adjacency list} is ever copied into memory. Output may optionally be compressed, in which case
+ * blocks are compressed in parallel by a pool of workers.
+ * <p>
+ * For example, to write a gzipped tab-separated edge list:
+ * <pre>
+ *     var exporter = new GraphExporter&lt;String, Edge&lt;String&gt;&gt;(Object::toString, GraphExporter::labelOf,
+ *             Compression.GZIP, 4, GraphExporter.DEFAULT_BLOCK_SIZE);
+ *     exporter.export(graph, EdgeListWriter.tsv(), Paths.get("graph.tsv.gz"));
+ * </pre>
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public class GraphExporter<V, E extends Edge<V>> {
+    /**
+     * The default number of bytes buffered per block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /**
+     * Converts vertices into tokens
+     */
+    private final Function<? super V, String> vertexEncoder;
+
+    /**
+     * Converts edges into label tokens, or null for edges without labels
+     */
+    private final Function<? super E, String> labelEncoder;
+
+    /**
+     * The compression applied to the output
+     */
+    private final Compression compression;
+
+    /**
+     * The number of threads compressing blocks
+     */
+    private final int workers;
+
+    /**
+     * The number of bytes buffered per block
+     */
+    private final int blockSize;
+
+    /**
+     * Creates an exporter that writes uncompressed output.
+     *
+     * @param vertexEncoder converts vertices into tokens
+     * @param labelEncoder converts edges into label tokens, or null for edges without labels
+     */
+    public GraphExporter(Function<? super V, String> vertexEncoder, Function<? super E, String> labelEncoder) {
+        this(vertexEncoder, labelEncoder, Compression.NONE, 1, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates an exporter.
+     *
+     * @param vertexEncoder converts vertices into tokens
+     * @param labelEncoder converts edges into label tokens, or null for edges without labels
+     * @param compression the compression applied to the output
+     * @param workers the number of threads compressing blocks, or copying them if there is no compression
+     * @param blockSize the number of bytes buffered, and compressed independently, per block
+     */
+    public GraphExporter(Function<? super V, String> vertexEncoder,
+                         Function<? super E, String> labelEncoder,
+                         Compression compression,
+                         int workers,
+                         int blockSize) {
+        this.vertexEncoder = Objects.requireNonNull(vertexEncoder);
+        this.labelEncoder = Objects.requireNonNull(labelEncoder);
+        this.compression = Objects.requireNonNull(compression);
+        if (workers < 1 || blockSize < 1) {
+            throw new IllegalArgumentException("Workers and block size must be positive");
+        }
+        this.workers = workers;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * The default label encoder: the {@link String#valueOf(Object) string form} of the label of {@link LabelledEdge
+     * labelled edges}, or null for other edges and null labels.
+     *
+     * @param edge the edge
+     *
+     * @return the edge's label as a string, or null
+     */
+    public static String labelOf(Edge<?> edge) {
+        if (edge instanceof LabelledEdge) {
+            Object label = ((LabelledEdge<?, ?>) edge).getLabel();
+            return label == null ? null : label.toString();
+        }
+        return null;
+    }
+
+    /**
+     * Writes a graph to a file, replacing any existing content.
+     *
+     * @param graph the graph to write
+     * @param writer the writer for the output format
+     * @param path the file to write
+     *
+     * @throws IOException if the file could not be written
+     */
+    public void export(Graph<V, E> graph, GraphWriter writer, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            export(graph, writer, channel);
+        }
+    }
+
+    /**
+     * Writes a graph to a channel, leaving the channel open.
+     *
+     * @param graph the graph to write
+     * @param writer the writer for the output format
+     * @param channel the channel to write to
+     *
+     * @throws IOException if the channel could not be written
+     */
+    public void export(Graph<V, E> graph, GraphWriter writer, WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(writer);
+        Objects.requireNonNull(channel);
+        boolean directed = graph.getProperties()
+                                .getOrientation()
+                                .map(GraphProperties.Orientation.DIRECTED::equals)
+                                .orElse(true);
+        try (var out = new BlockOutput(channel, compression, blockSize, workers)) {
+            writer.start(out, directed);
+            if (writer.writesVertices()) {
+                for (Iterator<? extends V> vertices = graph.vertices().iterator(); vertices.hasNext(); ) {
+                    writer.vertex(out, vertexEncoder.apply(vertices.next()));
+                }
+            }
+            for (Iterator<? extends E> edges = graph.edges().iterator(); edges.hasNext(); ) {
+                E edge = edges.next();
+                writer.edge(out, vertexEncoder.apply(edge.getSource()), vertexEncoder.apply(edge.getTarget()),
+                            labelEncoder.apply(edge), directed);
+            }
+            writer.finish(out);
+        }
+    }
+}
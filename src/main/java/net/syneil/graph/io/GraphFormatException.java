@@ -0,0 +1,29 @@
+package net.syneil.graph.io;
+
+/**
+ * Thrown when the content being read does not conform to the format that was expected of it.
+ */
+public class GraphFormatException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new graph format exception with the specified detail message.
+     *
+     * @param message the detail message. The detail message is saved for later retrieval by the {@link
+     *         #getMessage()} method.
+     */
+    public GraphFormatException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new graph format exception with the specified detail message and cause.
+     *
+     * @param message the detail message. The detail message is saved for later retrieval by the {@link
+     *         #getMessage()} method.
+     * @param cause the cause, saved for later retrieval by the {@link #getCause()} method
+     */
+    public GraphFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
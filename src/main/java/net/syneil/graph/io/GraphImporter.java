@@ -0,0 +1,94 @@
+package net.syneil.graph.io;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.MutableGraph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Loads the records read by a {@link GraphReader} into a {@link MutableGraph}. Vertex tokens are interned for the
+ * duration of an import, so that each distinct token is converted into a vertex only once and every edge on that
+ * vertex shares the same instance.
+ * <p>
+ * For example, to read a tab-separated edge list of string vertices in parallel:
+ * <pre>
+ *     var importer = new GraphImporter&lt;String, Edge&lt;String&gt;&gt;(Function.identity(),
+ *             EdgeFactory.unlabelled());
+ *     importer.importInto(new ChunkedLineReader(DelimitedFormat.tsv()), path, new EdgeListGraph&lt;&gt;());
+ * </pre>
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public class GraphImporter<V, E extends Edge<V>> {
+    /**
+     * Converts vertex tokens into vertices
+     */
+    private final Function<String, ? extends V> vertexMapper;
+
+    /**
+     * Creates edges from the converted vertices and the label read
+     */
+    private final EdgeFactory<V, ? extends E> edgeFactory;
+
+    /**
+     * @param vertexMapper converts vertex tokens into vertices
+     * @param edgeFactory creates edges from the converted vertices and the label read
+     */
+    public GraphImporter(Function<String, ? extends V> vertexMapper, EdgeFactory<V, ? extends E> edgeFactory) {
+        this.vertexMapper = Objects.requireNonNull(vertexMapper);
+        this.edgeFactory = Objects.requireNonNull(edgeFactory);
+    }
+
+    /**
+     * Reads a file and adds every vertex and edge it describes to a graph.
+     *
+     * @param reader the reader for the format of the file
+     * @param path the file to read
+     * @param graph the graph to add to
+     * @param <G> the type of the graph
+     *
+     * @return the graph, for convenience
+     *
+     * @throws IOException if the file could not be read
+     * @throws GraphFormatException if the file is not in the format expected by the reader
+     * @throws net.syneil.graph.GraphPropertyViolationException if an edge read would violate the graph's properties
+     */
+    public <G extends MutableGraph<V, E>> G importInto(GraphReader reader, Path path, G graph) throws IOException {
+        Objects.requireNonNull(reader);
+        Objects.requireNonNull(graph);
+        reader.read(path, new Loader(graph));
+        return graph;
+    }
+
+    /**
+     * Converts records into vertices and edges and adds them to a graph
+     */
+    private class Loader implements RecordSink {
+        private final MutableGraph<V, E> graph;
+        private final Map<String, V> interned = new HashMap<>();
+
+        Loader(MutableGraph<V, E> graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public void vertex(String token) {
+            graph.addVertex(intern(token));
+        }
+
+        @Override
+        public void edge(String source, String target, String label) {
+            graph.addEdge(edgeFactory.create(intern(source), intern(target), label));
+        }
+
+        private V intern(String token) {
+            return interned.computeIfAbsent(token, vertexMapper);
+        }
+    }
+}
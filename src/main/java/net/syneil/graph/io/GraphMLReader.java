@@ -0,0 +1,104 @@
+package net.syneil.graph.io;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Reads <a href="http://graphml.graphdrawing.org/">GraphML</a> documents. Each {@code node} element is read as a vertex
+ * identified by its {@code id}, and each {@code edge} element as an edge between its {@code source} and {@code target}.
+ * An edge's label is taken from its {@code data} child with the configured key, if it has one.
+ * <p>
+ * The document is streamed rather than loaded into memory, so memory use does not depend on its size. XML cannot be
+ * split at arbitrary points, so unlike {@link ChunkedLineReader} the document is parsed on a single thread.
+ */
+public class GraphMLReader implements GraphReader {
+    /**
+     * The default key of the {@code data} elements holding edge labels
+     */
+    public static final String DEFAULT_LABEL_KEY = "label";
+
+    /**
+     * The key of the {@code data} elements holding edge labels
+     */
+    private final String labelKey;
+
+    /**
+     * Creates a reader that takes edge labels from {@code data} elements with the {@link #DEFAULT_LABEL_KEY default
+     * key}.
+     */
+    public GraphMLReader() {
+        this(DEFAULT_LABEL_KEY);
+    }
+
+    /**
+     * @param labelKey the key of the {@code data} elements holding edge labels
+     */
+    public GraphMLReader(String labelKey) {
+        this.labelKey = Objects.requireNonNull(labelKey);
+    }
+
+    @Override
+    public void read(Path path, RecordSink sink) throws IOException {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(sink);
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                read(reader, sink);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new GraphFormatException("Malformed GraphML: " + e.getMessage(), e);
+        }
+    }
+
+    private void read(XMLStreamReader reader, RecordSink sink) throws XMLStreamException {
+        String source = null, target = null, label = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "node":
+                        sink.vertex(requiredAttribute(reader, "id"));
+                        break;
+                    case "edge":
+                        source = requiredAttribute(reader, "source");
+                        target = requiredAttribute(reader, "target");
+                        label = null;
+                        break;
+                    case "data":
+                        if (source != null && labelKey.equals(reader.getAttributeValue(null, "key"))) {
+                            label = reader.getElementText();
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "edge".equals(reader.getLocalName())) {
+                sink.edge(source, target, label);
+                source = target = label = null;
+            }
+        }
+    }
+
+    private static String requiredAttribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) {
+            throw new GraphFormatException(
+                    "Missing attribute '" + name + "' on " + reader.getLocalName() + " at " + reader.getLocation());
+        }
+        return value;
+    }
+}
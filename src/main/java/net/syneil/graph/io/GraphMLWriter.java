@@ -0,0 +1,64 @@
+package net.syneil.graph.io;
+
+import java.io.IOException;
+
+/**
+ * Writes <a href="http://graphml.graphdrawing.org/">GraphML</a> documents, with edge labels held in {@code data}
+ * elements keyed by {@link GraphMLReader#DEFAULT_LABEL_KEY}, so the output can be read back by {@link GraphMLReader}.
+ */
+public class GraphMLWriter implements GraphWriter {
+    @Override
+    public void start(Appendable out, boolean directed) throws IOException {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+           .append("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n")
+           .append("  <key id=\"").append(GraphMLReader.DEFAULT_LABEL_KEY)
+           .append("\" for=\"edge\" attr.name=\"label\" attr.type=\"string\"/>\n")
+           .append("  <graph edgedefault=\"").append(directed ? "directed" : "undirected").append("\">\n");
+    }
+
+    @Override
+    public boolean writesVertices() {
+        return true;
+    }
+
+    @Override
+    public void vertex(Appendable out, String token) throws IOException {
+        escape(out.append("    <node id=\""), token).append("\"/>\n");
+    }
+
+    @Override
+    public void edge(Appendable out, String source, String target, String label, boolean directed)
+            throws IOException {
+        escape(out.append("    <edge source=\""), source).append('"');
+        escape(out.append(" target=\""), target).append('"');
+        if (label == null) {
+            out.append("/>\n");
+        } else {
+            out.append("><data key=\"").append(GraphMLReader.DEFAULT_LABEL_KEY).append("\">");
+            escape(out, label).append("</data></edge>\n");
+        }
+    }
+
+    @Override
+    public void finish(Appendable out) throws IOException {
+        out.append("  </graph>\n</graphml>\n");
+    }
+
+    private static Appendable escape(Appendable out, String value) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String replacement;
+            switch (value.charAt(i)) {
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '&': replacement = "&amp;"; break;
+                case '"': replacement = "&quot;"; break;
+                case '\'': replacement = "&apos;"; break;
+                default: continue;
+            }
+            out.append(value, start, i).append(replacement);
+            start = i + 1;
+        }
+        return out.append(value, start, value.length());
+    }
+}
@@ -0,0 +1,23 @@
+package net.syneil.graph.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Reads the records of a graph from a file in some external format.
+ *
+ * @see GraphImporter
+ */
+public interface GraphReader {
+    /**
+     * Reads every record from the file, handing them to the sink in the order they appear. The sink is only ever
+     * called from the thread that invoked this method, even if the reader parses the file in parallel.
+     *
+     * @param path the file to read
+     * @param sink the receiver of the records
+     *
+     * @throws IOException if the file could not be read
+     * @throws GraphFormatException if the file is not in the expected format
+     */
+    void read(Path path, RecordSink sink) throws IOException;
+}
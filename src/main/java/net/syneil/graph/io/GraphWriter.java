@@ -0,0 +1,63 @@
+package net.syneil.graph.io;
+
+import java.io.IOException;
+
+/**
+ * Writes the records of a graph in some external format. Writers are stateless: the {@link GraphExporter} calls
+ * {@link #start}, then {@link #vertex} for every vertex (if the format {@link #writesVertices() lists them}), then
+ * {@link #edge} for every edge, then {@link #finish}. Records are given as tokens already encoded by the exporter.
+ *
+ * @see GraphExporter
+ */
+public interface GraphWriter {
+    /**
+     * Writes anything that must precede the records, such as a document header.
+     *
+     * @param out the output
+     * @param directed whether the graph being written is directed
+     *
+     * @throws IOException if the output could not be written
+     */
+    default void start(Appendable out, boolean directed) throws IOException {
+    }
+
+    /**
+     * @return true if the format lists vertices separately from edges, in which case {@link #vertex} is called for
+     *         every vertex of the graph
+     */
+    boolean writesVertices();
+
+    /**
+     * Writes a vertex record.
+     *
+     * @param out the output
+     * @param token the encoded vertex
+     *
+     * @throws IOException if the output could not be written
+     */
+    default void vertex(Appendable out, String token) throws IOException {
+    }
+
+    /**
+     * Writes an edge record.
+     *
+     * @param out the output
+     * @param source the encoded source vertex
+     * @param target the encoded target vertex
+     * @param label the encoded label, or null if the edge has none
+     * @param directed whether the graph being written is directed
+     *
+     * @throws IOException if the output could not be written
+     */
+    void edge(Appendable out, String source, String target, String label, boolean directed) throws IOException;
+
+    /**
+     * Writes anything that must follow the records, such as the end of a document.
+     *
+     * @param out the output
+     *
+     * @throws IOException if the output could not be written
+     */
+    default void finish(Appendable out) throws IOException {
+    }
+}
@@ -0,0 +1,43 @@
+package net.syneil.graph.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses a single line of a line-oriented format. Implementations must be stateless, since lines from different parts
+ * of a file are parsed concurrently.
+ *
+ * @see ChunkedLineReader
+ */
+@FunctionalInterface
+public interface LineParser {
+    /**
+     * Parses the line occupying the given range of the buffer, handing any records found to the sink. The range
+     * excludes the line terminator.
+     *
+     * @param buffer the buffer holding the line, encoded as UTF-8
+     * @param from the index of the first byte of the line (inclusive)
+     * @param to the index of the last byte of the line (exclusive)
+     * @param sink the receiver of the records found
+     *
+     * @throws GraphFormatException if the line is malformed
+     */
+    void parse(ByteBuffer buffer, int from, int to, RecordSink sink);
+
+    /**
+     * Decodes a range of a buffer as a UTF-8 string, without disturbing the buffer's position.
+     *
+     * @param buffer the buffer
+     * @param from the index of the first byte (inclusive)
+     * @param to the index of the last byte (exclusive)
+     *
+     * @return the decoded string
+     */
+    static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        ByteBuffer range = buffer.duplicate();
+        range.limit(to).position(from);
+        range.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,137 @@
+package net.syneil.graph.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses <a href="https://www.w3.org/TR/n-triples/">N-Triples</a>, reading each triple as an edge from its subject to
+ * its object, labelled by its predicate. IRIs are given without their enclosing angle brackets, blank nodes keep their
+ * {@code _:} prefix and literals keep their N-Triples form (quotes, language tag and datatype included), so that the
+ * three kinds of term never collide. No unescaping is performed.
+ */
+public class NTriplesFormat implements LineParser {
+    /**
+     * Whether triples whose object is a literal should be read as edges
+     */
+    private final boolean includeLiterals;
+
+    /**
+     * Creates a parser that reads every triple as an edge, including those whose object is a literal.
+     */
+    public NTriplesFormat() {
+        this(true);
+    }
+
+    /**
+     * @param includeLiterals whether triples whose object is a literal should be read as edges; if false, they are
+     *         skipped, leaving only the relationships between resources
+     */
+    public NTriplesFormat(boolean includeLiterals) {
+        this.includeLiterals = includeLiterals;
+    }
+
+    @Override
+    public void parse(ByteBuffer buffer, int from, int to, RecordSink sink) {
+        int position = skipWhitespace(buffer, from, to);
+        if (position == to || buffer.get(position) == '#') {
+            return;
+        }
+        int subjectEnd = termEnd(buffer, position, to);
+        String subject = term(buffer, position, subjectEnd);
+        position = skipWhitespace(buffer, subjectEnd, to);
+        int predicateEnd = termEnd(buffer, position, to);
+        String predicate = term(buffer, position, predicateEnd);
+        position = skipWhitespace(buffer, predicateEnd, to);
+        if (position == to) {
+            throw malformed(buffer, from, to);
+        }
+        boolean literal = buffer.get(position) == '"';
+        int objectEnd = termEnd(buffer, position, to);
+        String object = literal && !includeLiterals ? null : term(buffer, position, objectEnd);
+        position = skipWhitespace(buffer, objectEnd, to);
+        if (position == to || buffer.get(position) != '.') {
+            throw malformed(buffer, from, to);
+        }
+        if (object != null) {
+            sink.edge(subject, object, predicate);
+        }
+    }
+
+    /**
+     * Finds the end of the term starting at a position.
+     *
+     * @return the index just past the end of the term
+     */
+    private static int termEnd(ByteBuffer buffer, int from, int to) {
+        if (from == to) {
+            throw malformed(buffer, from, to);
+        }
+        byte first = buffer.get(from);
+        if (first == '<') {
+            for (int i = from + 1; i < to; i++) {
+                if (buffer.get(i) == '>') {
+                    return i + 1;
+                }
+            }
+            throw malformed(buffer, from, to);
+        }
+        if (first == '"') {
+            for (int i = from + 1; i < to; i++) {
+                byte b = buffer.get(i);
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    // the literal may be followed by a language tag or a datatype IRI
+                    int end = i + 1;
+                    while (end < to && !isWhitespace(buffer.get(end)) && !isStatementEnd(buffer, end, to)) {
+                        if (buffer.get(end) == '<') {
+                            return termEnd(buffer, end, to);
+                        }
+                        end++;
+                    }
+                    return end;
+                }
+            }
+            throw malformed(buffer, from, to);
+        }
+        int end = from;
+        while (end < to && !isWhitespace(buffer.get(end)) && !isStatementEnd(buffer, end, to)) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Determines whether a position holds the full stop ending the statement, which may follow a term without
+     * whitespace; a blank node label or language tag may not end with a full stop, so one followed by nothing but
+     * whitespace or a comment is not part of the term.
+     */
+    private static boolean isStatementEnd(ByteBuffer buffer, int position, int to) {
+        if (buffer.get(position) != '.') {
+            return false;
+        }
+        int next = skipWhitespace(buffer, position + 1, to);
+        return next == to || buffer.get(next) == '#';
+    }
+
+    private static String term(ByteBuffer buffer, int from, int to) {
+        if (buffer.get(from) == '<') {
+            return LineParser.decode(buffer, from + 1, to - 1);
+        }
+        return LineParser.decode(buffer, from, to);
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int from, int to) {
+        while (from < to && isWhitespace(buffer.get(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static GraphFormatException malformed(ByteBuffer buffer, int from, int to) {
+        return new GraphFormatException("Malformed triple: " + LineParser.decode(buffer, from, to));
+    }
+}
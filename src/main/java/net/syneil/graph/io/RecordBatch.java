@@ -0,0 +1,74 @@
+package net.syneil.graph.io;
+
+import java.util.Arrays;
+
+/**
+ * Buffers records so that they can be parsed on one thread and replayed into a {@link RecordSink} on another. Each
+ * record occupies three consecutive slots of a flat token array, which avoids allocating an object per record.
+ */
+final class RecordBatch implements RecordSink {
+    /**
+     * The tokens of the records, three per record: source (or vertex), target and label
+     */
+    private String[] tokens;
+
+    /**
+     * Whether each record is a vertex record (as opposed to an edge record)
+     */
+    private boolean[] vertexRecords;
+
+    /**
+     * The number of records held
+     */
+    private int size;
+
+    RecordBatch(int expectedRecords) {
+        int capacity = Math.max(16, expectedRecords);
+        tokens = new String[capacity * 3];
+        vertexRecords = new boolean[capacity];
+    }
+
+    @Override
+    public void vertex(String token) {
+        append(true, token, null, null);
+    }
+
+    @Override
+    public void edge(String source, String target, String label) {
+        append(false, source, target, label);
+    }
+
+    private void append(boolean isVertex, String first, String second, String third) {
+        if (size == vertexRecords.length) {
+            vertexRecords = Arrays.copyOf(vertexRecords, size * 2);
+            tokens = Arrays.copyOf(tokens, size * 6);
+        }
+        vertexRecords[size] = isVertex;
+        tokens[size * 3] = first;
+        tokens[size * 3 + 1] = second;
+        tokens[size * 3 + 2] = third;
+        size++;
+    }
+
+    /**
+     * @return the number of records held
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Hands every record held to the sink, in the order they were received.
+     *
+     * @param sink the receiver of the records
+     */
+    void replay(RecordSink sink) {
+        for (int i = 0; i < size; i++) {
+            if (vertexRecords[i]) {
+                sink.vertex(tokens[i * 3]);
+            } else {
+                sink.edge(tokens[i * 3], tokens[i * 3 + 1], tokens[i * 3 + 2]);
+            }
+        }
+    }
+}
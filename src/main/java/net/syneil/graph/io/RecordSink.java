@@ -0,0 +1,23 @@
+package net.syneil.graph.io;
+
+/**
+ * Receives the vertex and edge records read from an external representation of a graph. Records are given as the raw
+ * tokens found in the source; converting them into vertices and edges is the responsibility of the sink.
+ */
+public interface RecordSink {
+    /**
+     * Receives a vertex record. Formats that only describe edges never call this method.
+     *
+     * @param token the token identifying the vertex
+     */
+    void vertex(String token);
+
+    /**
+     * Receives an edge record.
+     *
+     * @param source the token identifying the source vertex
+     * @param target the token identifying the target vertex
+     * @param label the label of the edge, or null if the record has none
+     */
+    void edge(String source, String target, String label);
+}
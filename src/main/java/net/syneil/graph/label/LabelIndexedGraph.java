@@ -0,0 +1,369 @@
+package net.syneil.graph.label;
+
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.MutableGraph;
+import net.syneil.graph.edgelist.EdgeListGraph;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * A mutable graph of labelled edges that indexes its edges by label, wrapping another mutable graph which holds the
+ * vertices and edges and enforces the graph's constraints. Edges are indexed by the vertex they can be traversed from
+ * and then by label, and by label alone, so that the edges of a given label from a vertex, or in the whole graph, can
+ * be found at a cost proportional to their number rather than to the number of edges of the vertex or graph. The index
+ * also gives the number of edges and vertices with each label, which estimate the cost of label-filtered traversals.
+ * <p>
+ * In {@link GraphProperties.Orientation#UNDIRECTED undirected} graphs an edge can be traversed from, and is indexed
+ * at, both of its vertices. The wrapped graph must only be modified through this one.
+ *
+ * @param <V> the type used for vertices
+ * @param <L> the type used for labels
+ * @param <E> the type used for edges
+ */
+public class LabelIndexedGraph<V, L, E extends LabelledEdge<V, L>> implements MutableGraph<V, E> {
+    /**
+     * The graph holding the vertices and edges
+     */
+    private final MutableGraph<V, E> graph;
+
+    /**
+     * Whether edges can be traversed from both of their vertices
+     */
+    private final boolean undirected;
+
+    /**
+     * Finds the vertex reached by traversing an edge from one of its vertices; defined at construct-time for
+     * optimisation
+     */
+    private final BiFunction<E, V, V> traversal;
+
+    /**
+     * The edges that can be traversed from each vertex, by label
+     */
+    private final Map<V, Map<L, Set<E>>> adjacency = new HashMap<>();
+
+    /**
+     * The edges to each vertex that cannot be traversed from it, so that they can be found when it is removed; null in
+     * undirected graphs, whose edges are all in the adjacency of both of their vertices
+     */
+    private final Map<V, Set<E>> incoming;
+
+    /**
+     * The edges with each label
+     */
+    private final Map<L, Set<E>> edgesByLabel = new HashMap<>();
+
+    /**
+     * The number of vertices with each label in their adjacency
+     */
+    private final Map<L, Integer> vertexCounts = new HashMap<>();
+
+    /**
+     * Creates an empty graph with the specified properties, held in an {@link EdgeListGraph}.
+     *
+     * @param properties the properties of this graph; null implies defaults
+     */
+    public LabelIndexedGraph(GraphProperties properties) {
+        this(new EdgeListGraph<>(properties));
+    }
+
+    /**
+     * Wraps a graph, indexing the edges already in it.
+     *
+     * @param graph the graph to hold the vertices and edges, which must afterwards only be modified through this one
+     */
+    public LabelIndexedGraph(MutableGraph<V, E> graph) {
+        this.graph = Objects.requireNonNull(graph);
+        this.undirected = graph.getProperties().getOrientation().orElse(DIRECTED) == UNDIRECTED;
+        this.traversal = undirected ? (edge, from) -> edge.other(from).orElseThrow() : (edge, from) -> edge.getTarget();
+        this.incoming = undirected ? null : new HashMap<>();
+        graph.edges().collect(Collectors.toList()).forEach(this::index);
+    }
+
+    // ---- label queries
+
+    /**
+     * @param source a vertex
+     * @param label a label
+     *
+     * @return the edges with the label that can be traversed from the vertex
+     */
+    public List<E> getEdgesWithLabel(V source, L label) {
+        Objects.requireNonNull(source);
+        return new ArrayList<>(adjacencyOf(source).getOrDefault(label, Collections.emptySet()));
+    }
+
+    /**
+     * @param source a vertex
+     * @param label a label
+     *
+     * @return the vertices reached by traversing the edges with the label from the vertex
+     */
+    public Set<V> neighbours(V source, L label) {
+        Objects.requireNonNull(source);
+        return adjacencyOf(source).getOrDefault(label, Collections.emptySet())
+                                  .stream()
+                                  .map(edge -> traversal.apply(edge, source))
+                                  .collect(Collectors.toSet());
+    }
+
+    /**
+     * @param label a label
+     *
+     * @return the edges with the label
+     */
+    public Stream<E> edgesWithLabel(L label) {
+        return edgesByLabel.getOrDefault(label, Collections.emptySet()).stream();
+    }
+
+    /**
+     * @param source a vertex
+     *
+     * @return the labels of the edges that can be traversed from the vertex
+     */
+    public Set<L> labels(V source) {
+        Objects.requireNonNull(source);
+        return Collections.unmodifiableSet(adjacencyOf(source).keySet());
+    }
+
+    private Map<L, Set<E>> adjacencyOf(V vertex) {
+        return adjacency.getOrDefault(vertex, Collections.emptyMap());
+    }
+
+    // ---- label statistics
+
+    /**
+     * @return the labels of the edges in this graph
+     */
+    public Set<L> labels() {
+        return Collections.unmodifiableSet(edgesByLabel.keySet());
+    }
+
+    /**
+     * @param label a label
+     *
+     * @return the number of edges with the label
+     */
+    public long numberOfEdges(L label) {
+        return edgesByLabel.getOrDefault(label, Collections.emptySet()).size();
+    }
+
+    /**
+     * @param label a label
+     *
+     * @return the number of vertices from which an edge with the label can be traversed
+     */
+    public long numberOfVertices(L label) {
+        return vertexCounts.getOrDefault(label, 0);
+    }
+
+    /**
+     * Gives the average degree, in edges with a label, of the vertices from which any can be traversed; that is, about
+     * the number of edges found by {@link #getEdgesWithLabel(Object, Object)} for a vertex with the label. As usual for
+     * degrees, undirected self-loops count twice.
+     *
+     * @param label a label
+     *
+     * @return the average, or zero if no edge has the label
+     */
+    public double averageDegree(L label) {
+        long vertices = numberOfVertices(label);
+        if (vertices == 0) {
+            return 0.0;
+        }
+        return (undirected ? 2.0 : 1.0) * numberOfEdges(label) / vertices;
+    }
+
+    // ---- MutableGraph
+
+    @Override
+    public boolean addVertex(V v) {
+        return graph.addVertex(v);
+    }
+
+    @Override
+    public boolean removeVertex(V v) {
+        Objects.requireNonNull(v);
+        Set<E> incident = new HashSet<>();
+        adjacencyOf(v).values().forEach(incident::addAll);
+        if (incoming != null) {
+            incident.addAll(incoming.getOrDefault(v, Collections.emptySet()));
+        }
+        return removed(incident, () -> graph.removeVertex(v));
+    }
+
+    @Override
+    public boolean addEdge(E edge) {
+        Objects.requireNonNull(edge);
+        if (!graph.addEdge(edge)) {
+            return false;
+        }
+        index(edge);
+        return true;
+    }
+
+    @Override
+    public boolean removeEdges(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        List<E> between = new ArrayList<>();
+        adjacencyOf(source).values()
+                           .forEach(edges -> edges.stream()
+                                                  .filter(edge -> target.equals(traversal.apply(edge, source)))
+                                                  .forEach(between::add));
+        return removed(between, () -> graph.removeEdges(source, target));
+    }
+
+    @Override
+    public boolean removeEdge(E edge) {
+        Objects.requireNonNull(edge);
+        V source = edge.getSource(), target = edge.getTarget();
+        List<E> candidates = new ArrayList<>();
+        adjacencyOf(source).values()
+                           .forEach(edges -> edges.stream()
+                                                  .filter(e -> e.equals(edge)
+                                                          || undirected && target.equals(traversal.apply(e, source)))
+                                                  .forEach(candidates::add));
+        return removed(candidates, () -> graph.removeEdge(edge));
+    }
+
+    /**
+     * Performs a removal on the wrapped graph and removes from the index those of the candidate edges it removed. The
+     * number of edges removed is compared with the number of candidates first, so that the wrapped graph need only be
+     * searched when it removed some but not all of them.
+     *
+     * @param candidates the edges the removal may remove
+     * @param removal the removal
+     *
+     * @return the result of the removal
+     */
+    private boolean removed(Collection<E> candidates, BooleanSupplier removal) {
+        long before = graph.numberOfEdges();
+        boolean updated = removal.getAsBoolean();
+        long removedCount = before - graph.numberOfEdges();
+        if (removedCount >= candidates.size()) {
+            candidates.forEach(this::unindex);
+        } else if (removedCount > 0) {
+            candidates.stream()
+                      .filter(edge -> !graph.getEdges(edge.getSource(), edge.getTarget()).contains(edge))
+                      .collect(Collectors.toList())
+                      .forEach(this::unindex);
+        }
+        return updated;
+    }
+
+    private void index(E edge) {
+        L label = edge.getLabel();
+        edgesByLabel.computeIfAbsent(label, $ -> new HashSet<>()).add(edge);
+        indexAt(edge.getSource(), label, edge);
+        if (undirected && !edge.isSelfEdge()) {
+            indexAt(edge.getTarget(), label, edge);
+        } else if (!undirected) {
+            incoming.computeIfAbsent(edge.getTarget(), $ -> new HashSet<>()).add(edge);
+        }
+    }
+
+    private void indexAt(V vertex, L label, E edge) {
+        Map<L, Set<E>> byLabel = adjacency.computeIfAbsent(vertex, $ -> new HashMap<>());
+        Set<E> edges = byLabel.get(label);
+        if (edges == null) {
+            byLabel.put(label, edges = new HashSet<>());
+            vertexCounts.merge(label, 1, Integer::sum);
+        }
+        edges.add(edge);
+    }
+
+    private void unindex(E edge) {
+        L label = edge.getLabel();
+        Set<E> withLabel = edgesByLabel.get(label);
+        if (withLabel == null || !withLabel.remove(edge)) {
+            return;
+        }
+        if (withLabel.isEmpty()) {
+            edgesByLabel.remove(label);
+        }
+        unindexAt(edge.getSource(), label, edge);
+        if (undirected && !edge.isSelfEdge()) {
+            unindexAt(edge.getTarget(), label, edge);
+        } else if (!undirected) {
+            Set<E> edges = incoming.get(edge.getTarget());
+            edges.remove(edge);
+            if (edges.isEmpty()) {
+                incoming.remove(edge.getTarget());
+            }
+        }
+    }
+
+    private void unindexAt(V vertex, L label, E edge) {
+        Map<L, Set<E>> byLabel = adjacency.get(vertex);
+        Set<E> edges = byLabel.get(label);
+        edges.remove(edge);
+        if (edges.isEmpty()) {
+            byLabel.remove(label);
+            vertexCounts.computeIfPresent(label, ($, count) -> count == 1 ? null : count - 1);
+            if (byLabel.isEmpty()) {
+                adjacency.remove(vertex);
+            }
+        }
+    }
+
+    // ---- Graph
+
+    @Override
+    public long numberOfVertices() {
+        return graph.numberOfVertices();
+    }
+
+    @Override
+    public long numberOfEdges() {
+        return graph.numberOfEdges();
+    }
+
+    @Override
+    public Stream<? extends E> edges() {
+        return graph.edges();
+    }
+
+    @Override
+    public Stream<? extends V> vertices() {
+        return graph.vertices();
+    }
+
+    @Override
+    public boolean hasVertex(V vertex) {
+        return graph.hasVertex(vertex);
+    }
+
+    @Override
+    public boolean hasEdge(V source, V target) {
+        return graph.hasEdge(source, target);
+    }
+
+    @Override
+    public Set<? extends V> neighbours(V v) {
+        return graph.neighbours(v);
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source, V target) {
+        return graph.getEdges(source, target);
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source) {
+        return graph.getEdges(source);
+    }
+
+    @Override
+    public GraphProperties getProperties() {
+        return graph.getProperties();
+    }
+}
@@ -0,0 +1,176 @@
+package net.syneil.graph.match;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The distinct neighbours of each vertex of a compact graph in one direction, optionally only through edges with a
+ * given label, in compressed sparse row form with every row sorted.
+ */
+final class AdjacencyIndex {
+    /**
+     * The first position of each vertex's row, plus the end of the last row
+     */
+    private final int[] offsets;
+
+    /**
+     * The neighbour at each position
+     */
+    private final int[] neighbours;
+
+    /**
+     * The number of vertices with a non-empty row
+     */
+    private final int nonEmptyRows;
+
+    private AdjacencyIndex(int[] offsets, int[] neighbours) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        int rows = 0;
+        for (int v = 0; v + 1 < offsets.length; v++) {
+            if (offsets[v + 1] > offsets[v]) {
+                rows++;
+            }
+        }
+        this.nonEmptyRows = rows;
+    }
+
+    /**
+     * Indexes a graph.
+     *
+     * @param graph the graph
+     * @param key the direction and label of the edges to index
+     *
+     * @return the index
+     */
+    static AdjacencyIndex of(CompactGraph<?, ? extends Edge<?>> graph, Key key) {
+        int n = graph.index().size();
+        int[] offsets = new int[n + 1], neighbours = new int[graph.size()];
+        if (!key.reverse) {
+            int filled = 0;
+            for (int v = 0; v < n; v++) {
+                offsets[v] = filled;
+                for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                    int w = graph.target(p);
+                    if (key.matches(graph.edge(p)) && (filled == offsets[v] || neighbours[filled - 1] != w)) {
+                        neighbours[filled++] = w;
+                    }
+                }
+            }
+            offsets[n] = filled;
+            return new AdjacencyIndex(offsets, Arrays.copyOf(neighbours, filled));
+        }
+
+        // transpose, visiting sources in order so that every row is sorted
+        int[] counts = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                counts[graph.target(p) + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            counts[v + 1] += counts[v];
+        }
+        int[] next = Arrays.copyOf(counts, n);
+        for (int v = 0; v < n; v++) {
+            for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                int w = graph.target(p);
+                if (key.matches(graph.edge(p)) && (next[w] == counts[w] || neighbours[next[w] - 1] != v)) {
+                    neighbours[next[w]++] = v;
+                }
+            }
+        }
+        int filled = 0;
+        for (int w = 0; w < n; w++) {
+            offsets[w] = filled;
+            System.arraycopy(neighbours, counts[w], neighbours, filled, next[w] - counts[w]);
+            filled += next[w] - counts[w];
+        }
+        offsets[n] = filled;
+        return new AdjacencyIndex(offsets, Arrays.copyOf(neighbours, filled));
+    }
+
+    int start(int vertex) {
+        return offsets[vertex];
+    }
+
+    int end(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    int neighbour(int position) {
+        return neighbours[position];
+    }
+
+    int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    boolean contains(int vertex, int neighbour) {
+        return Arrays.binarySearch(neighbours, offsets[vertex], offsets[vertex + 1], neighbour) >= 0;
+    }
+
+    /**
+     * @return the number of vertices with at least one neighbour in this index
+     */
+    int nonEmptyRows() {
+        return nonEmptyRows;
+    }
+
+    /**
+     * @return the average number of neighbours of the vertices with any
+     */
+    double averageDegree() {
+        return nonEmptyRows == 0 ? 0.0 : (double) neighbours.length / nonEmptyRows;
+    }
+
+    /**
+     * Identifies an index by the direction and label of its edges
+     */
+    static final class Key {
+        /**
+         * Whether the index is of the sources of the edges to each vertex, rather than of the targets of the edges from
+         * it
+         */
+        private final boolean reverse;
+
+        /**
+         * Whether only edges with the label are indexed
+         */
+        private final boolean labelled;
+
+        /**
+         * The label of the edges indexed, if labelled
+         */
+        private final Object label;
+
+        Key(boolean reverse, boolean labelled, Object label) {
+            this.reverse = reverse;
+            this.labelled = labelled;
+            this.label = labelled ? label : null;
+        }
+
+        private boolean matches(Edge<?> edge) {
+            return !labelled || edge instanceof LabelledEdge
+                    && Objects.equals(label, ((LabelledEdge<?, ?>) edge).getLabel());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return reverse == key.reverse && labelled == key.labelled && Objects.equals(label, key.label);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(reverse, labelled, label);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package net.syneil.graph.match;
+
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Enumerates the embeddings of a pattern by depth-first search, extending each partial embedding by the next pattern
+ * vertex in the plan's order. The candidates for a vertex are the intersection of the sorted rows of the indices that
+ * constrain it, found by scanning the shortest row and searching the others, so that the work at every step is bounded
+ * by the smallest relation involved, as in a worst-case optimal join. The spliterator splits the candidates of the
+ * first vertex, so that parallel streams search disjoint subtrees.
+ *
+ * @param <P> the type used for the pattern's vertices
+ * @param <V> the type used for the target's vertices
+ */
+final class EmbeddingSpliterator<P, V> implements Spliterator<Map<P, V>> {
+    /**
+     * The compiled pattern
+     */
+    private final MatchPlan<P> plan;
+
+    /**
+     * The target graph
+     */
+    private final CompactGraph<V, ?> graph;
+
+    /**
+     * The candidates for the first pattern vertex
+     */
+    private final int[] roots;
+
+    /**
+     * The next root candidate to search from
+     */
+    private int nextRoot;
+
+    /**
+     * The end of the range of root candidates of this spliterator
+     */
+    private int endRoot;
+
+    /**
+     * The target vertex matched to each pattern vertex in order, up to the current depth
+     */
+    private final int[] matched;
+
+    /**
+     * The candidates for each pattern vertex in order, given the vertices matched before it
+     */
+    private final int[][] candidates;
+
+    /**
+     * The number of candidates for each pattern vertex in order
+     */
+    private final int[] candidateCounts;
+
+    /**
+     * The next candidate to try for each pattern vertex in order
+     */
+    private final int[] cursors;
+
+    /**
+     * The position in the order being matched, or -1 before a root is chosen
+     */
+    private int depth = -1;
+
+    EmbeddingSpliterator(MatchPlan<P> plan, CompactGraph<V, ?> graph, int[] roots, int fromRoot, int toRoot) {
+        this.plan = plan;
+        this.graph = graph;
+        this.roots = roots;
+        this.nextRoot = fromRoot;
+        this.endRoot = toRoot;
+        int k = plan.size();
+        this.matched = new int[k];
+        this.candidates = new int[k][];
+        this.candidateCounts = new int[k];
+        this.cursors = new int[k];
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Map<P, V>> action) {
+        int last = plan.size() - 1;
+        while (true) {
+            if (depth < 0) {
+                if (nextRoot >= endRoot) {
+                    return false;
+                }
+                matched[0] = roots[nextRoot++];
+                if (last == 0) {
+                    action.accept(embedding());
+                    return true;
+                }
+                depth = 1;
+                extend(depth);
+            } else if (cursors[depth] < candidateCounts[depth]) {
+                matched[depth] = candidates[depth][cursors[depth]++];
+                if (depth == last) {
+                    action.accept(embedding());
+                    return true;
+                }
+                extend(++depth);
+            } else {
+                depth = depth == 1 ? -1 : depth - 1;
+            }
+        }
+    }
+
+    /**
+     * Finds the candidates for the pattern vertex at a position, given the vertices matched before it.
+     */
+    private void extend(int position) {
+        AdjacencyIndex[] constraints = plan.constraints[position];
+        int[] from = plan.constrainedBy[position];
+        int count = 0;
+        if (constraints.length == 0) {
+            int[] all = plan.unconstrained[position];
+            int[] buffer = buffer(position, all.length);
+            for (int v : all) {
+                if (unmatched(v, position)) {
+                    buffer[count++] = v;
+                }
+            }
+        } else {
+            // scan the shortest row, and search the others for each of its vertices
+            int shortest = 0;
+            for (int c = 1; c < constraints.length; c++) {
+                if (constraints[c].degree(matched[from[c]]) < constraints[shortest].degree(matched[from[shortest]])) {
+                    shortest = c;
+                }
+            }
+            AdjacencyIndex base = constraints[shortest];
+            int row = matched[from[shortest]];
+            int[] buffer = buffer(position, base.degree(row));
+            for (int p = base.start(row); p < base.end(row); p++) {
+                int v = base.neighbour(p);
+                if (inAllRows(constraints, from, shortest, v) && plan.admits(position, v) && unmatched(v, position)) {
+                    buffer[count++] = v;
+                }
+            }
+        }
+        candidateCounts[position] = count;
+        cursors[position] = 0;
+    }
+
+    private boolean inAllRows(AdjacencyIndex[] constraints, int[] from, int except, int vertex) {
+        for (int c = 0; c < constraints.length; c++) {
+            if (c != except && !constraints[c].contains(matched[from[c]], vertex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean unmatched(int vertex, int position) {
+        for (int i = 0; i < position; i++) {
+            if (matched[i] == vertex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] buffer(int position, int capacity) {
+        if (candidates[position] == null || candidates[position].length < capacity) {
+            candidates[position] = new int[Math.max(capacity, 16)];
+        }
+        return candidates[position];
+    }
+
+    private Map<P, V> embedding() {
+        Map<P, V> embedding = new HashMap<>(plan.size() * 4 / 3 + 1);
+        for (int i = 0; i < plan.size(); i++) {
+            embedding.put(plan.order.get(i), graph.vertexAt(matched[i]));
+        }
+        return embedding;
+    }
+
+    @Override
+    public Spliterator<Map<P, V>> trySplit() {
+        int remaining = endRoot - nextRoot;
+        if (remaining < 2) {
+            return null;
+        }
+        int middle = nextRoot + remaining / 2;
+        var split = new EmbeddingSpliterator<>(plan, graph, roots, middle, endRoot);
+        endRoot = middle;
+        return split;
+    }
+
+    @Override
+    public long estimateSize() {
+        return endRoot - nextRoot;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL;
+    }
+}
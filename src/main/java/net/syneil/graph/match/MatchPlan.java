@@ -0,0 +1,100 @@
+package net.syneil.graph.match;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A pattern compiled against a target graph: the order in which its vertices are matched, and for each vertex in that
+ * order the adjacency indices its candidates are drawn from.
+ *
+ * @param <P> the type used for the pattern's vertices
+ */
+final class MatchPlan<P> {
+    /**
+     * The pattern's vertices, in matching order
+     */
+    final List<P> order;
+
+    /**
+     * For each vertex in order, the indices whose rows at earlier matched vertices must hold its candidates
+     */
+    final AdjacencyIndex[][] constraints;
+
+    /**
+     * For each vertex in order, the positions in the order of the earlier vertices to which each constraint applies
+     */
+    final int[][] constrainedBy;
+
+    /**
+     * For each vertex in order, the indices in which its candidates must have a self-loop
+     */
+    final AdjacencyIndex[][] loops;
+
+    /**
+     * For each vertex in order, the indices in which its candidates must have some neighbour for the pattern's edges
+     * at it to be matched
+     */
+    final AdjacencyIndex[][] required;
+
+    /**
+     * For each vertex in order without constraints, every target vertex that could match it; null for the others
+     */
+    final int[][] unconstrained;
+
+    MatchPlan(List<P> order,
+              AdjacencyIndex[][] constraints,
+              int[][] constrainedBy,
+              AdjacencyIndex[][] loops,
+              AdjacencyIndex[][] required,
+              int targetSize) {
+        this.order = order;
+        this.constraints = constraints;
+        this.constrainedBy = constrainedBy;
+        this.loops = loops;
+        this.required = required;
+        this.unconstrained = new int[order.size()][];
+        for (int i = 0; i < order.size(); i++) {
+            if (constraints[i].length == 0) {
+                unconstrained[i] = candidates(i, targetSize);
+            }
+        }
+    }
+
+    private int[] candidates(int position, int targetSize) {
+        int[] candidates = new int[targetSize];
+        int count = 0;
+        for (int v = 0; v < targetSize; v++) {
+            if (admits(position, v)) {
+                candidates[count++] = v;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * @param position a position in the order
+     * @param vertex a target vertex
+     *
+     * @return true if the vertex has the self-loops and neighbours needed to match the pattern vertex at the position
+     */
+    boolean admits(int position, int vertex) {
+        for (AdjacencyIndex index : required[position]) {
+            if (index.degree(vertex) == 0) {
+                return false;
+            }
+        }
+        for (AdjacencyIndex index : loops[position]) {
+            if (!index.contains(vertex, vertex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of pattern vertices
+     */
+    int size() {
+        return order.size();
+    }
+}
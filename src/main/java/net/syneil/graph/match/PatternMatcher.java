@@ -0,0 +1,275 @@
+package net.syneil.graph.match;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.internal.Tasks;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * Finds the embeddings of small pattern graphs (triangles, paths, stars and the like) in a target graph. An embedding
+ * maps each vertex of the pattern to a distinct vertex of the target such that every edge of the pattern has a
+ * counterpart in the target between the vertices its ends are mapped to. Pattern edges are directed if the target is,
+ * and pattern edges that are {@link LabelledEdge}s only match target edges with an equal label; other pattern edges
+ * match any. Embeddings are not induced: the target may have more edges between the matched vertices than the pattern.
+ * Symmetric patterns match once per automorphism; a triangle in an undirected graph, for instance, is found six times.
+ * <p>
+ * The target is copied once into a {@link CompactGraph}, from which sorted adjacency indices are built for each
+ * direction and label that patterns use, and kept for later patterns. The pattern vertices are matched in an order
+ * chosen from the sizes and average degrees of those indices: the most selective vertex first, then repeatedly the
+ * vertex constrained by the most already matched vertices. Candidates are intersections of sorted adjacency rows.
+ * <pre>
+ *     var matcher = PatternMatcher.of(borders);
+ *     matcher.matches(triangle).limit(10).forEach(System.out::println);
+ *     long triangles = matcher.count(triangle, 8) / 6;
+ * </pre>
+ *
+ * @param <V> the type used for the target's vertices
+ */
+public final class PatternMatcher<V> {
+    /**
+     * The target graph
+     */
+    private final CompactGraph<V, Edge<V>> graph;
+
+    /**
+     * Whether the target's edges can be traversed in both directions
+     */
+    private final boolean undirected;
+
+    /**
+     * The adjacency indices built so far, by direction and label
+     */
+    private final Map<AdjacencyIndex.Key, AdjacencyIndex> indices = new ConcurrentHashMap<>();
+
+    private PatternMatcher(CompactGraph<V, Edge<V>> graph) {
+        this.graph = graph;
+        this.undirected = graph.getProperties().getOrientation().orElse(DIRECTED) == UNDIRECTED;
+    }
+
+    /**
+     * @param graph the target graph, copied into compact form unless it is already compact
+     * @param <V> the type used for vertices
+     *
+     * @return a matcher of patterns in the graph
+     */
+    public static <V> PatternMatcher<V> of(Graph<V, ? extends Edge<V>> graph) {
+        return new PatternMatcher<>(CompactGraph.copyOf(graph));
+    }
+
+    /**
+     * Streams the embeddings of a pattern. The embeddings are found lazily as the stream is consumed, so a {@link
+     * Stream#limit limit} stops the search once enough are found. The stream may be made {@link Stream#parallel()
+     * parallel}, in which case the candidates of the first pattern vertex are divided between threads.
+     *
+     * @param pattern the pattern
+     * @param <P> the type used for the pattern's vertices
+     *
+     * @return the embeddings, each mapping every pattern vertex to a target vertex
+     */
+    public <P> Stream<Map<P, V>> matches(Graph<P, ? extends Edge<P>> pattern) {
+        MatchPlan<P> plan = plan(pattern);
+        if (plan.size() == 0) {
+            return Stream.of(Map.of());
+        }
+        int[] roots = plan.unconstrained[0];
+        return StreamSupport.stream(new EmbeddingSpliterator<>(plan, graph, roots, 0, roots.length), false);
+    }
+
+    /**
+     * Finds embeddings of a pattern in parallel, stopping once enough are found. Which embeddings are found is not
+     * defined when there are more than the limit.
+     *
+     * @param pattern the pattern
+     * @param limit the greatest number of embeddings to find
+     * @param parallelism the number of threads searching
+     * @param <P> the type used for the pattern's vertices
+     *
+     * @return the embeddings found
+     */
+    public <P> List<Map<P, V>> find(Graph<P, ? extends Edge<P>> pattern, long limit, int parallelism) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        return inParallel(() -> matches(pattern).parallel().unordered().limit(limit).collect(Collectors.toList()),
+                          parallelism);
+    }
+
+    /**
+     * Counts the embeddings of a pattern in parallel.
+     *
+     * @param pattern the pattern
+     * @param parallelism the number of threads searching
+     * @param <P> the type used for the pattern's vertices
+     *
+     * @return the number of embeddings
+     */
+    public <P> long count(Graph<P, ? extends Edge<P>> pattern, int parallelism) {
+        return inParallel(() -> matches(pattern).parallel().count(), parallelism);
+    }
+
+    /**
+     * @param pattern the pattern
+     * @param <P> the type used for the pattern's vertices
+     *
+     * @return the pattern's vertices in the order in which they would be matched
+     */
+    public <P> List<P> matchingOrder(Graph<P, ? extends Edge<P>> pattern) {
+        return plan(pattern).order;
+    }
+
+    /**
+     * Runs a parallel stream operation in a pool of its own, so that it does not compete with other users of the
+     * common pool.
+     */
+    private static <T> T inParallel(Callable<T> operation, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return Tasks.await(pool.submit(operation), "matching pattern");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // ---- planning
+
+    /**
+     * An edge of a pattern between the positions of its vertices in the pattern's vertex list
+     */
+    private static final class PatternEdge {
+        private final int source;
+        private final int target;
+
+        /**
+         * The index of the targets of the matching edges from each vertex
+         */
+        private final AdjacencyIndex forward;
+
+        /**
+         * The index of the sources of the matching edges to each vertex
+         */
+        private final AdjacencyIndex backward;
+
+        private PatternEdge(int source, int target, AdjacencyIndex forward, AdjacencyIndex backward) {
+            this.source = source;
+            this.target = target;
+            this.forward = forward;
+            this.backward = backward;
+        }
+    }
+
+    private <P> MatchPlan<P> plan(Graph<P, ? extends Edge<P>> pattern) {
+        Objects.requireNonNull(pattern);
+        List<P> vertices = pattern.vertices().collect(Collectors.toList());
+        Map<P, Integer> positions = new HashMap<>();
+        vertices.forEach(vertex -> positions.put(vertex, positions.size()));
+        List<PatternEdge> edges = pattern.edges()
+                                         .map(edge -> patternEdge(edge, positions))
+                                         .collect(Collectors.toList());
+        int k = vertices.size();
+
+        // the indices in which each pattern vertex's match must have a neighbour
+        List<List<AdjacencyIndex>> required = new ArrayList<>();
+        vertices.forEach($ -> required.add(new ArrayList<>()));
+        for (PatternEdge edge : edges) {
+            required.get(edge.source).add(edge.forward);
+            required.get(edge.target).add(edge.backward);
+        }
+
+        // greedily order the vertices
+        int[] order = new int[k];
+        boolean[] placed = new boolean[k];
+        for (int i = 0; i < k; i++) {
+            int best = -1;
+            int bestConstraints = 0;
+            double bestEstimate = 0;
+            for (int x = 0; x < k; x++) {
+                if (placed[x]) {
+                    continue;
+                }
+                int constraints = 0;
+                double estimate = graph.index().size();
+                for (PatternEdge edge : edges) {
+                    if (edge.source == edge.target) {
+                        continue;
+                    }
+                    if (edge.target == x && placed[edge.source]) {
+                        constraints++;
+                        estimate = Math.min(estimate, edge.forward.averageDegree());
+                    } else if (edge.source == x && placed[edge.target]) {
+                        constraints++;
+                        estimate = Math.min(estimate, edge.backward.averageDegree());
+                    }
+                }
+                if (constraints == 0) {
+                    for (AdjacencyIndex index : required.get(x)) {
+                        estimate = Math.min(estimate, index.nonEmptyRows());
+                    }
+                }
+                if (best < 0 || constraints > bestConstraints
+                        || constraints == bestConstraints && estimate < bestEstimate) {
+                    best = x;
+                    bestConstraints = constraints;
+                    bestEstimate = estimate;
+                }
+            }
+            order[i] = best;
+            placed[best] = true;
+        }
+
+        int[] positionInOrder = new int[k];
+        for (int i = 0; i < k; i++) {
+            positionInOrder[order[i]] = i;
+        }
+        AdjacencyIndex[][] constraints = new AdjacencyIndex[k][], loops = new AdjacencyIndex[k][];
+        AdjacencyIndex[][] requiredInOrder = new AdjacencyIndex[k][];
+        int[][] constrainedBy = new int[k][];
+        for (int i = 0; i < k; i++) {
+            int x = order[i];
+            List<AdjacencyIndex> xConstraints = new ArrayList<>(), xLoops = new ArrayList<>();
+            List<Integer> xFrom = new ArrayList<>();
+            for (PatternEdge edge : edges) {
+                if (edge.source == x && edge.target == x) {
+                    xLoops.add(edge.forward);
+                } else if (edge.target == x && positionInOrder[edge.source] < i) {
+                    xConstraints.add(edge.forward);
+                    xFrom.add(positionInOrder[edge.source]);
+                } else if (edge.source == x && positionInOrder[edge.target] < i) {
+                    xConstraints.add(edge.backward);
+                    xFrom.add(positionInOrder[edge.target]);
+                }
+            }
+            constraints[i] = xConstraints.toArray(new AdjacencyIndex[0]);
+            constrainedBy[i] = xFrom.stream().mapToInt(Integer::intValue).toArray();
+            loops[i] = xLoops.toArray(new AdjacencyIndex[0]);
+            requiredInOrder[i] = required.get(x).stream().distinct().toArray(AdjacencyIndex[]::new);
+        }
+        List<P> orderedVertices = Arrays.stream(order).mapToObj(vertices::get).collect(Collectors.toList());
+        return new MatchPlan<>(Collections.unmodifiableList(orderedVertices), constraints, constrainedBy, loops,
+                               requiredInOrder, graph.index().size());
+    }
+
+    private <P> PatternEdge patternEdge(Edge<P> edge, Map<P, Integer> positions) {
+        boolean labelled = edge instanceof LabelledEdge;
+        Object label = labelled ? ((LabelledEdge<?, ?>) edge).getLabel() : null;
+        AdjacencyIndex forward = index(new AdjacencyIndex.Key(false, labelled, label));
+        AdjacencyIndex backward = undirected ? forward : index(new AdjacencyIndex.Key(true, labelled, label));
+        return new PatternEdge(positions.get(edge.getSource()), positions.get(edge.getTarget()), forward, backward);
+    }
+
+    private AdjacencyIndex index(AdjacencyIndex.Key key) {
+        return indices.computeIfAbsent(key, $ -> AdjacencyIndex.of(graph, key));
+    }
+}
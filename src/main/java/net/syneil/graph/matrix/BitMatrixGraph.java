@@ -0,0 +1,579 @@
+package net.syneil.graph.matrix;
+
+import net.syneil.graph.DynamicTopologicalOrder;
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.GraphProperties.Cyclicity;
+import net.syneil.graph.GraphProperties.Looping;
+import net.syneil.graph.GraphProperties.Multiplicity;
+import net.syneil.graph.GraphProperties.Orientation;
+import net.syneil.graph.GraphPropertyViolationException;
+import net.syneil.graph.MutableGraph;
+import net.syneil.graph.TopologicalOrder;
+import net.syneil.graph.edge.UnlabelledEdge;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Cyclicity.ACYCLIC;
+import static net.syneil.graph.GraphProperties.Cyclicity.CYCLIC;
+import static net.syneil.graph.GraphProperties.Looping.PERMITTED;
+import static net.syneil.graph.GraphProperties.Multiplicity.SINGLE;
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * A graph described by an adjacency matrix of bits, packed 64 to a {@code long}. Each vertex is assigned a row (and
+ * column) of the matrix, and the bit at row {@code i}, column {@code j} is set if there is an edge from the vertex of
+ * row {@code i} to that of row {@code j}. This makes {@link #hasEdge} a constant-time operation and lets neighbours be
+ * enumerated and intersected a word at a time, and uses one bit per vertex pair rather than an object per edge. It is
+ * therefore best suited to dense graphs of moderate size; memory use is quadratic in the number of vertices.
+ * <p>
+ * Only {@link Multiplicity#SINGLE single} edges between vertices can be represented. In {@link Orientation#UNDIRECTED
+ * undirected} graphs only the upper triangle of the matrix is stored (rounded out to whole words), halving its size;
+ * the price is that the neighbours of a vertex below the diagonal are found by probing a bit in each preceding row.
+ * <p>
+ * Edges carry no identity or label in this representation: {@link #addEdge} records only the vertices an edge
+ * connects, and the edges returned by the query methods are {@link UnlabelledEdge}s created on demand.
+ *
+ * @param <V> the type used for vertices
+ */
+public class BitMatrixGraph<V> implements MutableGraph<V, Edge<V>> {
+    /**
+     * The default number of vertices that can be held before the matrix must grow
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * The properties of this graph, with no empties
+     */
+    private final GraphProperties properties;
+
+    /**
+     * Whether only the upper triangle of the matrix is stored
+     */
+    private final boolean undirected;
+
+    /**
+     * Whether self-loops are forbidden
+     */
+    private final boolean loopsForbidden;
+
+    /**
+     * Whether edges closing a cycle are forbidden
+     */
+    private final boolean acyclic;
+
+    /**
+     * The topological order of the vertices, maintained only for directed acyclic graphs
+     */
+    private final DynamicTopologicalOrder<V> topologicalOrder;
+
+    /**
+     * The index of the row assigned to each vertex
+     */
+    private final Map<V, Integer> indices = new HashMap<>();
+
+    /**
+     * The vertex assigned to each row, or null if the row is free
+     */
+    private final List<V> vertexAt = new ArrayList<>();
+
+    /**
+     * Rows freed by removed vertices, available for reuse
+     */
+    private final Deque<Integer> freeRows = new ArrayDeque<>();
+
+    /**
+     * The number of rows (and columns) in the matrix; always a multiple of 64
+     */
+    private int capacity;
+
+    /**
+     * The number of words in a full row of the matrix
+     */
+    private int wordsPerRow;
+
+    /**
+     * The matrix, row by row; in undirected graphs row {@code i} starts at the word containing column {@code i}
+     */
+    private long[] bits;
+
+    /**
+     * The number of neighbours of the vertex of each row
+     */
+    private int[] degrees;
+
+    /**
+     * The number of edges in this graph
+     */
+    private long edgeCount;
+
+    /**
+     * Creates an empty directed graph that permits self-loops.
+     */
+    public BitMatrixGraph() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty graph with the specified properties. If any of the properties are {@link Optional#empty()
+     * undefined}, defaults will be assumed in their place. The defaults are: {@link Multiplicity#SINGLE single} edges
+     * between the same two nodes; {@link Orientation#DIRECTED directed} edges; {@link Looping#PERMITTED self-loops}
+     * permitted; and {@link Cyclicity#CYCLIC cycles} permitted.
+     *
+     * @param properties the properties of this graph; null implies defaults
+     *
+     * @throws IllegalArgumentException if the properties call for multiple edges between the same vertices
+     */
+    public BitMatrixGraph(GraphProperties properties) {
+        this(properties, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty graph with the specified properties, with space for a number of vertices before the matrix must
+     * grow.
+     *
+     * @param properties the properties of this graph; null implies defaults
+     * @param expectedVertices the number of vertices expected
+     *
+     * @throws IllegalArgumentException if the properties call for multiple edges between the same vertices
+     * @see #BitMatrixGraph(GraphProperties)
+     */
+    public BitMatrixGraph(GraphProperties properties, int expectedVertices) {
+        var props = Optional.ofNullable(properties);
+        var multiplicity = props.flatMap(GraphProperties::getMultiplicity).orElse(SINGLE);
+        var orientation = props.flatMap(GraphProperties::getOrientation).orElse(DIRECTED);
+        var looping = props.flatMap(GraphProperties::getLooping).orElse(PERMITTED);
+        var cyclicity = props.flatMap(GraphProperties::getCyclicity).orElse(CYCLIC);
+        if (multiplicity != SINGLE) {
+            throw new IllegalArgumentException("A bit matrix can only represent single edges between vertices");
+        }
+        this.properties = GraphProperties.builder()
+                                         .multiplicity(multiplicity)
+                                         .orientation(orientation)
+                                         .looping(looping)
+                                         .cyclicity(cyclicity)
+                                         .build();
+        undirected = orientation == UNDIRECTED;
+        loopsForbidden = looping != PERMITTED;
+        acyclic = cyclicity == ACYCLIC;
+        topologicalOrder = acyclic && !undirected ? new DynamicTopologicalOrder<>() : null;
+        capacity = roundUp(Math.max(1, expectedVertices));
+        wordsPerRow = capacity / Long.SIZE;
+        bits = new long[matrixSize(capacity)];
+        degrees = new int[capacity];
+    }
+
+    @Override
+    public boolean addVertex(V v) {
+        Objects.requireNonNull(v);
+        if (indices.containsKey(v)) {
+            return false;
+        }
+        int row;
+        if (freeRows.isEmpty()) {
+            row = vertexAt.size();
+            vertexAt.add(v);
+            ensureCapacity(row + 1);
+        } else {
+            row = freeRows.pop();
+            vertexAt.set(row, v);
+        }
+        indices.put(v, row);
+        Optional.ofNullable(topologicalOrder).ifPresent(order -> order.addVertex(v));
+        return true;
+    }
+
+    @Override
+    public boolean removeVertex(V v) {
+        Objects.requireNonNull(v);
+        Integer row = indices.remove(v);
+        if (row == null) {
+            return false;
+        }
+        forEachNeighbour(row, neighbour -> clear(row, neighbour));
+        if (!undirected) {
+            for (int other = 0; other < vertexAt.size(); other++) {
+                if (get(other, row)) {
+                    clear(other, row);
+                }
+            }
+        }
+        vertexAt.set(row, null);
+        freeRows.push(row);
+        Optional.ofNullable(topologicalOrder).ifPresent(order -> order.removeVertex(v));
+        return true;
+    }
+
+    /**
+     * Adds an edge between the vertices the given edge connects, adding the vertices if necessary. The edge itself is
+     * not retained.
+     *
+     * @param edge the edge whose vertices are to be connected
+     *
+     * @return true, since an edge is always added if no exception is thrown
+     *
+     * @throws GraphPropertyViolationException if the vertices are already connected, if the edge is a self-loop and
+     *         this graph forbids them, or if the edge would close a cycle and this graph is acyclic
+     */
+    @Override
+    public boolean addEdge(Edge<V> edge) {
+        Objects.requireNonNull(edge);
+        V source = Objects.requireNonNull(edge.getSource());
+        V target = Objects.requireNonNull(edge.getTarget());
+        addVertex(source);
+        addVertex(target);
+        int from = indices.get(source), to = indices.get(target);
+        if (get(from, to)) {
+            throw new GraphPropertyViolationException("Edge would violate the multiplicity constraint of this graph");
+        }
+        if (loopsForbidden && from == to) {
+            throw new GraphPropertyViolationException("Edge would violate the looping constraint of this graph");
+        }
+        if (acyclic && (undirected ? connected(from, to) : !topologicalOrder.addEdge(source, target))) {
+            throw new GraphPropertyViolationException("Edge would violate the cyclicity constraint of this graph");
+        }
+        set(from, to);
+        return true;
+    }
+
+    @Override
+    public boolean removeEdges(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        Integer from = indices.get(source), to = indices.get(target);
+        if (from == null || to == null || !get(from, to)) {
+            return false;
+        }
+        clear(from, to);
+        Optional.ofNullable(topologicalOrder).ifPresent(order -> order.removeEdge(source, target));
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(Edge<V> edge) {
+        Objects.requireNonNull(edge);
+        return removeEdges(edge.getSource(), edge.getTarget());
+    }
+
+    @Override
+    public long numberOfVertices() {
+        return indices.size();
+    }
+
+    @Override
+    public long numberOfEdges() {
+        return edgeCount;
+    }
+
+    @Override
+    public Stream<? extends V> vertices() {
+        return indices.keySet().stream();
+    }
+
+    @Override
+    public Stream<? extends Edge<V>> edges() {
+        return IntStream.range(0, vertexAt.size())
+                        .filter(row -> vertexAt.get(row) != null)
+                        .boxed()
+                        .flatMap(row -> storedRow(row).mapToObj(
+                                column -> new UnlabelledEdge<>(vertexAt.get(row), vertexAt.get(column))));
+    }
+
+    @Override
+    public boolean hasVertex(V vertex) {
+        Objects.requireNonNull(vertex);
+        return indices.containsKey(vertex);
+    }
+
+    @Override
+    public boolean hasEdge(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        Integer from = indices.get(source), to = indices.get(target);
+        return from != null && to != null && get(from, to);
+    }
+
+    /**
+     * Returns a live, unmodifiable view of the neighbours of a vertex. Membership is tested in constant time, and
+     * iteration proceeds a word of the matrix at a time.
+     *
+     * @param v the vertex whose neighbours are to be found
+     *
+     * @return the neighbours of the vertex, or the empty set if it is not in this graph
+     */
+    @Override
+    public Set<? extends V> neighbours(V v) {
+        Objects.requireNonNull(v);
+        Integer row = indices.get(v);
+        if (row == null) {
+            return Collections.emptySet();
+        }
+        return new AbstractSet<V>() {
+            @Override
+            public int size() {
+                return degrees[row];
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                Integer column = indices.get(o);
+                return column != null && get(row, column);
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return neighbourRows(row).mapToObj(vertexAt::get).iterator();
+            }
+        };
+    }
+
+    @Override
+    public List<? extends Edge<V>> getEdges(V source, V target) {
+        return hasEdge(source, target) ? List.of(new UnlabelledEdge<>(source, target)) : List.of();
+    }
+
+    @Override
+    public List<? extends Edge<V>> getEdges(V source) {
+        Objects.requireNonNull(source);
+        return neighbours(source).stream().map(target -> new UnlabelledEdge<>(source, target))
+                                 .collect(Collectors.toList());
+    }
+
+    @Override
+    public GraphProperties getProperties() {
+        return properties;
+    }
+
+    /**
+     * Returns the topological order of the vertices of this graph, if it is directed and {@link Cyclicity#ACYCLIC
+     * acyclic}.
+     *
+     * @return the topological order of the vertices, or empty if this graph does not maintain one
+     */
+    public Optional<TopologicalOrder<V>> topologicalOrder() {
+        return Optional.ofNullable(topologicalOrder);
+    }
+
+    /**
+     * Determines if two rows are connected, by breadth-first search of the matrix.
+     */
+    private boolean connected(int from, int to) {
+        BitSet seen = new BitSet(capacity);
+        Deque<Integer> queue = new ArrayDeque<>(List.of(from));
+        seen.set(from);
+        while (!queue.isEmpty()) {
+            int row = queue.poll();
+            if (row == to) {
+                return true;
+            }
+            forEachNeighbour(row, next -> {
+                if (!seen.get(next)) {
+                    seen.set(next);
+                    queue.add(next);
+                }
+            });
+        }
+        return false;
+    }
+
+    /**
+     * @param v a vertex
+     *
+     * @return the number of neighbours of the vertex, or zero if it is not in this graph
+     */
+    public int degree(V v) {
+        Objects.requireNonNull(v);
+        Integer row = indices.get(v);
+        return row == null ? 0 : degrees[row];
+    }
+
+    /**
+     * Counts the vertices that are neighbours of both of two vertices, by intersecting their rows of the matrix a word
+     * at a time.
+     *
+     * @param a a vertex
+     * @param b another vertex
+     *
+     * @return the number of common neighbours, or zero if either vertex is not in this graph
+     */
+    public int commonNeighbours(V a, V b) {
+        Objects.requireNonNull(a);
+        Objects.requireNonNull(b);
+        Integer rowA = indices.get(a), rowB = indices.get(b);
+        if (rowA == null || rowB == null) {
+            return 0;
+        }
+        long[] first = fullRow(rowA), second = fullRow(rowB);
+        int count = 0;
+        for (int word = 0; word < wordsPerRow; word++) {
+            count += Long.bitCount(first[word] & second[word]);
+        }
+        return count;
+    }
+
+    /**
+     * Performs an action for each neighbour of a vertex, a word of the matrix at a time, without creating a view.
+     *
+     * @param v the vertex whose neighbours are to be visited
+     * @param action the action to perform on each neighbour
+     */
+    public void forEachNeighbour(V v, Consumer<? super V> action) {
+        Objects.requireNonNull(v);
+        Objects.requireNonNull(action);
+        Integer row = indices.get(v);
+        if (row != null) {
+            forEachNeighbour(row, column -> action.accept(vertexAt.get(column)));
+        }
+    }
+
+    /**
+     * Visits the rows of the neighbours of a row: in undirected graphs, first those whose edge is stored in the
+     * preceding rows and then those stored in the row itself.
+     */
+    private void forEachNeighbour(int row, IntConsumer action) {
+        if (undirected) {
+            for (int other = 0; other < row; other++) {
+                if (get(other, row)) {
+                    action.accept(other);
+                }
+            }
+        }
+        int start = rowOffset(row), first = firstWord(row);
+        for (int word = first; word < wordsPerRow; word++) {
+            long w = bits[start + word - first];
+            while (w != 0L) {
+                action.accept(word * Long.SIZE + Long.numberOfTrailingZeros(w));
+                w &= w - 1;
+            }
+        }
+    }
+
+    private IntStream neighbourRows(int row) {
+        IntStream below = undirected ? IntStream.range(0, row).filter(other -> get(other, row)) : IntStream.empty();
+        return IntStream.concat(below, storedRow(row));
+    }
+
+    /**
+     * @return the columns set in the stored part of a row
+     */
+    private IntStream storedRow(int row) {
+        int start = rowOffset(row), first = firstWord(row);
+        return IntStream.range(first, wordsPerRow)
+                        .filter(word -> bits[start + word - first] != 0L)
+                        .flatMap(word -> {
+                            long w = bits[start + word - first];
+                            int[] columns = new int[Long.bitCount(w)];
+                            for (int i = 0; w != 0L; i++, w &= w - 1) {
+                                columns[i] = word * Long.SIZE + Long.numberOfTrailingZeros(w);
+                            }
+                            return IntStream.of(columns);
+                        });
+    }
+
+    /**
+     * @return a copy of a whole row of the matrix, filling in the part below the diagonal of undirected graphs
+     */
+    private long[] fullRow(int row) {
+        long[] full = new long[wordsPerRow];
+        if (undirected) {
+            forEachNeighbour(row, column -> full[column >>> 6] |= 1L << column);
+        } else {
+            System.arraycopy(bits, rowOffset(row), full, 0, wordsPerRow);
+        }
+        return full;
+    }
+
+    private boolean get(int from, int to) {
+        return (bits[wordIndex(from, to)] & bitMask(from, to)) != 0L;
+    }
+
+    private void set(int from, int to) {
+        bits[wordIndex(from, to)] |= bitMask(from, to);
+        degrees[from]++;
+        if (undirected && from != to) {
+            degrees[to]++;
+        }
+        edgeCount++;
+    }
+
+    private void clear(int from, int to) {
+        bits[wordIndex(from, to)] &= ~bitMask(from, to);
+        degrees[from]--;
+        if (undirected && from != to) {
+            degrees[to]--;
+        }
+        edgeCount--;
+    }
+
+    /**
+     * @return the index of the word holding the bit for an edge between two rows
+     */
+    private int wordIndex(int from, int to) {
+        if (undirected && from > to) {
+            return wordIndex(to, from);
+        }
+        return rowOffset(from) + (to >>> 6) - firstWord(from);
+    }
+
+    private long bitMask(int from, int to) {
+        return 1L << (undirected ? Math.max(from, to) : to);
+    }
+
+    private int firstWord(int row) {
+        return undirected ? row >>> 6 : 0;
+    }
+
+    private int rowOffset(int row) {
+        return rowOffset(row, wordsPerRow);
+    }
+
+    /**
+     * Locates the first word of a row. In undirected graphs, each block of 64 rows is one word shorter than the
+     * previous block.
+     */
+    private int rowOffset(int row, int words) {
+        if (!undirected) {
+            return row * words;
+        }
+        int block = row >>> 6;
+        return Long.SIZE * (block * words - block * (block - 1) / 2) + (row - Long.SIZE * block) * (words - block);
+    }
+
+    private int matrixSize(int rows) {
+        long words = rows / Long.SIZE;
+        long size = undirected ? Long.SIZE * (words * (words + 1) / 2) : rows * words;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many vertices for a bit matrix: " + rows);
+        }
+        return (int) size;
+    }
+
+    /**
+     * Grows the matrix, if necessary, to hold a number of rows. Capacity at least doubles on each growth.
+     */
+    private void ensureCapacity(int rows) {
+        if (rows <= capacity) {
+            return;
+        }
+        int newCapacity = roundUp(Math.max(rows, capacity * 2));
+        int newWords = newCapacity / Long.SIZE;
+        long[] newBits = new long[matrixSize(newCapacity)];
+        for (int row = 0; row < capacity; row++) {
+            System.arraycopy(bits, rowOffset(row), newBits, rowOffset(row, newWords), wordsPerRow - firstWord(row));
+        }
+        bits = newBits;
+        degrees = Arrays.copyOf(degrees, newCapacity);
+        capacity = newCapacity;
+        wordsPerRow = newWords;
+    }
+
+    private static int roundUp(int rows) {
+        return (rows + Long.SIZE - 1) / Long.SIZE * Long.SIZE;
+    }
+}
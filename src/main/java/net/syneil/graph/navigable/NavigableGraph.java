@@ -0,0 +1,426 @@
+package net.syneil.graph.navigable;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.compact.Permutation;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * An immutable graph whose vertices are ordered, and which keeps its vertices and every vertex's neighbours in that
+ * order. It is held as a {@link CompactGraph} whose vertices are indexed in order, so that the targets of each vertex,
+ * sorted by index, are sorted by vertex too: vertices and neighbours are streamed in order, and found by bisection of
+ * primitive arrays. A range of {@code k} neighbours is found in {@code O(log d + k)} time for a vertex of degree
+ * {@code d}.
+ * <p>
+ * A {@link #subGraph sub-graph} is a view of the vertices in a range and the edges between them, sharing this graph's
+ * arrays; it costs {@code O(log n)} to make.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class NavigableGraph<V, E extends Edge<V>> implements Graph<V, E> {
+    /**
+     * The whole graph, with its vertices indexed in order
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The order of the vertices
+     */
+    private final Comparator<? super V> comparator;
+
+    /**
+     * Whether every edge is held at both of its vertices
+     */
+    private final boolean undirected;
+
+    /**
+     * The index of the first vertex in this view
+     */
+    private final int from;
+
+    /**
+     * The index one past the last vertex in this view
+     */
+    private final int to;
+
+    private NavigableGraph(CompactGraph<V, E> graph, Comparator<? super V> comparator, int from, int to) {
+        this.graph = graph;
+        this.comparator = comparator;
+        this.undirected = graph.getProperties().getOrientation().orElse(DIRECTED) == UNDIRECTED;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Copies a graph whose vertices have a natural order, retaining its edge instances.
+     *
+     * @param graph the graph to copy
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return a navigable graph with the same vertices and edges
+     *
+     * @throws IllegalArgumentException if any two distinct vertices are equal in order
+     */
+    public static <V extends Comparable<? super V>, E extends Edge<V>> NavigableGraph<V, E> copyOf(
+            Graph<V, ? extends E> graph) {
+        return copyOf(graph, Comparator.naturalOrder());
+    }
+
+    /**
+     * Copies a graph, ordering its vertices by a comparator and retaining its edge instances.
+     *
+     * @param graph the graph to copy
+     * @param comparator the order of the vertices, which must be consistent with their equality
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return a navigable graph with the same vertices and edges
+     *
+     * @throws IllegalArgumentException if any two distinct vertices are equal in order
+     */
+    public static <V, E extends Edge<V>> NavigableGraph<V, E> copyOf(Graph<V, ? extends E> graph,
+                                                                    Comparator<? super V> comparator) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(comparator);
+        List<V> vertices = graph.vertices().sorted(comparator).collect(Collectors.toList());
+        for (int i = 1; i < vertices.size(); i++) {
+            if (comparator.compare(vertices.get(i - 1), vertices.get(i)) == 0) {
+                throw new IllegalArgumentException("Vertices " + vertices.get(i - 1) + " and " + vertices.get(i)
+                                                           + " are equal in order");
+            }
+        }
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        int[] order = vertices.stream().mapToInt(compact::indexOf).toArray();
+        return new NavigableGraph<>(compact.permute(Permutation.of(order)), comparator, 0, vertices.size());
+    }
+
+    /**
+     * @return the order of the vertices
+     */
+    public Comparator<? super V> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Makes a view of the vertices in a range, and the edges between them. A range beyond this view's is cut to it.
+     *
+     * @param fromVertex the least vertex of the range, inclusive; it need not be in this graph
+     * @param toVertex the greatest vertex of the range, exclusive; it need not be in this graph
+     *
+     * @return the sub-graph induced by the vertices in the range
+     *
+     * @throws IllegalArgumentException if the least vertex of the range is greater than the greatest
+     */
+    public NavigableGraph<V, E> subGraph(V fromVertex, V toVertex) {
+        Objects.requireNonNull(fromVertex);
+        Objects.requireNonNull(toVertex);
+        if (comparator.compare(fromVertex, toVertex) > 0) {
+            throw new IllegalArgumentException("The range from " + fromVertex + " to " + toVertex + " is empty");
+        }
+        int start = ceiling(fromVertex);
+        return new NavigableGraph<>(graph, comparator, start, Math.max(start, ceiling(toVertex)));
+    }
+
+    // ---- vertices
+
+    /**
+     * @return the least vertex, unless this graph has none
+     */
+    public Optional<V> firstVertex() {
+        return vertex(from);
+    }
+
+    /**
+     * @return the greatest vertex, unless this graph has none
+     */
+    public Optional<V> lastVertex() {
+        return vertex(to - 1);
+    }
+
+    /**
+     * @param vertex any vertex
+     *
+     * @return the least vertex in this graph greater than or equal to the given vertex, if there is one
+     */
+    public Optional<V> ceilingVertex(V vertex) {
+        return vertex(ceiling(Objects.requireNonNull(vertex)));
+    }
+
+    /**
+     * @param vertex any vertex
+     *
+     * @return the greatest vertex in this graph less than or equal to the given vertex, if there is one
+     */
+    public Optional<V> floorVertex(V vertex) {
+        return vertex(higher(Objects.requireNonNull(vertex)) - 1);
+    }
+
+    private Optional<V> vertex(int index) {
+        return index >= from && index < to ? Optional.of(graph.vertexAt(index)) : Optional.empty();
+    }
+
+    /**
+     * @return the index of the least vertex of this view not less than a vertex
+     */
+    private int ceiling(V vertex) {
+        int low = from, high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(graph.vertexAt(middle), vertex) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the least vertex of this view greater than a vertex
+     */
+    private int higher(V vertex) {
+        int low = from, high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(graph.vertexAt(middle), vertex) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of a vertex, or -1 if it is not in this view
+     */
+    private int indexOf(V vertex) {
+        int index = graph.indexOf(Objects.requireNonNull(vertex));
+        return index >= from && index < to ? index : -1;
+    }
+
+    // ---- neighbours
+
+    /**
+     * Finds the neighbours of a vertex in a range, in order.
+     *
+     * @param vertex a vertex
+     * @param fromVertex the least neighbour to find, inclusive; it need not be in this graph
+     * @param toVertex the greatest neighbour to find, exclusive; it need not be in this graph
+     *
+     * @return the neighbours of the vertex in the range, each once, in order; none if the vertex is not in this graph
+     */
+    public List<V> neighbours(V vertex, V fromVertex, V toVertex) {
+        Objects.requireNonNull(fromVertex);
+        Objects.requireNonNull(toVertex);
+        int source = indexOf(vertex);
+        if (source < 0 || comparator.compare(fromVertex, toVertex) >= 0) {
+            return List.of();
+        }
+        int start = ceiling(fromVertex);
+        return targets(source, start, Math.max(start, ceiling(toVertex))).mapToObj(graph::vertexAt)
+                                                                         .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the least neighbour of the vertex, unless it has none or is not in this graph
+     */
+    public Optional<V> firstNeighbour(V vertex) {
+        int source = indexOf(vertex);
+        return source < 0 ? Optional.empty() : neighbour(source, position(source, from));
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the greatest neighbour of the vertex, unless it has none or is not in this graph
+     */
+    public Optional<V> lastNeighbour(V vertex) {
+        int source = indexOf(vertex);
+        return source < 0 ? Optional.empty() : neighbour(source, position(source, to) - 1);
+    }
+
+    /**
+     * @param vertex a vertex
+     * @param bound any vertex
+     *
+     * @return the least neighbour of the vertex greater than or equal to the bound, if there is one
+     */
+    public Optional<V> ceilingNeighbour(V vertex, V bound) {
+        Objects.requireNonNull(bound);
+        int source = indexOf(vertex);
+        return source < 0 ? Optional.empty() : neighbour(source, position(source, ceiling(bound)));
+    }
+
+    /**
+     * @param vertex a vertex
+     * @param bound any vertex
+     *
+     * @return the greatest neighbour of the vertex less than or equal to the bound, if there is one
+     */
+    public Optional<V> floorNeighbour(V vertex, V bound) {
+        Objects.requireNonNull(bound);
+        int source = indexOf(vertex);
+        return source < 0 ? Optional.empty() : neighbour(source, position(source, higher(bound)) - 1);
+    }
+
+    private Optional<V> neighbour(int source, int position) {
+        if (position < graph.offset(source) || position >= graph.offset(source + 1)) {
+            return Optional.empty();
+        }
+        int target = graph.target(position);
+        return target >= from && target < to ? Optional.of(graph.vertexAt(target)) : Optional.empty();
+    }
+
+    /**
+     * @return the first position of a vertex's range whose target is not less than an index
+     */
+    private int position(int source, int target) {
+        int low = graph.offset(source), high = graph.offset(source + 1);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (graph.target(middle) < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the distinct targets of a vertex in a range of indices, in ascending order
+     */
+    private IntStream targets(int source, int start, int end) {
+        int first = position(source, start);
+        return IntStream.range(first, position(source, end))
+                        .filter(p -> p == first || graph.target(p) != graph.target(p - 1))
+                        .map(graph::target);
+    }
+
+    // ---- Graph
+
+    @Override
+    public long numberOfVertices() {
+        return to - from;
+    }
+
+    @Override
+    public long numberOfEdges() {
+        if (from == 0 && to == graph.index().size()) {
+            return graph.numberOfEdges();
+        }
+        long edges = 0L;
+        for (int v = from; v < to; v++) {
+            edges += position(v, to) - position(v, undirected ? v : from);
+        }
+        return edges;
+    }
+
+    /**
+     * @return the vertices, in order
+     */
+    @Override
+    public Stream<? extends V> vertices() {
+        return IntStream.range(from, to).mapToObj(graph::vertexAt);
+    }
+
+    /**
+     * @return the edges, in order of source and then of target; an undirected edge is streamed once, from its lesser
+     * vertex
+     */
+    @Override
+    public Stream<? extends E> edges() {
+        return IntStream.range(from, to)
+                        .boxed()
+                        .flatMap(v -> IntStream.range(position(v, undirected ? v : from), position(v, to))
+                                               .mapToObj(graph::edge));
+    }
+
+    @Override
+    public boolean hasVertex(V vertex) {
+        return indexOf(vertex) >= 0;
+    }
+
+    @Override
+    public boolean hasEdge(V source, V target) {
+        int s = indexOf(source), t = indexOf(target);
+        return s >= 0 && t >= 0 && graph.hasEdge(s, t);
+    }
+
+    /**
+     * Returns an unmodifiable view of the neighbours of a vertex, whose iteration is in order and whose membership test
+     * is a binary search.
+     *
+     * @param v the vertex whose neighbours are to be found
+     *
+     * @return the neighbours of the vertex, or the empty set if it is not in this graph
+     */
+    @Override
+    public Set<? extends V> neighbours(V v) {
+        int source = indexOf(v);
+        if (source < 0) {
+            return Collections.emptySet();
+        }
+        return new AbstractSet<V>() {
+            @Override
+            public int size() {
+                return (int) targets(source, from, to).count();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                int target = graph.index().indexOf(o);
+                return target >= from && target < to && graph.hasEdge(source, target);
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return targets(source, from, to).mapToObj(graph::vertexAt).iterator();
+            }
+        };
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source, V target) {
+        int s = indexOf(source), t = indexOf(target);
+        if (s < 0 || t < 0) {
+            return List.of();
+        }
+        return IntStream.range(position(s, t), position(s, t + 1)).mapToObj(graph::edge)
+                        .collect(Collectors.toList());
+    }
+
+    /**
+     * @param source the vertex
+     *
+     * @return the edges from the vertex to vertices in this graph, in order of target
+     */
+    @Override
+    public List<? extends E> getEdges(V source) {
+        int s = indexOf(source);
+        if (s < 0) {
+            return List.of();
+        }
+        return IntStream.range(position(s, from), position(s, to)).mapToObj(graph::edge)
+                        .collect(Collectors.toList());
+    }
+
+    @Override
+    public GraphProperties getProperties() {
+        return graph.getProperties();
+    }
+}
@@ -0,0 +1,212 @@
+package net.syneil.graph.partition;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.VertexIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * A multilevel partitioner in the manner of METIS. The graph is repeatedly coarsened by contracting a heavy-edge
+ * matching, so that each level has about half the vertices of the one before and the heaviest edges are hidden inside
+ * merged vertices. The coarsest graph is partitioned by {@link StreamingPartitioner#fennel Fennel}, and the partition
+ * is projected back down through the levels, refined at each by greedily moving boundary vertices to the neighbouring
+ * part that most reduces the cut without overfilling it.
+ * <p>
+ * Matching visits vertices in a random order from a fixed seed, so a graph streamed in the same order is always
+ * partitioned the same way.
+ */
+public final class MultilevelPartitioner implements Partitioner {
+    /**
+     * The default seed of the matching order
+     */
+    public static final long DEFAULT_SEED = 34L;
+
+    /**
+     * The number of coarse vertices per part at which coarsening stops
+     */
+    private static final int COARSEST_VERTICES_PER_PART = 20;
+
+    /**
+     * The greatest number of refinement passes at each level
+     */
+    private static final int REFINEMENT_PASSES = 8;
+
+    /**
+     * The number of parts
+     */
+    private final int k;
+
+    /**
+     * The allowance for parts to exceed an even share of the vertices
+     */
+    private final double imbalance;
+
+    /**
+     * The seed of the matching order
+     */
+    private final long seed;
+
+    /**
+     * The partitioner of the coarsest graph
+     */
+    private final StreamingPartitioner initial;
+
+    /**
+     * Creates a partitioner with the {@link StreamingPartitioner#DEFAULT_IMBALANCE default imbalance} and seed.
+     *
+     * @param k the number of parts
+     */
+    public MultilevelPartitioner(int k) {
+        this(k, StreamingPartitioner.DEFAULT_IMBALANCE, DEFAULT_SEED);
+    }
+
+    /**
+     * @param k the number of parts
+     * @param imbalance the allowance for parts to exceed an even share of the vertices
+     * @param seed the seed of the matching order
+     */
+    public MultilevelPartitioner(int k, double imbalance, long seed) {
+        this.initial = StreamingPartitioner.fennel(k, imbalance, StreamingPartitioner.DEFAULT_GAMMA);
+        this.k = k;
+        this.imbalance = imbalance;
+        this.seed = seed;
+    }
+
+    @Override
+    public <V> Partition<V> partition(Graph<V, ? extends Edge<V>> graph) {
+        Objects.requireNonNull(graph);
+        VertexIndex<V> index = VertexIndex.of(graph.vertices().collect(Collectors.toList()));
+        WeightedGraph finest = WeightedGraph.of(graph, index);
+
+        List<WeightedGraph> levels = new ArrayList<>(List.of(finest));
+        List<int[]> groupings = new ArrayList<>();
+        Random random = new Random(seed);
+        int coarsest = Math.max(k * COARSEST_VERTICES_PER_PART, 2);
+        long heaviest = Math.max(1L, (long) (finest.totalVertexWeight * 1.5 / coarsest));
+        WeightedGraph current = finest;
+        while (current.n > coarsest) {
+            int[] groups = new int[current.n];
+            int groupCount = match(current, groups, random, heaviest);
+            if (groupCount > current.n * 0.9) {
+                break;
+            }
+            groupings.add(groups);
+            current = current.coarsen(groups, groupCount);
+            levels.add(current);
+        }
+
+        int[] parts = initial.assign(current);
+        refine(current, parts);
+        for (int level = groupings.size() - 1; level >= 0; level--) {
+            int[] groups = groupings.get(level);
+            WeightedGraph finer = levels.get(level);
+            int[] projected = new int[finer.n];
+            for (int v = 0; v < finer.n; v++) {
+                projected[v] = parts[groups[v]];
+            }
+            parts = projected;
+            refine(finer, parts);
+        }
+        return new Partition<>(index, parts, k, finest.cut(parts));
+    }
+
+    /**
+     * Pairs each vertex, visited in random order, with its unmatched neighbour along the heaviest edge, provided the
+     * pair would not outweigh a limit.
+     *
+     * @param graph the graph
+     * @param groups filled with the group of each vertex
+     * @param random the source of the visiting order
+     * @param heaviest the greatest weight of a pair
+     *
+     * @return the number of groups
+     */
+    private static int match(WeightedGraph graph, int[] groups, Random random, long heaviest) {
+        int n = graph.n;
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+            groups[v] = -1;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1), swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        int groupCount = 0;
+        for (int v : order) {
+            if (groups[v] >= 0) {
+                continue;
+            }
+            int mate = -1, mateWeight = 0;
+            for (int p = graph.offsets[v]; p < graph.offsets[v + 1]; p++) {
+                int u = graph.targets[p];
+                if (groups[u] < 0 && graph.edgeWeights[p] > mateWeight
+                        && graph.vertexWeights[v] + graph.vertexWeights[u] <= heaviest) {
+                    mate = u;
+                    mateWeight = graph.edgeWeights[p];
+                }
+            }
+            groups[v] = groupCount;
+            if (mate >= 0) {
+                groups[mate] = groupCount;
+            }
+            groupCount++;
+        }
+        return groupCount;
+    }
+
+    /**
+     * Moves boundary vertices to the neighbouring part to which they are most heavily connected, if that reduces the
+     * cut, or keeps it and improves the balance, without overfilling the part. Stops after a pass without moves.
+     */
+    private void refine(WeightedGraph graph, int[] parts) {
+        long capacity = initial.capacity(graph);
+        long[] loads = graph.loads(parts, k);
+        long[] connection = new long[k];
+        int[] touched = new int[k];
+        for (int pass = 0; pass < REFINEMENT_PASSES; pass++) {
+            int moves = 0;
+            for (int v = 0; v < graph.n; v++) {
+                int own = parts[v], touchedCount = 0;
+                for (int p = graph.offsets[v]; p < graph.offsets[v + 1]; p++) {
+                    int part = parts[graph.targets[p]];
+                    if (connection[part] == 0L) {
+                        touched[touchedCount++] = part;
+                    }
+                    connection[part] += graph.edgeWeights[p];
+                }
+                int weight = graph.vertexWeights[v], best = own;
+                long bestGain = 0L;
+                for (int t = 0; t < touchedCount; t++) {
+                    int part = touched[t];
+                    if (part == own || loads[part] + weight > capacity) {
+                        continue;
+                    }
+                    long gain = connection[part] - connection[own];
+                    if (gain > bestGain || gain == bestGain && loads[part] + weight < loads[best]) {
+                        best = part;
+                        bestGain = gain;
+                    }
+                }
+                for (int t = 0; t < touchedCount; t++) {
+                    connection[touched[t]] = 0L;
+                }
+                if (best != own) {
+                    parts[v] = best;
+                    loads[own] -= weight;
+                    loads[best] += weight;
+                    moves++;
+                }
+            }
+            if (moves == 0) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package net.syneil.graph.partition;
+
+import net.syneil.graph.compact.VertexIndex;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * An assignment of each vertex of a graph to one of {@code k} parts.
+ *
+ * @param <V> the type used for vertices
+ */
+public final class Partition<V> {
+    /**
+     * The indices of the vertices
+     */
+    private final VertexIndex<V> index;
+
+    /**
+     * The part of each vertex, by index
+     */
+    private final int[] parts;
+
+    /**
+     * The number of parts
+     */
+    private final int k;
+
+    /**
+     * The number of edges between vertices in different parts
+     */
+    private final long edgeCut;
+
+    Partition(VertexIndex<V> index, int[] parts, int k, long edgeCut) {
+        this.index = index;
+        this.parts = parts;
+        this.k = k;
+        this.edgeCut = edgeCut;
+    }
+
+    /**
+     * @return the number of parts
+     */
+    public int getPartCount() {
+        return k;
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the part of the vertex, in {@code [0, getPartCount())}, or -1 if the vertex was not partitioned
+     */
+    public int partOf(V vertex) {
+        int i = index.indexOf(Objects.requireNonNull(vertex));
+        return i < 0 ? -1 : parts[i];
+    }
+
+    /**
+     * @return the mapping between the partitioned vertices and their indices
+     */
+    public VertexIndex<V> index() {
+        return index;
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the part of the vertex
+     */
+    public int partOfIndex(int vertex) {
+        return parts[vertex];
+    }
+
+    /**
+     * @param part a part
+     *
+     * @return the vertices in the part
+     */
+    public Stream<V> vertices(int part) {
+        return IntStream.range(0, parts.length).filter(i -> parts[i] == part).mapToObj(index::vertexAt);
+    }
+
+    /**
+     * @return the number of vertices in each part
+     */
+    public int[] partSizes() {
+        int[] sizes = new int[k];
+        for (int part : parts) {
+            sizes[part]++;
+        }
+        return sizes;
+    }
+
+    /**
+     * @return the number of edges between vertices in different parts, ignoring self-loops
+     */
+    public long getEdgeCut() {
+        return edgeCut;
+    }
+
+    /**
+     * @return the size of the largest part relative to a perfectly even split; 1.0 is perfect balance
+     */
+    public double getImbalance() {
+        if (parts.length == 0) {
+            return 1.0;
+        }
+        return Arrays.stream(partSizes()).max().orElse(0) * (double) k / parts.length;
+    }
+}
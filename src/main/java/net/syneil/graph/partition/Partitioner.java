@@ -0,0 +1,21 @@
+package net.syneil.graph.partition;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+
+/**
+ * Splits the vertices of a graph into a number of parts of roughly equal size, so that as few edges as possible run
+ * between parts. Edge directions are ignored.
+ *
+ * @see StreamingPartitioner
+ * @see MultilevelPartitioner
+ */
+public interface Partitioner {
+    /**
+     * @param graph the graph to partition
+     * @param <V> the type used for vertices
+     *
+     * @return the partition of the graph's vertices
+     */
+    <V> Partition<V> partition(Graph<V, ? extends Edge<V>> graph);
+}
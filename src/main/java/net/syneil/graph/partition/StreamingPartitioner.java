@@ -0,0 +1,185 @@
+package net.syneil.graph.partition;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.VertexIndex;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * A one-pass partitioner, which places each vertex in turn, in the order the graph streams them, in the part that
+ * scores best given the parts of its neighbours placed so far. Two scores are offered:
+ * <ul>
+ * <li>linear deterministic greedy (LDG), which favours the part holding most neighbours, discounted linearly by how
+ * full the part is; and</li>
+ * <li>Fennel, which favours the part holding most neighbours less a penalty growing with the size of the part as
+ * {@code alpha * gamma * size^(gamma - 1)}, with {@code alpha} chosen from the density of the graph.</li>
+ * </ul>
+ * No part may grow beyond {@code (1 + imbalance)} times an even share of the vertices. Placing a vertex costs time in
+ * its degree plus the number of parts.
+ */
+public final class StreamingPartitioner implements Partitioner {
+    /**
+     * The default allowance for parts to exceed an even share of the vertices
+     */
+    public static final double DEFAULT_IMBALANCE = 0.05;
+
+    /**
+     * The default exponent of Fennel's size penalty
+     */
+    public static final double DEFAULT_GAMMA = 1.5;
+
+    /**
+     * The number of parts
+     */
+    private final int k;
+
+    /**
+     * The allowance for parts to exceed an even share of the vertices
+     */
+    private final double imbalance;
+
+    /**
+     * The exponent of Fennel's size penalty, or zero for LDG
+     */
+    private final double gamma;
+
+    private StreamingPartitioner(int k, double imbalance, double gamma) {
+        if (k < 1) {
+            throw new IllegalArgumentException("The number of parts must be positive");
+        }
+        if (!(imbalance >= 0.0)) {
+            throw new IllegalArgumentException("The imbalance must not be negative");
+        }
+        this.k = k;
+        this.imbalance = imbalance;
+        this.gamma = gamma;
+    }
+
+    /**
+     * @param k the number of parts
+     *
+     * @return a linear deterministic greedy partitioner with the default imbalance
+     */
+    public static StreamingPartitioner ldg(int k) {
+        return ldg(k, DEFAULT_IMBALANCE);
+    }
+
+    /**
+     * @param k the number of parts
+     * @param imbalance the allowance for parts to exceed an even share of the vertices
+     *
+     * @return a linear deterministic greedy partitioner
+     */
+    public static StreamingPartitioner ldg(int k, double imbalance) {
+        return new StreamingPartitioner(k, imbalance, 0.0);
+    }
+
+    /**
+     * @param k the number of parts
+     *
+     * @return a Fennel partitioner with the default imbalance and exponent
+     */
+    public static StreamingPartitioner fennel(int k) {
+        return fennel(k, DEFAULT_IMBALANCE, DEFAULT_GAMMA);
+    }
+
+    /**
+     * @param k the number of parts
+     * @param imbalance the allowance for parts to exceed an even share of the vertices
+     * @param gamma the exponent of the size penalty, greater than one
+     *
+     * @return a Fennel partitioner
+     */
+    public static StreamingPartitioner fennel(int k, double imbalance, double gamma) {
+        if (!(gamma > 1.0)) {
+            throw new IllegalArgumentException("Gamma must be greater than one");
+        }
+        return new StreamingPartitioner(k, imbalance, gamma);
+    }
+
+    @Override
+    public <V> Partition<V> partition(Graph<V, ? extends Edge<V>> graph) {
+        Objects.requireNonNull(graph);
+        VertexIndex<V> index = VertexIndex.of(graph.vertices().collect(Collectors.toList()));
+        WeightedGraph weighted = WeightedGraph.of(graph, index);
+        int[] parts = assign(weighted);
+        return new Partition<>(index, parts, k, weighted.cut(parts));
+    }
+
+    /**
+     * @return the largest weight a part may have
+     */
+    long capacity(WeightedGraph graph) {
+        return (long) Math.ceil(graph.totalVertexWeight * (1.0 + imbalance) / k);
+    }
+
+    /**
+     * Places the vertices of a weighted graph, in index order. Vertices whose weight would overfill every part are
+     * placed in the lightest.
+     *
+     * @return the part of each vertex
+     */
+    int[] assign(WeightedGraph graph) {
+        int n = graph.n;
+        int[] parts = new int[n];
+        Arrays.fill(parts, -1);
+        long[] loads = new long[k];
+        long[] connection = new long[k];
+        long capacity = capacity(graph);
+        double totalEdgeWeight = 0.0;
+        for (int weight : graph.edgeWeights) {
+            totalEdgeWeight += weight;
+        }
+        double alpha = gamma == 0.0 ? 0.0
+                : totalEdgeWeight / 2.0 * Math.pow(k, gamma - 1.0) / Math.pow(graph.totalVertexWeight, gamma);
+        for (int v = 0; v < n; v++) {
+            for (int p = graph.offsets[v]; p < graph.offsets[v + 1]; p++) {
+                int part = parts[graph.targets[p]];
+                if (part >= 0) {
+                    connection[part] += graph.edgeWeights[p];
+                }
+            }
+            int weight = graph.vertexWeights[v];
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int part = 0; part < k; part++) {
+                if (loads[part] + weight > capacity) {
+                    continue;
+                }
+                double score = gamma == 0.0
+                        ? connection[part] * (1.0 - (double) loads[part] / capacity)
+                        : connection[part] - alpha * gamma * Math.pow(loads[part], gamma - 1.0);
+                if (score > bestScore || score == bestScore && loads[part] < loads[best]) {
+                    best = part;
+                    bestScore = score;
+                }
+            }
+            if (best < 0) {
+                best = lightest(loads);
+            }
+            parts[v] = best;
+            loads[best] += weight;
+            for (int p = graph.offsets[v]; p < graph.offsets[v + 1]; p++) {
+                int part = parts[graph.targets[p]];
+                if (part >= 0) {
+                    connection[part] = 0L;
+                }
+            }
+            connection[best] = 0L;
+        }
+        return parts;
+    }
+
+    private static int lightest(long[] loads) {
+        int lightest = 0;
+        for (int part = 1; part < loads.length; part++) {
+            if (loads[part] < loads[lightest]) {
+                lightest = part;
+            }
+        }
+        return lightest;
+    }
+}
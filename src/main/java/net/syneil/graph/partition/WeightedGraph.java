@@ -0,0 +1,173 @@
+package net.syneil.graph.partition;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.VertexIndex;
+
+import java.util.Arrays;
+
+/**
+ * An undirected graph with integer vertex and edge weights, in compressed sparse row form, as partitioned at every
+ * level of coarsening. Each edge is held once at each end; self-loops are dropped since they can never be cut.
+ */
+final class WeightedGraph {
+    /**
+     * The number of vertices
+     */
+    final int n;
+
+    /**
+     * The first position of each vertex's edges, plus the end of the last vertex's
+     */
+    final int[] offsets;
+
+    /**
+     * The vertex at the other end of the edge at each position
+     */
+    final int[] targets;
+
+    /**
+     * The weight of the edge at each position
+     */
+    final int[] edgeWeights;
+
+    /**
+     * The weight of each vertex
+     */
+    final int[] vertexWeights;
+
+    /**
+     * The sum of the vertex weights
+     */
+    final long totalVertexWeight;
+
+    private WeightedGraph(int n, int[] offsets, int[] targets, int[] edgeWeights, int[] vertexWeights) {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.edgeWeights = edgeWeights;
+        this.vertexWeights = vertexWeights;
+        this.totalVertexWeight = Arrays.stream(vertexWeights).asLongStream().sum();
+    }
+
+    /**
+     * Builds the weighted graph of a graph, with every vertex and edge of weight one and edge directions ignored.
+     */
+    static <V> WeightedGraph of(Graph<V, ? extends Edge<V>> graph, VertexIndex<V> index) {
+        int n = index.size();
+        int[] degrees = new int[n + 1];
+        graph.edges().forEach(edge -> {
+            int source = index.indexOf(edge.getSource()), target = index.indexOf(edge.getTarget());
+            if (source != target) {
+                degrees[source + 1]++;
+                degrees[target + 1]++;
+            }
+        });
+        for (int v = 0; v < n; v++) {
+            degrees[v + 1] += degrees[v];
+        }
+        int[] offsets = degrees.clone();
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] targets = new int[offsets[n]];
+        graph.edges().forEach(edge -> {
+            int source = index.indexOf(edge.getSource()), target = index.indexOf(edge.getTarget());
+            if (source != target) {
+                targets[next[source]++] = target;
+                targets[next[target]++] = source;
+            }
+        });
+        int[] edgeWeights = new int[targets.length], vertexWeights = new int[n];
+        Arrays.fill(edgeWeights, 1);
+        Arrays.fill(vertexWeights, 1);
+        return new WeightedGraph(n, offsets, targets, edgeWeights, vertexWeights);
+    }
+
+    /**
+     * Contracts groups of vertices into single vertices, summing the weights of the vertices of each group and of the
+     * edges between each pair of groups. Edges within a group disappear.
+     *
+     * @param groups the group of each vertex, in {@code [0, groupCount)}
+     * @param groupCount the number of groups
+     *
+     * @return the contracted graph, whose vertices are the groups
+     */
+    WeightedGraph coarsen(int[] groups, int groupCount) {
+        // list the members of each group, by counting sort
+        int[] memberOffsets = new int[groupCount + 1];
+        for (int v = 0; v < n; v++) {
+            memberOffsets[groups[v] + 1]++;
+        }
+        for (int g = 0; g < groupCount; g++) {
+            memberOffsets[g + 1] += memberOffsets[g];
+        }
+        int[] members = new int[n], next = Arrays.copyOf(memberOffsets, groupCount);
+        for (int v = 0; v < n; v++) {
+            members[next[groups[v]]++] = v;
+        }
+
+        int[] coarseOffsets = new int[groupCount + 1], coarseVertexWeights = new int[groupCount];
+        int[] coarseTargets = new int[targets.length], coarseWeights = new int[targets.length];
+        // the position in the current row of each neighbouring group, or -1
+        int[] slot = new int[groupCount];
+        Arrays.fill(slot, -1);
+        int size = 0;
+        for (int g = 0; g < groupCount; g++) {
+            int rowStart = size;
+            for (int m = memberOffsets[g]; m < memberOffsets[g + 1]; m++) {
+                int v = members[m];
+                coarseVertexWeights[g] += vertexWeights[v];
+                for (int p = offsets[v]; p < offsets[v + 1]; p++) {
+                    int h = groups[targets[p]];
+                    if (h == g) {
+                        continue;
+                    }
+                    if (slot[h] < 0) {
+                        slot[h] = size;
+                        coarseTargets[size] = h;
+                        coarseWeights[size++] = edgeWeights[p];
+                    } else {
+                        coarseWeights[slot[h]] += edgeWeights[p];
+                    }
+                }
+            }
+            for (int p = rowStart; p < size; p++) {
+                slot[coarseTargets[p]] = -1;
+            }
+            coarseOffsets[g + 1] = size;
+        }
+        return new WeightedGraph(groupCount, coarseOffsets, Arrays.copyOf(coarseTargets, size),
+                                 Arrays.copyOf(coarseWeights, size), coarseVertexWeights);
+    }
+
+    /**
+     * @param parts the part of each vertex
+     *
+     * @return the total weight of the edges between vertices in different parts
+     */
+    long cut(int[] parts) {
+        long cut = 0L;
+        for (int v = 0; v < n; v++) {
+            for (int p = offsets[v]; p < offsets[v + 1]; p++) {
+                if (parts[targets[p]] != parts[v]) {
+                    cut += edgeWeights[p];
+                }
+            }
+        }
+        // every cut edge was counted from both ends
+        return cut / 2;
+    }
+
+    /**
+     * @param parts the part of each vertex
+     * @param k the number of parts
+     *
+     * @return the total vertex weight of each part
+     */
+    long[] loads(int[] parts, int k) {
+        long[] loads = new long[k];
+        for (int v = 0; v < n; v++) {
+            loads[parts[v]] += vertexWeights[v];
+        }
+        return loads;
+    }
+}
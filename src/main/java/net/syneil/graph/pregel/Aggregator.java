@@ -0,0 +1,65 @@
+package net.syneil.graph.pregel;
+
+import java.util.Objects;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * A global value to which vertices contribute during a superstep, and which every vertex can read in the next. The
+ * contributions are combined by an associative and commutative operator, starting from its identity; an aggregator
+ * holds no value itself, so it can be used in any number of computations, each of which keeps its own values.
+ */
+public final class Aggregator {
+    /**
+     * The value of this aggregator before any contribution
+     */
+    private final double identity;
+
+    /**
+     * Combines two contributions
+     */
+    private final DoubleBinaryOperator operator;
+
+    private Aggregator(double identity, DoubleBinaryOperator operator) {
+        this.identity = identity;
+        this.operator = Objects.requireNonNull(operator);
+    }
+
+    /**
+     * @param identity the value before any contribution
+     * @param operator an associative and commutative operator combining contributions
+     *
+     * @return an aggregator combining contributions by the operator
+     */
+    public static Aggregator of(double identity, DoubleBinaryOperator operator) {
+        return new Aggregator(identity, operator);
+    }
+
+    /**
+     * @return an aggregator of the sum of the contributions
+     */
+    public static Aggregator sum() {
+        return new Aggregator(0.0, Double::sum);
+    }
+
+    /**
+     * @return an aggregator of the least contribution, or positive infinity if there is none
+     */
+    public static Aggregator min() {
+        return new Aggregator(Double.POSITIVE_INFINITY, Math::min);
+    }
+
+    /**
+     * @return an aggregator of the greatest contribution, or negative infinity if there is none
+     */
+    public static Aggregator max() {
+        return new Aggregator(Double.NEGATIVE_INFINITY, Math::max);
+    }
+
+    double getIdentity() {
+        return identity;
+    }
+
+    double combine(double a, double b) {
+        return operator.applyAsDouble(a, b);
+    }
+}
@@ -0,0 +1,89 @@
+package net.syneil.graph.pregel;
+
+import java.util.Objects;
+
+/**
+ * The messages sent to a vertex in a superstep: a view of a range of a primitive buffer, reused from vertex to vertex,
+ * so it must not be kept beyond the computation it is given to.
+ */
+public final class Messages {
+    /**
+     * The buffer of the messages to every vertex
+     */
+    private double[] buffer;
+
+    /**
+     * The position of the first message in the buffer
+     */
+    private int start;
+
+    /**
+     * The number of messages
+     */
+    private int size;
+
+    Messages() {
+    }
+
+    void reset(double[] buffer, int start, int size) {
+        this.buffer = buffer;
+        this.start = start;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of messages
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if no messages were sent, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param i the position of a message, in {@code [0, size())}
+     *
+     * @return the message
+     */
+    public double get(int i) {
+        return buffer[start + Objects.checkIndex(i, size)];
+    }
+
+    /**
+     * @return the sum of the messages, or 0 if there are none
+     */
+    public double sum() {
+        double sum = 0.0;
+        for (int i = start; i < start + size; i++) {
+            sum += buffer[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return the least message, or positive infinity if there are none
+     */
+    public double min() {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = start; i < start + size; i++) {
+            min = Math.min(min, buffer[i]);
+        }
+        return min;
+    }
+
+    /**
+     * @return the greatest message, or negative infinity if there are none
+     */
+    public double max() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = start; i < start + size; i++) {
+            max = Math.max(max, buffer[i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,55 @@
+package net.syneil.graph.pregel;
+
+import java.util.Arrays;
+
+/**
+ * The messages sent from one block of vertices in a superstep, in primitive arrays reused from superstep to superstep,
+ * with the number sent to each block of vertices
+ */
+final class Outbox {
+    /**
+     * The index of the vertex each message is sent to
+     */
+    int[] targets = new int[16];
+
+    /**
+     * Each message
+     */
+    double[] values = new double[16];
+
+    /**
+     * The number of messages
+     */
+    int size;
+
+    /**
+     * The number of messages sent to each block, and while messages are delivered, the next position of each block's
+     * messages in the staging buffer
+     */
+    final int[] blockCounts;
+
+    /**
+     * The number of vertices in each block
+     */
+    private final int blockSize;
+
+    Outbox(int blocks, int blockSize) {
+        this.blockCounts = new int[blocks];
+        this.blockSize = blockSize;
+    }
+
+    void add(int target, double value) {
+        if (size == targets.length) {
+            targets = Arrays.copyOf(targets, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        targets[size] = target;
+        values[size++] = value;
+        blockCounts[target / blockSize]++;
+    }
+
+    void clear() {
+        size = 0;
+        Arrays.fill(blockCounts, 0);
+    }
+}
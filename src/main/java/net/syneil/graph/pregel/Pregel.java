@@ -0,0 +1,356 @@
+package net.syneil.graph.pregel;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.internal.Tasks;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * A vertex-centric, bulk-synchronous computation over a graph, after Google's Pregel. The computation proceeds in
+ * supersteps: in each, a {@link VertexProgram} runs at every active vertex, reading the messages sent to it in the
+ * previous superstep, updating its state and sending messages along its edges or to any vertex. A vertex that votes to
+ * halt stays inactive until it is sent a message; the computation ends when every vertex has halted and no messages
+ * are in flight, or after a greatest number of supersteps. For example, connected components:
+ * <pre>
+ *     var components = Pregel.of(graph, PregelOptions.builder().combiner(Math::min).build())
+ *                            .run(vertex -&gt; Double.POSITIVE_INFINITY, (vertex, messages) -&gt; {
+ *                                double label = Math.min(vertex.getSuperstep() == 0 ? vertex.getIndex()
+ *                                                                                   : vertex.getState(),
+ *                                                        messages.min());
+ *                                if (label &lt; vertex.getState()) {
+ *                                    vertex.setState(label);
+ *                                    vertex.sendToNeighbours(label);
+ *                                }
+ *                                vertex.voteToHalt();
+ *                            });
+ * </pre>
+ * The graph is copied into compact form, unless it is compact already, and its vertices are split into blocks of
+ * consecutive indices, computed in parallel. Messages are primitive doubles, held in primitive buffers: each block
+ * gathers the messages it sends by the block they are sent to, and each block then groups the messages it receives by
+ * vertex, combining them if there is a combiner. Blocks depend only on the number of vertices, and messages are
+ * delivered and aggregators combined in the order of the blocks, so a computation gives the same results whatever the
+ * parallelism.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class Pregel<V, E extends Edge<V>> {
+    /**
+     * The least number of vertices in a block
+     */
+    private static final int MIN_BLOCK_SIZE = 1024;
+
+    /**
+     * The greatest number of blocks, bounding the table of message counts between blocks
+     */
+    private static final int MAX_BLOCKS = 512;
+
+    /**
+     * The graph computed over
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The configuration of the computations
+     */
+    private final PregelOptions options;
+
+    private Pregel(CompactGraph<V, E> graph, PregelOptions options) {
+        this.graph = graph;
+        this.options = options;
+    }
+
+    /**
+     * Prepares computations over a graph with the default options.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the computations
+     */
+    public static <V, E extends Edge<V>> Pregel<V, E> of(Graph<V, ? extends E> graph) {
+        return of(graph, PregelOptions.defaults());
+    }
+
+    /**
+     * Prepares computations over a graph.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param options the parallelism, limit on supersteps, combiner and aggregators of the computations
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the computations
+     *
+     * @throws IllegalArgumentException if the parallelism or the greatest number of supersteps is not positive
+     */
+    public static <V, E extends Edge<V>> Pregel<V, E> of(Graph<V, ? extends E> graph, PregelOptions options) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(options);
+        if (options.getParallelism() < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (options.getMaxSupersteps() < 1) {
+            throw new IllegalArgumentException("Maximum supersteps must be positive");
+        }
+        return new Pregel<>(CompactGraph.copyOf(graph), options);
+    }
+
+    /**
+     * @return the graph computed over, whose indices the contexts and results are by
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Runs a computation. Every vertex is active in the first superstep, with no messages.
+     *
+     * @param initialState the state of each vertex before the first superstep
+     * @param program the computation at each vertex
+     * @param <S> the type of the state of each vertex
+     *
+     * @return the final state of each vertex and value of each aggregator
+     *
+     * @throws IllegalStateException if more messages are sent in one superstep than can be held in an array
+     */
+    public <S> PregelResult<V, E, S> run(Function<? super V, ? extends S> initialState,
+                                         VertexProgram<V, E, S> program) {
+        Objects.requireNonNull(initialState);
+        Objects.requireNonNull(program);
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            return Tasks.run(pool, () -> new Computation<>(initialState, program).run(), "computing");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The state of one run of a computation
+     *
+     * @param <S> the type of the state of each vertex
+     */
+    private final class Computation<S> {
+        /**
+         * The computation at each vertex
+         */
+        private final VertexProgram<V, E, S> program;
+
+        /**
+         * The number of vertices
+         */
+        private final int n;
+
+        /**
+         * The number of vertices in each block but the last
+         */
+        private final int blockSize;
+
+        /**
+         * The number of blocks
+         */
+        private final int blocks;
+
+        /**
+         * The state of each vertex, by index
+         */
+        private final Object[] states;
+
+        /**
+         * Whether each vertex has voted to halt, by index
+         */
+        private final boolean[] halted;
+
+        /**
+         * The position in {@link #inbox} of the messages to each vertex
+         */
+        private final int[] messageStarts;
+
+        /**
+         * The number of messages to each vertex
+         */
+        private final int[] messageCounts;
+
+        /**
+         * The messages sent from each block in the current superstep
+         */
+        private final Outbox[] outboxes;
+
+        /**
+         * The aggregators the vertices may contribute to
+         */
+        private final Aggregator[] aggregators;
+
+        /**
+         * The value of each aggregator in the previous superstep
+         */
+        private double[] aggregated;
+
+        /**
+         * The messages to every vertex, grouped by vertex
+         */
+        private double[] inbox = new double[0];
+
+        /**
+         * The targets of the messages sent, grouped by the block they are sent to
+         */
+        private int[] stagedTargets = new int[0];
+
+        /**
+         * The messages sent, grouped by the block they are sent to
+         */
+        private double[] stagedValues = new double[0];
+
+        private Computation(Function<? super V, ? extends S> initialState, VertexProgram<V, E, S> program) {
+            this.program = program;
+            this.n = graph.index().size();
+            this.blockSize = Math.max(MIN_BLOCK_SIZE, (int) ((n + (long) MAX_BLOCKS - 1) / MAX_BLOCKS));
+            this.blocks = (n + blockSize - 1) / blockSize;
+            this.states = new Object[n];
+            IntStream.range(0, n).parallel().forEach(v -> states[v] = initialState.apply(graph.vertexAt(v)));
+            this.halted = new boolean[n];
+            this.messageStarts = new int[n];
+            this.messageCounts = new int[n];
+            this.outboxes = new Outbox[blocks];
+            Arrays.setAll(outboxes, block -> new Outbox(blocks, blockSize));
+            this.aggregators = options.getAggregators().toArray(new Aggregator[0]);
+            this.aggregated = identities();
+        }
+
+        private double[] identities() {
+            double[] values = new double[aggregators.length];
+            Arrays.setAll(values, i -> aggregators[i].getIdentity());
+            return values;
+        }
+
+        private PregelResult<V, E, S> run() {
+            int superstep = 0;
+            boolean converged = false;
+            while (superstep < options.getMaxSupersteps()) {
+                double[][] contributions = new double[blocks][];
+                int step = superstep;
+                long active = IntStream.range(0, blocks).parallel()
+                                       .mapToLong(block -> compute(block, step, contributions))
+                                       .sum();
+                double[] next = identities();
+                for (double[] block : contributions) {
+                    for (int i = 0; i < next.length; i++) {
+                        next[i] = aggregators[i].combine(next[i], block[i]);
+                    }
+                }
+                aggregated = next;
+                superstep++;
+                long sent = Arrays.stream(outboxes).mapToLong(outbox -> outbox.size).sum();
+                if (sent > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException(sent + " messages sent in one superstep");
+                }
+                deliver((int) sent);
+                if (active == 0 && sent == 0) {
+                    converged = true;
+                    break;
+                }
+            }
+            return new PregelResult<>(graph, states, aggregators, aggregated, superstep, converged);
+        }
+
+        /**
+         * Computes at the active vertices of a block.
+         *
+         * @return the number of vertices of the block that have not halted after the superstep
+         */
+        private long compute(int block, int superstep, double[][] contributions) {
+            Outbox outbox = outboxes[block];
+            outbox.clear();
+            contributions[block] = identities();
+            VertexContext<V, E, S> context = new VertexContext<>(graph, states, halted, aggregators, aggregated,
+                                                                 contributions[block], outbox, superstep);
+            Messages messages = new Messages();
+            int first = block * blockSize, last = Math.min(n, first + blockSize);
+            long active = 0;
+            for (int v = first; v < last; v++) {
+                if (!halted[v] || messageCounts[v] > 0) {
+                    halted[v] = false;
+                    messages.reset(inbox, messageStarts[v], messageCounts[v]);
+                    context.moveTo(v);
+                    program.compute(context, messages);
+                }
+                active += halted[v] ? 0 : 1;
+            }
+            return active;
+        }
+
+        /**
+         * Delivers the messages sent in a superstep: each sending block scatters its messages into the range of the
+         * staging buffer for the block they are sent to, then each receiving block groups its range by vertex into the
+         * inbox.
+         */
+        private void deliver(int sent) {
+            if (stagedTargets.length < sent) {
+                int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(sent, stagedTargets.length * 2L));
+                stagedTargets = new int[capacity];
+                stagedValues = new double[capacity];
+                inbox = new double[capacity];
+            }
+            int[] blockStarts = new int[blocks + 1];
+            for (int to = 0, position = 0; to < blocks; to++) {
+                blockStarts[to] = position;
+                for (Outbox outbox : outboxes) {
+                    int count = outbox.blockCounts[to];
+                    outbox.blockCounts[to] = position;
+                    position += count;
+                }
+            }
+            blockStarts[blocks] = sent;
+            IntStream.range(0, blocks).parallel().forEach(from -> {
+                Outbox outbox = outboxes[from];
+                for (int i = 0; i < outbox.size; i++) {
+                    int position = outbox.blockCounts[outbox.targets[i] / blockSize]++;
+                    stagedTargets[position] = outbox.targets[i];
+                    stagedValues[position] = outbox.values[i];
+                }
+            });
+            DoubleBinaryOperator combiner = options.getCombiner().orElse(null);
+            IntStream.range(0, blocks).parallel().forEach(to -> {
+                int first = to * blockSize, last = Math.min(n, first + blockSize);
+                Arrays.fill(messageCounts, first, last, 0);
+                int start = blockStarts[to], end = blockStarts[to + 1];
+                if (combiner != null) {
+                    int position = start;
+                    for (int i = start; i < end; i++) {
+                        int v = stagedTargets[i];
+                        if (messageCounts[v] == 0) {
+                            messageStarts[v] = position;
+                            messageCounts[v] = 1;
+                            inbox[position++] = stagedValues[i];
+                        } else {
+                            inbox[messageStarts[v]] = combiner.applyAsDouble(inbox[messageStarts[v]],
+                                                                             stagedValues[i]);
+                        }
+                    }
+                    return;
+                }
+                for (int i = start; i < end; i++) {
+                    messageCounts[stagedTargets[i]]++;
+                }
+                int[] next = new int[last - first];
+                for (int v = first, position = start; v < last; v++) {
+                    messageStarts[v] = position;
+                    next[v - first] = position;
+                    position += messageCounts[v];
+                }
+                for (int i = start; i < end; i++) {
+                    inbox[next[stagedTargets[i] - first]++] = stagedValues[i];
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.syneil.graph.pregel;
+
+import lombok.Builder;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * The configuration of a {@link Pregel} computation. Any option not set takes its default.
+ */
+@Builder
+@ToString
+public final class PregelOptions {
+    /**
+     * The number of threads computing
+     */
+    private final Integer parallelism;
+
+    /**
+     * The greatest number of supersteps run
+     */
+    private final Integer maxSupersteps;
+
+    /**
+     * Combines the messages sent to one vertex in a superstep into one; associative and commutative
+     */
+    private final DoubleBinaryOperator combiner;
+
+    /**
+     * The aggregators the vertices may contribute to
+     */
+    private final List<Aggregator> aggregators;
+
+    /**
+     * @return the options with every default
+     */
+    public static PregelOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return the number of threads computing; the number of available processors by default
+     */
+    public int getParallelism() {
+        return parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * @return the greatest number of supersteps run; unbounded by default, so that a computation runs until every
+     * vertex has voted to halt and no messages are sent
+     */
+    public int getMaxSupersteps() {
+        return maxSupersteps == null ? Integer.MAX_VALUE : maxSupersteps;
+    }
+
+    /**
+     * @return the combiner of messages; none by default, so that every message is delivered
+     */
+    public Optional<DoubleBinaryOperator> getCombiner() {
+        return Optional.ofNullable(combiner);
+    }
+
+    /**
+     * @return the aggregators the vertices may contribute to; none by default
+     */
+    public List<Aggregator> getAggregators() {
+        return aggregators == null ? List.of() : aggregators;
+    }
+}
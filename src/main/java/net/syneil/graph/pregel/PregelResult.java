@@ -0,0 +1,135 @@
+package net.syneil.graph.pregel;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The outcome of a {@link Pregel} computation: the final state of each vertex, held by the vertices' indices in the
+ * {@link #getGraph() compact graph} computed over, and the final value of each aggregator.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ * @param <S> the type of the state of each vertex
+ */
+public final class PregelResult<V, E extends Edge<V>, S> {
+    /**
+     * The graph computed over
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The final state of each vertex, by index
+     */
+    private final Object[] states;
+
+    /**
+     * The aggregators of the computation
+     */
+    private final Aggregator[] aggregators;
+
+    /**
+     * The value of each aggregator in the last superstep
+     */
+    private final double[] aggregated;
+
+    /**
+     * The number of supersteps run
+     */
+    private final int supersteps;
+
+    /**
+     * Whether the computation ended with every vertex halted and no messages sent
+     */
+    private final boolean converged;
+
+    PregelResult(CompactGraph<V, E> graph, Object[] states, Aggregator[] aggregators, double[] aggregated,
+                 int supersteps, boolean converged) {
+        this.graph = graph;
+        this.states = states;
+        this.aggregators = aggregators;
+        this.aggregated = aggregated;
+        this.supersteps = supersteps;
+        this.converged = converged;
+    }
+
+    /**
+     * @return the graph computed over, whose indices the states are by
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @param vertex the index of a vertex
+     *
+     * @return the vertex's final state
+     */
+    @SuppressWarnings("unchecked")
+    public S getState(int vertex) {
+        return (S) states[vertex];
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the vertex's final state, or nothing if it is not in the graph or its state is null
+     */
+    public Optional<S> getState(V vertex) {
+        Objects.requireNonNull(vertex);
+        int index = graph.indexOf(vertex);
+        return index < 0 ? Optional.empty() : Optional.ofNullable(getState(index));
+    }
+
+    /**
+     * @return an unmodifiable view of the final state of each vertex, by index
+     */
+    public List<S> getStates() {
+        return new AbstractList<>() {
+            @Override
+            public S get(int index) {
+                return getState(index);
+            }
+
+            @Override
+            public int size() {
+                return states.length;
+            }
+        };
+    }
+
+    /**
+     * @param aggregator an aggregator of the computation
+     *
+     * @return the aggregator's value in the last superstep
+     *
+     * @throws IllegalArgumentException if the aggregator is not one of the computation's
+     */
+    public double getAggregated(Aggregator aggregator) {
+        for (int i = 0; i < aggregators.length; i++) {
+            if (aggregators[i] == aggregator) {
+                return aggregated[i];
+            }
+        }
+        throw new IllegalArgumentException("Aggregator is not one of the computation's");
+    }
+
+    /**
+     * @return the number of supersteps run
+     */
+    public int getSupersteps() {
+        return supersteps;
+    }
+
+    /**
+     * @return true if the computation ended with every vertex halted and no messages sent, false if it was stopped
+     * after the greatest number of supersteps
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}
@@ -0,0 +1,208 @@
+package net.syneil.graph.pregel;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.Objects;
+
+/**
+ * The vertex a {@link VertexProgram} computes at, through which it reads and updates the vertex's state, sends
+ * messages, contributes to aggregators and votes to halt. A context is reused from vertex to vertex, so it must not be
+ * kept beyond the computation it is given to.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ * @param <S> the type of the state of each vertex
+ */
+public final class VertexContext<V, E extends Edge<V>, S> {
+    /**
+     * The graph computed over
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The state of each vertex, by index
+     */
+    private final Object[] states;
+
+    /**
+     * Whether each vertex has voted to halt, by index
+     */
+    private final boolean[] halted;
+
+    /**
+     * The aggregators the vertices may contribute to
+     */
+    private final Aggregator[] aggregators;
+
+    /**
+     * The value of each aggregator in the previous superstep
+     */
+    private final double[] aggregated;
+
+    /**
+     * The contributions to each aggregator from the vertices of this context's block in this superstep
+     */
+    private final double[] contributions;
+
+    /**
+     * The messages sent from the vertices of this context's block in this superstep
+     */
+    private final Outbox outbox;
+
+    /**
+     * The current superstep
+     */
+    private final int superstep;
+
+    /**
+     * The index of the vertex computed at
+     */
+    private int vertex;
+
+    VertexContext(CompactGraph<V, E> graph, Object[] states, boolean[] halted, Aggregator[] aggregators,
+                  double[] aggregated, double[] contributions, Outbox outbox, int superstep) {
+        this.graph = graph;
+        this.states = states;
+        this.halted = halted;
+        this.aggregators = aggregators;
+        this.aggregated = aggregated;
+        this.contributions = contributions;
+        this.outbox = outbox;
+        this.superstep = superstep;
+    }
+
+    void moveTo(int vertex) {
+        this.vertex = vertex;
+    }
+
+    /**
+     * @return the vertex computed at
+     */
+    public V getVertex() {
+        return graph.vertexAt(vertex);
+    }
+
+    /**
+     * @return the index of the vertex computed at
+     */
+    public int getIndex() {
+        return vertex;
+    }
+
+    /**
+     * @return the current superstep, counting from 0
+     */
+    public int getSuperstep() {
+        return superstep;
+    }
+
+    /**
+     * @return the number of vertices in the graph
+     */
+    public int getVertexCount() {
+        return states.length;
+    }
+
+    /**
+     * @return the state of the vertex
+     */
+    @SuppressWarnings("unchecked")
+    public S getState() {
+        return (S) states[vertex];
+    }
+
+    /**
+     * @param state the new state of the vertex
+     */
+    public void setState(S state) {
+        states[vertex] = state;
+    }
+
+    /**
+     * @return the number of edges the vertex may send messages along: its out-degree in a directed graph, its degree in
+     * an undirected one
+     */
+    public int degree() {
+        return graph.degree(vertex);
+    }
+
+    /**
+     * @param i the position of an edge of the vertex, in {@code [0, degree())}
+     *
+     * @return the index of the vertex at the other end of the edge
+     */
+    public int neighbour(int i) {
+        return graph.target(graph.offset(vertex) + Objects.checkIndex(i, degree()));
+    }
+
+    /**
+     * @param i the position of an edge of the vertex, in {@code [0, degree())}
+     *
+     * @return the edge
+     */
+    public E edge(int i) {
+        return graph.edge(graph.offset(vertex) + Objects.checkIndex(i, degree()));
+    }
+
+    /**
+     * Sends a message to be read by a vertex in the next superstep.
+     *
+     * @param target the index of the vertex
+     * @param message the message
+     */
+    public void sendMessage(int target, double message) {
+        outbox.add(Objects.checkIndex(target, states.length), message);
+    }
+
+    /**
+     * Sends a message along every edge of the vertex, to be read in the next superstep.
+     *
+     * @param message the message
+     */
+    public void sendToNeighbours(double message) {
+        for (int p = graph.offset(vertex); p < graph.offset(vertex + 1); p++) {
+            outbox.add(graph.target(p), message);
+        }
+    }
+
+    /**
+     * Halts the vertex: it is not computed at in later supersteps unless it is sent a message, which reactivates it.
+     */
+    public void voteToHalt() {
+        halted[vertex] = true;
+    }
+
+    /**
+     * Contributes a value to an aggregator, to be read by every vertex in the next superstep.
+     *
+     * @param aggregator the aggregator
+     * @param value the value
+     *
+     * @throws IllegalArgumentException if the aggregator is not one of the computation's
+     */
+    public void aggregate(Aggregator aggregator, double value) {
+        int i = indexOf(aggregator);
+        contributions[i] = aggregator.combine(contributions[i], value);
+    }
+
+    /**
+     * @param aggregator an aggregator
+     *
+     * @return the aggregator's value in the previous superstep, or its identity in the first
+     *
+     * @throws IllegalArgumentException if the aggregator is not one of the computation's
+     */
+    public double getAggregated(Aggregator aggregator) {
+        return aggregated[indexOf(aggregator)];
+    }
+
+    private int indexOf(Aggregator aggregator) {
+        for (int i = 0; i < aggregators.length; i++) {
+            if (aggregators[i] == aggregator) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Aggregator is not one of the computation's");
+    }
+}
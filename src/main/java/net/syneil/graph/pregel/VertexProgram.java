@@ -0,0 +1,23 @@
+package net.syneil.graph.pregel;
+
+import net.syneil.graph.Edge;
+
+/**
+ * The computation run at each active vertex in each superstep of a {@link Pregel} computation. It reads the messages
+ * sent to the vertex in the previous superstep, and may update the vertex's state, send messages to be read in the next
+ * superstep, contribute to aggregators, and vote to halt.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ * @param <S> the type of the state of each vertex
+ */
+@FunctionalInterface
+public interface VertexProgram<V, E extends Edge<V>, S> {
+    /**
+     * Computes at a vertex in a superstep. The context and the messages are only valid during the call.
+     *
+     * @param vertex the vertex computed at
+     * @param messages the messages sent to the vertex in the previous superstep, combined if there is a combiner
+     */
+    void compute(VertexContext<V, E, S> vertex, Messages messages);
+}
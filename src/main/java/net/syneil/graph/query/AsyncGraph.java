@@ -0,0 +1,361 @@
+package net.syneil.graph.query;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.shard.ShardedGraph;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * An asynchronous, batching facade for queries of a graph. Every query returns a {@link CompletableFuture} at once,
+ * and is answered by probes of the graph run on an executor. Concurrent queries about the same vertex share one probe,
+ * and the vertices queried while earlier probes run are probed together in batches: in one request per shard for a
+ * {@link ShardedGraph}, and in index order for a {@link CompactGraph}.
+ * <p>
+ * The number of queries pending at once is limited, beyond which further queries are rejected or made to wait, as
+ * {@link QueryOptions configured}; and each query may have a deadline, after which it fails with a {@link
+ * TimeoutException}. Futures complete on the threads running the probes, so callers should not block in their
+ * continuations. The graph must be safe to read from several threads at once, and is assumed not to change.
+ * <pre>
+ *     var options = QueryOptions.builder().deadline(Duration.ofMillis(50)).build();
+ *     try (var queries = new AsyncGraph&lt;&gt;(graph, options)) {
+ *         queries.neighbours("LHR").thenAccept(destinations -&gt; ...);
+ *     }
+ * </pre>
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public class AsyncGraph<V, E extends Edge<V>> implements AutoCloseable {
+    /**
+     * The graph queried
+     */
+    private final Graph<V, E> graph;
+
+    /**
+     * The configuration of this facade
+     */
+    private final QueryOptions options;
+
+    /**
+     * The pool of this facade's own, if it was not given an executor; null otherwise
+     */
+    private final ExecutorService ownPool;
+
+    /**
+     * The permits for pending queries
+     */
+    private final Semaphore permits;
+
+    /**
+     * Batches lookups of the neighbours of vertices
+     */
+    private final LookupBatcher<V, Set<V>> neighbours;
+
+    /**
+     * Batches lookups of the edges from vertices
+     */
+    private final LookupBatcher<V, List<E>> edges;
+
+    /**
+     * Batches lookups of the presence of vertices
+     */
+    private final LookupBatcher<V, Boolean> vertices;
+
+    /**
+     * Creates a facade with the default options.
+     *
+     * @param graph the graph to query
+     */
+    public AsyncGraph(Graph<V, E> graph) {
+        this(graph, QueryOptions.defaults());
+    }
+
+    /**
+     * @param graph the graph to query
+     * @param options the configuration of this facade
+     */
+    @SuppressWarnings("unchecked")
+    public AsyncGraph(Graph<V, E> graph, QueryOptions options) {
+        this.graph = Objects.requireNonNull(graph);
+        this.options = Objects.requireNonNull(options);
+        int parallelism = options.getParallelism(), batchSize = options.getBatchSize();
+        if (parallelism < 1 || batchSize < 1 || options.getMaxPending() < 1) {
+            throw new IllegalArgumentException("Parallelism, batch size and maximum pending queries must be positive");
+        }
+        this.ownPool = options.getExecutor().isPresent() ? null : Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "graph-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Executor executor = options.getExecutor().orElse(ownPool);
+        this.permits = new Semaphore(options.getMaxPending());
+        if (graph instanceof ShardedGraph) {
+            var sharded = (ShardedGraph<V, E>) graph;
+            this.neighbours = new LookupBatcher<>(batch -> filled(batch, sharded.neighbours(batch), Set.of()),
+                                                  executor, batchSize, parallelism);
+            this.edges = new LookupBatcher<>(batch -> filled(batch, sharded.getEdges(batch), List.of()),
+                                             executor, batchSize, parallelism);
+        } else {
+            this.neighbours = new LookupBatcher<>(probeEach(v -> Set.copyOf(graph.neighbours(v))), executor, batchSize,
+                                                  parallelism);
+            this.edges = new LookupBatcher<>(probeEach(v -> List.copyOf(graph.getEdges(v))), executor, batchSize,
+                                             parallelism);
+        }
+        this.vertices = new LookupBatcher<>(probeEach(graph::hasVertex), executor, batchSize, parallelism);
+    }
+
+    /**
+     * Creates a probe looking up each vertex of a batch in turn, in index order if the graph is compact.
+     */
+    private <R> Function<List<V>, Map<V, R>> probeEach(Function<V, R> lookup) {
+        return batch -> {
+            if (graph instanceof CompactGraph) {
+                var compact = (CompactGraph<V, ?>) graph;
+                batch.sort(Comparator.comparingInt(compact::indexOf));
+            }
+            Map<V, R> results = new HashMap<>(batch.size() * 4 / 3 + 1);
+            batch.forEach(v -> results.put(v, lookup.apply(v)));
+            return results;
+        };
+    }
+
+    private static <V, R> Map<V, R> filled(List<V> batch, Map<V, ? extends R> found, R absent) {
+        Map<V, R> results = new HashMap<>(found);
+        batch.forEach(v -> results.putIfAbsent(v, absent));
+        return results;
+    }
+
+    // ---- queries
+
+    /**
+     * @param v a vertex
+     *
+     * @return the vertex's neighbours, as by {@link Graph#neighbours}
+     */
+    public CompletableFuture<Set<V>> neighbours(V v) {
+        return neighbours(v, null);
+    }
+
+    /**
+     * @param v a vertex
+     * @param deadline the time after which the query fails, or null for the default
+     *
+     * @return the vertex's neighbours, as by {@link Graph#neighbours}
+     */
+    public CompletableFuture<Set<V>> neighbours(V v, Duration deadline) {
+        Objects.requireNonNull(v);
+        return query(() -> neighbours.lookup(v), deadline);
+    }
+
+    /**
+     * @param source a vertex
+     *
+     * @return the edges from the vertex, as by {@link Graph#getEdges(Object)}
+     */
+    public CompletableFuture<List<E>> getEdges(V source) {
+        return getEdges(source, null);
+    }
+
+    /**
+     * @param source a vertex
+     * @param deadline the time after which the query fails, or null for the default
+     *
+     * @return the edges from the vertex, as by {@link Graph#getEdges(Object)}
+     */
+    public CompletableFuture<List<E>> getEdges(V source, Duration deadline) {
+        Objects.requireNonNull(source);
+        return query(() -> edges.lookup(source), deadline);
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return whether the vertex is in the graph
+     */
+    public CompletableFuture<Boolean> hasVertex(V vertex) {
+        return hasVertex(vertex, null);
+    }
+
+    /**
+     * @param vertex a vertex
+     * @param deadline the time after which the query fails, or null for the default
+     *
+     * @return whether the vertex is in the graph
+     */
+    public CompletableFuture<Boolean> hasVertex(V vertex, Duration deadline) {
+        Objects.requireNonNull(vertex);
+        return query(() -> vertices.lookup(vertex), deadline);
+    }
+
+    /**
+     * Finds whether one vertex is a neighbour of another; the query shares the lookup of the source's neighbours.
+     *
+     * @param source a vertex
+     * @param target another vertex
+     *
+     * @return whether the target is a neighbour of the source
+     */
+    public CompletableFuture<Boolean> hasEdge(V source, V target) {
+        return hasEdge(source, target, null);
+    }
+
+    /**
+     * Finds whether one vertex is a neighbour of another; the query shares the lookup of the source's neighbours.
+     *
+     * @param source a vertex
+     * @param target another vertex
+     * @param deadline the time after which the query fails, or null for the default
+     *
+     * @return whether the target is a neighbour of the source
+     */
+    public CompletableFuture<Boolean> hasEdge(V source, V target, Duration deadline) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        // the deadline applies to the lookup itself, so that a query that times out gives up its part in the lookup
+        return query(() -> neighbours.lookup(source), deadline).thenApply(found -> found.contains(target));
+    }
+
+    /**
+     * Finds a shortest path between two vertices by breadth-first search, looking up the neighbours of each level's
+     * vertices together, so that they are batched with each other and with concurrent queries.
+     *
+     * @param from the first vertex of the path
+     * @param to the last vertex of the path
+     *
+     * @return the vertices of a shortest path, or empty if there is none
+     */
+    public CompletableFuture<Optional<List<V>>> shortestPath(V from, V to) {
+        return shortestPath(from, to, null);
+    }
+
+    /**
+     * Finds a shortest path between two vertices by breadth-first search, looking up the neighbours of each level's
+     * vertices together, so that they are batched with each other and with concurrent queries. No more levels are
+     * searched once the deadline has passed.
+     *
+     * @param from the first vertex of the path
+     * @param to the last vertex of the path
+     * @param deadline the time after which the query fails, or null for the default
+     *
+     * @return the vertices of a shortest path, or empty if there is none
+     */
+    public CompletableFuture<Optional<List<V>>> shortestPath(V from, V to, Duration deadline) {
+        Objects.requireNonNull(from);
+        Objects.requireNonNull(to);
+        return query(() -> {
+            var path = new CompletableFuture<Optional<List<V>>>();
+            Map<V, V> parents = new HashMap<>();
+            parents.put(from, from);
+            if (from.equals(to)) {
+                path.complete(Optional.of(List.of(from)));
+            } else {
+                search(List.of(from), to, parents, path);
+            }
+            return path;
+        }, deadline);
+    }
+
+    /**
+     * Searches one level of a breadth-first search; the levels run one after another, so the parents need no locking.
+     */
+    private void search(List<V> level, V to, Map<V, V> parents, CompletableFuture<Optional<List<V>>> path) {
+        if (path.isDone()) {
+            return;
+        }
+        List<CompletableFuture<Set<V>>> found = level.stream().map(neighbours::lookup).collect(Collectors.toList());
+        CompletableFuture.allOf(found.toArray(new CompletableFuture<?>[0])).whenComplete(($, failure) -> {
+            if (failure != null) {
+                path.completeExceptionally(failure);
+                return;
+            }
+            List<V> next = new ArrayList<>();
+            for (int i = 0; i < level.size(); i++) {
+                for (V w : found.get(i).join()) {
+                    if (parents.putIfAbsent(w, level.get(i)) == null) {
+                        if (w.equals(to)) {
+                            path.complete(Optional.of(pathTo(to, parents)));
+                            return;
+                        }
+                        next.add(w);
+                    }
+                }
+            }
+            if (next.isEmpty()) {
+                path.complete(Optional.empty());
+            } else {
+                search(next, to, parents, path);
+            }
+        });
+    }
+
+    private static <V> List<V> pathTo(V to, Map<V, V> parents) {
+        LinkedList<V> path = new LinkedList<>();
+        V v = to;
+        path.addFirst(v);
+        while (!parents.get(v).equals(v)) {
+            v = parents.get(v);
+            path.addFirst(v);
+        }
+        return path;
+    }
+
+    /**
+     * Starts a query once a permit is available, applying its deadline and releasing the permit when it completes.
+     */
+    private <T> CompletableFuture<T> query(Supplier<CompletableFuture<T>> start, Duration deadline) {
+        if (!acquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many pending queries"));
+        }
+        CompletableFuture<T> future;
+        try {
+            future = start.get();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        future.whenComplete(($1, $2) -> permits.release());
+        Optional.ofNullable(deadline)
+                .or(options::getDeadline)
+                .ifPresent(limit -> future.orTimeout(limit.toNanos(), TimeUnit.NANOSECONDS));
+        return future;
+    }
+
+    private boolean acquire() {
+        switch (options.getBackpressure()) {
+            case REJECT: return permits.tryAcquire();
+            case BLOCK:
+                try {
+                    permits.acquire();
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting to query graph");
+                }
+        }
+        throw new Error();
+    }
+
+    /**
+     * @return the number of further queries that could be pending at once
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Shuts down this facade's own pool, if it has one. Pending queries may not complete.
+     */
+    @Override
+    public void close() {
+        if (ownPool != null) {
+            ownPool.shutdownNow();
+        }
+    }
+}
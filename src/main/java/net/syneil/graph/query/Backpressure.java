@@ -0,0 +1,16 @@
+package net.syneil.graph.query;
+
+/**
+ * What an {@link AsyncGraph} does with a query made while it already has its maximum number of pending queries.
+ */
+public enum Backpressure {
+    /**
+     * The query's future fails at once with a {@link java.util.concurrent.RejectedExecutionException}
+     */
+    REJECT,
+
+    /**
+     * The calling thread waits until another query completes
+     */
+    BLOCK
+}
@@ -0,0 +1,243 @@
+package net.syneil.graph.query;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent lookups of keys into batches. A key looked up while a lookup of it is pending joins that lookup
+ * rather than starting another. Pending keys are queued, and drained in batches by tasks on an executor; only so many
+ * tasks run at once, so that when lookups arrive faster than they are answered the queue grows and the batches with
+ * it. A key whose every waiter has given up (by timing out, say) before its batch is drained is not looked up.
+ *
+ * @param <K> the type of the keys
+ * @param <R> the type of the results
+ */
+final class LookupBatcher<K, R> {
+    /**
+     * Looks up a batch of distinct keys, giving the result for each
+     */
+    private final Function<List<K>, Map<K, R>> probe;
+
+    /**
+     * Runs the draining tasks
+     */
+    private final Executor executor;
+
+    /**
+     * The greatest number of keys looked up in one batch
+     */
+    private final int batchSize;
+
+    /**
+     * The greatest number of draining tasks running at once
+     */
+    private final int parallelism;
+
+    /**
+     * The lookup of each key that is pending or being looked up
+     */
+    private final ConcurrentMap<K, Lookup<R>> lookups = new ConcurrentHashMap<>();
+
+    /**
+     * The keys waiting to be drained
+     */
+    private final Queue<K> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of draining tasks running or submitted
+     */
+    private final AtomicInteger draining = new AtomicInteger();
+
+    LookupBatcher(Function<List<K>, Map<K, R>> probe, Executor executor, int batchSize, int parallelism) {
+        this.probe = probe;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * The shared state of the waiters for one key
+     */
+    private static final class Lookup<R> {
+        /**
+         * The result of the lookup
+         */
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+
+        /**
+         * The number of waiters that have not completed, or -1 once the lookup has been abandoned for want of any
+         */
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        /**
+         * @return a future of the result for a new waiter, or null if the lookup has been abandoned
+         */
+        private CompletableFuture<R> join() {
+            int count;
+            do {
+                count = waiters.get();
+                if (count < 0) {
+                    return null;
+                }
+            } while (!waiters.compareAndSet(count, count + 1));
+            Waiter<R> waiter = new Waiter<>(waiters);
+            result.whenComplete((value, failure) -> {
+                if (failure == null) {
+                    waiter.complete(value);
+                } else {
+                    waiter.completeExceptionally(failure);
+                }
+            });
+            return waiter;
+        }
+
+        /**
+         * @return true if the lookup still has waiters and should be made; false if it has been abandoned
+         */
+        private boolean claim() {
+            return !waiters.compareAndSet(0, -1);
+        }
+    }
+
+    /**
+     * One waiter's future of a lookup's result. However it is completed, by the result or by its waiter (on a timeout,
+     * say), it first gives up its place among the lookup's waiters, so that by the time anything sees it complete, a
+     * lookup it was the last waiter of is already abandoned. Its dependent stages are plain futures.
+     */
+    private static final class Waiter<R> extends CompletableFuture<R> {
+        /**
+         * The number of waiters of the lookup
+         */
+        private final AtomicInteger waiters;
+
+        /**
+         * Whether this waiter has given up its place
+         */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Waiter(AtomicInteger waiters) {
+            this.waiters = waiters;
+        }
+
+        @Override
+        public boolean complete(R value) {
+            release();
+            return super.complete(value);
+        }
+
+        @Override
+        public boolean completeExceptionally(Throwable failure) {
+            release();
+            return super.completeExceptionally(failure);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            release();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new CompletableFuture<>();
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                waiters.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @param key a key
+     *
+     * @return a future of the key's result, which may be completed exceptionally (on a timeout, say) without
+     *         affecting other waiters for the same key
+     */
+    CompletableFuture<R> lookup(K key) {
+        while (true) {
+            var created = new Lookup<R>();
+            Lookup<R> lookup = lookups.putIfAbsent(key, created);
+            if (lookup == null) {
+                lookup = created;
+                CompletableFuture<R> waiter = lookup.join();
+                queue.add(key);
+                startDraining();
+                return waiter;
+            }
+            CompletableFuture<R> waiter = lookup.join();
+            if (waiter != null) {
+                return waiter;
+            }
+            // the lookup was abandoned just as it was drained; make another
+            lookups.remove(key, lookup);
+        }
+    }
+
+    private void startDraining() {
+        while (!queue.isEmpty()) {
+            int running = draining.get();
+            if (running >= parallelism) {
+                return;
+            }
+            if (draining.compareAndSet(running, running + 1)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.decrementAndGet();
+                    failQueued(e);
+                }
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            Map<K, Lookup<R>> batch = new LinkedHashMap<>();
+            K key;
+            while (batch.size() < batchSize && (key = queue.poll()) != null) {
+                Lookup<R> lookup = lookups.get(key);
+                if (lookup == null) {
+                    continue;
+                }
+                if (lookup.claim()) {
+                    batch.put(key, lookup);
+                } else {
+                    lookups.remove(key, lookup);
+                }
+            }
+            if (!batch.isEmpty()) {
+                complete(batch);
+            }
+        } finally {
+            draining.decrementAndGet();
+            startDraining();
+        }
+    }
+
+    private void complete(Map<K, Lookup<R>> batch) {
+        try {
+            Map<K, R> results = probe.apply(new ArrayList<>(batch.keySet()));
+            batch.forEach((key, lookup) -> lookup.result.complete(results.get(key)));
+        } catch (RuntimeException | Error e) {
+            batch.values().forEach(lookup -> lookup.result.completeExceptionally(e));
+        } finally {
+            batch.forEach(lookups::remove);
+        }
+    }
+
+    private void failQueued(RejectedExecutionException e) {
+        K key;
+        while ((key = queue.poll()) != null) {
+            Lookup<R> lookup = lookups.remove(key);
+            if (lookup != null) {
+                lookup.result.completeExceptionally(e);
+            }
+        }
+    }
+}
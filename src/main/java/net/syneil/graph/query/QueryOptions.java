@@ -0,0 +1,105 @@
+package net.syneil.graph.query;
+
+import lombok.Builder;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * The configuration of an {@link AsyncGraph}. Any option not set takes its default.
+ */
+@Builder
+@ToString
+public final class QueryOptions {
+    /**
+     * The default greatest number of vertices probed in one batch
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /**
+     * The default greatest number of queries pending at once
+     */
+    public static final int DEFAULT_MAX_PENDING = 10_000;
+
+    /**
+     * The executor running the probes of the graph; by default a pool of the graph's own
+     */
+    private final Executor executor;
+
+    /**
+     * The greatest number of batches probed at once, which is also the size of the graph's own pool
+     */
+    private final Integer parallelism;
+
+    /**
+     * The greatest number of vertices probed in one batch
+     */
+    private final Integer batchSize;
+
+    /**
+     * The greatest number of queries pending at once
+     */
+    private final Integer maxPending;
+
+    /**
+     * What to do with queries beyond the greatest number pending
+     */
+    private final Backpressure backpressure;
+
+    /**
+     * The time after which a query fails with a {@link java.util.concurrent.TimeoutException}, unless it is given a
+     * deadline of its own
+     */
+    private final Duration deadline;
+
+    /**
+     * @return the options with every default
+     */
+    public static QueryOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return the executor running the probes, or empty if the graph should create a pool of its own
+     */
+    public Optional<Executor> getExecutor() {
+        return Optional.ofNullable(executor);
+    }
+
+    /**
+     * @return the greatest number of batches probed at once; the number of available processors by default
+     */
+    public int getParallelism() {
+        return parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * @return the greatest number of vertices probed in one batch
+     */
+    public int getBatchSize() {
+        return batchSize == null ? DEFAULT_BATCH_SIZE : batchSize;
+    }
+
+    /**
+     * @return the greatest number of queries pending at once
+     */
+    public int getMaxPending() {
+        return maxPending == null ? DEFAULT_MAX_PENDING : maxPending;
+    }
+
+    /**
+     * @return what to do with queries beyond the greatest number pending; {@link Backpressure#REJECT} by default
+     */
+    public Backpressure getBackpressure() {
+        return backpressure == null ? Backpressure.REJECT : backpressure;
+    }
+
+    /**
+     * @return the time after which queries without a deadline of their own fail, or empty if they never do
+     */
+    public Optional<Duration> getDeadline() {
+        return Optional.ofNullable(deadline);
+    }
+}
@@ -0,0 +1,138 @@
+package net.syneil.graph.reach;
+
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The strongly connected components of a graph, found by an iterative form of Tarjan's algorithm, and the directed
+ * acyclic graph between them. Components are numbered in the order Tarjan's algorithm completes them, so a component
+ * can only reach components numbered lower than itself.
+ */
+final class Condensation {
+    /**
+     * The component of each vertex, by index
+     */
+    final int[] components;
+
+    /**
+     * The number of components
+     */
+    final int count;
+
+    /**
+     * The first position of each component's successors, plus the end of the last
+     */
+    final int[] offsets;
+
+    /**
+     * The components each component has edges to, distinct and in ascending order within each
+     */
+    final int[] successors;
+
+    private Condensation(int[] components, int count, int[] offsets, int[] successors) {
+        this.components = components;
+        this.count = count;
+        this.offsets = offsets;
+        this.successors = successors;
+    }
+
+    static Condensation of(CompactGraph<?, ?> graph) {
+        int n = graph.index().size();
+        int[] components = new int[n], order = new int[n], lows = new int[n], cursors = new int[n];
+        int[] stack = new int[n], calls = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(order, -1);
+        int visited = 0, count = 0;
+        for (int root = 0; root < n; root++) {
+            if (order[root] >= 0) {
+                continue;
+            }
+            int stacked = 0, depth = 0;
+            order[root] = lows[root] = visited++;
+            stack[stacked++] = root;
+            onStack[root] = true;
+            cursors[root] = graph.offset(root);
+            calls[depth++] = root;
+            while (depth > 0) {
+                int v = calls[depth - 1];
+                if (cursors[v] < graph.offset(v + 1)) {
+                    int w = graph.target(cursors[v]++);
+                    if (order[w] < 0) {
+                        order[w] = lows[w] = visited++;
+                        stack[stacked++] = w;
+                        onStack[w] = true;
+                        cursors[w] = graph.offset(w);
+                        calls[depth++] = w;
+                    } else if (onStack[w]) {
+                        lows[v] = Math.min(lows[v], order[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int caller = calls[depth - 1];
+                    lows[caller] = Math.min(lows[caller], lows[v]);
+                }
+                if (lows[v] == order[v]) {
+                    int w;
+                    do {
+                        w = stack[--stacked];
+                        onStack[w] = false;
+                        components[w] = count;
+                    } while (w != v);
+                    count++;
+                }
+            }
+        }
+        return between(graph, components, count);
+    }
+
+    /**
+     * Builds the edges between components, each once, a component at a time in parallel.
+     */
+    private static Condensation between(CompactGraph<?, ?> graph, int[] components, int count) {
+        int n = components.length;
+        int[] starts = new int[count + 1], members = new int[n];
+        for (int component : components) {
+            starts[component + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            starts[c + 1] += starts[c];
+        }
+        int[] next = Arrays.copyOf(starts, count);
+        for (int v = 0; v < n; v++) {
+            members[next[components[v]]++] = v;
+        }
+        int[][] rows = new int[count][];
+        ThreadLocal<int[]> stamps = ThreadLocal.withInitial(() -> new int[count]);
+        IntStream.range(0, count).parallel().forEach(c -> {
+            int[] stamp = stamps.get(), row = new int[4];
+            int size = 0;
+            for (int i = starts[c]; i < starts[c + 1]; i++) {
+                int v = members[i];
+                for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                    int d = components[graph.target(p)];
+                    if (d != c && stamp[d] != c + 1) {
+                        stamp[d] = c + 1;
+                        if (size == row.length) {
+                            row = Arrays.copyOf(row, size * 2);
+                        }
+                        row[size++] = d;
+                    }
+                }
+            }
+            Arrays.sort(row, 0, size);
+            rows[c] = Arrays.copyOf(row, size);
+        });
+        int[] offsets = new int[count + 1];
+        for (int c = 0; c < count; c++) {
+            offsets[c + 1] = offsets[c] + rows[c].length;
+        }
+        int[] successors = new int[offsets[count]];
+        IntStream.range(0, count).parallel()
+                 .forEach(c -> System.arraycopy(rows[c], 0, successors, offsets[c], rows[c].length));
+        return new Condensation(components, count, offsets, successors);
+    }
+}
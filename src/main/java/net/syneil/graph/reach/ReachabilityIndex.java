@@ -0,0 +1,510 @@
+package net.syneil.graph.reach;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.compact.VertexIndex;
+import net.syneil.graph.internal.Tasks;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.internal.Hashing.mix;
+
+/**
+ * An index answering whether one vertex of a graph can reach another along its edges, built once so that each query
+ * costs little more than a few comparisons. The graph is condensed into its strongly connected components, whose
+ * vertices all reach each other, and the directed acyclic graph between the components is labelled after Yildirim,
+ * Chaoji and Zaki's GRAIL: each of several randomised depth-first traversals gives every component an interval, which
+ * contains the interval of every component it reaches. A query is then answered by, in turn:
+ * <ol>
+ * <li>the components, equal or numbered in the wrong order for one to reach the other;</li>
+ * <li>the first traversal's tree, in which a component reaches all its descendants;</li>
+ * <li>the intervals, any of which not containing the other's proves the target unreachable;</li>
+ * <li>failing all of these, a depth-first search of the components, pruned by the same tests.</li>
+ * </ol>
+ * The index is immutable and answers queries from many threads at once; it is built in parallel, one traversal per
+ * thread, and can be {@link #writeTo written} and {@link #readFrom read} in a compact binary form.
+ * <p>
+ * The index answers for the graph as it was when built. After the graph is changed, adding an edge that {@link
+ * #isUnchangedByAdding changes no reachability} leaves the index valid; any other change calls for a {@link #rebuild
+ * rebuild}.
+ *
+ * @param <V> the type used for vertices
+ */
+public final class ReachabilityIndex<V> {
+    /**
+     * The first bytes of a written index
+     */
+    private static final int MAGIC = 0x52454348;
+
+    /**
+     * The version of the written form
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The vertices indexed
+     */
+    private final VertexIndex<V> vertices;
+
+    /**
+     * The component of each vertex, by index
+     */
+    private final int[] components;
+
+    /**
+     * The first position of each component's successors, plus the end of the last
+     */
+    private final int[] offsets;
+
+    /**
+     * The components each component has edges to
+     */
+    private final int[] successors;
+
+    /**
+     * The number of intervals of each component
+     */
+    private final int dimensions;
+
+    /**
+     * The intervals of each component, as the least and greatest post-order rank of each traversal, component by
+     * component so that a query reads them together
+     */
+    private final int[] intervals;
+
+    /**
+     * The pre-order rank of each component in the first traversal's tree
+     */
+    private final int[] preorder;
+
+    /**
+     * The greatest pre-order rank of any descendant of each component in the first traversal's tree
+     */
+    private final int[] lastDescendant;
+
+    /**
+     * The options the index was built with
+     */
+    private final ReachabilityOptions options;
+
+    /**
+     * The marks of the components visited by the searches of each thread
+     */
+    private final ThreadLocal<Search> searches;
+
+    private ReachabilityIndex(VertexIndex<V> vertices, int[] components, int[] offsets, int[] successors,
+                              int dimensions, int[] intervals, int[] preorder, int[] lastDescendant,
+                              ReachabilityOptions options) {
+        this.vertices = vertices;
+        this.components = components;
+        this.offsets = offsets;
+        this.successors = successors;
+        this.dimensions = dimensions;
+        this.intervals = intervals;
+        this.preorder = preorder;
+        this.lastDescendant = lastDescendant;
+        this.options = options;
+        this.searches = ThreadLocal.withInitial(() -> new Search(preorder.length));
+    }
+
+    /**
+     * Builds the index of a graph with the default options.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param <V> the type used for vertices
+     *
+     * @return the index
+     */
+    public static <V> ReachabilityIndex<V> of(Graph<V, ? extends Edge<V>> graph) {
+        return of(graph, ReachabilityOptions.defaults());
+    }
+
+    /**
+     * Builds the index of a graph.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param options the parallelism, number of intervals and seed
+     * @param <V> the type used for vertices
+     *
+     * @return the index
+     *
+     * @throws IllegalArgumentException if the parallelism or the number of intervals is not positive
+     */
+    public static <V> ReachabilityIndex<V> of(Graph<V, ? extends Edge<V>> graph, ReachabilityOptions options) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(options);
+        if (options.getParallelism() < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (options.getDimensions() < 1) {
+            throw new IllegalArgumentException("Dimensions must be positive");
+        }
+        CompactGraph<V, Edge<V>> compact = CompactGraph.copyOf(graph);
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            return Tasks.run(pool, () -> build(compact, options), "building reachability index");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <V> ReachabilityIndex<V> build(CompactGraph<V, Edge<V>> graph, ReachabilityOptions options) {
+        Condensation condensation = Condensation.of(graph);
+        int count = condensation.count, dimensions = options.getDimensions();
+        boolean[] hasPredecessor = new boolean[count];
+        for (int successor : condensation.successors) {
+            hasPredecessor[successor] = true;
+        }
+        int[] roots = IntStream.range(0, count).filter(c -> !hasPredecessor[c]).toArray();
+        int[] intervals = new int[count * dimensions * 2], preorder = new int[count], last = new int[count];
+        IntStream.range(0, dimensions).parallel()
+                 .forEach(d -> traverse(condensation, roots, d, options.getSeed(), intervals, dimensions,
+                                        d == 0 ? preorder : null, last));
+        return new ReachabilityIndex<>(graph.index(), condensation.components, condensation.offsets,
+                                       condensation.successors, dimensions, intervals, preorder, last, options);
+    }
+
+    /**
+     * Labels every component with its interval in one randomised depth-first traversal of the components: from the
+     * roots in a random order, visiting each component's successors from a random one onwards. A component's interval
+     * runs from the least post-order rank of any component it reaches to its own.
+     *
+     * @param preorder where to record the pre-order ranks and the last descendants, or null for traversals after the
+     * first
+     */
+    private static void traverse(Condensation condensation, int[] roots, int dimension, long seed, int[] intervals,
+                                 int dimensions, int[] preorder, int[] last) {
+        int count = condensation.count;
+        int[] offsets = condensation.offsets, successors = condensation.successors;
+        SplittableRandom random = new SplittableRandom(mix(seed + mix(dimension)));
+        int[] order = roots.clone();
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1), root = order[i];
+            order[i] = order[j];
+            order[j] = root;
+        }
+        int[] lows = new int[count], starts = new int[count], cursors = new int[count], stack = new int[count];
+        boolean[] visited = new boolean[count];
+        Arrays.fill(lows, Integer.MAX_VALUE);
+        int rank = 0, pre = 0;
+        for (int root : order) {
+            int depth = 0;
+            visited[root] = true;
+            stack[depth++] = root;
+            starts[root] = random.nextInt(Math.max(1, offsets[root + 1] - offsets[root]));
+            if (preorder != null) {
+                preorder[root] = pre++;
+            }
+            while (depth > 0) {
+                int c = stack[depth - 1], degree = offsets[c + 1] - offsets[c];
+                if (cursors[c] < degree) {
+                    int w = successors[offsets[c] + (starts[c] + cursors[c]++) % degree];
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        stack[depth++] = w;
+                        starts[w] = random.nextInt(Math.max(1, offsets[w + 1] - offsets[w]));
+                        if (preorder != null) {
+                            preorder[w] = pre++;
+                        }
+                    } else {
+                        // in an acyclic graph, a visited successor is finished
+                        lows[c] = Math.min(lows[c], lows[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                lows[c] = Math.min(lows[c], rank);
+                int at = (c * dimensions + dimension) * 2;
+                intervals[at] = lows[c];
+                intervals[at + 1] = rank++;
+                if (preorder != null) {
+                    last[c] = pre - 1;
+                }
+                if (depth > 0) {
+                    int parent = stack[depth - 1];
+                    lows[parent] = Math.min(lows[parent], lows[c]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the index of a graph with the options this index was built with, as after the graph has changed.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     *
+     * @return the new index
+     */
+    public ReachabilityIndex<V> rebuild(Graph<V, ? extends Edge<V>> graph) {
+        return of(graph, options);
+    }
+
+    /**
+     * Tests if one vertex can reach another along the edges of the graph, as it was when the index was built. Every
+     * vertex can reach itself.
+     *
+     * @param source a vertex
+     * @param target another vertex
+     *
+     * @return true if both vertices are in the graph and there is a path from the source to the target, false
+     * otherwise
+     */
+    public boolean canReach(V source, V target) {
+        int s = vertices.indexOf(Objects.requireNonNull(source)), t = vertices.indexOf(Objects.requireNonNull(target));
+        return s >= 0 && t >= 0 && canReachIndex(s, t);
+    }
+
+    /**
+     * Tests if one vertex can reach another along the edges of the graph, as it was when the index was built.
+     *
+     * @param source the index of a vertex
+     * @param target the index of another vertex
+     *
+     * @return true if there is a path from the source to the target, false otherwise
+     */
+    public boolean canReachIndex(int source, int target) {
+        int from = components[source], to = components[target];
+        if (from == to) {
+            return true;
+        }
+        if (excluded(from, to)) {
+            return false;
+        }
+        if (descends(from, to)) {
+            return true;
+        }
+        return searches.get().search(from, to);
+    }
+
+    /**
+     * @return true if the tests of component numbering and intervals prove one component cannot reach another
+     */
+    private boolean excluded(int from, int to) {
+        // a component only reaches those completed before it
+        if (from < to) {
+            return true;
+        }
+        for (int d = 0, a = from * dimensions * 2, b = to * dimensions * 2; d < dimensions; d++, a += 2, b += 2) {
+            if (intervals[b] < intervals[a] || intervals[b + 1] > intervals[a + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if one component is a descendant of another in the first traversal's tree
+     */
+    private boolean descends(int from, int to) {
+        return preorder[from] <= preorder[to] && preorder[to] <= lastDescendant[from];
+    }
+
+    /**
+     * Tests if adding an edge to the graph would leave the index valid: it would if the target is already reachable
+     * from the source, since then the edge opens no new paths.
+     *
+     * @param source the source of the edge
+     * @param target the target of the edge
+     *
+     * @return true if the index would answer every query the same after adding the edge, false if it should be
+     * rebuilt
+     */
+    public boolean isUnchangedByAdding(V source, V target) {
+        return canReach(source, target);
+    }
+
+    /**
+     * @return the vertices indexed, whose indices the primitive queries are by
+     */
+    public VertexIndex<V> getVertices() {
+        return vertices;
+    }
+
+    /**
+     * @return the number of strongly connected components of the graph
+     */
+    public int getComponentCount() {
+        return preorder.length;
+    }
+
+    /**
+     * @param vertex a vertex
+     *
+     * @return the strongly connected component of the vertex, or -1 if it is not in the graph; a component can only
+     * reach components numbered lower than itself
+     */
+    public int componentOf(V vertex) {
+        int index = vertices.indexOf(Objects.requireNonNull(vertex));
+        return index < 0 ? -1 : components[index];
+    }
+
+    /**
+     * Writes this index, so that it can be {@link #readFrom read} without the graph.
+     *
+     * @param out the stream to write to, which is flushed but not closed
+     * @param vertexEncoder encodes vertices as strings
+     *
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out, Function<? super V, String> vertexEncoder) throws IOException {
+        Objects.requireNonNull(vertexEncoder);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Objects.requireNonNull(out)));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(vertices.size());
+        for (int v = 0; v < vertices.size(); v++) {
+            byte[] encoded = vertexEncoder.apply(vertices.vertexAt(v)).getBytes(StandardCharsets.UTF_8);
+            data.writeInt(encoded.length);
+            data.write(encoded);
+        }
+        data.writeInt(preorder.length);
+        data.writeInt(dimensions);
+        data.writeInt(successors.length);
+        for (int[] array : List.of(components, offsets, successors, intervals, preorder, lastDescendant)) {
+            writeInts(data, array);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads an index {@link #writeTo written} before. The index is rebuilt with the default options, but for its
+     * number of intervals.
+     *
+     * @param in the stream to read from, which is not closed
+     * @param vertexDecoder decodes vertices from strings
+     * @param <V> the type used for vertices
+     *
+     * @return the index
+     *
+     * @throws IOException if the stream cannot be read, or does not hold an index
+     */
+    public static <V> ReachabilityIndex<V> readFrom(InputStream in, Function<String, ? extends V> vertexDecoder)
+            throws IOException {
+        Objects.requireNonNull(vertexDecoder);
+        DataInputStream data = new DataInputStream(new BufferedInputStream(Objects.requireNonNull(in)));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a reachability index");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported reachability index version " + version);
+        }
+        int n = nonNegative(data.readInt());
+        List<V> vertices = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            byte[] encoded = new byte[nonNegative(data.readInt())];
+            data.readFully(encoded);
+            vertices.add(vertexDecoder.apply(new String(encoded, StandardCharsets.UTF_8)));
+        }
+        int count = nonNegative(data.readInt()), dimensions = data.readInt(), edges = nonNegative(data.readInt());
+        if (dimensions < 1 || (long) count * dimensions * 2 > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt reachability index");
+        }
+        int[] components = readInts(data, n), offsets = readInts(data, count + 1), successors = readInts(data, edges);
+        int[] intervals = readInts(data, count * dimensions * 2), preorder = readInts(data, count);
+        int[] last = readInts(data, count);
+        return new ReachabilityIndex<>(VertexIndex.of(vertices), components, offsets, successors, dimensions,
+                                       intervals, preorder, last,
+                                       ReachabilityOptions.builder().dimensions(dimensions).build());
+    }
+
+    private static int nonNegative(int size) throws IOException {
+        if (size < 0) {
+            throw new IOException("Corrupt reachability index");
+        }
+        return size;
+    }
+
+    private static void writeInts(DataOutputStream data, int[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        for (int value : values) {
+            if (!buffer.hasRemaining()) {
+                data.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putInt(value);
+        }
+        data.write(buffer.array(), 0, buffer.position());
+    }
+
+    private static int[] readInts(DataInputStream data, int length) throws IOException {
+        int[] values = new int[length];
+        byte[] bytes = new byte[8192];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < length; ) {
+            int chunk = Math.min(bytes.length / Integer.BYTES, length - i);
+            data.readFully(bytes, 0, chunk * Integer.BYTES);
+            buffer.clear();
+            for (int j = 0; j < chunk; j++) {
+                values[i++] = buffer.getInt();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The state of the depth-first searches of one thread, reused from query to query
+     */
+    private final class Search {
+        /**
+         * The search in which each component was last visited
+         */
+        private final int[] visits;
+
+        /**
+         * The components to visit
+         */
+        private int[] stack = new int[16];
+
+        /**
+         * The number of the current search, never 0
+         */
+        private int search;
+
+        private Search(int count) {
+            this.visits = new int[count];
+        }
+
+        /**
+         * Searches depth-first from one component for another, skipping components the tests prove cannot reach it,
+         * and stopping at any component the tree proves can.
+         */
+        private boolean search(int from, int to) {
+            if (++search == 0) {
+                Arrays.fill(visits, 0);
+                search = 1;
+            }
+            int depth = 0;
+            stack[depth++] = from;
+            visits[from] = search;
+            while (depth > 0) {
+                int c = stack[--depth];
+                for (int p = offsets[c]; p < offsets[c + 1]; p++) {
+                    int w = successors[p];
+                    if (w == to || descends(w, to)) {
+                        return true;
+                    }
+                    if (visits[w] != search && !excluded(w, to)) {
+                        visits[w] = search;
+                        if (depth == stack.length) {
+                            stack = Arrays.copyOf(stack, depth * 2);
+                        }
+                        stack[depth++] = w;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
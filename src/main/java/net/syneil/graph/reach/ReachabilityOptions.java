@@ -0,0 +1,60 @@
+package net.syneil.graph.reach;
+
+import lombok.Builder;
+import lombok.ToString;
+
+/**
+ * The configuration of the building of a {@link ReachabilityIndex}. Any option not set takes its default.
+ */
+@Builder
+@ToString
+public final class ReachabilityOptions {
+    /**
+     * The default number of interval labels of each component
+     */
+    public static final int DEFAULT_DIMENSIONS = 4;
+
+    /**
+     * The number of threads building the index
+     */
+    private final Integer parallelism;
+
+    /**
+     * The number of interval labels of each component, each from its own randomised traversal: more labels answer
+     * more queries without a search, at the cost of memory and building time
+     */
+    private final Integer dimensions;
+
+    /**
+     * The seed of the randomised traversals
+     */
+    private final Long seed;
+
+    /**
+     * @return the options with every default
+     */
+    public static ReachabilityOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return the number of threads building the index; the number of available processors by default
+     */
+    public int getParallelism() {
+        return parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * @return the number of interval labels of each component
+     */
+    public int getDimensions() {
+        return dimensions == null ? DEFAULT_DIMENSIONS : dimensions;
+    }
+
+    /**
+     * @return the seed of the randomised traversals; 0 by default
+     */
+    public long getSeed() {
+        return seed == null ? 0L : seed;
+    }
+}
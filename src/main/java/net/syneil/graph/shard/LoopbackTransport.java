@@ -0,0 +1,98 @@
+package net.syneil.graph.shard;
+
+import net.syneil.graph.Edge;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A transport to shards held in the same process. Each request's vertices are copied before they are delivered, as
+ * they would be by serialisation, and requests are answered either on the calling thread or on an executor, which lets
+ * the concurrency of a remote deployment be exercised on one machine.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class LoopbackTransport<V, E extends Edge<V>> implements ShardTransport<V, E> {
+    /**
+     * The shards
+     */
+    private final List<Shard<V, E>> shards;
+
+    /**
+     * The executor answering requests, or null to answer them on the calling thread
+     */
+    private final Executor executor;
+
+    /**
+     * Creates a transport answering requests on the calling thread.
+     *
+     * @param shards the shards, in order
+     */
+    public LoopbackTransport(List<Shard<V, E>> shards) {
+        this.shards = List.copyOf(shards);
+        this.executor = null;
+    }
+
+    /**
+     * Creates a transport answering requests on an executor.
+     *
+     * @param shards the shards, in order
+     * @param executor the executor
+     */
+    public LoopbackTransport(List<Shard<V, E>> shards, Executor executor) {
+        this.shards = List.copyOf(shards);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    private <T> CompletableFuture<T> answer(Supplier<T> answer) {
+        if (executor == null) {
+            try {
+                return CompletableFuture.completedFuture(answer.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(answer, executor);
+    }
+
+    @Override
+    public int shardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public CompletableFuture<Map<V, List<E>>> getEdges(int shard, Collection<V> sources) {
+        List<V> request = new ArrayList<>(sources);
+        return answer(() -> shards.get(shard).getEdges(request));
+    }
+
+    @Override
+    public CompletableFuture<Set<V>> hasVertices(int shard, Collection<V> vertices) {
+        List<V> request = new ArrayList<>(vertices);
+        return answer(() -> shards.get(shard).hasVertices(request));
+    }
+
+    @Override
+    public CompletableFuture<Long> numberOfVertices(int shard) {
+        return answer(() -> shards.get(shard).numberOfVertices());
+    }
+
+    @Override
+    public CompletableFuture<Long> numberOfEdges(int shard) {
+        return answer(() -> shards.get(shard).numberOfEdges());
+    }
+
+    @Override
+    public Stream<V> vertices(int shard) {
+        return shards.get(shard).vertices();
+    }
+
+    @Override
+    public Stream<E> edges(int shard) {
+        return shards.get(shard).edges();
+    }
+}
@@ -0,0 +1,134 @@
+package net.syneil.graph.shard;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * One shard of a {@link ShardedGraph}: the vertices assigned to it and their edges. In a directed graph a shard holds
+ * the edges from its vertices; in an undirected graph it holds every edge touching its vertices, so an edge between
+ * two shards is held by both. Each edge is nevertheless {@link #edges() streamed} by only one shard, that of its
+ * source.
+ * <p>
+ * This is the server side of a {@link ShardTransport}: a transport delivers requests to a shard, wherever it lives,
+ * and returns the answers.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class Shard<V, E extends Edge<V>> {
+    /**
+     * The edges held for each vertex of this shard
+     */
+    private final Map<V, List<E>> adjacency;
+
+    /**
+     * The edges streamed by this shard
+     */
+    private final List<E> ownEdges;
+
+    private Shard(Map<V, List<E>> adjacency, List<E> ownEdges) {
+        this.adjacency = adjacency;
+        this.ownEdges = ownEdges;
+    }
+
+    /**
+     * Splits a graph into shards.
+     *
+     * @param graph the graph to split
+     * @param router the shard of each vertex, in {@code [0, shardCount)}
+     * @param shardCount the number of shards
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the shards, in order
+     *
+     * @throws IndexOutOfBoundsException if the router assigns a vertex to a shard that does not exist
+     */
+    public static <V, E extends Edge<V>> List<Shard<V, E>> split(Graph<V, ? extends E> graph,
+                                                                ToIntFunction<? super V> router,
+                                                                int shardCount) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(router);
+        List<Map<V, List<E>>> adjacencies = IntStream.range(0, shardCount)
+                                                      .mapToObj(shard -> new HashMap<V, List<E>>())
+                                                      .collect(Collectors.toList());
+        List<List<E>> ownEdges = IntStream.range(0, shardCount)
+                                          .mapToObj(shard -> new ArrayList<E>())
+                                          .collect(Collectors.toList());
+        graph.vertices().forEach(vertex -> adjacencies.get(router.applyAsInt(vertex)).put(vertex, new ArrayList<>()));
+        boolean undirected = graph.getProperties().getOrientation().orElse(DIRECTED) == UNDIRECTED;
+        graph.edges().forEach(edge -> {
+            int shard = router.applyAsInt(edge.getSource());
+            adjacencies.get(shard).get(edge.getSource()).add(edge);
+            ownEdges.get(shard).add(edge);
+            if (undirected && !edge.isSelfEdge()) {
+                adjacencies.get(router.applyAsInt(edge.getTarget())).get(edge.getTarget()).add(edge);
+            }
+        });
+        return IntStream.range(0, shardCount)
+                        .mapToObj(shard -> new Shard<>(adjacencies.get(shard), ownEdges.get(shard)))
+                        .collect(Collectors.toList());
+    }
+
+    /**
+     * @param sources vertices of this shard
+     *
+     * @return the edges held for each of the vertices that is in this shard
+     */
+    public Map<V, List<E>> getEdges(Collection<? extends V> sources) {
+        Map<V, List<E>> edges = new HashMap<>();
+        for (V source : sources) {
+            List<E> held = adjacency.get(source);
+            if (held != null) {
+                edges.put(source, Collections.unmodifiableList(held));
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * @param vertices some vertices
+     *
+     * @return those of the vertices that are in this shard
+     */
+    public Set<V> hasVertices(Collection<? extends V> vertices) {
+        return vertices.stream().filter(adjacency::containsKey).collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the number of vertices in this shard
+     */
+    public long numberOfVertices() {
+        return adjacency.size();
+    }
+
+    /**
+     * @return the number of edges streamed by this shard
+     */
+    public long numberOfEdges() {
+        return ownEdges.size();
+    }
+
+    /**
+     * @return the vertices of this shard
+     */
+    public Stream<V> vertices() {
+        return adjacency.keySet().stream();
+    }
+
+    /**
+     * @return the edges whose source is in this shard
+     */
+    public Stream<E> edges() {
+        return ownEdges.stream();
+    }
+}
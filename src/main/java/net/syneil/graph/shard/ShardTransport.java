@@ -0,0 +1,75 @@
+package net.syneil.graph.shard;
+
+import net.syneil.graph.Edge;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * The means by which a {@link ShardedGraph} reaches its {@link Shard shards}, whether they are in the same process or
+ * across a network. Lookups are made in batches, one request per shard, and answered asynchronously so that requests
+ * to different shards can be in flight at once. Implementations must be safe for use by several threads.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ *
+ * @see LoopbackTransport
+ */
+public interface ShardTransport<V, E extends Edge<V>> {
+    /**
+     * @return the number of shards, numbered {@code [0, shardCount)}
+     */
+    int shardCount();
+
+    /**
+     * @param shard a shard
+     * @param sources vertices of the shard
+     *
+     * @return the edges of each of the vertices found in the shard
+     *
+     * @see Shard#getEdges(Collection)
+     */
+    CompletableFuture<Map<V, List<E>>> getEdges(int shard, Collection<V> sources);
+
+    /**
+     * @param shard a shard
+     * @param vertices some vertices
+     *
+     * @return those of the vertices found in the shard
+     */
+    CompletableFuture<Set<V>> hasVertices(int shard, Collection<V> vertices);
+
+    /**
+     * @param shard a shard
+     *
+     * @return the number of vertices in the shard
+     */
+    CompletableFuture<Long> numberOfVertices(int shard);
+
+    /**
+     * @param shard a shard
+     *
+     * @return the number of edges streamed by the shard
+     */
+    CompletableFuture<Long> numberOfEdges(int shard);
+
+    /**
+     * @param shard a shard
+     *
+     * @return the vertices of the shard
+     */
+    Stream<V> vertices(int shard);
+
+    /**
+     * @param shard a shard
+     *
+     * @return the edges streamed by the shard
+     *
+     * @see Shard#edges()
+     */
+    Stream<E> edges(int shard);
+}
@@ -0,0 +1,218 @@
+package net.syneil.graph.shard;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.partition.Partition;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * A read-only graph whose vertices and edges are spread over {@link Shard shards}, reached through a {@link
+ * ShardTransport}. Lookups about a vertex are routed to the shard holding it; the batch forms of {@link
+ * #getEdges(Collection)} and {@link #neighbours(Collection)} group their vertices by shard and send one request to each
+ * shard, all in flight at once, so that a traversal can expand a whole frontier in one round trip.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public class ShardedGraph<V, E extends Edge<V>> implements Graph<V, E> {
+    /**
+     * The transport to the shards
+     */
+    private final ShardTransport<V, E> transport;
+
+    /**
+     * The shard of each vertex, or a negative number for vertices known to be in no shard
+     */
+    private final ToIntFunction<? super V> router;
+
+    /**
+     * The properties of this graph
+     */
+    private final GraphProperties properties;
+
+    /**
+     * Finds the vertex reached by traversing an edge from a vertex it is held for, if it can be traversed from there;
+     * defined at construct-time for optimisation
+     */
+    private final BiFunction<E, V, Optional<V>> traversal;
+
+    /**
+     * @param transport the transport to the shards
+     * @param router the shard of each vertex, or a negative number for vertices known to be in no shard
+     * @param properties the properties of the sharded graph
+     */
+    public ShardedGraph(ShardTransport<V, E> transport, ToIntFunction<? super V> router, GraphProperties properties) {
+        this.transport = Objects.requireNonNull(transport);
+        this.router = Objects.requireNonNull(router);
+        this.properties = Objects.requireNonNull(properties);
+        this.traversal = properties.getOrientation().orElse(DIRECTED) == UNDIRECTED
+                ? (edge, from) -> edge.other(from)
+                : (edge, from) -> edge.getSource().equals(from) ? Optional.of(edge.getTarget()) : Optional.empty();
+    }
+
+    /**
+     * Splits a graph into in-process shards according to a partition of its vertices, one shard per part.
+     *
+     * @param graph the graph to split
+     * @param partition a partition of the graph's vertices
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the sharded graph, reached through a {@link LoopbackTransport}
+     */
+    public static <V, E extends Edge<V>> ShardedGraph<V, E> of(Graph<V, ? extends E> graph, Partition<V> partition) {
+        Objects.requireNonNull(partition);
+        List<Shard<V, E>> shards = Shard.split(graph, partition::partOf, partition.getPartCount());
+        return new ShardedGraph<>(new LoopbackTransport<>(shards), partition::partOf, graph.getProperties());
+    }
+
+    /**
+     * Finds the edges of many vertices, with one request to each shard involved.
+     *
+     * @param sources the vertices
+     *
+     * @return the edges of each vertex in this graph
+     */
+    public Map<V, List<E>> getEdges(Collection<? extends V> sources) {
+        Objects.requireNonNull(sources);
+        Map<Integer, List<V>> byShard = new HashMap<>();
+        for (V source : sources) {
+            int shard = router.applyAsInt(Objects.requireNonNull(source));
+            if (shard >= 0) {
+                byShard.computeIfAbsent(shard, $ -> new ArrayList<>()).add(source);
+            }
+        }
+        List<CompletableFuture<Map<V, List<E>>>> replies = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, batch) -> replies.add(transport.getEdges(shard, batch)));
+        Map<V, List<E>> edges = new HashMap<>();
+        replies.forEach(reply -> edges.putAll(await(reply)));
+        return edges;
+    }
+
+    /**
+     * Finds the neighbours of many vertices, with one request to each shard involved.
+     *
+     * @param vertices the vertices
+     *
+     * @return the neighbours of each vertex in this graph
+     */
+    public Map<V, Set<V>> neighbours(Collection<? extends V> vertices) {
+        Map<V, Set<V>> neighbours = new HashMap<>();
+        getEdges(vertices).forEach((vertex, edges) -> neighbours.put(vertex, neighbours(vertex, edges)));
+        return neighbours;
+    }
+
+    private Set<V> neighbours(V vertex, List<E> edges) {
+        return edges.stream()
+                    .map(edge -> traversal.apply(edge, vertex))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .collect(Collectors.toSet());
+    }
+
+    private static <T> T await(CompletableFuture<T> reply) {
+        try {
+            return reply.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int shardCount() {
+        return transport.shardCount();
+    }
+
+    @Override
+    public long numberOfVertices() {
+        return sumOverShards(transport::numberOfVertices);
+    }
+
+    @Override
+    public long numberOfEdges() {
+        return sumOverShards(transport::numberOfEdges);
+    }
+
+    private long sumOverShards(IntFunction<CompletableFuture<Long>> request) {
+        // send every request before awaiting any
+        return IntStream.range(0, transport.shardCount())
+                        .mapToObj(request)
+                        .collect(Collectors.toList())
+                        .stream()
+                        .mapToLong(reply -> await(reply))
+                        .sum();
+    }
+
+    @Override
+    public Stream<? extends E> edges() {
+        return IntStream.range(0, transport.shardCount()).boxed().flatMap(transport::edges);
+    }
+
+    @Override
+    public Stream<? extends V> vertices() {
+        return IntStream.range(0, transport.shardCount()).boxed().flatMap(transport::vertices);
+    }
+
+    @Override
+    public boolean hasVertex(V vertex) {
+        Objects.requireNonNull(vertex);
+        int shard = router.applyAsInt(vertex);
+        return shard >= 0 && await(transport.hasVertices(shard, List.of(vertex))).contains(vertex);
+    }
+
+    @Override
+    public boolean hasEdge(V source, V target) {
+        return !getEdges(source, target).isEmpty();
+    }
+
+    @Override
+    public Set<? extends V> neighbours(V v) {
+        Objects.requireNonNull(v);
+        return neighbours(v, getEdges(List.of(v)).getOrDefault(v, List.of()));
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        return getEdges(List.of(source)).getOrDefault(source, List.of())
+                                         .stream()
+                                         .filter(edge -> traversal.apply(edge, source)
+                                                                  .filter(target::equals)
+                                                                  .isPresent())
+                                         .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source) {
+        Objects.requireNonNull(source);
+        return getEdges(List.of(source)).getOrDefault(source, List.of());
+    }
+
+    @Override
+    public GraphProperties getProperties() {
+        return properties;
+    }
+}
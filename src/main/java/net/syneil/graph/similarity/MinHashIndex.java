@@ -0,0 +1,342 @@
+package net.syneil.graph.similarity;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.internal.Tasks;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.internal.Hashing.mix;
+
+/**
+ * Estimates the Jaccard similarity of the neighbourhoods of vertices, for graphs too large to compare every pair within
+ * two hops exactly. Each vertex with any neighbours has a MinHash signature: the least hash of its neighbours under
+ * each of {@code bands × rows} hash functions, so that the fraction of two signatures that agree estimates the Jaccard
+ * similarity of the two neighbourhoods. The signatures are cut into bands, and the vertices whose signatures agree
+ * across a whole band share a bucket (locality-sensitive hashing); the candidates for the vertices most similar to a
+ * vertex are those sharing any bucket with it, so that pairs much less similar than {@code (1 / bands)^(1 / rows)} are
+ * rarely compared at all.
+ * <p>
+ * The signatures are computed in parallel, and each band's buckets held as one sorted primitive array searched by
+ * bisection. Vertices without neighbours have no signature, and are similar to none.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class MinHashIndex<V, E extends Edge<V>> {
+    /**
+     * The graph indexed
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The options the index was built with
+     */
+    private final MinHashOptions options;
+
+    /**
+     * The number of hashes in each signature
+     */
+    private final int hashes;
+
+    /**
+     * Whether each vertex has any neighbours, and so a signature
+     */
+    private final boolean[] signed;
+
+    /**
+     * The signature of each vertex, {@link #hashes} at a time by index
+     */
+    private final int[] signatures;
+
+    /**
+     * For each band, the bucket key of each vertex with a signature in the upper half of each element and its index in
+     * the lower, in ascending order
+     */
+    private final long[][] buckets;
+
+    /**
+     * The candidates of each thread's queries, reused from query to query
+     */
+    private final ThreadLocal<Candidates> candidates;
+
+    private MinHashIndex(CompactGraph<V, E> graph, MinHashOptions options) {
+        this.graph = graph;
+        this.options = options;
+        this.hashes = options.getBands() * options.getRows();
+        int n = graph.index().size();
+        SortedAdjacency adjacency = SortedAdjacency.of(graph);
+        this.signed = new boolean[n];
+        this.signatures = new int[n * hashes];
+        long[] multipliers = new long[hashes], addends = new long[hashes];
+        SplittableRandom random = new SplittableRandom(options.getSeed());
+        for (int i = 0; i < hashes; i++) {
+            multipliers[i] = random.nextLong() | 1L;
+            addends[i] = random.nextLong();
+        }
+        long salt = mix(options.getSeed());
+        IntStream.range(0, n).parallel().forEach(v -> {
+            int start = v * hashes;
+            Arrays.fill(signatures, start, start + hashes, Integer.MAX_VALUE);
+            signed[v] = adjacency.degree(v) > 0;
+            for (int p = adjacency.offsets[v]; p < adjacency.offsets[v + 1]; p++) {
+                // one strong hash of each neighbour, spread over the signature by multiply-shift hashing
+                long hash = mix(salt + adjacency.neighbours[p]);
+                for (int i = 0; i < hashes; i++) {
+                    int h = (int) ((multipliers[i] * hash + addends[i]) >>> 32);
+                    if (h < signatures[start + i]) {
+                        signatures[start + i] = h;
+                    }
+                }
+            }
+        });
+        int[] indexed = IntStream.range(0, n).filter(v -> signed[v]).toArray();
+        this.buckets = new long[options.getBands()][];
+        IntStream.range(0, options.getBands()).parallel().forEach(b -> {
+            long[] bucket = new long[indexed.length];
+            for (int i = 0; i < indexed.length; i++) {
+                bucket[i] = (long) keyOf(indexed[i], b) << 32 | indexed[i];
+            }
+            Arrays.sort(bucket);
+            buckets[b] = bucket;
+        });
+        this.candidates = ThreadLocal.withInitial(() -> new Candidates(n));
+    }
+
+    /**
+     * Builds an index with the default options.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the index
+     */
+    public static <V, E extends Edge<V>> MinHashIndex<V, E> of(Graph<V, ? extends E> graph) {
+        return of(graph, MinHashOptions.defaults());
+    }
+
+    /**
+     * Builds an index.
+     *
+     * @param graph the graph, copied into compact form if it is not already
+     * @param options the number of bands and rows, the parallelism and the seed
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the index
+     *
+     * @throws IllegalArgumentException if any option is invalid, or the signatures of every vertex are too many to
+     * hold in an array
+     */
+    public static <V, E extends Edge<V>> MinHashIndex<V, E> of(Graph<V, ? extends E> graph, MinHashOptions options) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(options);
+        if (options.getParallelism() < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        if (options.getBands() < 1 || options.getRows() < 1) {
+            throw new IllegalArgumentException("Bands and rows must be positive");
+        }
+        if (options.getMaxBucketSize() < 1) {
+            throw new IllegalArgumentException("Maximum bucket size must be positive");
+        }
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        long entries = (long) compact.index().size() * options.getBands() * options.getRows();
+        if (entries > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many vertices for signatures of " + options.getBands() + " × "
+                                                       + options.getRows() + " hashes");
+        }
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            return Tasks.run(pool, () -> new MinHashIndex<>(compact, options), "hashing neighbourhoods");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the graph indexed
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of the neighbourhoods of two vertices from their signatures.
+     *
+     * @param a a vertex
+     * @param b another vertex
+     *
+     * @return the estimated similarity, or 0 if either vertex is not in the graph or has no neighbours
+     */
+    public double estimate(V a, V b) {
+        int i = graph.indexOf(Objects.requireNonNull(a)), j = graph.indexOf(Objects.requireNonNull(b));
+        return i < 0 || j < 0 ? 0.0 : estimate(i, j);
+    }
+
+    private double estimate(int a, int b) {
+        if (!signed[a] || !signed[b]) {
+            return 0.0;
+        }
+        int agree = 0;
+        for (int i = 0, p = a * hashes, q = b * hashes; i < hashes; i++) {
+            if (signatures[p + i] == signatures[q + i]) {
+                agree++;
+            }
+        }
+        return (double) agree / hashes;
+    }
+
+    /**
+     * Finds the vertices whose neighbourhoods are most similar to a vertex's, among those sharing any bucket with it.
+     *
+     * @param vertex a vertex
+     * @param k the greatest number of vertices to find
+     *
+     * @return up to k other vertices, scored by their estimated Jaccard similarity, most similar first; none if the
+     * vertex is not in the graph or has no neighbours
+     */
+    public List<ScoredVertex<V>> mostSimilar(V vertex, int k) {
+        checkCount(k);
+        int v = graph.indexOf(Objects.requireNonNull(vertex));
+        return v < 0 ? List.of() : mostSimilar(v, k);
+    }
+
+    /**
+     * Finds, in parallel, the vertices most similar to every vertex with any neighbours, as {@link #mostSimilar(Object,
+     * int)} does for one.
+     *
+     * @param k the greatest number of vertices to find for each
+     *
+     * @return up to k other vertices for each vertex with any neighbours, in order of index
+     */
+    public Map<V, List<ScoredVertex<V>>> mostSimilar(int k) {
+        checkCount(k);
+        int n = graph.index().size();
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        List<?>[] found;
+        try {
+            found = Tasks.run(pool, () -> {
+                List<?>[] lists = new List<?>[n];
+                IntStream.range(0, n).parallel().filter(v -> signed[v]).forEach(v -> lists[v] = mostSimilar(v, k));
+                return lists;
+            }, "hashing neighbourhoods");
+        } finally {
+            pool.shutdownNow();
+        }
+        Map<V, List<ScoredVertex<V>>> similar = new LinkedHashMap<>();
+        for (int v = 0; v < n; v++) {
+            if (found[v] != null) {
+                @SuppressWarnings("unchecked")
+                List<ScoredVertex<V>> list = (List<ScoredVertex<V>>) found[v];
+                similar.put(graph.vertexAt(v), list);
+            }
+        }
+        return similar;
+    }
+
+    private List<ScoredVertex<V>> mostSimilar(int v, int k) {
+        if (!signed[v] || k == 0) {
+            return List.of();
+        }
+        Candidates found = candidates.get();
+        found.reset();
+        for (int b = 0; b < buckets.length; b++) {
+            long[] bucket = buckets[b];
+            int key = keyOf(v, b);
+            // the first entry of the bucket, or where it would be
+            int p = Arrays.binarySearch(bucket, (long) key << 32);
+            p = p < 0 ? -p - 1 : p;
+            for (int end = Math.min(bucket.length, p + options.getMaxBucketSize());
+                 p < end && (int) (bucket[p] >> 32) == key; p++) {
+                int u = (int) bucket[p];
+                if (u != v) {
+                    found.add(u);
+                }
+            }
+        }
+        PriorityQueue<ScoredVertex<V>> best = new PriorityQueue<>(k + 1, ScoredVertex.BEST_FIRST.reversed());
+        for (int i = 0; i < found.size; i++) {
+            int u = found.touched[i];
+            double score = estimate(v, u);
+            if (best.size() == k && score < best.peek().getScore()) {
+                continue;
+            }
+            best.add(new ScoredVertex<>(graph.vertexAt(u), u, score));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+        List<ScoredVertex<V>> similar = new ArrayList<>(best);
+        similar.sort(ScoredVertex.BEST_FIRST);
+        return similar;
+    }
+
+    /**
+     * @return the key of a vertex's bucket in a band: a hash of the band of its signature
+     */
+    private int keyOf(int vertex, int band) {
+        long key = band;
+        for (int i = vertex * hashes + band * options.getRows(), end = i + options.getRows(); i < end; i++) {
+            key = mix(key ^ (signatures[i] & 0xffffffffL));
+        }
+        return (int) (key >>> 32);
+    }
+
+    private static void checkCount(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Cannot find a negative number of vertices");
+        }
+    }
+
+    /**
+     * The distinct candidates of one query, in arrays reused from query to query by one thread
+     */
+    private static final class Candidates {
+        /**
+         * The query in which each vertex was last found
+         */
+        private final int[] stamps;
+
+        /**
+         * The vertices found, in the order first found
+         */
+        private int[] touched = new int[16];
+
+        /**
+         * The number of vertices found
+         */
+        private int size;
+
+        /**
+         * The number of the current query, never 0
+         */
+        private int stamp;
+
+        private Candidates(int n) {
+            this.stamps = new int[n];
+        }
+
+        private void reset() {
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            size = 0;
+        }
+
+        private void add(int u) {
+            if (stamps[u] != stamp) {
+                stamps[u] = stamp;
+                if (size == touched.length) {
+                    touched = Arrays.copyOf(touched, size * 2);
+                }
+                touched[size++] = u;
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package net.syneil.graph.similarity;
+
+import lombok.Builder;
+import lombok.ToString;
+
+/**
+ * The configuration of a {@link MinHashIndex}. Any option not set takes its default.
+ */
+@Builder
+@ToString
+public final class MinHashOptions {
+    /**
+     * The default number of bands of each signature
+     */
+    public static final int DEFAULT_BANDS = 32;
+
+    /**
+     * The default number of hashes in each band
+     */
+    public static final int DEFAULT_ROWS = 4;
+
+    /**
+     * The default greatest number of vertices taken as candidates from any one bucket
+     */
+    public static final int DEFAULT_MAX_BUCKET_SIZE = 256;
+
+    /**
+     * The number of threads building the index and finding similar vertices
+     */
+    private final Integer parallelism;
+
+    /**
+     * The number of bands of each signature: more bands find less similar pairs, at the cost of more candidates
+     */
+    private final Integer bands;
+
+    /**
+     * The number of hashes in each band: more rows make each band's buckets more selective
+     */
+    private final Integer rows;
+
+    /**
+     * The greatest number of vertices taken as candidates from any one bucket, bounding the cost of buckets of many
+     * barely similar vertices
+     */
+    private final Integer maxBucketSize;
+
+    /**
+     * The seed of the hash functions
+     */
+    private final Long seed;
+
+    /**
+     * @return the options with every default
+     */
+    public static MinHashOptions defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @return the number of threads; the number of available processors by default
+     */
+    public int getParallelism() {
+        return parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+    }
+
+    /**
+     * @return the number of bands of each signature
+     */
+    public int getBands() {
+        return bands == null ? DEFAULT_BANDS : bands;
+    }
+
+    /**
+     * @return the number of hashes in each band
+     */
+    public int getRows() {
+        return rows == null ? DEFAULT_ROWS : rows;
+    }
+
+    /**
+     * @return the greatest number of vertices taken as candidates from any one bucket
+     */
+    public int getMaxBucketSize() {
+        return maxBucketSize == null ? DEFAULT_MAX_BUCKET_SIZE : maxBucketSize;
+    }
+
+    /**
+     * @return the seed of the hash functions; 0 by default
+     */
+    public long getSeed() {
+        return seed == null ? 0L : seed;
+    }
+}
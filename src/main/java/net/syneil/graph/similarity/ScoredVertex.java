@@ -0,0 +1,44 @@
+package net.syneil.graph.similarity;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Comparator;
+
+/**
+ * A vertex with its similarity to another
+ *
+ * @param <V> the type used for vertices
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class ScoredVertex<V> {
+    /**
+     * Orders by descending score, then ascending index
+     */
+    static final Comparator<ScoredVertex<?>> BEST_FIRST = Comparator.<ScoredVertex<?>>comparingDouble(
+            ScoredVertex::getScore).reversed().thenComparingInt(ScoredVertex::getIndex);
+
+    /**
+     * The vertex
+     */
+    private final V vertex;
+
+    /**
+     * The index of the vertex in the graph compared
+     */
+    private final int index;
+
+    /**
+     * The similarity
+     */
+    private final double score;
+
+    ScoredVertex(V vertex, int index, double score) {
+        this.vertex = vertex;
+        this.index = index;
+        this.score = score;
+    }
+}
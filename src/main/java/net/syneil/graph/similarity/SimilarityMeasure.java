@@ -0,0 +1,43 @@
+package net.syneil.graph.similarity;
+
+/**
+ * A measure of the similarity of two vertices by the neighbours they have in common.
+ */
+public enum SimilarityMeasure {
+    /**
+     * The number of neighbours in common
+     */
+    COMMON_NEIGHBOURS,
+
+    /**
+     * The number of neighbours in common over the number of neighbours of either: 1 for vertices with the same
+     * neighbours, 0 for vertices with none in common
+     */
+    JACCARD,
+
+    /**
+     * Adamic and Adar's measure: the sum over the neighbours in common of the reciprocal of the logarithm of their
+     * degree, so that rarer neighbours count for more
+     */
+    ADAMIC_ADAR;
+
+    /**
+     * @param common the number of neighbours in common
+     * @param adamicAdar the Adamic–Adar sum over the neighbours in common
+     * @param degreeA the number of neighbours of one vertex
+     * @param degreeB the number of neighbours of the other
+     *
+     * @return the similarity
+     */
+    double score(int common, double adamicAdar, int degreeA, int degreeB) {
+        switch (this) {
+            case COMMON_NEIGHBOURS:
+                return common;
+            case JACCARD:
+                return common == 0 ? 0.0 : (double) common / (degreeA + degreeB - common);
+            case ADAMIC_ADAR:
+                return adamicAdar;
+        }
+        throw new Error();
+    }
+}
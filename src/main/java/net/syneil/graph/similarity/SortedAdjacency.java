@@ -0,0 +1,85 @@
+package net.syneil.graph.similarity;
+
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.internal.SparseRows;
+
+import java.util.stream.IntStream;
+
+/**
+ * The neighbourhoods of the vertices of a compact graph in compressed sparse row form: each vertex's neighbours, along
+ * its edges as {@link net.syneil.graph.Graph#neighbours} gives them, once each however many edges join them, in
+ * ascending order and without the vertex itself.
+ */
+final class SortedAdjacency {
+    /**
+     * The first position of each vertex's neighbours, plus the end of the last vertex's
+     */
+    final int[] offsets;
+
+    /**
+     * The neighbour at each position, in ascending order within each vertex's range
+     */
+    final int[] neighbours;
+
+    private SortedAdjacency(int[] offsets, int[] neighbours) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    static SortedAdjacency of(CompactGraph<?, ?> graph) {
+        int n = graph.index().size();
+        int[] counts = new int[n + 1];
+        IntStream.range(0, n).parallel().forEach(v -> counts[v + 1] = graph.degree(v));
+        for (int v = 0; v < n; v++) {
+            counts[v + 1] += counts[v];
+        }
+        int[] all = new int[counts[n]], sizes = new int[n];
+        // the targets of a compact graph's positions are already in ascending order within each vertex
+        IntStream.range(0, n).parallel().forEach(v -> {
+            int size = counts[v];
+            for (int p = graph.offset(v); p < graph.offset(v + 1); p++) {
+                int w = graph.target(p);
+                if (w != v && (size == counts[v] || all[size - 1] != w)) {
+                    all[size++] = w;
+                }
+            }
+            sizes[v] = size - counts[v];
+        });
+        return compacted(counts, all, sizes);
+    }
+
+    private static SortedAdjacency compacted(int[] counts, int[] all, int[] sizes) {
+        int n = sizes.length;
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + sizes[v];
+        }
+        int[] neighbours = new int[offsets[n]];
+        IntStream.range(0, n).parallel()
+                 .forEach(v -> System.arraycopy(all, counts[v], neighbours, offsets[v], sizes[v]));
+        return new SortedAdjacency(offsets, neighbours);
+    }
+
+    /**
+     * @return the adjacency with every neighbourhood reversed: each vertex's neighbours are the vertices it is a
+     * neighbour of
+     */
+    SortedAdjacency transpose() {
+        SparseRows transposed = SparseRows.transpose(size(), v -> offsets[v], p -> neighbours[p]);
+        return new SortedAdjacency(transposed.offsets, transposed.columns);
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the number of neighbours of a vertex
+     */
+    int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+}
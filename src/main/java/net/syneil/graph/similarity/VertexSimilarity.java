@@ -0,0 +1,249 @@
+package net.syneil.graph.similarity;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.*;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * Scores the similarity of vertices exactly, by the neighbours they have in common. A pair is scored by merging the
+ * two sorted neighbourhoods; the vertices most similar to a vertex are found among those within two hops of it, the
+ * only ones with any neighbour in common, by counting common neighbours as the two hops are walked, without comparing
+ * any pair of neighbourhoods. In a directed graph, neighbours are those along edges from each vertex, as {@link
+ * Graph#neighbours} gives them, and two vertices have a neighbour in common if both have edges to it.
+ * <p>
+ * The neighbourhoods are copied once, so this suits many queries of a graph that does not change; queries may be made
+ * from many threads at once.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class VertexSimilarity<V, E extends Edge<V>> {
+    /**
+     * The graph compared
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The neighbours of each vertex
+     */
+    private final SortedAdjacency adjacency;
+
+    /**
+     * The vertices each vertex is a neighbour of
+     */
+    private final SortedAdjacency sharers;
+
+    /**
+     * The counts of the common neighbours of each thread's queries, reused from query to query
+     */
+    private final ThreadLocal<Accumulator> accumulators;
+
+    private VertexSimilarity(CompactGraph<V, E> graph) {
+        this.graph = graph;
+        this.adjacency = SortedAdjacency.of(graph);
+        this.sharers = graph.getProperties().getOrientation().orElse(null) == UNDIRECTED
+                ? adjacency
+                : adjacency.transpose();
+        this.accumulators = ThreadLocal.withInitial(() -> new Accumulator(adjacency.size()));
+    }
+
+    /**
+     * @param graph the graph, copied into compact form if it is not already
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the similarities of the graph's vertices
+     */
+    public static <V, E extends Edge<V>> VertexSimilarity<V, E> of(Graph<V, ? extends E> graph) {
+        return new VertexSimilarity<>(CompactGraph.copyOf(graph));
+    }
+
+    /**
+     * @return the graph compared
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Scores the similarity of two vertices.
+     *
+     * @param a a vertex
+     * @param b another vertex
+     * @param measure the measure of similarity
+     *
+     * @return the similarity, or 0 if either vertex is not in the graph
+     */
+    public double score(V a, V b, SimilarityMeasure measure) {
+        Objects.requireNonNull(measure);
+        int i = graph.indexOf(Objects.requireNonNull(a)), j = graph.indexOf(Objects.requireNonNull(b));
+        if (i < 0 || j < 0) {
+            return 0.0;
+        }
+        int common = 0;
+        double adamicAdar = 0.0;
+        for (int p = adjacency.offsets[i], q = adjacency.offsets[j];
+             p < adjacency.offsets[i + 1] && q < adjacency.offsets[j + 1]; ) {
+            int x = adjacency.neighbours[p], y = adjacency.neighbours[q];
+            if (x < y) {
+                p++;
+            } else if (x > y) {
+                q++;
+            } else {
+                common++;
+                adamicAdar += weightOf(x);
+                p++;
+                q++;
+            }
+        }
+        return measure.score(common, adamicAdar, adjacency.degree(i), adjacency.degree(j));
+    }
+
+    /**
+     * Finds the vertices most similar to a vertex, among those with any neighbour in common with it.
+     *
+     * @param vertex a vertex
+     * @param k the greatest number of vertices to find
+     * @param measure the measure of similarity
+     *
+     * @return up to k other vertices, most similar first, or none if the vertex is not in the graph
+     */
+    public List<ScoredVertex<V>> mostSimilar(V vertex, int k, SimilarityMeasure measure) {
+        return top(vertex, k, measure, false);
+    }
+
+    /**
+     * Predicts the edges most likely to be added from a vertex: finds the vertices most similar to it, among those with
+     * any neighbour in common with it, that are not already its neighbours.
+     *
+     * @param vertex a vertex
+     * @param k the greatest number of vertices to find
+     * @param measure the measure of similarity
+     *
+     * @return up to k vertices that are not neighbours of the vertex, most similar first, or none if the vertex is not
+     * in the graph
+     */
+    public List<ScoredVertex<V>> predictLinks(V vertex, int k, SimilarityMeasure measure) {
+        return top(vertex, k, measure, true);
+    }
+
+    private List<ScoredVertex<V>> top(V vertex, int k, SimilarityMeasure measure, boolean excludeNeighbours) {
+        Objects.requireNonNull(measure);
+        if (k < 0) {
+            throw new IllegalArgumentException("Cannot find a negative number of vertices");
+        }
+        int v = graph.indexOf(Objects.requireNonNull(vertex));
+        if (v < 0 || k == 0) {
+            return List.of();
+        }
+        Accumulator accumulator = accumulators.get();
+        accumulator.reset();
+        for (int p = adjacency.offsets[v]; p < adjacency.offsets[v + 1]; p++) {
+            int w = adjacency.neighbours[p];
+            double weight = weightOf(w);
+            for (int q = sharers.offsets[w]; q < sharers.offsets[w + 1]; q++) {
+                int x = sharers.neighbours[q];
+                if (x != v) {
+                    accumulator.add(x, weight);
+                }
+            }
+        }
+        PriorityQueue<ScoredVertex<V>> best = new PriorityQueue<>(k + 1, ScoredVertex.BEST_FIRST.reversed());
+        for (int i = 0; i < accumulator.size; i++) {
+            int x = accumulator.touched[i];
+            if (excludeNeighbours && Arrays.binarySearch(adjacency.neighbours, adjacency.offsets[v],
+                                                         adjacency.offsets[v + 1], x) >= 0) {
+                continue;
+            }
+            double score = measure.score(accumulator.common[x], accumulator.adamicAdar[x], adjacency.degree(v),
+                                         adjacency.degree(x));
+            if (best.size() == k && score < best.peek().getScore()) {
+                continue;
+            }
+            best.add(new ScoredVertex<>(graph.vertexAt(x), x, score));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+        List<ScoredVertex<V>> found = new ArrayList<>(best);
+        found.sort(ScoredVertex.BEST_FIRST);
+        return found;
+    }
+
+    /**
+     * @return the Adamic–Adar weight of a common neighbour: the reciprocal of the logarithm of the number of vertices
+     * it is a neighbour of, which is at least two
+     */
+    private double weightOf(int w) {
+        int shared = sharers.degree(w);
+        return shared > 1 ? 1.0 / Math.log(shared) : 0.0;
+    }
+
+    /**
+     * The number and Adamic–Adar weight of the common neighbours of one vertex with each other, in arrays reused from
+     * query to query by one thread
+     */
+    private static final class Accumulator {
+        /**
+         * The number of common neighbours with each vertex touched
+         */
+        private final int[] common;
+
+        /**
+         * The Adamic–Adar weight of the common neighbours with each vertex touched
+         */
+        private final double[] adamicAdar;
+
+        /**
+         * The query in which each vertex was last touched
+         */
+        private final int[] stamps;
+
+        /**
+         * The vertices touched, in the order first touched
+         */
+        private int[] touched = new int[16];
+
+        /**
+         * The number of vertices touched
+         */
+        private int size;
+
+        /**
+         * The number of the current query, never 0
+         */
+        private int stamp;
+
+        private Accumulator(int n) {
+            this.common = new int[n];
+            this.adamicAdar = new double[n];
+            this.stamps = new int[n];
+        }
+
+        private void reset() {
+            if (++stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            size = 0;
+        }
+
+        private void add(int x, double weight) {
+            if (stamps[x] != stamp) {
+                stamps[x] = stamp;
+                common[x] = 0;
+                adamicAdar[x] = 0.0;
+                if (size == touched.length) {
+                    touched = Arrays.copyOf(touched, size * 2);
+                }
+                touched[size++] = x;
+            }
+            common[x]++;
+            adamicAdar[x] += weight;
+        }
+    }
+}
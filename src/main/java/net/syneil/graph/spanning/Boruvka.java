@@ -0,0 +1,173 @@
+package net.syneil.graph.spanning;
+
+import net.syneil.graph.internal.Tasks;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Borůvka's algorithm, in parallel. Each round every tree finds the lightest edge leaving it, the trees are joined
+ * along those edges, and the edges inside the merged trees are discarded; since the number of trees at least halves
+ * each round, there are at most {@code log2(V)} rounds. Every phase of a round is split across the workers by ranges
+ * of edges or vertices: the lightest edges are recorded by compare-and-set, and the trees are joined in a lock-free
+ * union-find.
+ */
+final class Boruvka {
+    /**
+     * The marker for a tree with no lightest edge yet
+     */
+    private static final int NONE = -1;
+
+    private final WeightedEdges<?, ?> edges;
+    private final ExecutorService workers;
+    private final int parallelism;
+    private final ConcurrentUnionFind trees;
+    private final AtomicIntegerArray lightest;
+
+    private Boruvka(WeightedEdges<?, ?> edges, ExecutorService workers, int parallelism) {
+        this.edges = edges;
+        this.workers = workers;
+        this.parallelism = parallelism;
+        this.trees = new ConcurrentUnionFind(edges.vertexCount());
+        this.lightest = new AtomicIntegerArray(edges.vertexCount());
+        for (int v = 0; v < edges.vertexCount(); v++) {
+            lightest.set(v, NONE);
+        }
+    }
+
+    /**
+     * @return the numbers of the edges of the minimum spanning forest, in ascending order
+     */
+    static int[] forest(WeightedEdges<?, ?> edges, int parallelism) {
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "spanning-forest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return new Boruvka(edges, workers, parallelism).run();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private int[] run() {
+        int[] live = new int[edges.size()];
+        int count = 0;
+        for (int e = 0; e < live.length; e++) {
+            if (edges.sources[e] != edges.targets[e]) {
+                live[count++] = e;
+            }
+        }
+        live = Arrays.copyOf(live, count);
+        List<int[]> chosen = new ArrayList<>();
+        while (live.length > 0) {
+            int[] remaining = live;
+            inChunks(remaining.length, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int e = remaining[i];
+                    int a = trees.find(edges.sources[e]), b = trees.find(edges.targets[e]);
+                    if (a != b) {
+                        offer(a, e);
+                        offer(b, e);
+                    }
+                }
+                return null;
+            });
+            chosen.addAll(inChunks(edges.vertexCount(), this::join));
+            live = concat(inChunks(remaining.length, (from, to) -> {
+                int[] kept = new int[to - from];
+                int k = 0;
+                for (int i = from; i < to; i++) {
+                    int e = remaining[i];
+                    if (trees.find(edges.sources[e]) != trees.find(edges.targets[e])) {
+                        kept[k++] = e;
+                    }
+                }
+                return Arrays.copyOf(kept, k);
+            }));
+        }
+        int[] forest = concat(chosen);
+        Arrays.sort(forest);
+        return forest;
+    }
+
+    /**
+     * Records an edge as leaving a tree, if it is lighter than the lightest recorded so far.
+     */
+    private void offer(int tree, int edge) {
+        while (true) {
+            int current = lightest.get(tree);
+            if (current != NONE && !edges.lighter(edge, current)) {
+                return;
+            }
+            if (lightest.compareAndSet(tree, current, edge)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Joins the trees whose roots are in a range of vertices along their lightest edges, clearing them for the next
+     * round.
+     *
+     * @return the edges that joined two trees
+     */
+    private int[] join(int from, int to) {
+        int[] joined = new int[to - from];
+        int k = 0;
+        for (int tree = from; tree < to; tree++) {
+            int e = lightest.get(tree);
+            if (e != NONE) {
+                lightest.set(tree, NONE);
+                if (trees.union(edges.sources[e], edges.targets[e])) {
+                    joined[k++] = e;
+                }
+            }
+        }
+        return Arrays.copyOf(joined, k);
+    }
+
+    /**
+     * Splits a range into one chunk per worker and waits for all of them.
+     *
+     * @return the result of each chunk, in order
+     */
+    private <T> List<T> inChunks(int size, Chunk<T> chunk) {
+        int chunks = Math.max(1, Math.min(parallelism, size / 1024));
+        List<Callable<T>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) size * c / chunks), to = (int) ((long) size * (c + 1) / chunks);
+            tasks.add(() -> chunk.apply(from, to));
+        }
+        List<T> results = new ArrayList<>(chunks);
+        try {
+            for (Future<T> future : workers.invokeAll(tasks)) {
+                results.add(Tasks.await(future, "finding a spanning forest"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while finding a spanning forest");
+        }
+        return results;
+    }
+
+    private static int[] concat(List<int[]> parts) {
+        int[] all = new int[parts.stream().mapToInt(part -> part.length).sum()];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        return all;
+    }
+
+    /**
+     * The work on one chunk of a range
+     */
+    @FunctionalInterface
+    private interface Chunk<T> {
+        T apply(int from, int to);
+    }
+}
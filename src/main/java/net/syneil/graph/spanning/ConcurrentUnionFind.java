@@ -0,0 +1,58 @@
+package net.syneil.graph.spanning;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A lock-free union-find over the integers {@code [0, size)}. A root is only ever linked beneath a root of higher
+ * index, by compare-and-set, so parent chains strictly ascend and concurrent unions cannot form a cycle. Finds halve
+ * the paths they follow, also by compare-and-set, which preserves the ascent.
+ */
+final class ConcurrentUnionFind {
+    /**
+     * The parent of each element, or the element itself for a root
+     */
+    private final AtomicIntegerArray parents;
+
+    ConcurrentUnionFind(int size) {
+        parents = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            parents.set(i, i);
+        }
+    }
+
+    /**
+     * @return the root of the element's set
+     */
+    int find(int element) {
+        while (true) {
+            int parent = parents.get(element);
+            if (parent == element) {
+                return element;
+            }
+            int grandparent = parents.get(parent);
+            if (grandparent != parent) {
+                parents.compareAndSet(element, parent, grandparent);
+            }
+            element = grandparent;
+        }
+    }
+
+    /**
+     * Merges the sets of two elements.
+     *
+     * @return true if they were in different sets, false otherwise
+     */
+    boolean union(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+            if (a == b) {
+                return false;
+            }
+            int low = Math.min(a, b), high = Math.max(a, b);
+            if (parents.compareAndSet(low, low, high)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package net.syneil.graph.spanning;
+
+import java.util.Arrays;
+
+/**
+ * Kruskal's algorithm: considers the edges from lightest to heaviest and keeps each that joins two trees, tracked by a
+ * union-find with path halving and union by size. The edges are sorted as primitives, so no edge objects are compared.
+ */
+final class Kruskal {
+    private Kruskal() {
+    }
+
+    /**
+     * @return the numbers of the edges of the minimum spanning forest, in ascending order
+     */
+    static int[] forest(WeightedEdges<?, ?> edges) {
+        int n = edges.vertexCount();
+        int[] parent = new int[n], size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        int[] chosen = new int[Math.max(0, n - 1)];
+        int count = 0;
+        for (int e : edges.sortedByWeight()) {
+            if (count == chosen.length) {
+                break;
+            }
+            int a = find(parent, edges.sources[e]), b = find(parent, edges.targets[e]);
+            if (a == b) {
+                continue;
+            }
+            if (size[a] < size[b]) {
+                int swap = a;
+                a = b;
+                b = swap;
+            }
+            parent[b] = a;
+            size[a] += size[b];
+            chosen[count++] = e;
+        }
+        int[] forest = Arrays.copyOf(chosen, count);
+        Arrays.sort(forest);
+        return forest;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+}
@@ -0,0 +1,109 @@
+package net.syneil.graph.spanning;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * A minimum spanning forest of a graph: a spanning tree of each of its connected components, of least total weight.
+ * The forest is held as the numbers of its edges, which number the edges of the graph in the order the graph streamed
+ * them; the edges themselves and a graph of the forest are produced on request.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class SpanningForest<V, E extends Edge<V>> {
+    /**
+     * The edges of the original graph, with their weights
+     */
+    private final WeightedEdges<V, E> edges;
+
+    /**
+     * The numbers of the edges of the forest, in ascending order
+     */
+    private final int[] forest;
+
+    /**
+     * The forest as a graph, once it has been asked for
+     */
+    private CompactGraph<V, E> graph;
+
+    SpanningForest(WeightedEdges<V, E> edges, int[] forest) {
+        this.edges = edges;
+        this.forest = forest;
+    }
+
+    /**
+     * @return the numbers of the edges of the forest, in ascending order, where the edges of the original graph are
+     *         numbered in the order it streamed them
+     */
+    public int[] edgeIndices() {
+        return forest.clone();
+    }
+
+    /**
+     * @return the edges of the forest, in the order the original graph streamed them
+     */
+    public List<E> getEdges() {
+        return new AbstractList<>() {
+            @Override
+            public E get(int index) {
+                return edges.edges.get(forest[index]);
+            }
+
+            @Override
+            public int size() {
+                return forest.length;
+            }
+        };
+    }
+
+    /**
+     * @return the number of edges in the forest
+     */
+    public int numberOfEdges() {
+        return forest.length;
+    }
+
+    /**
+     * @return the number of trees in the forest, which is the number of connected components of the original graph
+     */
+    public int numberOfTrees() {
+        return edges.vertexCount() - forest.length;
+    }
+
+    /**
+     * @return the sum of the weights of the edges of the forest
+     */
+    public double getTotalWeight() {
+        double total = 0.0;
+        for (int e : forest) {
+            total += edges.weights[e];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the forest as an undirected graph of every vertex of the original graph and the edges of the forest. The
+     * graph is built on the first call, in time linear in its size, and shared by later calls.
+     *
+     * @return the forest as a graph
+     */
+    public synchronized Graph<V, E> asGraph() {
+        if (graph == null) {
+            CompactGraph.Builder<V, E> builder = CompactGraph.builder(edges.index, UNDIRECTED, (source, target) -> {
+                throw new IllegalStateException("All edges are retained");
+            });
+            for (int e : forest) {
+                builder.edge(edges.sources[e], edges.targets[e], edges.edges.get(e));
+            }
+            graph = builder.build();
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,91 @@
+package net.syneil.graph.spanning;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Finds minimum spanning forests of weighted graphs. The weights are given by a function of the edges, typically of
+ * their labels:
+ * <pre>
+ *     SpanningForest&lt;String, LabelledEdge&lt;String, Double&gt;&gt; forest =
+ *             SpanningForests.minimum(borders, LabelledEdge::getLabel);
+ * </pre>
+ * Edges are treated as undirected whatever the orientation of the graph, and self-loops are never part of a forest.
+ * Edges of equal weight are ordered by the order in which the graph streams them, so the forest found is the same
+ * whichever algorithm is used.
+ */
+public final class SpanningForests {
+    /**
+     * The number of edges below which {@link #minimum} uses Kruskal's algorithm rather than Borůvka's
+     */
+    public static final int KRUSKAL_THRESHOLD = 1 << 16;
+
+    private SpanningForests() {
+    }
+
+    /**
+     * Finds a minimum spanning forest by Kruskal's algorithm for small graphs, and by Borůvka's on one thread per
+     * available processor otherwise.
+     *
+     * @param graph the graph
+     * @param weight the weight of each edge
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the minimum spanning forest
+     *
+     * @throws IllegalArgumentException if any weight is NaN
+     */
+    public static <V, E extends Edge<V>> SpanningForest<V, E> minimum(Graph<V, ? extends E> graph,
+                                                                      ToDoubleFunction<? super E> weight) {
+        WeightedEdges<V, E> edges = WeightedEdges.of(graph, weight);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (edges.size() < KRUSKAL_THRESHOLD || parallelism == 1) {
+            return new SpanningForest<>(edges, Kruskal.forest(edges));
+        }
+        return new SpanningForest<>(edges, Boruvka.forest(edges, parallelism));
+    }
+
+    /**
+     * Finds a minimum spanning forest by Kruskal's algorithm, on the calling thread.
+     *
+     * @param graph the graph
+     * @param weight the weight of each edge
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the minimum spanning forest
+     *
+     * @throws IllegalArgumentException if any weight is NaN
+     */
+    public static <V, E extends Edge<V>> SpanningForest<V, E> kruskal(Graph<V, ? extends E> graph,
+                                                                      ToDoubleFunction<? super E> weight) {
+        WeightedEdges<V, E> edges = WeightedEdges.of(graph, weight);
+        return new SpanningForest<>(edges, Kruskal.forest(edges));
+    }
+
+    /**
+     * Finds a minimum spanning forest by Borůvka's algorithm, in parallel.
+     *
+     * @param graph the graph
+     * @param weight the weight of each edge
+     * @param parallelism the number of threads to use
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the minimum spanning forest
+     *
+     * @throws IllegalArgumentException if any weight is NaN, or the parallelism is not positive
+     */
+    public static <V, E extends Edge<V>> SpanningForest<V, E> boruvka(Graph<V, ? extends E> graph,
+                                                                      ToDoubleFunction<? super E> weight,
+                                                                      int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        WeightedEdges<V, E> edges = WeightedEdges.of(graph, weight);
+        return new SpanningForest<>(edges, Boruvka.forest(edges, parallelism));
+    }
+}
@@ -0,0 +1,143 @@
+package net.syneil.graph.spanning;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.VertexIndex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * The edges of a graph as parallel primitive arrays of vertex indices and weights. Edges are numbered in the order the
+ * graph streams them, and are ordered by weight with ties broken by number, so that no two edges compare equal and the
+ * minimum spanning forest is unique.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+final class WeightedEdges<V, E extends Edge<V>> {
+    /**
+     * The indices of the vertices
+     */
+    final VertexIndex<V> index;
+
+    /**
+     * The edges, by number
+     */
+    final List<E> edges;
+
+    /**
+     * The index of the source vertex of each edge
+     */
+    final int[] sources;
+
+    /**
+     * The index of the target vertex of each edge
+     */
+    final int[] targets;
+
+    /**
+     * The weight of each edge
+     */
+    final double[] weights;
+
+    private WeightedEdges(VertexIndex<V> index, List<E> edges, int[] sources, int[] targets, double[] weights) {
+        this.index = index;
+        this.edges = edges;
+        this.sources = sources;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * @throws IllegalArgumentException if any weight is NaN
+     */
+    static <V, E extends Edge<V>> WeightedEdges<V, E> of(Graph<V, ? extends E> graph,
+                                                          ToDoubleFunction<? super E> weight) {
+        Objects.requireNonNull(graph);
+        Objects.requireNonNull(weight);
+        VertexIndex<V> index = VertexIndex.of(graph.vertices().collect(Collectors.toList()));
+        List<E> edges = graph.edges().collect(Collectors.toList());
+        int m = edges.size();
+        int[] sources = new int[m], targets = new int[m];
+        double[] weights = new double[m];
+        for (int i = 0; i < m; i++) {
+            E edge = edges.get(i);
+            sources[i] = index.indexOf(edge.getSource());
+            targets[i] = index.indexOf(edge.getTarget());
+            // adding zero turns negative zero into positive zero, so that the two compare equal
+            weights[i] = weight.applyAsDouble(edge) + 0.0;
+            if (Double.isNaN(weights[i])) {
+                throw new IllegalArgumentException("NaN weight for edge " + edge);
+            }
+        }
+        return new WeightedEdges<>(index, edges, sources, targets, weights);
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    int vertexCount() {
+        return index.size();
+    }
+
+    /**
+     * @return the number of edges
+     */
+    int size() {
+        return weights.length;
+    }
+
+    /**
+     * @return true if the first edge is lighter than the second, or as heavy and numbered lower
+     */
+    boolean lighter(int a, int b) {
+        return weights[a] < weights[b] || weights[a] == weights[b] && a < b;
+    }
+
+    /**
+     * Sorts the edge numbers by weight, stably, by an eight-pass radix sort of the weights' bits. A pass is skipped
+     * when every weight has the same byte in its place.
+     *
+     * @return the edge numbers in order of weight
+     */
+    int[] sortedByWeight() {
+        int m = size();
+        long[] keys = new long[m], keyBuffer = new long[m];
+        int[] order = new int[m], orderBuffer = new int[m];
+        for (int i = 0; i < m; i++) {
+            long bits = Double.doubleToRawLongBits(weights[i]);
+            // flip all of the bits of negatives and the sign bit of positives, so the keys order as unsigned longs
+            keys[i] = bits ^ (bits >> 63 | Long.MIN_VALUE);
+            order[i] = i;
+        }
+        int[] counts = new int[257];
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            Arrays.fill(counts, 0);
+            for (long key : keys) {
+                counts[(int) (key >>> shift & 0xFF) + 1]++;
+            }
+            if (m == 0 || counts[(int) (keys[0] >>> shift & 0xFF) + 1] == m) {
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                counts[b + 1] += counts[b];
+            }
+            for (int i = 0; i < m; i++) {
+                int slot = counts[(int) (keys[i] >>> shift & 0xFF)]++;
+                keyBuffer[slot] = keys[i];
+                orderBuffer[slot] = order[i];
+            }
+            long[] swapKeys = keys;
+            keys = keyBuffer;
+            keyBuffer = swapKeys;
+            int[] swapOrder = order;
+            order = orderBuffer;
+            orderBuffer = swapOrder;
+        }
+        return order;
+    }
+}
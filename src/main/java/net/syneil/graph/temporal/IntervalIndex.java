@@ -0,0 +1,186 @@
+package net.syneil.graph.temporal;
+
+import net.syneil.graph.TemporalEdge;
+
+import java.util.function.Consumer;
+
+import static net.syneil.graph.internal.Hashing.mix;
+
+/**
+ * An interval tree of edges: a treap ordered by start time, in which every node also holds the latest end in its
+ * subtree, so that a search for the edges valid during a window skips every subtree in which none can be. Finding the
+ * edges valid during a window costs time proportional to their number, times the logarithm of the number of edges, at
+ * worst.
+ * <p>
+ * Edges with equal starts are ordered by a sequence number unique to each, which also decides the node's priority in
+ * the heap order, by hashing, so that the tree is balanced in expectation however the edges arrive.
+ *
+ * @param <E> the type used for edges
+ */
+final class IntervalIndex<E extends TemporalEdge<?>> {
+    private Node<E> root;
+    private int size;
+
+    /**
+     * @return the number of edges in this index
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param edge an edge not in this index
+     * @param sequence the number of the edge, unique among those in this index
+     */
+    void add(E edge, long sequence) {
+        root = insert(root, new Node<>(edge, sequence));
+        size++;
+    }
+
+    /**
+     * @param edge an edge in this index
+     * @param sequence the number it was added with
+     */
+    void remove(E edge, long sequence) {
+        root = delete(root, edge.getStart(), sequence);
+        size--;
+    }
+
+    /**
+     * Finds the edges valid at any time in a window: those starting no later than its last time and ending after its
+     * first.
+     *
+     * @param from the first time of the window
+     * @param last the last time of the window
+     * @param action receives each edge found, in order of start
+     */
+    void forEachValid(long from, long last, Consumer<? super E> action) {
+        search(root, from, last, action);
+    }
+
+    /**
+     * @param action receives every edge, in order of start
+     */
+    void forEach(Consumer<? super E> action) {
+        inOrder(root, action);
+    }
+
+    private static <E extends TemporalEdge<?>> void inOrder(Node<E> node, Consumer<? super E> action) {
+        for (; node != null; node = node.right) {
+            inOrder(node.left, action);
+            action.accept(node.edge);
+        }
+    }
+
+    private static <E extends TemporalEdge<?>> void search(Node<E> node, long from, long last,
+                                                          Consumer<? super E> action) {
+        while (node != null && node.maxEnd > from) {
+            search(node.left, from, last, action);
+            if (node.start > last) {
+                return;
+            }
+            if (node.end > from) {
+                action.accept(node.edge);
+            }
+            node = node.right;
+        }
+    }
+
+    private static <E extends TemporalEdge<?>> Node<E> insert(Node<E> node, Node<E> added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.before(node.start, node.sequence)) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static <E extends TemporalEdge<?>> Node<E> delete(Node<E> node, long start, long sequence) {
+        if (node == null) {
+            throw new IllegalStateException("Edge not in index");
+        }
+        if (node.start == start && node.sequence == sequence) {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = delete(node.right, start, sequence);
+            } else {
+                node = rotateLeft(node);
+                node.left = delete(node.left, start, sequence);
+            }
+        } else if (start < node.start || start == node.start && sequence < node.sequence) {
+            node.left = delete(node.left, start, sequence);
+        } else {
+            node.right = delete(node.right, start, sequence);
+        }
+        node.update();
+        return node;
+    }
+
+    private static <E extends TemporalEdge<?>> Node<E> rotateRight(Node<E> node) {
+        Node<E> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static <E extends TemporalEdge<?>> Node<E> rotateLeft(Node<E> node) {
+        Node<E> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static final class Node<E extends TemporalEdge<?>> {
+        private final E edge;
+        private final long start;
+        private final long end;
+        private final long sequence;
+        private final long priority;
+        private long maxEnd;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E edge, long sequence) {
+            this.edge = edge;
+            this.start = edge.getStart();
+            this.end = edge.getEnd();
+            this.sequence = sequence;
+            this.priority = mix(sequence);
+            this.maxEnd = end;
+        }
+
+        private boolean before(long otherStart, long otherSequence) {
+            return start < otherStart || start == otherStart && sequence < otherSequence;
+        }
+
+        private void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd > maxEnd) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > maxEnd) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+}
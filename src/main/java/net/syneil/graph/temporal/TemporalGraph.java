@@ -0,0 +1,551 @@
+package net.syneil.graph.temporal;
+
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.MutableGraph;
+import net.syneil.graph.TemporalEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+
+/**
+ * A mutable graph of {@link TemporalEdge temporal edges} that indexes its edges by time, wrapping another mutable graph
+ * which holds the vertices and edges and enforces the graph's constraints. The edges that can be traversed from each
+ * vertex, and all the edges of the graph, are held in interval trees, so that the edges valid at a time or during a
+ * window of time are found at a cost proportional to their number (times a logarithm) rather than to the number of
+ * edges of the vertex or graph. {@link #asOf(long)} and {@link #during(long, long)} give read-only views of the graph
+ * at a time or over a window, which answer every query through the indices.
+ * <p>
+ * Edges are also indexed by their end, and by the vertices they join, so that those that ended before a retention
+ * horizon can be {@link #expireBefore(long) expired} at a cost proportional to their number (in undirected graphs,
+ * plus the wrapped graph's search of the edges at the end of each with fewer edges):
+ * <pre>
+ *     graph.expireBefore(now - retention);
+ * </pre>
+ * In {@link GraphProperties.Orientation#UNDIRECTED undirected} graphs an edge can be traversed from, and is indexed
+ * at, both of its vertices. The wrapped graph must only be modified through this one.
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public class TemporalGraph<V, E extends TemporalEdge<V>> implements MutableGraph<V, E> {
+    /**
+     * The graph holding the vertices and edges
+     */
+    private final MutableGraph<V, E> graph;
+
+    /**
+     * Whether edges can be traversed from both of their vertices
+     */
+    private final boolean undirected;
+
+    /**
+     * Finds the vertex reached by traversing an edge from one of its vertices; defined at construct-time for
+     * optimisation
+     */
+    private final BiFunction<E, V, V> traversal;
+
+    /**
+     * The edges that can be traversed from each vertex, by time
+     */
+    private final Map<V, IntervalIndex<E>> adjacency = new HashMap<>();
+
+    /**
+     * The edges to each vertex that cannot be traversed from it, so that they can be found when it is removed; null in
+     * undirected graphs, whose edges are all in the adjacency of both of their vertices
+     */
+    private final Map<V, Set<E>> incoming;
+
+    /**
+     * The edges from each vertex to each other, so that the edges a removal may remove are found without scanning the
+     * vertex's edges; in undirected graphs, held under both orders of their vertices
+     */
+    private final Map<V, Map<V, Set<E>>> pairs = new HashMap<>();
+
+    /**
+     * All edges, by time
+     */
+    private final IntervalIndex<E> timeline = new IntervalIndex<>();
+
+    /**
+     * All edges, by end
+     */
+    private final NavigableMap<Long, Set<E>> expiries = new TreeMap<>();
+
+    /**
+     * The sequence number of each edge in the indices
+     */
+    private final Map<E, Long> sequences = new HashMap<>();
+
+    /**
+     * The sequence number of the next edge indexed
+     */
+    private long nextSequence;
+
+    /**
+     * Creates an empty graph with the specified properties, held in an {@link EdgeListGraph}.
+     *
+     * @param properties the properties of this graph; null implies defaults
+     */
+    public TemporalGraph(GraphProperties properties) {
+        this(new EdgeListGraph<>(properties));
+    }
+
+    /**
+     * Wraps a graph, indexing the edges already in it.
+     *
+     * @param graph the graph to hold the vertices and edges, which must afterwards only be modified through this one
+     */
+    public TemporalGraph(MutableGraph<V, E> graph) {
+        this.graph = Objects.requireNonNull(graph);
+        this.undirected = graph.getProperties().getOrientation().orElse(DIRECTED) == UNDIRECTED;
+        this.traversal = undirected ? (edge, from) -> edge.other(from).orElseThrow() : (edge, from) -> edge.getTarget();
+        this.incoming = undirected ? null : new HashMap<>();
+        graph.edges().collect(Collectors.toList()).forEach(this::index);
+    }
+
+    // ---- temporal queries
+
+    /**
+     * @param source a vertex
+     * @param time a time
+     *
+     * @return the edges that can be traversed from the vertex and are valid at the time, in order of start
+     */
+    public List<E> getEdgesAt(V source, long time) {
+        return getEdgesValid(source, time, time);
+    }
+
+    /**
+     * @param source a vertex
+     * @param from the start of a window of time, inclusive
+     * @param to the end of the window, exclusive
+     *
+     * @return the edges that can be traversed from the vertex and are valid at any time in the window, in order of
+     *         start
+     */
+    public List<E> getEdgesDuring(V source, long from, long to) {
+        return from < to ? getEdgesValid(source, from, to - 1) : new ArrayList<>();
+    }
+
+    private List<E> getEdgesValid(V source, long from, long last) {
+        Objects.requireNonNull(source);
+        List<E> edges = new ArrayList<>();
+        IntervalIndex<E> index = adjacency.get(source);
+        if (index != null) {
+            index.forEachValid(from, last, edges::add);
+        }
+        return edges;
+    }
+
+    /**
+     * @param time a time
+     *
+     * @return the edges valid at the time, in order of start
+     */
+    public Stream<E> edgesAt(long time) {
+        return edgesValid(time, time);
+    }
+
+    /**
+     * @param from the start of a window of time, inclusive
+     * @param to the end of the window, exclusive
+     *
+     * @return the edges valid at any time in the window, in order of start
+     */
+    public Stream<E> edgesDuring(long from, long to) {
+        return from < to ? edgesValid(from, to - 1) : Stream.empty();
+    }
+
+    private Stream<E> edgesValid(long from, long last) {
+        List<E> edges = new ArrayList<>();
+        timeline.forEachValid(from, last, edges::add);
+        return edges.stream();
+    }
+
+    /**
+     * @param time a time
+     *
+     * @return a read-only view of this graph with only the edges valid at the time
+     */
+    public Graph<V, E> asOf(long time) {
+        return new Window(time, time);
+    }
+
+    /**
+     * Gives a view of this graph over a window of time, which can be slid along by taking successive views.
+     *
+     * @param from the start of a window of time, inclusive
+     * @param to the end of the window, exclusive
+     *
+     * @return a read-only view of this graph with only the edges valid at any time in the window
+     *
+     * @throws IllegalArgumentException if the window is empty
+     */
+    public Graph<V, E> during(long from, long to) {
+        if (from >= to) {
+            throw new IllegalArgumentException("Empty window [" + from + ", " + to + ")");
+        }
+        return new Window(from, to - 1);
+    }
+
+    /**
+     * Removes the edges that end no later than a horizon, and so are valid at no time from the horizon on. In undirected
+     * graphs, each expired edge is removed with every edge between its vertices, as an undirected {@link EdgeListGraph}
+     * removes them, and those that have not expired are added back.
+     *
+     * @param horizon the earliest time of which edges are retained
+     *
+     * @return the number of edges removed
+     */
+    public long expireBefore(long horizon) {
+        long before = graph.numberOfEdges();
+        NavigableMap<Long, Set<E>> expired = expiries.headMap(horizon, true);
+        while (!expired.isEmpty()) {
+            // take the edges ending together at once: a set emptied one edge at a time is slow to iterate
+            for (E edge : new ArrayList<>(expired.firstEntry().getValue())) {
+                if (sequences.containsKey(edge)) {
+                    expire(edge, horizon);
+                }
+            }
+        }
+        return before - graph.numberOfEdges();
+    }
+
+    private void expire(E edge, long horizon) {
+        List<E> candidates = candidatesForRemoval(edge);
+        List<E> alongside = candidates.stream().filter(e -> e != edge && e.getEnd() > horizon)
+                                      .collect(Collectors.toList());
+        boolean removed;
+        if (undirected) {
+            // the wrapped graph may remove every edge between the vertices anyway, so remove them by way of the vertex
+            // with fewer edges to search
+            V source = edge.getSource(), target = edge.getTarget();
+            boolean fromTarget = degree(target) < degree(source);
+            removed = removed(candidates, () -> fromTarget ? graph.removeEdges(target, source)
+                                                           : graph.removeEdges(source, target));
+        } else {
+            removed = removeEdge(edge, candidates);
+        }
+        if (!removed) {
+            unindex(edge);
+        }
+        alongside.stream().filter(e -> !sequences.containsKey(e)).forEach(this::addEdge);
+    }
+
+    private int degree(V vertex) {
+        IntervalIndex<E> index = adjacency.get(vertex);
+        return index == null ? 0 : index.size();
+    }
+
+    /**
+     * @return the earliest end of the edges in this graph, optionally
+     */
+    public OptionalLong earliestEnd() {
+        return expiries.isEmpty() ? OptionalLong.empty() : OptionalLong.of(expiries.firstKey());
+    }
+
+    // ---- MutableGraph
+
+    @Override
+    public boolean addVertex(V v) {
+        return graph.addVertex(v);
+    }
+
+    @Override
+    public boolean removeVertex(V v) {
+        Objects.requireNonNull(v);
+        List<E> incident = new ArrayList<>();
+        Optional.ofNullable(adjacency.get(v)).ifPresent(index -> index.forEach(incident::add));
+        if (incoming != null) {
+            incident.addAll(incoming.getOrDefault(v, Collections.emptySet()));
+        }
+        return removed(incident, () -> graph.removeVertex(v));
+    }
+
+    @Override
+    public boolean addEdge(E edge) {
+        Objects.requireNonNull(edge);
+        if (!graph.addEdge(edge)) {
+            return false;
+        }
+        index(edge);
+        return true;
+    }
+
+    @Override
+    public boolean removeEdges(V source, V target) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(target);
+        List<E> candidates = undirected ? candidatesBetween(source, target) : between(source, target);
+        return removed(candidates, () -> graph.removeEdges(source, target));
+    }
+
+    @Override
+    public boolean removeEdge(E edge) {
+        Objects.requireNonNull(edge);
+        return removeEdge(edge, candidatesForRemoval(edge));
+    }
+
+    private boolean removeEdge(E edge, List<E> candidates) {
+        return removed(candidates, () -> graph.removeEdge(edge));
+    }
+
+    /**
+     * Finds the edges that removing an edge may remove: in directed graphs, only the edge itself; in undirected graphs,
+     * every edge between its vertices, and every edge at the vertex of a self-loop, since the wrapped graph may match
+     * edges by the vertices they connect.
+     */
+    private List<E> candidatesForRemoval(E edge) {
+        if (undirected) {
+            return candidatesBetween(edge.getSource(), edge.getTarget());
+        }
+        List<E> candidates = new ArrayList<>(1);
+        if (sequences.containsKey(edge)) {
+            candidates.add(edge);
+        }
+        return candidates;
+    }
+
+    private List<E> candidatesBetween(V source, V target) {
+        if (!source.equals(target)) {
+            return between(source, target);
+        }
+        List<E> incident = new ArrayList<>();
+        Optional.ofNullable(adjacency.get(source)).ifPresent(index -> index.forEach(incident::add));
+        return incident;
+    }
+
+    private List<E> between(V source, V target) {
+        return new ArrayList<>(pairs.getOrDefault(source, Collections.emptyMap())
+                                    .getOrDefault(target, Collections.emptySet()));
+    }
+
+    /**
+     * Performs a removal on the wrapped graph and removes from the indices those of the candidate edges it removed. The
+     * number of edges removed is compared with the number of candidates first, so that the wrapped graph need only be
+     * searched when it removed some but not all of them.
+     *
+     * @param candidates the edges the removal may remove
+     * @param removal the removal
+     *
+     * @return the result of the removal
+     */
+    private boolean removed(Collection<E> candidates, BooleanSupplier removal) {
+        long before = graph.numberOfEdges();
+        boolean updated = removal.getAsBoolean();
+        long removedCount = before - graph.numberOfEdges();
+        if (removedCount >= candidates.size()) {
+            candidates.forEach(this::unindex);
+        } else if (removedCount > 0) {
+            candidates.stream()
+                      .filter(edge -> !graph.getEdges(edge.getSource(), edge.getTarget()).contains(edge))
+                      .collect(Collectors.toList())
+                      .forEach(this::unindex);
+        }
+        return updated;
+    }
+
+    private void index(E edge) {
+        long sequence = nextSequence++;
+        sequences.put(edge, sequence);
+        timeline.add(edge, sequence);
+        expiries.computeIfAbsent(edge.getEnd(), $ -> new HashSet<>()).add(edge);
+        adjacency.computeIfAbsent(edge.getSource(), $ -> new IntervalIndex<>()).add(edge, sequence);
+        if (undirected && !edge.isSelfEdge()) {
+            adjacency.computeIfAbsent(edge.getTarget(), $ -> new IntervalIndex<>()).add(edge, sequence);
+        } else if (!undirected) {
+            incoming.computeIfAbsent(edge.getTarget(), $ -> new HashSet<>()).add(edge);
+        }
+        pairs.computeIfAbsent(edge.getSource(), $ -> new HashMap<>())
+             .computeIfAbsent(edge.getTarget(), $ -> new HashSet<>()).add(edge);
+        if (undirected && !edge.isSelfEdge()) {
+            pairs.computeIfAbsent(edge.getTarget(), $ -> new HashMap<>())
+                 .computeIfAbsent(edge.getSource(), $ -> new HashSet<>()).add(edge);
+        }
+    }
+
+    private void unindex(E edge) {
+        Long sequence = sequences.remove(edge);
+        if (sequence == null) {
+            return;
+        }
+        timeline.remove(edge, sequence);
+        Set<E> ending = expiries.get(edge.getEnd());
+        ending.remove(edge);
+        if (ending.isEmpty()) {
+            expiries.remove(edge.getEnd());
+        }
+        unindexAt(edge.getSource(), edge, sequence);
+        if (undirected && !edge.isSelfEdge()) {
+            unindexAt(edge.getTarget(), edge, sequence);
+        } else if (!undirected) {
+            Set<E> edges = incoming.get(edge.getTarget());
+            edges.remove(edge);
+            if (edges.isEmpty()) {
+                incoming.remove(edge.getTarget());
+            }
+        }
+        unpair(edge.getSource(), edge.getTarget(), edge);
+        if (undirected && !edge.isSelfEdge()) {
+            unpair(edge.getTarget(), edge.getSource(), edge);
+        }
+    }
+
+    private void unpair(V source, V target, E edge) {
+        Map<V, Set<E>> targets = pairs.get(source);
+        Set<E> edges = targets.get(target);
+        edges.remove(edge);
+        if (edges.isEmpty()) {
+            targets.remove(target);
+            if (targets.isEmpty()) {
+                pairs.remove(source);
+            }
+        }
+    }
+
+    private void unindexAt(V vertex, E edge, long sequence) {
+        IntervalIndex<E> index = adjacency.get(vertex);
+        index.remove(edge, sequence);
+        if (index.size() == 0) {
+            adjacency.remove(vertex);
+        }
+    }
+
+    // ---- Graph
+
+    @Override
+    public long numberOfVertices() {
+        return graph.numberOfVertices();
+    }
+
+    @Override
+    public long numberOfEdges() {
+        return graph.numberOfEdges();
+    }
+
+    @Override
+    public Stream<? extends E> edges() {
+        return graph.edges();
+    }
+
+    @Override
+    public Stream<? extends V> vertices() {
+        return graph.vertices();
+    }
+
+    @Override
+    public boolean hasVertex(V vertex) {
+        return graph.hasVertex(vertex);
+    }
+
+    @Override
+    public boolean hasEdge(V source, V target) {
+        return graph.hasEdge(source, target);
+    }
+
+    @Override
+    public Set<? extends V> neighbours(V v) {
+        return graph.neighbours(v);
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source, V target) {
+        return graph.getEdges(source, target);
+    }
+
+    @Override
+    public List<? extends E> getEdges(V source) {
+        return graph.getEdges(source);
+    }
+
+    @Override
+    public GraphProperties getProperties() {
+        return graph.getProperties();
+    }
+
+    /**
+     * A read-only view of this graph over a window of time, with every vertex but only the edges valid during the
+     * window. It reflects later changes to this graph.
+     */
+    private final class Window implements Graph<V, E> {
+        /**
+         * The first time of the window
+         */
+        private final long from;
+
+        /**
+         * The last time of the window
+         */
+        private final long last;
+
+        private Window(long from, long last) {
+            this.from = from;
+            this.last = last;
+        }
+
+        @Override
+        public long numberOfVertices() {
+            return graph.numberOfVertices();
+        }
+
+        @Override
+        public long numberOfEdges() {
+            long[] count = new long[1];
+            timeline.forEachValid(from, last, $ -> count[0]++);
+            return count[0];
+        }
+
+        @Override
+        public Stream<? extends E> edges() {
+            return edgesValid(from, last);
+        }
+
+        @Override
+        public Stream<? extends V> vertices() {
+            return graph.vertices();
+        }
+
+        @Override
+        public boolean hasVertex(V vertex) {
+            return graph.hasVertex(vertex);
+        }
+
+        @Override
+        public boolean hasEdge(V source, V target) {
+            return !getEdges(source, target).isEmpty();
+        }
+
+        @Override
+        public Set<? extends V> neighbours(V v) {
+            return getEdgesValid(v, from, last).stream()
+                                               .map(edge -> traversal.apply(edge, v))
+                                               .collect(Collectors.toSet());
+        }
+
+        @Override
+        public List<? extends E> getEdges(V source, V target) {
+            Objects.requireNonNull(target);
+            List<E> edges = getEdgesValid(source, from, last);
+            edges.removeIf(edge -> !target.equals(traversal.apply(edge, source)));
+            return edges;
+        }
+
+        @Override
+        public List<? extends E> getEdges(V source) {
+            return getEdgesValid(source, from, last);
+        }
+
+        @Override
+        public GraphProperties getProperties() {
+            return graph.getProperties();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.syneil.graph.walk;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Follows each edge from the current vertex with probability proportional to its weight, in constant time, by
+ * Walker's alias method. The alias tables of all vertices are held in two arrays parallel to the graph's positions:
+ * position {@code p} of a vertex's range is chosen with probability {@code threshold[p]} when drawn, and otherwise the
+ * position {@code alias[p]} of the same range is.
+ * <p>
+ * The tables are built by Vose's method, which is numerically stable, in time linear in the number of positions.
+ */
+final class AliasTransition implements Transition {
+    /**
+     * The graph walked
+     */
+    private final CompactGraph<?, ?> graph;
+
+    /**
+     * The probability of keeping each position when it is drawn
+     */
+    private final double[] threshold;
+
+    /**
+     * The position chosen instead of each position when it is not kept
+     */
+    private final int[] alias;
+
+    /**
+     * Whether each vertex has no edges of positive weight to follow
+     */
+    private final boolean[] stuck;
+
+    <V, E extends Edge<V>> AliasTransition(CompactGraph<V, E> graph, ToDoubleFunction<? super E> weight) {
+        this.graph = graph;
+        int n = graph.index().size(), positions = graph.size();
+        this.threshold = new double[positions];
+        this.alias = new int[positions];
+        this.stuck = new boolean[n];
+        double[] scaled = new double[positions];
+        int[] small = new int[positions], large = new int[positions];
+        for (int v = 0; v < n; v++) {
+            int from = graph.offset(v), to = graph.offset(v + 1);
+            double total = 0.0;
+            for (int p = from; p < to; p++) {
+                double w = weight.applyAsDouble(graph.edge(p));
+                if (!(w >= 0.0) || Double.isInfinite(w)) {
+                    throw new IllegalArgumentException("Invalid weight " + w + " of " + graph.edge(p));
+                }
+                scaled[p] = w;
+                total += w;
+            }
+            if (total == 0.0) {
+                stuck[v] = true;
+                continue;
+            }
+            int smalls = 0, larges = 0;
+            for (int p = from; p < to; p++) {
+                scaled[p] *= (to - from) / total;
+                if (scaled[p] < 1.0) {
+                    small[smalls++] = p;
+                } else {
+                    large[larges++] = p;
+                }
+            }
+            while (smalls > 0 && larges > 0) {
+                int less = small[--smalls], more = large[larges - 1];
+                threshold[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] -= 1.0 - scaled[less];
+                if (scaled[more] < 1.0) {
+                    larges--;
+                    small[smalls++] = more;
+                }
+            }
+            // what remains is 1 up to rounding, and is always kept, so is its own alias
+            while (larges > 0) {
+                int kept = large[--larges];
+                threshold[kept] = 1.0;
+                alias[kept] = kept;
+            }
+            while (smalls > 0) {
+                int kept = small[--smalls];
+                threshold[kept] = 1.0;
+                alias[kept] = kept;
+            }
+        }
+    }
+
+    @Override
+    public int next(int previous, int current, SplittableRandom random) {
+        int degree = graph.degree(current);
+        if (degree == 0 || stuck[current]) {
+            return -1;
+        }
+        int position = graph.offset(current) + random.nextInt(degree);
+        return random.nextDouble() < threshold[position] ? position : alias[position];
+    }
+
+    @Override
+    public void weights(int current, double[] weights) {
+        int from = graph.offset(current), degree = graph.degree(current);
+        Arrays.fill(weights, 0, degree, 0.0);
+        if (stuck[current]) {
+            return;
+        }
+        // each position is drawn equally often, and either kept or passed to its alias
+        for (int p = from; p < from + degree; p++) {
+            weights[p - from] += threshold[p];
+            weights[alias[p] - from] += 1.0 - threshold[p];
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.syneil.graph.walk;
+
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Biases a first-order transition by the node2vec return parameter {@code p} and in-out parameter {@code q}: a step
+ * back to the previous vertex is weighted by {@code 1/p}, a step to a neighbour of the previous vertex by 1, and any
+ * other step by {@code 1/q}.
+ * <p>
+ * Rather than building an alias table for every pair of adjacent vertices, which takes memory quadratic in the degrees,
+ * a step is drawn from the first-order transition and accepted with probability proportional to its bias (rejection
+ * sampling), so each trial costs one binary search of the previous vertex's targets. Where every likely step is
+ * unlikely to be accepted, as a step back from a leaf is when {@code p} is large, the trials are capped, and the step
+ * is then drawn exactly from the biased weights of the current vertex's edges; either way a step has the same
+ * distribution. The weights are gathered into an array of each thread's own, sized to the greatest degree and reused
+ * from step to step.
+ */
+final class Node2VecTransition implements Transition {
+    /**
+     * The number of steps drawn and rejected before a step is drawn exactly
+     */
+    private static final int MAX_TRIALS = 32;
+
+    /**
+     * The graph walked
+     */
+    private final CompactGraph<?, ?> graph;
+
+    /**
+     * The transition biased
+     */
+    private final Transition firstOrder;
+
+    /**
+     * The probabilities of accepting a step back, a step to a neighbour of the previous vertex, and any other step
+     */
+    private final double back, near, far;
+
+    /**
+     * The biased weights of the current vertex's edges, for each thread's steps drawn exactly
+     */
+    private final ThreadLocal<double[]> scratch;
+
+    Node2VecTransition(CompactGraph<?, ?> graph, Transition firstOrder, double p, double q) {
+        this.graph = graph;
+        this.firstOrder = firstOrder;
+        int maxDegree = IntStream.range(0, graph.index().size()).map(graph::degree).max().orElse(0);
+        this.scratch = ThreadLocal.withInitial(() -> new double[maxDegree]);
+        double max = Math.max(1.0, Math.max(1.0 / p, 1.0 / q));
+        this.back = 1.0 / p / max;
+        this.near = 1.0 / max;
+        this.far = 1.0 / q / max;
+    }
+
+    @Override
+    public int next(int previous, int current, SplittableRandom random) {
+        if (previous < 0) {
+            return firstOrder.next(previous, current, random);
+        }
+        for (int trial = 0; trial < MAX_TRIALS; trial++) {
+            int position = firstOrder.next(previous, current, random);
+            if (position < 0) {
+                return -1;
+            }
+            if (random.nextDouble() < bias(previous, graph.target(position))) {
+                return position;
+            }
+        }
+        int from = graph.offset(current), degree = graph.degree(current);
+        double[] weights = scratch.get();
+        firstOrder.weights(current, weights);
+        double total = 0.0;
+        for (int i = 0; i < degree; i++) {
+            weights[i] *= bias(previous, graph.target(from + i));
+            total += weights[i];
+        }
+        if (total == 0.0) {
+            return -1;
+        }
+        double drawn = random.nextDouble() * total;
+        for (int i = 0; i < degree; i++) {
+            drawn -= weights[i];
+            if (drawn < 0.0 && weights[i] > 0.0) {
+                return from + i;
+            }
+        }
+        // rounding left the draw just short of the total: take the last edge that can be followed
+        int last = degree - 1;
+        while (weights[last] == 0.0) {
+            last--;
+        }
+        return from + last;
+    }
+
+    @Override
+    public void weights(int current, double[] weights) {
+        firstOrder.weights(current, weights);
+    }
+
+    /**
+     * @return the probability of accepting a step to a target, from a vertex arrived at from the previous one
+     */
+    private double bias(int previous, int target) {
+        return target == previous ? back : graph.hasEdge(previous, target) ? near : far;
+    }
+}
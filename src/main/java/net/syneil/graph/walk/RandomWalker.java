@@ -0,0 +1,257 @@
+package net.syneil.graph.walk;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.internal.Tasks;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.ToDoubleFunction;
+
+import static net.syneil.graph.internal.Hashing.mix;
+
+/**
+ * Samples random walks over a {@link CompactGraph}, for instance to train vertex embeddings. A walk steps from vertex
+ * to vertex along edges (out-edges, if the graph is directed), chosen uniformly, in proportion to their weights, or by
+ * the second-order node2vec bias; a walk ends early at a vertex without edges to follow.
+ * <p>
+ * Walks are made of primitive indices: stepping neither allocates nor looks anything up by vertex, and walks are handed
+ * to a {@link WalkSink} in a reused array. The walks of several starts are made in parallel, in blocks with their own
+ * {@link SplittableRandom}s derived from a seed, and handed to the sink in block order on the calling thread, so the
+ * sink need not be thread-safe and sees exactly the same walks whatever the parallelism.
+ * <pre>
+ *     var walker = RandomWalker.node2vec(graph, LabelledEdge::getLabel, 1.0, 0.5);
+ *     walker.walk(10, 80, 42L, 8, (walk, length) -&gt; corpus.write(walk, length));
+ * </pre>
+ *
+ * @param <V> the type used for vertices
+ * @param <E> the type used for edges
+ */
+public final class RandomWalker<V, E extends Edge<V>> {
+    /**
+     * The number of start vertices walked from in each block
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    /**
+     * The graph walked
+     */
+    private final CompactGraph<V, E> graph;
+
+    /**
+     * The choice of each step
+     */
+    private final Transition transition;
+
+    private RandomWalker(CompactGraph<V, E> graph, Transition transition) {
+        this.graph = graph;
+        this.transition = transition;
+    }
+
+    /**
+     * Creates a walker that follows each edge from a vertex with equal probability.
+     *
+     * @param graph the graph to walk, copied into compact form if it is not already
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the walker
+     */
+    public static <V, E extends Edge<V>> RandomWalker<V, E> uniform(Graph<V, ? extends E> graph) {
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        return new RandomWalker<>(compact, new UniformTransition(compact));
+    }
+
+    /**
+     * Creates a walker that follows each edge from a vertex with probability proportional to its weight, sampled from
+     * alias tables built once for every vertex.
+     *
+     * @param graph the graph to walk, copied into compact form if it is not already
+     * @param weight the weight of each edge, which must be finite and not negative; for example {@code
+     *         LabelledEdge::getLabel} for edges labelled with their weights
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the walker
+     *
+     * @throws IllegalArgumentException if any weight is negative, infinite or not a number
+     */
+    public static <V, E extends Edge<V>> RandomWalker<V, E> weighted(Graph<V, ? extends E> graph,
+                                                                     ToDoubleFunction<? super E> weight) {
+        Objects.requireNonNull(weight);
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        return new RandomWalker<>(compact, new AliasTransition(compact, weight));
+    }
+
+    /**
+     * Creates a walker with the node2vec second-order bias over unweighted edges.
+     *
+     * @param graph the graph to walk, copied into compact form if it is not already
+     * @param p the return parameter: a step back to the previous vertex is weighted by {@code 1/p}
+     * @param q the in-out parameter: a step away from the previous vertex's neighbourhood is weighted by {@code 1/q}
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the walker
+     *
+     * @throws IllegalArgumentException if either parameter is not positive and finite
+     */
+    public static <V, E extends Edge<V>> RandomWalker<V, E> node2vec(Graph<V, ? extends E> graph, double p,
+                                                                     double q) {
+        checkParameters(p, q);
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        return new RandomWalker<>(compact, new Node2VecTransition(compact, new UniformTransition(compact), p, q));
+    }
+
+    /**
+     * Creates a walker with the node2vec second-order bias over weighted edges: each step's weight is multiplied by its
+     * bias.
+     *
+     * @param graph the graph to walk, copied into compact form if it is not already
+     * @param weight the weight of each edge, which must be finite and not negative
+     * @param p the return parameter: a step back to the previous vertex is weighted by {@code 1/p}
+     * @param q the in-out parameter: a step away from the previous vertex's neighbourhood is weighted by {@code 1/q}
+     * @param <V> the type used for vertices
+     * @param <E> the type used for edges
+     *
+     * @return the walker
+     *
+     * @throws IllegalArgumentException if either parameter is not positive and finite, or any weight is invalid
+     */
+    public static <V, E extends Edge<V>> RandomWalker<V, E> node2vec(Graph<V, ? extends E> graph,
+                                                                     ToDoubleFunction<? super E> weight,
+                                                                     double p,
+                                                                     double q) {
+        Objects.requireNonNull(weight);
+        checkParameters(p, q);
+        CompactGraph<V, E> compact = CompactGraph.copyOf(graph);
+        return new RandomWalker<>(compact, new Node2VecTransition(compact, new AliasTransition(compact, weight), p, q));
+    }
+
+    private static void checkParameters(double p, double q) {
+        if (!(p > 0.0) || !(q > 0.0) || Double.isInfinite(p) || Double.isInfinite(q)) {
+            throw new IllegalArgumentException("Invalid node2vec parameters p=" + p + ", q=" + q);
+        }
+    }
+
+    /**
+     * @return the graph walked, whose indices the walks are made of
+     */
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Makes one walk into an array.
+     *
+     * @param start the index of the vertex to start from
+     * @param into the array to write the indices of the walk's vertices to; its length is the length of walk wanted
+     * @param random the source of randomness
+     *
+     * @return the number of vertices walked, which is less than the array's length if the walk ended early
+     */
+    public int walk(int start, int[] into, SplittableRandom random) {
+        Objects.requireNonNull(into);
+        Objects.requireNonNull(random);
+        Objects.checkIndex(start, graph.index().size());
+        if (into.length == 0) {
+            return 0;
+        }
+        into[0] = start;
+        int previous = -1, current = start;
+        for (int step = 1; step < into.length; step++) {
+            int position = transition.next(previous, current, random);
+            if (position < 0) {
+                return step;
+            }
+            previous = current;
+            current = graph.target(position);
+            into[step] = current;
+        }
+        return into.length;
+    }
+
+    /**
+     * Makes a number of walks from every vertex, on one thread per available processor. The walks are made in rounds,
+     * each starting once from every vertex in index order.
+     *
+     * @param walksPerVertex the number of walks from each vertex
+     * @param length the number of vertices in each walk, including its start
+     * @param seed the seed of the walks' randomness
+     * @param sink the receiver of the walks
+     */
+    public void walk(int walksPerVertex, int length, long seed, WalkSink sink) {
+        walk(walksPerVertex, length, seed, Runtime.getRuntime().availableProcessors(), sink);
+    }
+
+    /**
+     * Makes a number of walks from every vertex. The walks are made in rounds, each starting once from every vertex in
+     * index order.
+     *
+     * @param walksPerVertex the number of walks from each vertex
+     * @param length the number of vertices in each walk, including its start
+     * @param seed the seed of the walks' randomness
+     * @param parallelism the number of threads walking
+     * @param sink the receiver of the walks
+     */
+    public void walk(int walksPerVertex, int length, long seed, int parallelism, WalkSink sink) {
+        Objects.requireNonNull(sink);
+        if (walksPerVertex < 0 || length < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Walk count must not be negative; length and parallelism must be "
+                                                       + "positive");
+        }
+        int n = graph.index().size(), blocksPerRound = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long blocks = (long) blocksPerRound * walksPerVertex;
+        if (parallelism == 1) {
+            int[] walk = new int[length];
+            for (long block = 0; block < blocks; block++) {
+                walkBlock(block, blocksPerRound, seed, walk, sink);
+            }
+            return;
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "graph-walker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Queue<WalkBuffer> spare = new ConcurrentLinkedQueue<>();
+            ThreadLocal<int[]> walks = ThreadLocal.withInitial(() -> new int[length]);
+            int[] scratch = new int[length];
+            Deque<Future<WalkBuffer>> inFlight = new ArrayDeque<>();
+            for (long block = 0; block < blocks; block++) {
+                if (inFlight.size() == parallelism * 2) {
+                    replay(inFlight.removeFirst(), sink, scratch, spare);
+                }
+                long b = block;
+                inFlight.addLast(workers.submit(() -> {
+                    WalkBuffer buffer = Optional.ofNullable(spare.poll()).orElseGet(WalkBuffer::new);
+                    walkBlock(b, blocksPerRound, seed, walks.get(), buffer);
+                    return buffer;
+                }));
+            }
+            while (!inFlight.isEmpty()) {
+                replay(inFlight.removeFirst(), sink, scratch, spare);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void walkBlock(long block, int blocksPerRound, long seed, int[] walk, WalkSink sink) {
+        var random = new SplittableRandom(mix(seed + mix(block)));
+        int first = (int) (block % blocksPerRound) * BLOCK_SIZE;
+        int last = Math.min(first + BLOCK_SIZE, graph.index().size());
+        for (int start = first; start < last; start++) {
+            sink.walk(walk, walk(start, walk, random));
+        }
+    }
+
+    private static void replay(Future<WalkBuffer> future, WalkSink sink, int[] scratch, Queue<WalkBuffer> spare) {
+        WalkBuffer buffer = Tasks.await(future, "walking graph");
+        buffer.replay(sink, scratch);
+        buffer.clear();
+        spare.add(buffer);
+    }
+}
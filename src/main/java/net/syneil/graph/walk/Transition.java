@@ -0,0 +1,26 @@
+package net.syneil.graph.walk;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the next step of a walk. Transitions are immutable once built, so one can be shared by every thread walking.
+ */
+interface Transition {
+    /**
+     * @param previous the index of the vertex visited before the current one, or -1 at the start of a walk
+     * @param current the index of the current vertex
+     * @param random the source of randomness
+     *
+     * @return the position, in the compact graph, of the edge to follow, or -1 if there is none
+     */
+    int next(int previous, int current, SplittableRandom random);
+
+    /**
+     * Gives the relative probabilities of the edges from a vertex, for a walk that did not arrive from elsewhere.
+     *
+     * @param current the index of a vertex
+     * @param weights receives the relative probability of the edge at each position of the vertex's range, from its
+     * first position on; they sum to 0 if there is no edge to follow
+     */
+    void weights(int current, double[] weights);
+}
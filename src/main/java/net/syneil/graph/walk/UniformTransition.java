@@ -0,0 +1,31 @@
+package net.syneil.graph.walk;
+
+import net.syneil.graph.compact.CompactGraph;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Follows each edge from the current vertex with equal probability; parallel edges make their target more likely.
+ */
+final class UniformTransition implements Transition {
+    /**
+     * The graph walked
+     */
+    private final CompactGraph<?, ?> graph;
+
+    UniformTransition(CompactGraph<?, ?> graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public int next(int previous, int current, SplittableRandom random) {
+        int degree = graph.degree(current);
+        return degree == 0 ? -1 : graph.offset(current) + random.nextInt(degree);
+    }
+
+    @Override
+    public void weights(int current, double[] weights) {
+        Arrays.fill(weights, 0, graph.degree(current), 1.0);
+    }
+}
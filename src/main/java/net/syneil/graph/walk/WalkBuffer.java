@@ -0,0 +1,51 @@
+package net.syneil.graph.walk;
+
+import java.util.Arrays;
+
+/**
+ * Buffers the walks of a block in one primitive array, so that they can be walked on one thread and replayed into a
+ * {@link WalkSink} on another. Buffers are cleared and reused, so walking allocates nothing once they have grown.
+ */
+final class WalkBuffer implements WalkSink {
+    private int[] vertices = new int[4096];
+    private int[] ends = new int[256];
+    private int size;
+    private int count;
+
+    @Override
+    public void walk(int[] walk, int length) {
+        if (size + length > vertices.length) {
+            vertices = Arrays.copyOf(vertices, Math.max(vertices.length * 2, size + length));
+        }
+        if (count == ends.length) {
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        System.arraycopy(walk, 0, vertices, size, length);
+        size += length;
+        ends[count++] = size;
+    }
+
+    /**
+     * Hands every walk held to the sink, in the order they were received.
+     *
+     * @param sink the receiver of the walks
+     * @param scratch an array at least as long as the longest walk, to hand each walk in
+     */
+    void replay(WalkSink sink, int[] scratch) {
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int length = ends[i] - start;
+            System.arraycopy(vertices, start, scratch, 0, length);
+            sink.walk(scratch, length);
+            start = ends[i];
+        }
+    }
+
+    /**
+     * Empties this buffer, keeping its arrays.
+     */
+    void clear() {
+        size = 0;
+        count = 0;
+    }
+}
@@ -0,0 +1,17 @@
+package net.syneil.graph.walk;
+
+/**
+ * Receives the walks produced by a {@link RandomWalker}, as the indices of their vertices in the walker's {@link
+ * net.syneil.graph.compact.CompactGraph}.
+ */
+@FunctionalInterface
+public interface WalkSink {
+    /**
+     * Receives a walk. The array is reused for later walks, so must not be retained.
+     *
+     * @param vertices the indices of the vertices of the walk, in the order visited, from the start of the array
+     * @param length the number of vertices in the walk; shorter than asked for if the walk reached a vertex without
+     *         edges to follow
+     */
+    void walk(int[] vertices, int length);
+}
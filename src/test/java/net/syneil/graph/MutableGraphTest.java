@@ -2,6 +2,7 @@ package net.syneil.graph;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -199,6 +200,64 @@ public abstract class MutableGraphTest<V> {
                   () -> assertFalse(getMutableGraph().edges().findAny().isPresent()));
     }
 
+    @Test
+    void givenEdgeWhenEitherVertexRemovedThenEdgeRemoved() {
+        // given
+        V source = createNewVertex();
+        V target = createNewVertex();
+        Edge<V> edge = createNewEdge(source, target);
+        assertTrue(getMutableGraph().addEdge(edge));
+
+        // when
+        assertTrue(getMutableGraph().removeVertex(target));
+
+        // then
+        assertAll(() -> assertTrue(getMutableGraph().hasVertex(source)),
+                  () -> assertFalse(getMutableGraph().hasVertex(target)),
+                  () -> assertFalse(getMutableGraph().hasEdge(source, target)),
+                  () -> assertTrue(getMutableGraph().getEdges(source).isEmpty()),
+                  () -> assertEquals(0L, getMutableGraph().numberOfEdges()));
+    }
+
+    @Test
+    void removeVerticesDoesNothing() {
+        assertFalse(getMutableGraph().removeVertices(List.of(createNewVertex(), createNewVertex())));
+    }
+
+    @Test
+    void givenPathWhenVerticesRemovedThenOnlyUnconnectedEdgesRemain() {
+        // given
+        V a = createNewVertex();
+        V b = createNewVertex();
+        V c = createNewVertex();
+        V d = createNewVertex();
+        Edge<V> ab = createNewEdge(a, b);
+        Edge<V> bc = createNewEdge(b, c);
+        Edge<V> cd = createNewEdge(c, d);
+        Edge<V> da = createNewEdge(d, a);
+        assertAll(() -> assertTrue(getMutableGraph().addEdge(ab)),
+                  () -> assertTrue(getMutableGraph().addEdge(bc)),
+                  () -> assertTrue(getMutableGraph().addEdge(cd)),
+                  () -> assertTrue(getMutableGraph().addEdge(da)));
+
+        // when
+        assertTrue(getMutableGraph().removeVertices(List.of(b, createNewVertex())));
+
+        // then
+        assertAll(() -> assertEquals(3L, getMutableGraph().numberOfVertices()),
+                  () -> assertEquals(2L, getMutableGraph().numberOfEdges()),
+                  () -> assertTrue(getMutableGraph().hasEdge(c, d)),
+                  () -> assertTrue(getMutableGraph().hasEdge(d, a)),
+                  () -> assertFalse(getMutableGraph().hasEdge(a, b)));
+
+        // and when
+        assertTrue(getMutableGraph().removeVertices(List.of(a, c, d)));
+
+        // then
+        assertAll(() -> assertTrue(getMutableGraph().isEmpty()),
+                  () -> assertEquals(0L, getMutableGraph().numberOfEdges()));
+    }
+
     @Test
     void givenTwoBridgedVerticesDirectedGraphSourceTarget() {
         // precondition
@@ -215,8 +274,15 @@ public abstract class MutableGraphTest<V> {
         // Then
         assertAll(() -> assertTrue(getMutableGraph().neighbours(source).contains(target)),
                   () -> assertFalse(getMutableGraph().neighbours(target).contains(source)),
-                  () -> assertTrue(getMutableGraph().edges().anyMatch(Predicate.isEqual(edge))));
+                  () -> assertTrue(getMutableGraph().edges().anyMatch(
+                          edgesRetainIdentity() ? Predicate.isEqual(edge) : Edge.isBetween(source, target))));
     }
 
     public abstract boolean edgesAreDirected();
+
+    /**
+     * @return true if the graph under test stores the edge instances it is given, rather than just the vertices they
+     *         connect
+     */
+    public abstract boolean edgesRetainIdentity();
 }
@@ -0,0 +1,88 @@
+package net.syneil.graph;
+
+import net.syneil.graph.GraphProperties.Orientation;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Graphs shared as fixtures by the tests of several packages.
+ */
+public final class TestGraphs {
+    private TestGraphs() {
+    }
+
+    /**
+     * Creates a random graph of vertices numbered from 0, with edges between vertices drawn uniformly at random. Edges
+     * may repeat and may be self-loops.
+     *
+     * @param orientation the orientation of the graph
+     * @param vertices the number of vertices, all of which are added whether or not they have edges
+     * @param edges the number of edges to draw
+     * @param seed the random seed
+     *
+     * @return the graph
+     */
+    public static EdgeListGraph<Integer, Edge<Integer>> randomGraph(Orientation orientation, int vertices, int edges,
+                                                                    long seed) {
+        var graph = new EdgeListGraph<Integer, Edge<Integer>>(GraphProperties.builder()
+                                                                             .orientation(orientation)
+                                                                             .build());
+        var random = new Random(seed);
+        for (int v = 0; v < vertices; v++) {
+            graph.addVertex(v);
+        }
+        for (int i = 0; i < edges; i++) {
+            graph.addEdge(new UnlabelledEdge<>(random.nextInt(vertices), random.nextInt(vertices)));
+        }
+        return graph;
+    }
+
+    /**
+     * Adds a ring of cliques to a graph: the vertices {@code [0, cliques * size)} are split into cliques of consecutive
+     * vertices, and the first vertex of each clique is joined to the first vertex of the next, the last clique being
+     * joined back to the first.
+     *
+     * @param graph the graph to add to
+     * @param cliques the number of cliques
+     * @param size the number of vertices in each clique
+     * @param clique creates an edge within a clique
+     * @param ring creates an edge joining one clique to the next
+     * @param <E> the type used for edges
+     * @param <G> the type of the graph
+     *
+     * @return the graph
+     */
+    public static <E extends Edge<Integer>, G extends MutableGraph<Integer, E>> G ringOfCliques(
+            G graph, int cliques, int size, BiFunction<Integer, Integer, E> clique,
+            BiFunction<Integer, Integer, E> ring) {
+        for (int c = 0; c < cliques; c++) {
+            int first = c * size;
+            for (int a = first; a < first + size; a++) {
+                for (int b = a + 1; b < first + size; b++) {
+                    graph.addEdge(clique.apply(a, b));
+                }
+            }
+            graph.addEdge(ring.apply(first, (first + size) % (cliques * size)));
+        }
+        return graph;
+    }
+
+    /**
+     * Creates an undirected ring of cliques, as by {@link #ringOfCliques(MutableGraph, int, int, BiFunction,
+     * BiFunction)}, of unlabelled edges.
+     *
+     * @param cliques the number of cliques
+     * @param size the number of vertices in each clique
+     *
+     * @return the graph
+     */
+    public static EdgeListGraph<Integer, Edge<Integer>> ringOfCliques(int cliques, int size) {
+        return ringOfCliques(new EdgeListGraph<>(GraphProperties.builder()
+                                                                .orientation(Orientation.UNDIRECTED)
+                                                                .build()),
+                             cliques, size, UnlabelledEdge::new, UnlabelledEdge::new);
+    }
+}
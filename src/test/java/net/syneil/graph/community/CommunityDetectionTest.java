@@ -0,0 +1,129 @@
+package net.syneil.graph.community;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.TestGraphs;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import net.syneil.graph.generate.Generators;
+import net.syneil.graph.generate.RMatGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommunityDetectionTest {
+    private static final int CLIQUES = 8;
+    private static final int CLIQUE_SIZE = 10;
+
+    /**
+     * @return cliques of heavy edges joined in a ring by one light edge each
+     */
+    private static EdgeListGraph<Integer, LabelledEdge<Integer, Double>> ringOfCliques() {
+        var graph = new EdgeListGraph<Integer, LabelledEdge<Integer, Double>>(
+                GraphProperties.builder().orientation(UNDIRECTED).build());
+        return TestGraphs.ringOfCliques(graph, CLIQUES, CLIQUE_SIZE, (a, b) -> new ObjectLabelledEdge<>(a, b, 2.0),
+                                        (a, b) -> new ObjectLabelledEdge<>(a, b, 0.5));
+    }
+
+    private static void assertCliquesFound(Communities<Integer, ?> communities) {
+        List<Set<Integer>> cliqueCommunities = IntStream.range(0, CLIQUES)
+                                                        .mapToObj(c -> IntStream.range(c * CLIQUE_SIZE,
+                                                                                       (c + 1) * CLIQUE_SIZE)
+                                                                                .boxed()
+                                                                                .map(communities::communityOf)
+                                                                                .collect(Collectors.toSet()))
+                                                        .collect(Collectors.toList());
+        int first = communities.communityOf(0);
+        assertAll(() -> assertEquals(CLIQUES, communities.getCommunityCount()),
+                  () -> assertTrue(cliqueCommunities.stream().allMatch(found -> found.size() == 1)),
+                  () -> assertEquals(-1, communities.communityOf(-1)),
+                  () -> assertEquals(CLIQUE_SIZE, communities.members(first).size()),
+                  () -> assertTrue(communities.getModularity() > 0.8, () -> "modularity "
+                          + communities.getModularity()));
+    }
+
+    @Test
+    void everyMethodFindsTheCliques() {
+        // given
+        var graph = ringOfCliques();
+        ToDoubleFunction<LabelledEdge<Integer, Double>> weight = LabelledEdge::getLabel;
+        var options = CommunityOptions.builder().parallelism(4).build();
+
+        // when
+        var louvain = CommunityDetection.louvain(graph, weight, options);
+        var leiden = CommunityDetection.leiden(graph, weight, options);
+        var propagation = CommunityDetection.labelPropagation(graph, weight, options);
+
+        // then
+        assertCliquesFound(louvain);
+        assertCliquesFound(leiden);
+        assertCliquesFound(propagation);
+    }
+
+    @Test
+    void parallelismDoesNotChangeModularityOptimisation() {
+        // given
+        var graph = Generators.toCompactGraph(new RMatGenerator(12, 30_000, 44L), 4);
+        ToDoubleFunction<Edge<Integer>> unit = edge -> 1.0;
+
+        for (boolean refine : List.of(false, true)) {
+            // when
+            var one = refine
+                    ? CommunityDetection.leiden(graph, unit, CommunityOptions.builder().parallelism(1).build())
+                    : CommunityDetection.louvain(graph, unit, CommunityOptions.builder().parallelism(1).build());
+            var four = refine
+                    ? CommunityDetection.leiden(graph, unit, CommunityOptions.builder().parallelism(4).build())
+                    : CommunityDetection.louvain(graph, unit, CommunityOptions.builder().parallelism(4).build());
+
+            // then
+            assertArrayEquals(one.communities(), four.communities());
+            assertTrue(one.getModularity() > 0.1, () -> "modularity " + one.getModularity());
+            assertEquals(graph.numberOfVertices(), IntStream.of(one.sizes()).sum());
+        }
+    }
+
+    @Test
+    void quotientGraphSumsWeightsBetweenCommunities() {
+        // given
+        var graph = ringOfCliques();
+        var communities = CommunityDetection.leiden(graph, LabelledEdge::getLabel);
+
+        // when
+        var quotient = communities.quotientGraph(LabelledEdge::getLabel);
+
+        // then
+        int first = communities.communityOf(0);
+        int second = communities.communityOf(CLIQUE_SIZE);
+        assertAll(() -> assertEquals(CLIQUES, quotient.numberOfVertices()),
+                  () -> assertEquals(2 * CLIQUES, quotient.numberOfEdges()),
+                  () -> assertEquals(2.0 * CLIQUE_SIZE * (CLIQUE_SIZE - 1) / 2,
+                                     quotient.getEdges(first, first).get(0).getLabel()),
+                  () -> assertEquals(0.5, quotient.getEdges(first, second).get(0).getLabel()),
+                  () -> assertEquals(graph.edges().mapToDouble(LabelledEdge::getLabel).sum(),
+                                     quotient.edges().mapToDouble(LabelledEdge::getLabel).sum()));
+    }
+
+    @Test
+    void invalidWeightsAndOptionsAreRejected() {
+        // given
+        var graph = ringOfCliques();
+
+        // then
+        assertAll(() -> assertThrows(IllegalArgumentException.class,
+                                     () -> CommunityDetection.louvain(graph, edge -> -1.0)),
+                  () -> assertThrows(IllegalArgumentException.class,
+                                     () -> CommunityDetection.leiden(graph, edge -> Double.NaN)),
+                  () -> assertThrows(IllegalArgumentException.class,
+                                     () -> CommunityDetection.labelPropagation(
+                                             graph, LabelledEdge::getLabel,
+                                             CommunityOptions.builder().resolution(0.0).build())));
+    }
+}
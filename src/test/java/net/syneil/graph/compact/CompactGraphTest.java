@@ -0,0 +1,123 @@
+package net.syneil.graph.compact;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.EmptyGraphTest;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static net.syneil.graph.GraphProperties.Cyclicity.ACYCLIC;
+import static net.syneil.graph.GraphProperties.Looping.FORBIDDEN;
+import static net.syneil.graph.GraphProperties.Multiplicity.SINGLE;
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactGraphTest {
+    @Nested
+    class WhenEmpty extends EmptyGraphTest<UUID> {
+        @Override
+        public Graph<UUID, Edge<UUID>> getEmptyGraph() {
+            return CompactGraph.builder(VertexIndex.<UUID>of(List.of()), DIRECTED).build();
+        }
+
+        @Override
+        public UUID createNewVertex() {
+            return UUID.randomUUID();
+        }
+
+        @Override
+        public Edge<UUID> createNewEdge(UUID source, UUID target) {
+            return new UnlabelledEdge<>(source, target);
+        }
+    }
+
+    @Test
+    void copyRetainsEdgesAndSortsAdjacency() {
+        // given
+        var graph = new EdgeListGraph<String, LabelledEdge<String, Integer>>();
+        graph.addVertex("lonely");
+        graph.addEdge(new ObjectLabelledEdge<>("a", "c", 1));
+        graph.addEdge(new ObjectLabelledEdge<>("a", "b", 2));
+        graph.addEdge(new ObjectLabelledEdge<>("a", "b", 3));
+        graph.addEdge(new ObjectLabelledEdge<>("c", "a", 4));
+
+        // when
+        CompactGraph<String, LabelledEdge<String, Integer>> compact = CompactGraph.copyOf(graph);
+
+        // then
+        int a = compact.indexOf("a");
+        assertAll(() -> assertEquals(4L, compact.numberOfVertices()),
+                  () -> assertEquals(4L, compact.numberOfEdges()),
+                  () -> assertEquals(3, compact.degree(a)),
+                  () -> assertTrue(compact.targets(a).boxed().collect(Collectors.toList()).equals(
+                          compact.targets(a).sorted().boxed().collect(Collectors.toList()))),
+                  () -> assertEquals(Set.of("b", "c"), Set.copyOf(compact.neighbours("a"))),
+                  () -> assertEquals(2, compact.neighbours("a").size()),
+                  () -> assertEquals(Set.of(2, 3), compact.getEdges("a", "b").stream()
+                                                          .map(LabelledEdge::getLabel)
+                                                          .collect(Collectors.toSet())),
+                  () -> assertTrue(compact.hasEdge("c", "a")),
+                  () -> assertFalse(compact.hasEdge("b", "a")),
+                  () -> assertTrue(compact.neighbours("lonely").isEmpty()),
+                  () -> assertSame(compact, CompactGraph.copyOf(compact)),
+                  () -> assertEquals(graph.edges().collect(Collectors.toSet()),
+                                     compact.edges().collect(Collectors.toSet())));
+    }
+
+    @Test
+    void copyCarriesThePropertiesOfTheGraph() {
+        // given
+        var graph = new EdgeListGraph<Integer, Edge<Integer>>(GraphProperties.builder()
+                                                                             .orientation(UNDIRECTED)
+                                                                             .multiplicity(SINGLE)
+                                                                             .looping(FORBIDDEN)
+                                                                             .cyclicity(ACYCLIC)
+                                                                             .build());
+        graph.addEdge(new UnlabelledEdge<>(0, 1));
+
+        // when
+        var properties = CompactGraph.copyOf(graph).getProperties();
+        var reordered = CompactGraph.copyOf(graph, VertexOrdering.degreeDescending()).getProperties();
+
+        // then
+        assertAll(() -> assertEquals(UNDIRECTED, properties.getOrientation().orElseThrow()),
+                  () -> assertEquals(SINGLE, properties.getMultiplicity().orElseThrow()),
+                  () -> assertEquals(FORBIDDEN, properties.getLooping().orElseThrow()),
+                  () -> assertEquals(ACYCLIC, properties.getCyclicity().orElseThrow()),
+                  () -> assertEquals(SINGLE, reordered.getMultiplicity().orElseThrow()),
+                  () -> assertEquals(FORBIDDEN, reordered.getLooping().orElseThrow()),
+                  () -> assertEquals(ACYCLIC, reordered.getCyclicity().orElseThrow()));
+    }
+
+    @Test
+    void undirectedEdgesAreAdjacentBothWaysButStreamedOnce() {
+        // given
+        var builder = CompactGraph.builder(VertexIndex.identity(3), UNDIRECTED);
+        builder.edge(2, 0).edge(1, 1).edge(0, 1);
+
+        // when
+        var graph = builder.build();
+
+        // then
+        assertAll(() -> assertEquals(3L, graph.numberOfEdges()),
+                  () -> assertEquals(3L, graph.edges().count()),
+                  () -> assertEquals(5, graph.size()),
+                  () -> assertTrue(graph.hasEdge(0, 2)),
+                  () -> assertTrue(graph.hasEdge(2, 0)),
+                  () -> assertEquals(Set.of(0, 1), Set.copyOf(graph.neighbours(1))),
+                  () -> assertEquals(GraphProperties.Orientation.UNDIRECTED,
+                                     graph.getProperties().getOrientation().orElseThrow()),
+                  () -> assertEquals(2, (int) graph.edge(graph.offset(2)).getSource()));
+    }
+}
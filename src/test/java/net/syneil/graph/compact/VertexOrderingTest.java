@@ -0,0 +1,143 @@
+package net.syneil.graph.compact;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.GraphProperties.Orientation;
+import net.syneil.graph.TestGraphs;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VertexOrderingTest {
+    private static final int CLIQUES = 4;
+    private static final int CLIQUE_SIZE = 25;
+
+    private static EdgeListGraph<Integer, Edge<Integer>> graph(Orientation orientation) {
+        return new EdgeListGraph<>(GraphProperties.builder().orientation(orientation).build());
+    }
+
+    /**
+     * @return cliques joined in a ring by one edge each, with the vertices added in a random order
+     */
+    private static EdgeListGraph<Integer, Edge<Integer>> ringOfCliques() {
+        var graph = graph(UNDIRECTED);
+        List<Integer> vertices = IntStream.range(0, CLIQUES * CLIQUE_SIZE).boxed().collect(Collectors.toList());
+        Collections.shuffle(vertices, new Random(35L));
+        vertices.forEach(graph::addVertex);
+        return TestGraphs.ringOfCliques(graph, CLIQUES, CLIQUE_SIZE, UnlabelledEdge::new, UnlabelledEdge::new);
+    }
+
+    @Test
+    void permutationsAreValidatedAndInvertible() {
+        // given
+        var permutation = Permutation.of(2, 0, 1);
+
+        // when
+        var inverse = permutation.inverse();
+
+        // then
+        assertAll(() -> assertEquals(1, permutation.newIndex(0)),
+                  () -> assertEquals(2, permutation.oldIndex(0)),
+                  () -> assertEquals(1, inverse.newIndex(2)),
+                  () -> assertArrayEquals(new int[] {1, 2, 0}, inverse.toArray()),
+                  () -> assertArrayEquals(new int[] {0, 1, 2}, Permutation.identity(3).toArray()),
+                  () -> assertThrows(IllegalArgumentException.class, () -> Permutation.of(0, 0)),
+                  () -> assertThrows(IllegalArgumentException.class, () -> Permutation.of(1, 2)));
+    }
+
+    @Test
+    void reverseCuthillMcKeeNumbersAPathInOrder() {
+        // given
+        var graph = graph(UNDIRECTED);
+        List<Integer> vertices = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        Collections.shuffle(vertices, new Random(35L));
+        vertices.forEach(graph::addVertex);
+        IntStream.range(0, 99).forEach(v -> graph.addEdge(new UnlabelledEdge<>(v, v + 1)));
+
+        // when
+        var compact = CompactGraph.copyOf(graph, VertexOrdering.reverseCuthillMcKee());
+
+        // then
+        int bandwidth = 0;
+        for (int v = 0; v < compact.index().size(); v++) {
+            for (int p = compact.offset(v); p < compact.offset(v + 1); p++) {
+                bandwidth = Math.max(bandwidth, Math.abs(compact.target(p) - v));
+            }
+        }
+        assertEquals(1, bandwidth);
+    }
+
+    @Test
+    void degreeDescendingPutsHubsFirst() {
+        // given
+        var graph = ringOfCliques();
+        graph.addEdge(new UnlabelledEdge<>(7, 42));
+
+        // when
+        var compact = CompactGraph.copyOf(graph, VertexOrdering.degreeDescending());
+
+        // then
+        assertAll(() -> assertEquals(Set.of(0, 25, 50, 75, 7, 42),
+                                     IntStream.range(0, 6).mapToObj(compact::vertexAt).collect(Collectors.toSet())),
+                  () -> assertTrue(IntStream.range(1, compact.index().size())
+                                            .allMatch(v -> compact.degree(v - 1) >= compact.degree(v))));
+    }
+
+    @Test
+    void rabbitNumbersEachCommunityContiguously() {
+        // given
+        var graph = ringOfCliques();
+
+        // when
+        var compact = CompactGraph.copyOf(graph, VertexOrdering.rabbit());
+
+        // then
+        for (int c = 0; c < CLIQUES; c++) {
+            IntSummaryStatistics indices = IntStream.range(c * CLIQUE_SIZE, (c + 1) * CLIQUE_SIZE)
+                                                    .map(compact::indexOf)
+                                                    .summaryStatistics();
+            assertEquals(CLIQUE_SIZE - 1, indices.getMax() - indices.getMin());
+        }
+    }
+
+    @Test
+    void reorderedGraphsHaveTheSameVerticesAndEdges() {
+        for (Orientation orientation : Orientation.values()) {
+            // given
+            var graph = graph(orientation);
+            var random = new Random(35L);
+            IntStream.range(0, 200).forEach(graph::addVertex);
+            for (int i = 0; i < 600; i++) {
+                graph.addEdge(new UnlabelledEdge<>(random.nextInt(200), random.nextInt(200)));
+            }
+
+            for (VertexOrdering ordering : List.of(VertexOrdering.reverseCuthillMcKee(),
+                                                   VertexOrdering.degreeDescending(), VertexOrdering.rabbit())) {
+                // when
+                var compact = CompactGraph.copyOf(graph, ordering);
+
+                // then
+                assertAll(() -> assertEquals(graph.vertices().collect(Collectors.toSet()),
+                                             compact.vertices().collect(Collectors.toSet())),
+                          () -> assertEquals(graph.numberOfEdges(), compact.numberOfEdges()),
+                          () -> assertEquals(graph.edges().collect(Collectors.toSet()),
+                                             compact.edges().collect(Collectors.toSet())),
+                          () -> graph.vertices().forEach(v -> assertEquals(graph.neighbours(v),
+                                                                           compact.neighbours(v))),
+                          () -> IntStream.range(0, 200).forEach(v -> assertTrue(isSorted(compact.targets(v)
+                                                                                                .toArray()))));
+            }
+        }
+    }
+
+    private static boolean isSorted(int[] values) {
+        return IntStream.range(1, values.length).allMatch(i -> values[i - 1] <= values[i]);
+    }
+}
@@ -0,0 +1,150 @@
+package net.syneil.graph.compress;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import net.syneil.graph.generate.Generators;
+import net.syneil.graph.generate.RMatGenerator;
+import net.syneil.graph.generate.WattsStrogatzGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedGraphTest {
+    private static void assertSameAdjacency(CompactGraph<Integer, Edge<Integer>> expected,
+                                            CompressedGraph<Integer, Edge<Integer>> actual) {
+        int n = expected.index().size();
+        List<int[]> scanned = new ArrayList<>();
+        actual.forEachSuccessorList((vertex, successors) -> {
+            assertEquals(scanned.size(), vertex);
+            scanned.add(successors.clone());
+        });
+        assertEquals(n, scanned.size());
+        for (int v = 0; v < n; v++) {
+            int[] successors = expected.targets(expected.indexOf(actual.vertexAt(v)))
+                                       .map(t -> actual.indexOf(expected.vertexAt(t)))
+                                       .distinct()
+                                       .sorted()
+                                       .toArray();
+            assertArrayEquals(successors, actual.successors(v));
+            assertArrayEquals(successors, scanned.get(v));
+            assertEquals(successors.length, actual.outdegree(v));
+        }
+    }
+
+    @Test
+    void compressedGraphHoldsTheSameAdjacency() {
+        // given
+        var smallWorld = Generators.toCompactGraph(new WattsStrogatzGenerator(5000, 8, 0.05, 41L), 1);
+        var rmat = Generators.toCompactGraph(new RMatGenerator(12, 40_000, 41L), 1);
+
+        for (var graph : List.of(smallWorld, rmat)) {
+            // when
+            var compressed = CompressedGraph.copyOf(graph);
+
+            // then
+            assertSameAdjacency(graph, compressed);
+            assertAll(() -> assertEquals(graph.numberOfVertices(), compressed.numberOfVertices()),
+                      () -> assertEquals(graph.edges().map(e -> List.of(e.getSource(), e.getTarget()))
+                                              .collect(Collectors.toSet()),
+                                         compressed.edges().map(e -> List.of(e.getSource(), e.getTarget()))
+                                                   .collect(Collectors.toSet())),
+                      () -> assertEquals(compressed.edges().count(), compressed.numberOfEdges()));
+        }
+    }
+
+    @Test
+    void localityCompressesToAFewBitsPerEdge() {
+        // given
+        var graph = Generators.toCompactGraph(new WattsStrogatzGenerator(50_000, 10, 0.01, 41L), 2);
+
+        // when
+        var compressed = CompressedGraph.copyOf(graph);
+
+        // then
+        assertAll(() -> assertTrue(compressed.bitsPerSuccessor() < 5.0, () -> compressed.bitsPerSuccessor() + " bits"),
+                  () -> assertTrue(compressed.sizeInBits() < 32L * graph.size() / 6),
+                  () -> assertSameAdjacency(graph, compressed));
+    }
+
+    @Test
+    void graphQueriesAnswerAsTheOriginal() {
+        // given
+        var graph = new EdgeListGraph<String, Edge<String>>(GraphProperties.builder().orientation(DIRECTED).build());
+        graph.addEdge(new UnlabelledEdge<>("a", "b"));
+        graph.addEdge(new UnlabelledEdge<>("a", "b"));
+        graph.addEdge(new UnlabelledEdge<>("a", "c"));
+        graph.addEdge(new UnlabelledEdge<>("c", "c"));
+        graph.addVertex("d");
+
+        // when
+        var compressed = CompressedGraph.copyOf(graph);
+
+        // then
+        assertAll(() -> assertEquals(4, compressed.numberOfVertices()),
+                  () -> assertEquals(3, compressed.numberOfEdges()),
+                  () -> assertEquals(Set.of("b", "c"), compressed.neighbours("a")),
+                  () -> assertTrue(compressed.neighbours("d").isEmpty()),
+                  () -> assertTrue(compressed.neighbours("e").isEmpty()),
+                  () -> assertTrue(compressed.hasEdge("c", "c")),
+                  () -> assertFalse(compressed.hasEdge("b", "a")),
+                  () -> assertEquals(1, compressed.getEdges("a", "b").size()),
+                  () -> assertEquals(2, compressed.getEdges("a").size()));
+    }
+
+    @Test
+    void codesRoundTrip() {
+        // given
+        var random = new Random(41L);
+        long[] values = IntStream.range(0, 10_000)
+                                 .mapToLong(i -> random.nextInt(4) == 0 ? random.nextInt() & 0x7fffffffL
+                                                                        : random.nextInt(20))
+                                 .toArray();
+        var out = new BitOutput();
+
+        // when
+        for (long value : values) {
+            out.writeGamma(value);
+            out.writeZeta(value, 3);
+            out.writeUnary((int) (value % 100));
+        }
+
+        // then
+        var in = new BitInput(out.toArray(), 0L);
+        for (long value : values) {
+            assertAll(() -> assertEquals(value, in.readGamma()),
+                      () -> assertEquals(value, in.readZeta(3)),
+                      () -> assertEquals(value % 100, in.readUnary()));
+        }
+        long[] sorted = Arrays.stream(values).sorted().toArray();
+        var sequence = new EliasFano(sorted);
+        IntStream.range(0, sorted.length).forEach(i -> assertEquals(sorted[i], sequence.get(i)));
+    }
+
+    @Test
+    void undirectedGraphsCountEachEdgeOnce() {
+        // given
+        var graph = new EdgeListGraph<Integer, Edge<Integer>>(GraphProperties.builder().orientation(UNDIRECTED)
+                                                                             .build());
+        graph.addEdge(new UnlabelledEdge<>(1, 2));
+        graph.addEdge(new UnlabelledEdge<>(2, 3));
+        graph.addEdge(new UnlabelledEdge<>(3, 3));
+
+        // when
+        var compressed = CompressedGraph.copyOf(graph);
+
+        // then
+        assertAll(() -> assertEquals(3, compressed.numberOfEdges()),
+                  () -> assertEquals(3, compressed.edges().count()),
+                  () -> assertEquals(Set.of(1, 3), compressed.neighbours(2)),
+                  () -> assertTrue(compressed.hasEdge(2, 1)));
+    }
+}
@@ -0,0 +1,113 @@
+package net.syneil.graph.core;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import net.syneil.graph.generate.BarabasiAlbertGenerator;
+import net.syneil.graph.generate.Generators;
+import net.syneil.graph.generate.RMatGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KCoresTest {
+    /**
+     * Asserts that every vertex has at most the degeneracy neighbours after it in the ordering
+     */
+    private static void assertDegeneracyOrdering(CoreDecomposition<?, ?> decomposition) {
+        var adjacency = SimpleAdjacency.of(decomposition.getGraph());
+        int[] order = decomposition.degeneracyOrder(), rank = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            rank[order[i]] = i;
+        }
+        for (int v = 0; v < order.length; v++) {
+            int later = 0;
+            for (int p = adjacency.offsets[v]; p < adjacency.offsets[v + 1]; p++) {
+                later += rank[adjacency.neighbours[p]] > rank[v] ? 1 : 0;
+            }
+            assertTrue(later <= decomposition.coreNumberOfIndex(v));
+        }
+    }
+
+    @Test
+    void parallelPeelingAgreesWithSequential() {
+        for (var generator : List.of(new BarabasiAlbertGenerator(20_000, 5, false, 43L),
+                                     new RMatGenerator(14, 200_000, 43L))) {
+            // given
+            var graph = Generators.toCompactGraph(generator, 4);
+
+            // when
+            var sequential = KCores.decompose(graph);
+            var parallel = KCores.decompose(graph, 4);
+
+            // then
+            assertArrayEquals(sequential.coreNumbers(), parallel.coreNumbers());
+            assertEquals(sequential.getDegeneracy(), parallel.getDegeneracy());
+            assertDegeneracyOrdering(sequential);
+            assertDegeneracyOrdering(parallel);
+        }
+    }
+
+    @Test
+    void cliqueWithATailHasTwoCores() {
+        // given
+        var graph = new EdgeListGraph<Integer, Edge<Integer>>(GraphProperties.builder().orientation(DIRECTED).build());
+        for (int a = 0; a < 5; a++) {
+            for (int b = a + 1; b < 5; b++) {
+                graph.addEdge(new UnlabelledEdge<>(b, a));
+            }
+        }
+        graph.addEdge(new UnlabelledEdge<>(4, 5));
+        graph.addEdge(new UnlabelledEdge<>(5, 6));
+        graph.addEdge(new UnlabelledEdge<>(6, 5));
+        graph.addEdge(new UnlabelledEdge<>(6, 6));
+        graph.addVertex(7);
+
+        for (int parallelism : new int[] {1, 3}) {
+            // when
+            var decomposition = KCores.decompose(graph, parallelism);
+
+            // then
+            assertAll(() -> assertEquals(4, decomposition.getDegeneracy()),
+                      () -> assertEquals(4, decomposition.coreNumber(0)),
+                      () -> assertEquals(1, decomposition.coreNumber(6)),
+                      () -> assertEquals(0, decomposition.coreNumber(7)),
+                      () -> assertEquals(-1, decomposition.coreNumber(8)),
+                      () -> assertEquals(7, decomposition.coreSize(1)),
+                      () -> assertEquals(5, decomposition.coreSize(2)),
+                      () -> assertEquals(0, decomposition.coreSize(5)),
+                      () -> assertEquals(7, decomposition.degeneracyOrdering().get(0)));
+            assertDegeneracyOrdering(decomposition);
+        }
+    }
+
+    @Test
+    void kCoreViewHoldsTheCoreVerticesAndEdges() {
+        // given
+        var graph = new EdgeListGraph<String, Edge<String>>(GraphProperties.builder().orientation(UNDIRECTED).build());
+        graph.addEdge(new UnlabelledEdge<>("a", "b"));
+        graph.addEdge(new UnlabelledEdge<>("b", "c"));
+        graph.addEdge(new UnlabelledEdge<>("c", "a"));
+        graph.addEdge(new UnlabelledEdge<>("c", "d"));
+
+        // when
+        var core = KCores.decompose(graph).kCore(2);
+
+        // then
+        assertAll(() -> assertEquals(3, core.numberOfVertices()),
+                  () -> assertEquals(Set.of("a", "b", "c"), core.vertices().collect(Collectors.toSet())),
+                  () -> assertEquals(3, core.numberOfEdges()),
+                  () -> assertEquals(Set.of("a", "b"), core.neighbours("c")),
+                  () -> assertTrue(core.neighbours("d").isEmpty()),
+                  () -> assertFalse(core.hasVertex("d")),
+                  () -> assertFalse(core.hasEdge("c", "d")),
+                  () -> assertEquals(2, core.getEdges("c").size()));
+    }
+}
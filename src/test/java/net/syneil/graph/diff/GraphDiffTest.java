@@ -0,0 +1,110 @@
+package net.syneil.graph.diff;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.TestGraphs;
+import net.syneil.graph.UnmodifiableGraph;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphDiffTest {
+    /**
+     * @return the vertices an undirected edge joins, in ascending order
+     */
+    private static List<Integer> endpoints(Edge<Integer> edge) {
+        return List.of(Math.min(edge.getSource(), edge.getTarget()), Math.max(edge.getSource(), edge.getTarget()));
+    }
+
+    @Test
+    void diffFindsAddedAndRemovedElements() {
+        // given
+        var knows = new ObjectLabelledEdge<>("alice", "bob", "knows");
+        var likes = new ObjectLabelledEdge<>("alice", "bob", "likes");
+        var follows = new ObjectLabelledEdge<>("bob", "carol", "follows");
+        var yesterday = new UnmodifiableGraph<String, LabelledEdge<String, String>>(
+                List.of("alice", "bob", "carol"), List.of(knows, likes, follows));
+        var today = new UnmodifiableGraph<String, LabelledEdge<String, String>>(
+                List.of("dave", "bob", "alice"), List.of(new ObjectLabelledEdge<>("alice", "bob", "likes"),
+                                                         new ObjectLabelledEdge<>("alice", "bob", "knows"),
+                                                         new ObjectLabelledEdge<>("alice", "bob", "knows"),
+                                                         new ObjectLabelledEdge<>("dave", "alice", "knows")));
+
+        // when
+        GraphDiff<String, LabelledEdge<String, String>> diff = GraphDiff.of(yesterday, today);
+
+        // then
+        List<LabelledEdge<String, String>> added = diff.addedEdges().collect(Collectors.toList());
+        assertAll(() -> assertEquals(List.of("carol"), diff.removedVertices().collect(Collectors.toList())),
+                  () -> assertEquals(List.of("dave"), diff.addedVertices().collect(Collectors.toList())),
+                  () -> assertEquals(List.of(follows), diff.removedEdges().collect(Collectors.toList())),
+                  () -> assertEquals(List.of("knows", "knows"), added.stream().map(LabelledEdge::getLabel)
+                                                                      .collect(Collectors.toList())),
+                  () -> assertEquals(5, diff.size()),
+                  () -> assertFalse(diff.isEmpty()),
+                  () -> assertTrue(GraphDiff.equal(today, today)));
+    }
+
+    @Test
+    void undirectedGraphsAreEqualWhateverTheirOrder() {
+        // given
+        var graph = TestGraphs.randomGraph(UNDIRECTED, 100, 300, 1L);
+        var reversed = new EdgeListGraph<Integer, Edge<Integer>>(graph.getProperties());
+        List<Edge<Integer>> edges = graph.edges().collect(Collectors.toList());
+        for (int i = edges.size() - 1; i >= 0; i--) {
+            reversed.addEdge(new UnlabelledEdge<>(edges.get(i).getTarget(), edges.get(i).getSource()));
+        }
+        graph.vertices().forEach(reversed::addVertex);
+        var changed = new EdgeListGraph<Integer, Edge<Integer>>(graph.getProperties());
+        edges.stream().skip(1).forEach(changed::addEdge);
+        graph.vertices().forEach(changed::addVertex);
+
+        // when
+        GraphDiff<Integer, Edge<Integer>> diff = GraphDiff.of(graph, changed);
+
+        // then
+        assertAll(() -> assertTrue(GraphDiff.equal(graph, reversed)),
+                  () -> assertEquals(List.of(endpoints(edges.get(0))),
+                                     diff.removedEdges().map(GraphDiffTest::endpoints).collect(Collectors.toList())),
+                  () -> assertEquals(0, diff.addedEdges().count()));
+    }
+
+    @Test
+    void structuralHashIgnoresNumbering() {
+        // given
+        var graph = TestGraphs.randomGraph(UNDIRECTED, 2000, 8000, 2L);
+        var shifted = new EdgeListGraph<Integer, Edge<Integer>>(graph.getProperties());
+        graph.vertices().forEach(v -> shifted.addVertex(1999 - v));
+        graph.edges().forEach(edge -> shifted.addEdge(new UnlabelledEdge<>(1999 - edge.getTarget(),
+                                                                           1999 - edge.getSource())));
+        var nearly = new EdgeListGraph<Integer, Edge<Integer>>(graph.getProperties());
+        graph.vertices().forEach(nearly::addVertex);
+        graph.edges().skip(1).forEach(nearly::addEdge);
+        var other = TestGraphs.randomGraph(UNDIRECTED, 2000, 8000, 3L);
+        var serial = StructuralHashOptions.builder().parallelism(1).build();
+
+        // when
+        StructuralHash hash = StructuralHash.of(graph);
+        StructuralHash hashShifted = StructuralHash.of(shifted, serial);
+        StructuralHash hashNearly = StructuralHash.of(nearly);
+        StructuralHash hashOther = StructuralHash.of(other);
+
+        // then
+        assertAll(() -> assertEquals(hash, hashShifted),
+                  () -> assertEquals(1.0, hash.similarity(hashShifted)),
+                  () -> assertNotEquals(hash.getHash(), hashNearly.getHash()),
+                  () -> assertTrue(hash.similarity(hashNearly) > 0.8, () -> "near " + hash.similarity(hashNearly)),
+                  () -> assertNotEquals(hash.getHash(), hashOther.getHash()),
+                  () -> assertTrue(hash.similarity(hashOther) < 0.5, () -> "other " + hash.similarity(hashOther)),
+                  () -> assertNotEquals(hash.getHash(), StructuralHash.of(graph, v -> v, serial).getHash()),
+                  () -> assertThrows(IllegalArgumentException.class, () -> hash.similarity(
+                          StructuralHash.of(graph, StructuralHashOptions.builder().iterations(1).build()))));
+    }
+}
@@ -0,0 +1,136 @@
+package net.syneil.graph.distance;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import net.syneil.graph.generate.Generators;
+import net.syneil.graph.generate.GridGenerator;
+import net.syneil.graph.generate.RMatGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperBallTest {
+    /**
+     * @return the distance from a vertex to every vertex, or -1 for those it does not reach
+     */
+    private static int[] breadthFirst(CompactGraph<?, ?> graph, int source) {
+        int[] distances = new int[graph.index().size()];
+        Arrays.fill(distances, -1);
+        distances[source] = 0;
+        var queue = new ArrayDeque<Integer>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            graph.targets(v).filter(w -> distances[w] < 0).forEach(w -> {
+                distances[w] = distances[v] + 1;
+                queue.add(w);
+            });
+        }
+        return distances;
+    }
+
+    @Test
+    void broadwordMaximumAgreesWithRegisterByRegister() {
+        var random = new SplittableRandom(49L);
+        long valid = (1L << (HyperLogLogCounters.REGISTERS_PER_WORD * HyperLogLogCounters.REGISTER_WIDTH)) - 1;
+        for (int i = 0; i < 10_000; i++) {
+            // given
+            long x = random.nextLong() & valid, y = random.nextLong() & valid;
+
+            // when
+            long max = HyperLogLogCounters.max(x, y);
+
+            // then
+            for (int r = 0; r < HyperLogLogCounters.REGISTERS_PER_WORD; r++) {
+                int shift = r * HyperLogLogCounters.REGISTER_WIDTH;
+                assertEquals(Math.max(x >>> shift & 63, y >>> shift & 63), max >>> shift & 63);
+            }
+            assertEquals(0, max & ~valid);
+        }
+    }
+
+    @Test
+    void estimatesAgreeWithExactDistancesOnAGrid() {
+        // given
+        var graph = Generators.toCompactGraph(new GridGenerator(30, 30, false), 4);
+        int n = graph.index().size();
+        double[] exactHarmonic = new double[n];
+        double exactTotal = 0.0, pairs = 0.0;
+        for (int v = 0; v < n; v++) {
+            for (int distance : breadthFirst(graph, v)) {
+                if (distance > 0) {
+                    exactHarmonic[v] += 1.0 / distance;
+                    exactTotal += distance;
+                    pairs++;
+                }
+            }
+        }
+
+        // when
+        var estimate = HyperBall.run(graph, HyperBallOptions.builder().log2m(10).parallelism(4).build());
+
+        // then
+        double exactAverage = exactTotal / pairs;
+        double harmonicError = IntStream.range(0, n)
+                                        .mapToDouble(v -> Math.abs(estimate.harmonicCentrality(v) - exactHarmonic[v])
+                                                / exactHarmonic[v])
+                                        .average().orElseThrow();
+        assertAll(() -> assertEquals(exactAverage, estimate.getAverageDistance(), exactAverage * 0.05),
+                  () -> assertTrue(estimate.getDiameter() >= 50 && estimate.getDiameter() <= 58,
+                                   () -> "diameter " + estimate.getDiameter()),
+                  () -> assertEquals(n, estimate.reach(0), n * 0.1),
+                  () -> assertEquals((double) n * n, estimate.neighbourhoodFunction()[estimate.getDiameter()],
+                                     n * n * 0.1),
+                  () -> assertTrue(harmonicError < 0.1, () -> "harmonic error " + harmonicError),
+                  () -> assertTrue(estimate.getEffectiveDiameter() > exactAverage));
+    }
+
+    @Test
+    void transposedBallsReachBackwards() {
+        // given
+        var graph = new EdgeListGraph<Integer, Edge<Integer>>(GraphProperties.builder().orientation(DIRECTED).build());
+        for (int v = 0; v < 9; v++) {
+            graph.addEdge(new UnlabelledEdge<>(v, v + 1));
+        }
+
+        // when
+        var forwards = HyperBall.run(graph);
+        var backwards = HyperBall.run(graph, HyperBallOptions.builder().transposed(true).build());
+
+        // then
+        assertAll(() -> assertEquals(10, forwards.reach(Integer.valueOf(0)), 1.0),
+                  () -> assertEquals(1, forwards.reach(Integer.valueOf(9)), 0.5),
+                  () -> assertEquals(1, backwards.reach(Integer.valueOf(0)), 0.5),
+                  () -> assertEquals(10, backwards.reach(Integer.valueOf(9)), 1.0),
+                  () -> assertEquals(9, forwards.getDiameter()),
+                  () -> assertEquals(0.0, forwards.harmonicCentrality(Integer.valueOf(9))),
+                  () -> assertEquals(-1, forwards.reach(Integer.valueOf(10))));
+    }
+
+    @Test
+    void estimatesAreTheSameWhateverTheParallelism() {
+        // given
+        var graph = Generators.toCompactGraph(new RMatGenerator(12, 30_000, 50L), 4);
+
+        // when
+        var one = HyperBall.run(graph, HyperBallOptions.builder().parallelism(1).seed(7L).build());
+        var four = HyperBall.run(graph, HyperBallOptions.builder().parallelism(4).seed(7L).build());
+
+        // then
+        assertAll(() -> assertArrayEquals(one.neighbourhoodFunction(), four.neighbourhoodFunction()),
+                  () -> assertArrayEquals(one.harmonicCentralities(), four.harmonicCentralities()),
+                  () -> assertArrayEquals(one.closenessCentralities(), four.closenessCentralities()),
+                  () -> assertThrows(IllegalArgumentException.class,
+                                     () -> HyperBall.run(graph, HyperBallOptions.builder().log2m(3).build())),
+                  () -> assertThrows(IllegalArgumentException.class, () -> one.getEffectiveDiameter(0.0)));
+    }
+}
@@ -0,0 +1,219 @@
+package net.syneil.graph.durable;
+
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import net.syneil.graph.io.EdgeFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableGraphTest {
+    private static final GraphCodec<String, LabelledEdge<String, String>> CODEC =
+            GraphCodec.strings(EdgeFactory.labelled());
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("durable-graph");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private DurableGraph<String, LabelledEdge<String, String>> open(DurabilityOptions options) throws IOException {
+        var graph = new EdgeListGraph<String, LabelledEdge<String, String>>(
+                GraphProperties.builder().orientation(DIRECTED).build());
+        return DurableGraph.open(directory, graph, CODEC, options);
+    }
+
+    private static ObjectLabelledEdge<String, String> edge(String source, String label, String target) {
+        return new ObjectLabelledEdge<>(source, target, label);
+    }
+
+    private static Set<String> contents(Graph<String, ? extends LabelledEdge<String, String>> graph) {
+        return Stream.concat(graph.vertices(),
+                             graph.edges().map(e -> e.getSource() + "-" + e.getLabel() + "->" + e.getTarget()))
+                     .collect(Collectors.toSet());
+    }
+
+    private static void mutate(DurableGraph<String, LabelledEdge<String, String>> graph) {
+        var likes = edge("a", "likes", "b");
+        graph.addEdge(edge("a", "knows", "b"));
+        graph.addEdge(likes);
+        graph.addEdge(edge("b", "knows", "c"));
+        graph.addEdge(edge("c", null, "d"));
+        graph.addVertex("e");
+        graph.addVertex("f");
+        graph.removeEdge(likes);
+        graph.removeEdges("b", "c");
+        graph.removeVertex("f");
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void mutationsSurviveReopening() throws IOException {
+        // given
+        Set<String> expected;
+        try (var graph = open(DurabilityOptions.defaults())) {
+            mutate(graph);
+            expected = contents(graph);
+        }
+
+        // when
+        try (var recovered = open(DurabilityOptions.defaults())) {
+            // then
+            assertAll(() -> assertEquals(Set.of("a", "b", "c", "d", "e", "a-knows->b", "c-null->d"), expected),
+                      () -> assertEquals(expected, contents(recovered)));
+        }
+    }
+
+    @Test
+    void syncedMutationsSurviveACrash() throws IOException {
+        // given a graph that is never closed
+        var graph = open(DurabilityOptions.builder().syncPolicy(SyncPolicy.ALWAYS).checkpointInterval(0L).build());
+        mutate(graph);
+
+        // when
+        var recovered = DurableGraph.open(directory, new EdgeListGraph<>(), CODEC);
+
+        // then
+        assertEquals(contents(graph), contents(recovered));
+    }
+
+    @Test
+    void checkpointsReplaceTheLogTheyCover() throws IOException {
+        // given
+        try (var graph = open(DurabilityOptions.builder().segmentSize(64L).checkpointInterval(0L).build())) {
+            mutate(graph);
+            assertTrue(files("wal-").size() > 2);
+
+            // when
+            graph.checkpoint();
+            graph.addEdge(edge("e", "knows", "a"));
+
+            // then
+            assertAll(() -> assertEquals(1, files("checkpoint-").size()),
+                      () -> assertEquals(1, files("wal-").size()));
+        }
+        try (var recovered = open(DurabilityOptions.defaults())) {
+            assertAll(() -> assertTrue(recovered.hasEdge("e", "a")),
+                      () -> assertEquals(Set.of("a", "b", "c", "d", "e", "a-knows->b", "c-null->d", "e-knows->a"),
+                                         contents(recovered)));
+        }
+    }
+
+    @Test
+    void checkpointsAreTakenPeriodically() throws IOException {
+        // given
+        var options = DurabilityOptions.builder().syncPolicy(SyncPolicy.NEVER).checkpointInterval(4L).build();
+        Set<String> expected;
+
+        // when
+        try (var graph = open(options)) {
+            mutate(graph);
+            expected = contents(graph);
+        }
+
+        // then
+        assertEquals(1, files("checkpoint-").size());
+        try (var recovered = open(options)) {
+            assertEquals(expected, contents(recovered));
+        }
+    }
+
+    @Test
+    void aTornTailIsDiscarded() throws IOException {
+        // given
+        try (var graph = open(DurabilityOptions.builder().syncPolicy(SyncPolicy.INTERVAL).build())) {
+            mutate(graph);
+        }
+        Path segment = files("wal-").get(0);
+        Files.write(segment, new byte[] {0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // when
+        try (var recovered = open(DurabilityOptions.defaults())) {
+            recovered.addEdge(edge("e", "knows", "a"));
+        }
+
+        // then
+        try (var recovered = open(DurabilityOptions.defaults())) {
+            assertEquals(Set.of("a", "b", "c", "d", "e", "a-knows->b", "c-null->d", "e-knows->a"),
+                         contents(recovered));
+        }
+    }
+
+    @Test
+    void concurrentWritersShareSyncs() throws Exception {
+        // given
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        try (var graph = open(DurabilityOptions.builder().segmentSize(4096L).checkpointInterval(300L).build())) {
+            // when
+            List<Future<?>> done = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                int writer = w;
+                done.add(writers.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        graph.addEdge(edge("w" + writer, "wrote", "v" + i));
+                    }
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        // then
+        try (var recovered = open(DurabilityOptions.defaults())) {
+            assertAll(() -> assertEquals(1000, recovered.numberOfEdges()),
+                      () -> assertEquals(254, recovered.numberOfVertices()));
+        }
+    }
+
+    @Test
+    void closedGraphsRefuseMutations() throws IOException {
+        // given
+        var graph = open(DurabilityOptions.defaults());
+        graph.addVertex("a");
+
+        // when
+        graph.close();
+
+        // then
+        assertAll(() -> assertThrows(IllegalStateException.class, () -> graph.addVertex("b")),
+                  () -> assertTrue(graph.hasVertex("a")),
+                  () -> assertThrows(IllegalArgumentException.class,
+                                     () -> DurableGraph.open(directory, graph, CODEC)));
+    }
+}
@@ -4,9 +4,13 @@ import net.syneil.graph.*;
 import net.syneil.graph.edge.UnlabelledEdge;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+
+import static net.syneil.graph.GraphProperties.Cyclicity.ACYCLIC;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
 
 class EdgeListGraphTest {
     private MutableGraph<UUID, Edge<UUID>> graph;
@@ -65,5 +69,104 @@ class EdgeListGraphTest {
         public boolean edgesAreDirected() {
             return true;
         }
+
+        @Override
+        public boolean edgesRetainIdentity() {
+            return true;
+        }
+    }
+
+    @Nested
+    class WhenAcyclic {
+        private final EdgeListGraph<Integer, Edge<Integer>> dag =
+                new EdgeListGraph<>(GraphProperties.builder().cyclicity(ACYCLIC).build());
+
+        @Test
+        void edgesClosingCyclesAreRefused() {
+            // given
+            dag.addEdge(new UnlabelledEdge<>(1, 2));
+            dag.addEdge(new UnlabelledEdge<>(2, 3));
+
+            // then
+            assertAll(() -> assertThrows(GraphPropertyViolationException.class,
+                                         () -> dag.addEdge(new UnlabelledEdge<>(3, 1))),
+                      () -> assertThrows(GraphPropertyViolationException.class,
+                                         () -> dag.addEdge(new UnlabelledEdge<>(2, 2))),
+                      () -> assertEquals(2L, dag.numberOfEdges()),
+                      () -> assertFalse(dag.hasEdge(3, 1)),
+                      () -> assertTrue(dag.addEdge(new UnlabelledEdge<>(1, 3))));
+        }
+
+        @Test
+        void removingEdgeAllowsReversal() {
+            // given
+            Edge<Integer> forward = new UnlabelledEdge<>(1, 2);
+            dag.addEdge(forward);
+
+            // when
+            dag.removeEdge(forward);
+
+            // then
+            assertTrue(dag.addEdge(new UnlabelledEdge<>(2, 1)));
+        }
+
+        @Test
+        void topologicalOrderIsMaintained() {
+            // given
+            var random = new Random(32L);
+            for (int i = 0; i < 500; i++) {
+                int source = random.nextInt(60), target = random.nextInt(60);
+                boolean closesCycle = source == target || reaches(target, source);
+                Edge<Integer> edge = new UnlabelledEdge<>(source, target);
+                if (closesCycle) {
+                    assertThrows(GraphPropertyViolationException.class, () -> dag.addEdge(edge));
+                } else {
+                    assertTrue(dag.addEdge(edge));
+                }
+                if (i % 50 == 49) {
+                    dag.removeVertex(random.nextInt(60));
+                }
+            }
+
+            // when
+            List<Integer> order = dag.topologicalOrder().orElseThrow().asList();
+
+            // then
+            assertEquals(dag.numberOfVertices(), order.size());
+            dag.edges().forEach(edge -> assertAll(
+                    () -> assertTrue(order.indexOf(edge.getSource()) < order.indexOf(edge.getTarget())),
+                    () -> assertTrue(dag.topologicalOrder().orElseThrow().precedes(edge.getSource(),
+                                                                                   edge.getTarget()))));
+        }
+
+        private boolean reaches(Integer from, Integer to) {
+            Set<Integer> seen = new HashSet<>(List.of(from));
+            Deque<Integer> stack = new ArrayDeque<>(seen);
+            while (!stack.isEmpty()) {
+                Integer vertex = stack.pop();
+                if (vertex.equals(to)) {
+                    return true;
+                }
+                dag.neighbours(vertex).stream().filter(seen::add).forEach(stack::push);
+            }
+            return false;
+        }
+
+        @Test
+        void undirectedGraphMustBeForest() {
+            // given
+            var forest = new EdgeListGraph<Integer, Edge<Integer>>(
+                    GraphProperties.builder().orientation(UNDIRECTED).cyclicity(ACYCLIC).build());
+            forest.addEdge(new UnlabelledEdge<>(1, 2));
+            forest.addEdge(new UnlabelledEdge<>(3, 2));
+
+            // then
+            assertAll(() -> assertThrows(GraphPropertyViolationException.class,
+                                         () -> forest.addEdge(new UnlabelledEdge<>(1, 3))),
+                      () -> assertThrows(GraphPropertyViolationException.class,
+                                         () -> forest.addEdge(new UnlabelledEdge<>(2, 1))),
+                      () -> assertTrue(forest.addEdge(new UnlabelledEdge<>(3, 4))),
+                      () -> assertFalse(forest.topologicalOrder().isPresent()));
+        }
     }
 }
@@ -0,0 +1,167 @@
+package net.syneil.graph.flow;
+
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowNetworkTest {
+    /**
+     * The network from Cormen et al., figure 26.1, whose maximum flow is 23
+     */
+    private static EdgeListGraph<String, LabelledEdge<String, Long>> textbookGraph() {
+        var graph = new EdgeListGraph<String, LabelledEdge<String, Long>>();
+        graph.addEdge(new ObjectLabelledEdge<>("s", "v1", 16L));
+        graph.addEdge(new ObjectLabelledEdge<>("s", "v2", 13L));
+        graph.addEdge(new ObjectLabelledEdge<>("v2", "v1", 4L));
+        graph.addEdge(new ObjectLabelledEdge<>("v1", "v3", 12L));
+        graph.addEdge(new ObjectLabelledEdge<>("v3", "v2", 9L));
+        graph.addEdge(new ObjectLabelledEdge<>("v2", "v4", 14L));
+        graph.addEdge(new ObjectLabelledEdge<>("v4", "v3", 7L));
+        graph.addEdge(new ObjectLabelledEdge<>("v3", "t", 20L));
+        graph.addEdge(new ObjectLabelledEdge<>("v4", "t", 4L));
+        return graph;
+    }
+
+    @Test
+    void textbookNetworkHasMaximumFlowOfTwentyThree() {
+        for (FlowAlgorithm algorithm : FlowAlgorithm.values()) {
+            // given
+            var graph = textbookGraph();
+            var network = FlowNetwork.of(graph, LabelledEdge::getLabel);
+
+            // when
+            var flow = network.maxFlow("s", "t", algorithm);
+
+            // then
+            assertAll(() -> assertEquals(23L, flow.getValue()),
+                      () -> assertEquals(Set.of("s", "v1", "v2", "v4"), flow.getSourceSide()),
+                      () -> assertEquals(Set.of("v3", "t"), flow.getSinkSide()),
+                      () -> assertEquals(23L, flow.getCutEdges().stream().mapToLong(LabelledEdge::getLabel).sum()),
+                      () -> assertConserved(graph, flow, "s", "t"));
+        }
+    }
+
+    @Test
+    void undirectedEdgesCarryFlowEitherWay() {
+        // given
+        var graph = new EdgeListGraph<String, LabelledEdge<String, Long>>(
+                GraphProperties.builder().orientation(UNDIRECTED).build());
+        var ab = new ObjectLabelledEdge<>("a", "b", 3L);
+        var cb = new ObjectLabelledEdge<>("c", "b", 2L);
+        var ac = new ObjectLabelledEdge<>("a", "c", 1L);
+        graph.addEdge(ab);
+        graph.addEdge(cb);
+        graph.addEdge(ac);
+        var network = FlowNetwork.<String, LabelledEdge<String, Long>>of(graph, LabelledEdge::getLabel);
+
+        for (FlowAlgorithm algorithm : FlowAlgorithm.values()) {
+            // when
+            var flow = network.maxFlow("c", "a", algorithm);
+
+            // then
+            assertAll(() -> assertEquals(3L, flow.getValue()),
+                      () -> assertEquals(-2L, flow.getFlow(ab)),
+                      () -> assertEquals(2L, flow.getFlow(cb)),
+                      () -> assertEquals(-1L, flow.getFlow(ac)),
+                      () -> assertEquals(Set.of("c"), flow.getSourceSide()));
+        }
+    }
+
+    @Test
+    void changedCapacitiesApplyToLaterProblems() {
+        // given
+        var graph = textbookGraph();
+        var network = FlowNetwork.of(graph, LabelledEdge::getLabel);
+        var v4t = graph.getEdges("v4", "t").get(0);
+
+        // when
+        network.setCapacity(v4t, 10L);
+        var copy = network.copy();
+        network.setCapacity(v4t, 0L);
+
+        // then
+        assertAll(() -> assertEquals(19L, network.maxFlow("s", "t").getValue()),
+                  () -> assertEquals(25L, copy.maxFlow("s", "t").getValue()),
+                  () -> assertEquals(0L, network.getCapacity(v4t)),
+                  () -> assertThrows(IllegalArgumentException.class, () -> network.setCapacity(v4t, -1L)));
+    }
+
+    @Test
+    void unreachableSinkHasNoFlow() {
+        // given
+        var graph = textbookGraph();
+        graph.addVertex("island");
+
+        // when
+        var flow = FlowNetwork.of(graph, LabelledEdge::getLabel).maxFlow("s", "island", FlowAlgorithm.PUSH_RELABEL);
+
+        // then
+        assertAll(() -> assertEquals(0L, flow.getValue()),
+                  () -> assertEquals(6, flow.getSourceSide().size()),
+                  () -> assertTrue(flow.getCutEdges().isEmpty()));
+    }
+
+    @Test
+    void algorithmsAgreeOnRandomNetworks() {
+        var random = new Random(31L);
+        for (int trial = 0; trial < 50; trial++) {
+            // given
+            var graph = new EdgeListGraph<Integer, LabelledEdge<Integer, Long>>();
+            int n = 2 + random.nextInt(40);
+            for (int v = 0; v < n; v++) {
+                graph.addVertex(v);
+            }
+            int m = random.nextInt(n * 4);
+            for (int i = 0; i < m; i++) {
+                long capacity = random.nextInt(20);
+                graph.addEdge(new ObjectLabelledEdge<>(random.nextInt(n), random.nextInt(n), capacity));
+            }
+            var network = FlowNetwork.of(graph, LabelledEdge::getLabel);
+
+            // when
+            var pushRelabel = network.maxFlow(0, n - 1, FlowAlgorithm.PUSH_RELABEL);
+            var dinic = network.maxFlow(0, n - 1, FlowAlgorithm.DINIC);
+
+            // then
+            assertAll(() -> assertEquals(dinic.getValue(), pushRelabel.getValue()),
+                      () -> assertEquals(pushRelabel.getValue(),
+                                         pushRelabel.getCutEdges().stream().mapToLong(LabelledEdge::getLabel).sum()),
+                      () -> assertEquals(dinic.getValue(),
+                                         dinic.getCutEdges().stream().mapToLong(LabelledEdge::getLabel).sum()),
+                      () -> assertConserved(graph, pushRelabel, 0, n - 1),
+                      () -> assertConserved(graph, dinic, 0, n - 1));
+        }
+    }
+
+    private static <V> void assertConserved(EdgeListGraph<V, LabelledEdge<V, Long>> graph,
+                                            MaxFlow<V, LabelledEdge<V, Long>> flow,
+                                            V source,
+                                            V sink) {
+        Map<V, Long> balance = new HashMap<>();
+        graph.edges().forEach(edge -> {
+            long f = flow.getFlow(edge);
+            assertTrue(0L <= f && f <= edge.getLabel());
+            balance.merge(edge.getSource(), -f, Long::sum);
+            balance.merge(edge.getTarget(), f, Long::sum);
+        });
+        balance.forEach((vertex, net) -> {
+            if (vertex.equals(source)) {
+                assertEquals(-flow.getValue(), (long) net);
+            } else if (vertex.equals(sink)) {
+                assertEquals(flow.getValue(), (long) net);
+            } else {
+                assertEquals(0L, (long) net);
+            }
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package net.syneil.graph.generate;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static net.syneil.graph.GraphProperties.Multiplicity.SINGLE;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratorsTest {
+    private static List<Long> edges(GraphGenerator generator, int parallelism) {
+        List<Long> edges = new ArrayList<>();
+        Generators.generate(generator, (source, target) -> {
+            edges.add(source);
+            edges.add(target);
+        }, parallelism);
+        return edges;
+    }
+
+    private static void assertDeterministic(GraphGenerator generator) {
+        List<Long> sequential = edges(generator, 1);
+        assertAll(() -> assertFalse(sequential.isEmpty()),
+                  () -> assertEquals(sequential, edges(generator, 3)),
+                  () -> assertEquals(sequential, edges(generator, 8)));
+    }
+
+    @Test
+    void generatorsAreDeterministicRegardlessOfParallelism() {
+        assertAll(() -> assertDeterministic(new ErdosRenyiGenerator(3000, 0.01, false, 7L)),
+                  () -> assertDeterministic(new BarabasiAlbertGenerator(20000, 4, true, 7L)),
+                  () -> assertDeterministic(new RMatGenerator(12, 200_000, 7L)),
+                  () -> assertDeterministic(new WattsStrogatzGenerator(20000, 6, 0.2, 7L)));
+    }
+
+    @Test
+    void seedChangesGraph() {
+        assertNotEquals(edges(new RMatGenerator(10, 1000, 1L), 2), edges(new RMatGenerator(10, 1000, 2L), 2));
+    }
+
+    @Test
+    void erdosRenyiHasExpectedDensity() {
+        // given
+        long n = 2000;
+        double p = 0.05;
+
+        // when
+        long count = edges(new ErdosRenyiGenerator(n, p, true, 11L), 4).size() / 2;
+
+        // then within five standard deviations of n(n-1)p
+        double expected = n * (n - 1) * p;
+        assertEquals(expected, count, 5 * Math.sqrt(expected));
+    }
+
+    @Test
+    void erdosRenyiCompleteGraph() {
+        var graph = Generators.toCompactGraph(new ErdosRenyiGenerator(20, 1.0, false, 0L), 2);
+        assertAll(() -> assertEquals(190L, graph.numberOfEdges()),
+                  () -> assertTrue(graph.edges().noneMatch(Edge::isSelfEdge)));
+    }
+
+    @Test
+    void simpleBarabasiAlbertHasNoLoopsOrRepeats() {
+        // when
+        List<Long> edges = edges(new BarabasiAlbertGenerator(5000, 3, true, 3L), 4);
+
+        // then
+        Set<List<Long>> distinct = new HashSet<>();
+        for (int i = 0; i < edges.size(); i += 2) {
+            long source = edges.get(i), target = edges.get(i + 1);
+            assertTrue(target < source);
+            assertTrue(distinct.add(List.of(source, target)));
+        }
+        assertTrue(distinct.size() > 5000 * 3 * 9 / 10);
+    }
+
+    @Test
+    void periodicGridIsRegular() {
+        // when
+        var grid = Generators.toCompactGraph(new GridGenerator(30, 40, true), 4);
+
+        // then
+        assertAll(() -> assertEquals(1200L, grid.numberOfVertices()),
+                  () -> assertEquals(2400L, grid.numberOfEdges()),
+                  () -> assertTrue(grid.vertices().allMatch(v -> grid.degree(v) == 4)),
+                  () -> assertTrue(grid.hasEdge(39, 0)),
+                  () -> assertTrue(grid.hasEdge(1160, 0)));
+    }
+
+    @Test
+    void latticeWithoutRewiringIsRing() {
+        var ring = Generators.toCompactGraph(new WattsStrogatzGenerator(100, 4, 0.0, 0L), 1);
+        assertAll(() -> assertEquals(200L, ring.numberOfEdges()),
+                  () -> assertTrue(ring.vertices().allMatch(v -> ring.degree(v) == 4)),
+                  () -> assertTrue(ring.hasEdge(99, 1)));
+    }
+
+    @Test
+    void intoMutableGraphSkipsForbiddenEdges() {
+        // given
+        var graph = new EdgeListGraph<Long, Edge<Long>>(
+                GraphProperties.builder().multiplicity(SINGLE).orientation(UNDIRECTED).build());
+
+        // when
+        Generators.generate(new BarabasiAlbertGenerator(200, 2, false, 5L),
+                            Generators.into(graph, Long::valueOf, UnlabelledEdge::new), 2);
+
+        // then
+        assertAll(() -> assertEquals(200L, graph.numberOfVertices()),
+                  () -> assertTrue(graph.numberOfEdges() > 0L),
+                  () -> assertTrue(graph.numberOfEdges() <= 400L));
+    }
+}
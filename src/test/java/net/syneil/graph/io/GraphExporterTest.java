@@ -0,0 +1,137 @@
+package net.syneil.graph.io;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphExporterTest {
+    private Path file;
+    private EdgeListGraph<String, LabelledEdge<String, String>> graph;
+
+    @BeforeEach
+    void createGraph() throws IOException {
+        file = Files.createTempFile("graph", ".out");
+        graph = new EdgeListGraph<>();
+        graph.addEdge(new ObjectLabelledEdge<>("a", "b", "likes"));
+        graph.addEdge(new ObjectLabelledEdge<>("b", "c, \"the\" cat", null));
+        graph.addEdge(new ObjectLabelledEdge<>("c, \"the\" cat", "<d&é>", "is"));
+        graph.addVertex("lonely");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private GraphExporter<String, LabelledEdge<String, String>> exporter() {
+        return new GraphExporter<>(Function.identity(), GraphExporter::labelOf);
+    }
+
+    private GraphImporter<String, LabelledEdge<String, String>> importer() {
+        return new GraphImporter<>(Function.identity(), EdgeFactory.labelled());
+    }
+
+    private void assertSameEdges(EdgeListGraph<String, LabelledEdge<String, String>> copy) {
+        assertAll(() -> assertEquals(graph.numberOfEdges(), copy.numberOfEdges()),
+                  () -> assertTrue(graph.edges().allMatch(
+                          e -> copy.getEdges(e.getSource(), e.getTarget())
+                                   .stream()
+                                   .anyMatch(LabelledEdge.hasLabel(e.getLabel())))));
+    }
+
+    @Test
+    void edgeListRoundTrips() throws IOException {
+        // when
+        exporter().export(graph, EdgeListWriter.csv(), file);
+        var copy = importer().importInto(new ChunkedLineReader(DelimitedFormat.csv()), file, new EdgeListGraph<>());
+
+        // then
+        assertSameEdges(copy);
+    }
+
+    @Test
+    void edgeListRoundTripsAwkwardFieldsButRejectsLineBreaks() throws IOException {
+        // given
+        graph.addEdge(new ObjectLabelledEdge<>("#not a comment", "tab\tand \"quote\"", ""));
+        var broken = new EdgeListGraph<String, LabelledEdge<String, String>>();
+        broken.addEdge(new ObjectLabelledEdge<>("a", "two\nlines", null));
+
+        // when
+        exporter().export(graph, EdgeListWriter.tsv(), file);
+        var copy = importer().importInto(new ChunkedLineReader(DelimitedFormat.tsv()), file, new EdgeListGraph<>());
+
+        // then
+        assertAll(() -> assertEquals(graph.numberOfEdges(), copy.numberOfEdges()),
+                  () -> assertTrue(copy.hasEdge("#not a comment", "tab\tand \"quote\"")),
+                  () -> assertThrows(GraphFormatException.class,
+                                     () -> exporter().export(broken, EdgeListWriter.tsv(), file)));
+    }
+
+    @Test
+    void graphMLRoundTripsIncludingIsolatedVertices() throws IOException {
+        // when
+        exporter().export(graph, new GraphMLWriter(), file);
+        var copy = importer().importInto(new GraphMLReader(), file, new EdgeListGraph<>());
+
+        // then
+        assertSameEdges(copy);
+        assertAll(() -> assertEquals(graph.numberOfVertices(), copy.numberOfVertices()),
+                  () -> assertTrue(copy.hasVertex("lonely")));
+    }
+
+    @Test
+    void dotUsesOrientation() throws IOException {
+        // given
+        var undirected = new EdgeListGraph<String, Edge<String>>(
+                GraphProperties.builder().orientation(UNDIRECTED).build());
+        undirected.addEdge(new ObjectLabelledEdge<>("x", "y\"z", 1));
+
+        // when
+        new GraphExporter<String, Edge<String>>(Function.identity(), GraphExporter::labelOf)
+                .export(undirected, new DotWriter(), file);
+        String dot = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+
+        // then
+        assertAll(() -> assertTrue(dot.startsWith("graph {\n")),
+                  () -> assertTrue(dot.contains("  \"x\" -- \"y\\\"z\" [label=\"1\"];\n")),
+                  () -> assertTrue(dot.endsWith("}\n")));
+    }
+
+    @Test
+    void gzipBlocksDecompressInOrder() throws IOException {
+        // given a graph whose output spans many blocks
+        var chain = new EdgeListGraph<Integer, Edge<Integer>>();
+        IntStream.range(0, 2000).forEach(i -> chain.addEdge(new ObjectLabelledEdge<>(i, i + 1, "é")));
+
+        // when
+        new GraphExporter<Integer, Edge<Integer>>(String::valueOf, GraphExporter::labelOf, Compression.GZIP, 3, 97)
+                .export(chain, EdgeListWriter.tsv(), file);
+
+        // then
+        var decompressed = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            in.transferTo(decompressed);
+        }
+        String tsv = decompressed.toString(StandardCharsets.UTF_8.name());
+        assertAll(() -> assertEquals(2000, tsv.split("\n").length),
+                  () -> assertTrue(tsv.contains("1999\t2000\té\n")));
+    }
+}
@@ -0,0 +1,183 @@
+package net.syneil.graph.io;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphImporterTest {
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("graph", ".txt");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void readsTsvEdgeList() throws IOException {
+        // given
+        write("# a comment\na\tb\nb\tc\tfriend\r\n\nc\ta\n");
+        var importer = new GraphImporter<String, LabelledEdge<String, String>>(Function.identity(),
+                                                                              EdgeFactory.labelled());
+
+        // when
+        var graph = importer.importInto(new ChunkedLineReader(DelimitedFormat.tsv()), file, new EdgeListGraph<>());
+
+        // then
+        assertAll(() -> assertEquals(3L, graph.numberOfVertices()),
+                  () -> assertEquals(3L, graph.numberOfEdges()),
+                  () -> assertTrue(graph.hasEdge("c", "a")),
+                  () -> assertEquals("friend", graph.getEdges("b", "c").get(0).getLabel()),
+                  () -> assertNull(graph.getEdges("a", "b").get(0).getLabel()));
+    }
+
+    @Test
+    void readsQuotedCsvWithHeader() throws IOException {
+        // given
+        write("from,to\n\"Smith, J\",\"say \"\"hi\"\"\"\n");
+        var importer = new GraphImporter<String, Edge<String>>(Function.identity(), EdgeFactory.unlabelled());
+
+        // when
+        var graph = importer.importInto(new ChunkedLineReader(DelimitedFormat.csv(), 2, 64, 1), file,
+                                        new EdgeListGraph<>());
+
+        // then
+        assertAll(() -> assertEquals(1L, graph.numberOfEdges()),
+                  () -> assertTrue(graph.hasEdge("Smith, J", "say \"hi\"")));
+    }
+
+    @Test
+    void readsManySmallChunksInOrder() throws IOException {
+        // given a chain long enough to span many chunks
+        write(IntStream.range(0, 5000).mapToObj(i -> i + "\t" + (i + 1)).collect(Collectors.joining("\n")));
+        var importer = new GraphImporter<Integer, Edge<Integer>>(Integer::valueOf, EdgeFactory.unlabelled());
+
+        // when
+        var graph = importer.importInto(new ChunkedLineReader(DelimitedFormat.tsv(), 4, 100, 0), file,
+                                        new EdgeListGraph<>());
+
+        // then
+        assertAll(() -> assertEquals(5001L, graph.numberOfVertices()),
+                  () -> assertEquals(5000L, graph.numberOfEdges()),
+                  () -> assertTrue(graph.hasEdge(4999, 5000)));
+    }
+
+    @Test
+    void readsLinesLongerThanChunk() throws IOException {
+        // given
+        String longName = String.join("", Collections.nCopies(1000, "x"));
+        write(longName + "\ty\ny\tz");
+        var importer = new GraphImporter<String, Edge<String>>(Function.identity(), EdgeFactory.unlabelled());
+
+        // when
+        var graph = importer.importInto(new ChunkedLineReader(DelimitedFormat.tsv(), 2, 16, 0), file,
+                                        new EdgeListGraph<>());
+
+        // then
+        assertAll(() -> assertTrue(graph.hasEdge(longName, "y")), () -> assertTrue(graph.hasEdge("y", "z")));
+    }
+
+    @Test
+    void rejectsMalformedLine() throws IOException {
+        // given
+        write("a\tb\nc\n");
+        var importer = new GraphImporter<String, Edge<String>>(Function.identity(), EdgeFactory.unlabelled());
+
+        // then
+        assertThrows(GraphFormatException.class,
+                     () -> importer.importInto(new ChunkedLineReader(DelimitedFormat.tsv()), file,
+                                               new EdgeListGraph<>()));
+    }
+
+    @Test
+    void readsNTriples() throws IOException {
+        // given
+        write("<http://ex/a> <http://ex/knows> <http://ex/b> .\n"
+                      + "_:b1 <http://ex/knows> <http://ex/a> .\n"
+                      + "<http://ex/a> <http://ex/name> \"Alice\"@en .\n"
+                      + "<http://ex/a> <http://ex/age> \"42\"^^<http://www.w3.org/2001/XMLSchema#int> .\n");
+        var importer = new GraphImporter<String, LabelledEdge<String, String>>(Function.identity(),
+                                                                              EdgeFactory.labelled());
+
+        // when
+        var all = importer.importInto(new ChunkedLineReader(new NTriplesFormat()), file, new EdgeListGraph<>());
+        var resources = importer.importInto(new ChunkedLineReader(new NTriplesFormat(false)), file,
+                                            new EdgeListGraph<>());
+
+        // then
+        assertAll(() -> assertEquals(4L, all.numberOfEdges()),
+                  () -> assertTrue(all.hasEdge("http://ex/a", "\"Alice\"@en")),
+                  () -> assertTrue(all.hasEdge("http://ex/a", "\"42\"^^<http://www.w3.org/2001/XMLSchema#int>")),
+                  () -> assertEquals("http://ex/knows", all.getEdges("_:b1", "http://ex/a").get(0).getLabel()),
+                  () -> assertEquals(2L, resources.numberOfEdges()),
+                  () -> assertEquals(3L, resources.numberOfVertices()));
+    }
+
+    @Test
+    void readsNTriplesEndingWithoutWhitespace() throws IOException {
+        // given
+        write("<a> <b> \"x\".\n"
+                      + "<a> <b> _:b.\n"
+                      + "<a> <c> \"y\"@en. # a comment\n"
+                      + "_:c.d <c> <a>.\n");
+        var importer = new GraphImporter<String, LabelledEdge<String, String>>(Function.identity(),
+                                                                              EdgeFactory.labelled());
+
+        // when
+        var graph = importer.importInto(new ChunkedLineReader(new NTriplesFormat()), file, new EdgeListGraph<>());
+
+        // then
+        assertAll(() -> assertEquals(4L, graph.numberOfEdges()),
+                  () -> assertTrue(graph.hasEdge("a", "\"x\"")),
+                  () -> assertTrue(graph.hasEdge("a", "_:b")),
+                  () -> assertTrue(graph.hasEdge("a", "\"y\"@en")),
+                  () -> assertTrue(graph.hasEdge("_:c.d", "a")));
+    }
+
+    @Test
+    void readsGraphML() throws IOException {
+        // given
+        write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                      + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+                      + "  <key id=\"label\" for=\"edge\" attr.name=\"label\" attr.type=\"string\"/>\n"
+                      + "  <graph edgedefault=\"directed\">\n"
+                      + "    <node id=\"n0\"/><node id=\"n1\"/><node id=\"lonely\"/>\n"
+                      + "    <edge source=\"n0\" target=\"n1\"><data key=\"label\">road</data></edge>\n"
+                      + "    <edge source=\"n1\" target=\"n0\"/>\n"
+                      + "  </graph>\n"
+                      + "</graphml>\n");
+        var importer = new GraphImporter<String, LabelledEdge<String, String>>(Function.identity(),
+                                                                              EdgeFactory.labelled());
+
+        // when
+        var graph = importer.importInto(new GraphMLReader(), file, new EdgeListGraph<>());
+
+        // then
+        assertAll(() -> assertEquals(3L, graph.numberOfVertices()),
+                  () -> assertEquals(2L, graph.numberOfEdges()),
+                  () -> assertEquals("road", graph.getEdges("n0", "n1").get(0).getLabel()),
+                  () -> assertNull(graph.getEdges("n1", "n0").get(0).getLabel()));
+    }
+}
@@ -0,0 +1,125 @@
+package net.syneil.graph.label;
+
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.GraphPropertyViolationException;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static net.syneil.graph.GraphProperties.Multiplicity.SINGLE;
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabelIndexedGraphTest {
+    private static ObjectLabelledEdge<String, String> edge(String source, String label, String target) {
+        return new ObjectLabelledEdge<>(source, target, label);
+    }
+
+    @Test
+    void directedEdgesAreIndexedBySourceAndLabel() {
+        // given
+        var graph = new LabelIndexedGraph<String, String, ObjectLabelledEdge<String, String>>(
+                GraphProperties.builder().orientation(DIRECTED).build());
+        var aliceKnowsBob = edge("alice", "knows", "bob");
+        var aliceKnowsCarol = edge("alice", "knows", "carol");
+        var aliceLikesBob = edge("alice", "likes", "bob");
+        var bobKnowsAlice = edge("bob", "knows", "alice");
+
+        // when
+        List.of(aliceKnowsBob, aliceKnowsCarol, aliceLikesBob, bobKnowsAlice).forEach(graph::addEdge);
+
+        // then
+        assertAll(() -> assertEquals(Set.of(aliceKnowsBob, aliceKnowsCarol),
+                                     Set.copyOf(graph.getEdgesWithLabel("alice", "knows"))),
+                  () -> assertEquals(Set.of("bob", "carol"), graph.neighbours("alice", "knows")),
+                  () -> assertEquals(Set.of("alice"), graph.neighbours("bob", "knows")),
+                  () -> assertTrue(graph.getEdgesWithLabel("carol", "knows").isEmpty()),
+                  () -> assertTrue(graph.getEdgesWithLabel("dave", "knows").isEmpty()),
+                  () -> assertEquals(Set.of(aliceKnowsBob, aliceKnowsCarol, bobKnowsAlice),
+                                     graph.edgesWithLabel("knows").collect(Collectors.toSet())),
+                  () -> assertEquals(Set.of("knows", "likes"), graph.labels()),
+                  () -> assertEquals(Set.of("knows", "likes"), graph.labels("alice")),
+                  () -> assertEquals(3, graph.numberOfEdges("knows")),
+                  () -> assertEquals(2, graph.numberOfVertices("knows")),
+                  () -> assertEquals(1.5, graph.averageDegree("knows")),
+                  () -> assertEquals(0.0, graph.averageDegree("hates")),
+                  () -> assertEquals(4, graph.numberOfEdges()));
+    }
+
+    @Test
+    void undirectedEdgesAreIndexedAtBothVertices() {
+        // given
+        var graph = new LabelIndexedGraph<String, String, ObjectLabelledEdge<String, String>>(
+                GraphProperties.builder().orientation(UNDIRECTED).build());
+        var road = edge("york", "road", "leeds");
+        var loop = edge("york", "road", "york");
+
+        // when
+        graph.addEdge(road);
+        graph.addEdge(loop);
+
+        // then
+        assertAll(() -> assertEquals(Set.of("leeds", "york"), graph.neighbours("york", "road")),
+                  () -> assertEquals(Set.of("york"), graph.neighbours("leeds", "road")),
+                  () -> assertEquals(2, graph.numberOfVertices("road")),
+                  () -> assertEquals(2.0, graph.averageDegree("road")));
+
+        // when
+        graph.removeVertex("york");
+
+        // then
+        assertAll(() -> assertTrue(graph.labels().isEmpty()),
+                  () -> assertTrue(graph.getEdgesWithLabel("leeds", "road").isEmpty()),
+                  () -> assertEquals(0, graph.numberOfVertices("road")));
+    }
+
+    @Test
+    void removalsAreReflectedInTheIndex() {
+        // given
+        var graph = new LabelIndexedGraph<String, String, ObjectLabelledEdge<String, String>>(
+                GraphProperties.builder().orientation(DIRECTED).build());
+        var ab = edge("a", "x", "b");
+        var ab2 = edge("a", "y", "b");
+        var bc = edge("b", "x", "c");
+        var ca = edge("c", "x", "a");
+        List.of(ab, ab2, bc, ca).forEach(graph::addEdge);
+
+        // when
+        graph.removeEdge(ab2);
+        graph.removeEdges("b", "c");
+        graph.removeVertex("a");
+
+        // then
+        assertAll(() -> assertTrue(graph.labels().isEmpty()),
+                  () -> assertTrue(graph.getEdgesWithLabel("a", "x").isEmpty()),
+                  () -> assertTrue(graph.getEdgesWithLabel("c", "x").isEmpty()),
+                  () -> assertEquals(0, graph.numberOfEdges("x")),
+                  () -> assertEquals(0, graph.numberOfEdges()));
+    }
+
+    @Test
+    void existingEdgesAreIndexedAndViolationsLeaveTheIndexAlone() {
+        // given
+        var inner = new EdgeListGraph<String, LabelledEdge<String, String>>(
+                GraphProperties.builder().orientation(DIRECTED).multiplicity(SINGLE).build());
+        inner.addEdge(edge("a", "x", "b"));
+        inner.addEdge(edge("b", null, "c"));
+
+        // when
+        var graph = new LabelIndexedGraph<>(inner);
+
+        // then
+        assertAll(() -> assertEquals(Set.of("b"), graph.neighbours("a", "x")),
+                  () -> assertEquals(Set.of("c"), graph.neighbours("b", null)),
+                  () -> assertThrows(GraphPropertyViolationException.class,
+                                     () -> graph.addEdge(edge("a", "y", "b"))),
+                  () -> assertFalse(graph.labels().contains("y")),
+                  () -> assertTrue(graph.neighbours("a", "y").isEmpty()));
+    }
+}
@@ -0,0 +1,148 @@
+package net.syneil.graph.match;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.GraphProperties.Orientation;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.TestGraphs;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternMatcherTest {
+    private static <V, E extends Edge<V>> EdgeListGraph<V, E> graph(Orientation orientation) {
+        return new EdgeListGraph<>(GraphProperties.builder().orientation(orientation).build());
+    }
+
+    private static EdgeListGraph<String, Edge<String>> triangle(Orientation orientation) {
+        EdgeListGraph<String, Edge<String>> triangle = graph(orientation);
+        triangle.addEdge(new UnlabelledEdge<>("a", "b"));
+        triangle.addEdge(new UnlabelledEdge<>("b", "c"));
+        triangle.addEdge(new UnlabelledEdge<>("c", "a"));
+        return triangle;
+    }
+
+    @Test
+    void trianglesMatchOncePerAutomorphism() {
+        // given
+        var graph = TestGraphs.randomGraph(UNDIRECTED, 60, 400, 37L);
+        Map<Integer, Set<Integer>> neighbours = new HashMap<>();
+        graph.vertices().forEach(v -> neighbours.put(v, graph.edges()
+                                                           .map(edge -> edge.other(v))
+                                                           .filter(Optional::isPresent)
+                                                           .map(Optional::get)
+                                                           .filter(w -> !w.equals(v))
+                                                           .collect(Collectors.toSet())));
+        long triangles = 0;
+        for (int a = 0; a < 60; a++) {
+            for (int b : neighbours.get(a)) {
+                for (int c : neighbours.get(b)) {
+                    if (c != a && neighbours.get(c).contains(a)) {
+                        triangles++;
+                    }
+                }
+            }
+        }
+        long expected = triangles;
+
+        // when
+        var matcher = PatternMatcher.of(graph);
+        List<Map<String, Integer>> embeddings = matcher.matches(triangle(UNDIRECTED)).collect(Collectors.toList());
+
+        // then
+        assertAll(() -> assertTrue(expected > 0),
+                  () -> assertEquals(expected, embeddings.size()),
+                  () -> assertEquals(expected, Set.copyOf(embeddings).size()),
+                  () -> assertEquals(expected, matcher.count(triangle(UNDIRECTED), 4)),
+                  // each triangle is matched once per ordering of its vertices
+                  () -> assertEquals(expected, 6 * embeddings.stream()
+                                                             .map(m -> Set.copyOf(m.values()))
+                                                             .distinct()
+                                                             .count()),
+                  () -> embeddings.forEach(m -> assertAll(
+                          () -> assertTrue(neighbours.get(m.get("a")).contains(m.get("b"))),
+                          () -> assertTrue(neighbours.get(m.get("b")).contains(m.get("c"))),
+                          () -> assertTrue(neighbours.get(m.get("c")).contains(m.get("a"))))));
+    }
+
+    @Test
+    void directedPatternsRespectDirection() {
+        // given
+        var graph = TestGraphs.randomGraph(DIRECTED, 60, 400, 37L);
+        EdgeListGraph<String, Edge<String>> path = graph(DIRECTED);
+        path.addEdge(new UnlabelledEdge<>("x", "y"));
+        path.addEdge(new UnlabelledEdge<>("y", "z"));
+        long paths = 0;
+        for (int x = 0; x < 60; x++) {
+            for (int y : graph.neighbours(x)) {
+                for (int z : graph.neighbours(y)) {
+                    if (x != y && y != z && x != z) {
+                        paths++;
+                    }
+                }
+            }
+        }
+        long expected = paths;
+
+        // when
+        var matcher = PatternMatcher.of(graph);
+
+        // then
+        assertAll(() -> assertEquals(expected, matcher.matches(path).count()),
+                  () -> assertEquals(expected, matcher.count(path, 3)),
+                  () -> matcher.matches(path).forEach(m -> assertAll(
+                          () -> assertTrue(graph.hasEdge(m.get("x"), m.get("y"))),
+                          () -> assertTrue(graph.hasEdge(m.get("y"), m.get("z"))))));
+    }
+
+    @Test
+    void labelledPatternEdgesMatchOnlyTheirLabel() {
+        // given
+        EdgeListGraph<String, LabelledEdge<String, String>> graph = graph(DIRECTED);
+        for (int i = 0; i < 20; i++) {
+            graph.addEdge(new ObjectLabelledEdge<>("person" + i, "person" + (i + 1) % 20, "knows"));
+        }
+        graph.addEdge(new ObjectLabelledEdge<>("person3", "acme", "founded"));
+        graph.addEdge(new ObjectLabelledEdge<>("person3", "person4", "likes"));
+        EdgeListGraph<String, LabelledEdge<String, String>> pattern = graph(DIRECTED);
+        pattern.addEdge(new ObjectLabelledEdge<>("founder", "friend", "knows"));
+        pattern.addEdge(new ObjectLabelledEdge<>("founder", "company", "founded"));
+
+        // when
+        var matcher = PatternMatcher.of(graph);
+        List<Map<String, String>> embeddings = matcher.matches(pattern).collect(Collectors.toList());
+
+        // then
+        assertAll(() -> assertEquals(List.of(Map.of("founder", "person3", "friend", "person4", "company", "acme")),
+                                     embeddings),
+                  () -> assertNotEquals("friend", matcher.matchingOrder(pattern).get(0)));
+    }
+
+    @Test
+    void resultsAreLimited() {
+        // given
+        var graph = TestGraphs.randomGraph(UNDIRECTED, 60, 400, 37L);
+        var matcher = PatternMatcher.of(graph);
+        EdgeListGraph<String, Edge<String>> pair = graph(UNDIRECTED);
+        pair.addVertex("u");
+        pair.addVertex("v");
+
+        // when
+        List<Map<String, Integer>> found = matcher.find(triangle(UNDIRECTED), 7, 4);
+
+        // then
+        assertAll(() -> assertEquals(5, matcher.matches(triangle(UNDIRECTED)).limit(5).count()),
+                  () -> assertEquals(7, found.size()),
+                  () -> assertEquals(7, Set.copyOf(found).size()),
+                  () -> assertEquals(60 * 59, matcher.matches(pair).count()),
+                  () -> assertThrows(IllegalArgumentException.class, () -> matcher.find(pair, -1, 1)));
+    }
+}
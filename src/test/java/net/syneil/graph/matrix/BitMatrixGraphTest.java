@@ -0,0 +1,160 @@
+package net.syneil.graph.matrix;
+
+import net.syneil.graph.*;
+import net.syneil.graph.edge.UnlabelledEdge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Cyclicity.ACYCLIC;
+import static net.syneil.graph.GraphProperties.Multiplicity.MULTIPLE;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitMatrixGraphTest {
+    private BitMatrixGraph<UUID> graph;
+
+    @BeforeEach
+    void createEmptyGraph() {
+        graph = new BitMatrixGraph<>();
+    }
+
+    @Test
+    void rejectsMultigraphProperties() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new BitMatrixGraph<>(GraphProperties.builder().multiplicity(MULTIPLE).build()));
+    }
+
+    @Nested
+    class WhenEmpty extends EmptyGraphTest<UUID> {
+        @Override
+        public Graph<UUID, Edge<UUID>> getEmptyGraph() {
+            return graph;
+        }
+
+        @Override
+        public UUID createNewVertex() {
+            return UUID.randomUUID();
+        }
+
+        @Override
+        public Edge<UUID> createNewEdge(UUID source, UUID target) {
+            return new UnlabelledEdge<>(source, target);
+        }
+    }
+
+    @Nested
+    class AsMutable extends MutableGraphTest<UUID> {
+        @Override
+        public MutableGraph<UUID, Edge<UUID>> getMutableGraph() {
+            return graph;
+        }
+
+        @Override
+        public UUID createNewVertex() {
+            return UUID.randomUUID();
+        }
+
+        @Override
+        public Edge<UUID> createNewEdge(UUID source, UUID target) {
+            return new UnlabelledEdge<>(source, target);
+        }
+
+        @Override
+        public boolean loopsPermitted() {
+            return true;
+        }
+
+        @Override
+        public boolean multipleEdgesPermitted() {
+            return false;
+        }
+
+        @Override
+        public boolean edgesAreDirected() {
+            return true;
+        }
+
+        @Override
+        public boolean edgesRetainIdentity() {
+            return false;
+        }
+    }
+
+    @Nested
+    class WhenUndirected {
+        private BitMatrixGraph<Integer> undirected;
+
+        @BeforeEach
+        void createCompleteBipartiteGraph() {
+            // every even vertex is connected to every odd vertex; enough vertices to force the matrix to grow
+            undirected = new BitMatrixGraph<>(GraphProperties.builder().orientation(UNDIRECTED).build(), 1);
+            IntStream.range(0, 150).forEach(undirected::addVertex);
+            IntStream.range(0, 150).filter(i -> i % 2 == 0).forEach(
+                    even -> IntStream.range(0, 150).filter(i -> i % 2 == 1).forEach(
+                            odd -> undirected.addEdge(new UnlabelledEdge<>(odd, even))));
+        }
+
+        @Test
+        void edgesAreSymmetric() {
+            assertAll(() -> assertEquals(75L * 75L, undirected.numberOfEdges()),
+                      () -> assertEquals(75L * 75L, undirected.edges().count()),
+                      () -> assertTrue(undirected.hasEdge(3, 148)),
+                      () -> assertTrue(undirected.hasEdge(148, 3)),
+                      () -> assertFalse(undirected.hasEdge(2, 4)),
+                      () -> assertEquals(75, undirected.degree(100)),
+                      () -> assertEquals(75, undirected.neighbours(100).size()),
+                      () -> assertEquals(75L, undirected.neighbours(100).stream().count()));
+        }
+
+        @Test
+        void countsCommonNeighbours() {
+            assertAll(() -> assertEquals(75, undirected.commonNeighbours(0, 148)),
+                      () -> assertEquals(0, undirected.commonNeighbours(0, 1)));
+        }
+
+        @Test
+        void cannotAddDuplicateInReverse() {
+            assertThrows(GraphPropertyViolationException.class,
+                         () -> undirected.addEdge(new UnlabelledEdge<>(0, 1)));
+        }
+
+        @Test
+        void removingVertexRemovesItsEdges() {
+            // when
+            assertTrue(undirected.removeVertex(75));
+
+            // then
+            assertAll(() -> assertEquals(75L * 74L, undirected.numberOfEdges()),
+                      () -> assertEquals(74, undirected.degree(0)),
+                      () -> assertFalse(undirected.neighbours(0).contains(75)));
+
+            // and when the freed row is reused
+            assertTrue(undirected.addEdge(new UnlabelledEdge<>(1000, 1)));
+
+            // then
+            Set<Integer> neighbours = undirected.neighbours(1000).stream().collect(Collectors.toSet());
+            assertEquals(Set.of(1), neighbours);
+        }
+    }
+
+    @Test
+    void acyclicGraphRefusesCyclesAndKeepsOrder() {
+        // given
+        var dag = new BitMatrixGraph<Integer>(GraphProperties.builder().cyclicity(ACYCLIC).build());
+        dag.addEdge(new UnlabelledEdge<>(3, 2));
+        dag.addEdge(new UnlabelledEdge<>(2, 1));
+
+        // then
+        assertAll(() -> assertThrows(GraphPropertyViolationException.class,
+                                     () -> dag.addEdge(new UnlabelledEdge<>(1, 3))),
+                  () -> assertFalse(dag.hasEdge(1, 3)),
+                  () -> assertEquals(List.of(3, 2, 1), dag.topologicalOrder().orElseThrow().asList()));
+    }
+}
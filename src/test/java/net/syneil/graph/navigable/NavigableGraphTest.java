@@ -0,0 +1,103 @@
+package net.syneil.graph.navigable;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NavigableGraphTest {
+    /**
+     * @return a directed graph from "a" to each of the other letters, and from each letter to the next
+     */
+    private static EdgeListGraph<String, Edge<String>> letters() {
+        var graph = new EdgeListGraph<String, Edge<String>>();
+        for (char c = 'z'; c > 'a'; c--) {
+            graph.addEdge(new UnlabelledEdge<>("a", String.valueOf(c)));
+            if (c < 'z') {
+                graph.addEdge(new UnlabelledEdge<>(String.valueOf(c), String.valueOf((char) (c + 1))));
+            }
+        }
+        graph.addEdge(new UnlabelledEdge<>("a", "b"));
+        return graph;
+    }
+
+    @Test
+    void verticesAndNeighboursAreOrdered() {
+        // given
+        var graph = NavigableGraph.copyOf(letters());
+
+        // when
+        List<String> vertices = graph.vertices().collect(Collectors.toList());
+        List<String> neighbours = new ArrayList<>(graph.neighbours("a"));
+
+        // then
+        List<String> sorted = new ArrayList<>(vertices);
+        sorted.sort(null);
+        assertAll(() -> assertEquals(26, vertices.size()),
+                  () -> assertEquals(sorted, vertices),
+                  () -> assertEquals(sorted.subList(1, 26), neighbours),
+                  () -> assertEquals(List.of("d", "e", "f"), graph.neighbours("a", "d", "g")),
+                  () -> assertEquals(List.of("b", "c"), graph.neighbours("a", "", "d")),
+                  () -> assertEquals(Optional.of("b"), graph.firstNeighbour("a")),
+                  () -> assertEquals(Optional.of("z"), graph.lastNeighbour("a")),
+                  () -> assertEquals(Optional.of("n"), graph.ceilingNeighbour("a", "mm")),
+                  () -> assertEquals(Optional.of("m"), graph.floorNeighbour("a", "mm")),
+                  () -> assertEquals(Optional.empty(), graph.ceilingNeighbour("y", "zz")),
+                  () -> assertEquals(Optional.of("c"), graph.ceilingVertex("bb")),
+                  () -> assertEquals(2, graph.getEdges("a", "b").size()),
+                  () -> assertEquals(50, graph.numberOfEdges()));
+    }
+
+    @Test
+    void subGraphsAreInducedByRanges() {
+        // given
+        var graph = NavigableGraph.copyOf(letters());
+
+        // when
+        NavigableGraph<String, Edge<String>> middle = graph.subGraph("c", "h");
+        NavigableGraph<String, Edge<String>> nested = middle.subGraph("a", "e");
+
+        // then
+        assertAll(() -> assertEquals(List.of("c", "d", "e", "f", "g"), middle.vertices().collect(Collectors.toList())),
+                  () -> assertEquals(4, middle.numberOfEdges()),
+                  () -> assertEquals(middle.numberOfEdges(), middle.edges().count()),
+                  () -> assertFalse(middle.hasVertex("a")),
+                  () -> assertFalse(middle.hasEdge("g", "h")),
+                  () -> assertEquals(Optional.empty(), middle.firstNeighbour("g")),
+                  () -> assertEquals(List.of("c", "d"), nested.vertices().collect(Collectors.toList())),
+                  () -> assertEquals(Optional.of("c"), nested.firstVertex()),
+                  () -> assertEquals(Optional.of("d"), nested.floorVertex("z")),
+                  () -> assertEquals(0, graph.subGraph("zz", "zzz").numberOfVertices()),
+                  () -> assertThrows(IllegalArgumentException.class, () -> graph.subGraph("h", "c")));
+    }
+
+    @Test
+    void undirectedEdgesAreCountedOnce() {
+        // given
+        var path = new EdgeListGraph<Integer, Edge<Integer>>(GraphProperties.builder().orientation(UNDIRECTED).build());
+        for (int v = 9; v > 0; v--) {
+            path.addEdge(new UnlabelledEdge<>(v, v - 1));
+        }
+        path.addEdge(new UnlabelledEdge<>(4, 4));
+
+        // when
+        var graph = NavigableGraph.copyOf(path);
+        var sub = graph.subGraph(3, 7);
+
+        // then
+        assertAll(() -> assertEquals(10, graph.numberOfEdges()),
+                  () -> assertEquals(4, sub.numberOfEdges()),
+                  () -> assertEquals(4, sub.edges().count()),
+                  () -> assertEquals(List.of(3, 4, 5), new ArrayList<>(sub.neighbours(4))),
+                  () -> assertEquals(List.of(5), sub.neighbours(6, 0, 6)));
+    }
+}
@@ -0,0 +1,66 @@
+package net.syneil.graph.partition;
+
+import net.syneil.graph.TestGraphs;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionerTest {
+    private static final int CLIQUES = 4;
+    private static final int CLIQUE_SIZE = 25;
+
+    @Test
+    void multilevelPartitionerFindsCliques() {
+        // given
+        var graph = TestGraphs.ringOfCliques(CLIQUES, CLIQUE_SIZE);
+
+        // when
+        Partition<Integer> partition = new MultilevelPartitioner(CLIQUES).partition(graph);
+
+        // then
+        List<Set<Integer>> cliqueParts = IntStream.range(0, CLIQUES)
+                                                 .mapToObj(c -> IntStream.range(c * CLIQUE_SIZE, (c + 1) * CLIQUE_SIZE)
+                                                                         .mapToObj(partition::partOf)
+                                                                         .collect(Collectors.toSet()))
+                                                 .collect(Collectors.toList());
+        assertAll(() -> assertEquals(CLIQUES, partition.getEdgeCut()),
+                  () -> assertTrue(cliqueParts.stream().allMatch(parts -> parts.size() == 1)),
+                  () -> assertEquals(1.0, partition.getImbalance()));
+    }
+
+    @Test
+    void streamingPartitionersRespectBalance() {
+        // given
+        var graph = TestGraphs.ringOfCliques(CLIQUES, CLIQUE_SIZE);
+        long edges = graph.numberOfEdges();
+        double capacity = Math.ceil(CLIQUE_SIZE * (1.0 + StreamingPartitioner.DEFAULT_IMBALANCE));
+
+        for (Partitioner partitioner : List.of(StreamingPartitioner.ldg(CLIQUES), StreamingPartitioner.fennel(CLIQUES),
+                                               new MultilevelPartitioner(CLIQUES))) {
+            // when
+            Partition<Integer> partition = partitioner.partition(graph);
+
+            // then
+            assertAll(() -> assertEquals(CLIQUES, partition.getPartCount()),
+                      () -> assertEquals(CLIQUES * CLIQUE_SIZE, Arrays.stream(partition.partSizes()).sum()),
+                      () -> assertTrue(Arrays.stream(partition.partSizes()).max().orElseThrow() <= capacity),
+                      () -> assertTrue(partition.getEdgeCut() < edges / 4, () -> partitioner + " cut "
+                              + partition.getEdgeCut()),
+                      () -> assertEquals(-1, partition.partOf(-1)));
+        }
+    }
+
+    @Test
+    void invalidParametersAreRejected() {
+        assertAll(() -> assertThrows(IllegalArgumentException.class, () -> StreamingPartitioner.ldg(0)),
+                  () -> assertThrows(IllegalArgumentException.class, () -> StreamingPartitioner.ldg(2, -0.1)),
+                  () -> assertThrows(IllegalArgumentException.class,
+                                     () -> StreamingPartitioner.fennel(2, 0.1, 1.0)));
+    }
+}
@@ -0,0 +1,170 @@
+package net.syneil.graph.pregel;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import net.syneil.graph.generate.Generators;
+import net.syneil.graph.generate.RMatGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PregelTest {
+    private static int find(int[] parents, int v) {
+        while (parents[v] != v) {
+            v = parents[v] = parents[parents[v]];
+        }
+        return v;
+    }
+
+    @Test
+    void minimumLabelsFindConnectedComponents() {
+        // given
+        var graph = new EdgeListGraph<Integer, Edge<Integer>>(
+                GraphProperties.builder().orientation(UNDIRECTED).build());
+        var random = new Random(45L);
+        IntStream.range(0, 3000).forEach(graph::addVertex);
+        for (int i = 0; i < 2500; i++) {
+            graph.addEdge(new UnlabelledEdge<>(random.nextInt(3000), random.nextInt(3000)));
+        }
+        var pregel = Pregel.of(graph, PregelOptions.builder().combiner(Math::min).parallelism(4).build());
+
+        // when
+        PregelResult<Integer, Edge<Integer>, Double> components = pregel.run(
+                vertex -> Double.POSITIVE_INFINITY, (vertex, messages) -> {
+                    double label = Math.min(vertex.getSuperstep() == 0 ? vertex.getIndex() : vertex.getState(),
+                                            messages.min());
+                    if (label < vertex.getState()) {
+                        vertex.setState(label);
+                        vertex.sendToNeighbours(label);
+                    }
+                    vertex.voteToHalt();
+                });
+
+        // then
+        var compact = pregel.getGraph();
+        int[] parents = IntStream.range(0, 3000).toArray();
+        graph.edges().forEach(edge -> parents[find(parents, compact.indexOf(edge.getSource()))] =
+                find(parents, compact.indexOf(edge.getTarget())));
+        assertTrue(components.isConverged());
+        for (int v = 0; v < 3000; v++) {
+            for (int w : List.of(0, v / 2, v)) {
+                assertEquals(find(parents, v) == find(parents, w),
+                             components.getState(v).equals(components.getState(w)));
+            }
+        }
+    }
+
+    @Test
+    void shortestPathsAgreeWithBellmanFord() {
+        // given
+        var graph = new EdgeListGraph<Integer, LabelledEdge<Integer, Double>>(
+                GraphProperties.builder().orientation(DIRECTED).build());
+        var random = new Random(46L);
+        IntStream.range(0, 500).forEach(graph::addVertex);
+        for (int i = 0; i < 3000; i++) {
+            graph.addEdge(new ObjectLabelledEdge<>(random.nextInt(500), random.nextInt(500), random.nextDouble()));
+        }
+        var pregel = Pregel.of(graph, PregelOptions.builder().combiner(Math::min).build());
+        int source = pregel.getGraph().indexOf(0);
+
+        // when
+        PregelResult<Integer, LabelledEdge<Integer, Double>, Double> distances = pregel.run(
+                vertex -> Double.POSITIVE_INFINITY, (vertex, messages) -> {
+                    double distance = vertex.getIndex() == source ? 0.0 : messages.min();
+                    if (distance < vertex.getState()) {
+                        vertex.setState(distance);
+                        for (int i = 0; i < vertex.degree(); i++) {
+                            vertex.sendMessage(vertex.neighbour(i), distance + vertex.edge(i).getLabel());
+                        }
+                    }
+                    vertex.voteToHalt();
+                });
+
+        // then
+        double[] expected = new double[500];
+        Arrays.fill(expected, Double.POSITIVE_INFINITY);
+        expected[0] = 0.0;
+        for (int round = 0; round < 500; round++) {
+            graph.edges().forEach(edge -> expected[edge.getTarget()] = Math.min(expected[edge.getTarget()],
+                                                                               expected[edge.getSource()]
+                                                                                       + edge.getLabel()));
+        }
+        assertTrue(distances.isConverged());
+        for (int v = 0; v < 500; v++) {
+            assertEquals(expected[v], distances.getState(Integer.valueOf(v)).orElseThrow(), 1e-9);
+        }
+        assertFalse(distances.getState(Integer.valueOf(-1)).isPresent());
+    }
+
+    @Test
+    void pageRankIsTheSameWhateverTheParallelism() {
+        // given
+        var graph = Generators.toCompactGraph(new RMatGenerator(13, 60_000, 47L), 4);
+        int n = graph.index().size();
+        var total = Aggregator.sum();
+        VertexProgram<Integer, Edge<Integer>, Double> pageRank = (vertex, messages) -> {
+            double rank = vertex.getSuperstep() == 0 ? 1.0 / n : 0.15 / n + 0.85 * messages.sum();
+            vertex.setState(rank);
+            vertex.aggregate(total, rank);
+            if (vertex.getSuperstep() < 20) {
+                for (int i = 0; i < vertex.degree(); i++) {
+                    vertex.sendMessage(vertex.neighbour(i), rank / vertex.degree());
+                }
+            } else {
+                vertex.voteToHalt();
+            }
+        };
+
+        // when
+        var one = Pregel.of(graph, PregelOptions.builder().parallelism(1).aggregators(List.of(total)).build())
+                        .run(vertex -> 0.0, pageRank);
+        var four = Pregel.of(graph, PregelOptions.builder().parallelism(4).aggregators(List.of(total)).build())
+                         .run(vertex -> 0.0, pageRank);
+
+        // then
+        assertAll(() -> assertEquals(one.getStates(), four.getStates()),
+                  () -> assertEquals(21, one.getSupersteps()),
+                  () -> assertTrue(one.getAggregated(total) > 0.0 && one.getAggregated(total) <= 1.0 + 1e-9),
+                  () -> assertEquals(one.getAggregated(total), four.getAggregated(total)));
+    }
+
+    @Test
+    void everyMessageIsDeliveredWithoutACombiner() {
+        // given
+        var graph = Generators.toCompactGraph(new RMatGenerator(12, 20_000, 48L), 4);
+        var received = Aggregator.sum();
+        var pregel = Pregel.of(graph, PregelOptions.builder().maxSupersteps(3).aggregators(List.of(received)).build());
+
+        // when
+        var result = pregel.<int[]>run(vertex -> new int[2], (vertex, messages) -> {
+            vertex.getState()[0] += messages.size();
+            vertex.aggregate(received, messages.size());
+            for (int i = 0; i < vertex.degree(); i++) {
+                vertex.sendMessage(vertex.neighbour(i), vertex.getIndex());
+            }
+        });
+
+        // then
+        int[] inDegrees = new int[graph.index().size()];
+        graph.edges().forEach(edge -> inDegrees[graph.indexOf(edge.getTarget())]++);
+        assertAll(() -> assertFalse(result.isConverged()),
+                  () -> assertEquals(3, result.getSupersteps()),
+                  () -> assertEquals(graph.size(), result.getAggregated(received)),
+                  () -> IntStream.range(0, inDegrees.length)
+                                 .forEach(v -> assertEquals(2 * inDegrees[v], result.getState(v)[0])),
+                  () -> assertThrows(IllegalArgumentException.class,
+                                     () -> pregel.run(vertex -> 0, (vertex, messages) -> vertex.aggregate(
+                                             Aggregator.max(), 1.0))));
+    }
+}
@@ -0,0 +1,234 @@
+package net.syneil.graph.query;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.TestGraphs;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import net.syneil.graph.partition.MultilevelPartitioner;
+import net.syneil.graph.shard.ShardedGraph;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncGraphTest {
+    /**
+     * @return the length of a shortest path, found synchronously, or -1 if there is none
+     */
+    private static int distance(EdgeListGraph<Integer, Edge<Integer>> graph, int from, int to) {
+        Map<Integer, Integer> distances = new HashMap<>(Map.of(from, 0));
+        Deque<Integer> queue = new ArrayDeque<>(List.of(from));
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            for (int w : graph.neighbours(v)) {
+                if (distances.putIfAbsent(w, distances.get(v) + 1) == null) {
+                    queue.add(w);
+                }
+            }
+        }
+        return distances.getOrDefault(to, -1);
+    }
+
+    @Test
+    void answersAsTheGraph() {
+        // given
+        var graph = TestGraphs.randomGraph(DIRECTED, 200, 800, 39L);
+        var sharded = ShardedGraph.of(graph, new MultilevelPartitioner(4).partition(graph));
+
+        for (var target : List.of(graph, sharded)) {
+            try (var queries = new AsyncGraph<>(target, QueryOptions.builder().batchSize(16).build())) {
+                // when
+                Map<Integer, CompletableFuture<Set<Integer>>> neighbours = new HashMap<>();
+                Map<Integer, CompletableFuture<List<Edge<Integer>>>> edges = new HashMap<>();
+                IntStream.range(-1, 200).forEach(v -> {
+                    neighbours.put(v, queries.neighbours(v));
+                    edges.put(v, queries.getEdges(v));
+                });
+
+                // then
+                IntStream.range(-1, 200).forEach(v -> assertAll(
+                        () -> assertEquals(graph.neighbours(v), neighbours.get(v).join()),
+                        () -> assertEquals(Set.copyOf(graph.getEdges(v)), Set.copyOf(edges.get(v).join())),
+                        () -> assertEquals(graph.hasVertex(v), queries.hasVertex(v).join()),
+                        () -> assertEquals(graph.hasEdge(v, 0), queries.hasEdge(v, 0).join())));
+            }
+        }
+    }
+
+    @Test
+    void findsShortestPaths() {
+        // given
+        var graph = TestGraphs.randomGraph(DIRECTED, 200, 800, 39L);
+
+        try (var queries = new AsyncGraph<>(graph)) {
+            for (int to = 0; to < 200; to += 7) {
+                // when
+                Optional<List<Integer>> path = queries.shortestPath(0, to).join();
+
+                // then
+                int expected = distance(graph, 0, to);
+                assertEquals(expected >= 0, path.isPresent());
+                if (path.isPresent()) {
+                    List<Integer> vertices = path.get();
+                    assertAll(() -> assertEquals(expected, vertices.size() - 1),
+                              () -> assertEquals(0, (int) vertices.get(0)),
+                              () -> IntStream.range(1, vertices.size()).forEach(
+                                      i -> assertTrue(graph.hasEdge(vertices.get(i - 1), vertices.get(i)))));
+                }
+            }
+            assertEquals(Optional.empty(), queries.shortestPath(0, -1).join());
+        }
+    }
+
+    @Test
+    void coalescesConcurrentLookups() throws InterruptedException {
+        // given
+        var graph = TestGraphs.randomGraph(DIRECTED, 200, 800, 39L);
+        var batches = new AtomicInteger();
+        var gate = new CountDownLatch(1);
+        Executor executor = Executors.newSingleThreadExecutor();
+        Executor gated = task -> executor.execute(() -> {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.incrementAndGet();
+            task.run();
+        });
+
+        try (var queries = new AsyncGraph<>(graph, QueryOptions.builder().executor(gated).parallelism(1).build())) {
+            // when
+            List<CompletableFuture<Set<Integer>>> futures = IntStream.range(0, 1000)
+                                                                     .mapToObj(i -> queries.neighbours(i % 100))
+                                                                     .collect(Collectors.toList());
+            gate.countDown();
+
+            // then
+            IntStream.range(0, 1000).forEach(i -> assertEquals(graph.neighbours(i % 100), futures.get(i).join()));
+            assertTrue(batches.get() <= 2, () -> batches.get() + " batches");
+        } finally {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    @Test
+    void rejectsWhenTooManyArePending() {
+        // given
+        var graph = TestGraphs.randomGraph(DIRECTED, 200, 800, 39L);
+        var gate = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        Executor gated = task -> executor.execute(() -> {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            task.run();
+        });
+        var options = QueryOptions.builder().executor(gated).parallelism(1).maxPending(2).build();
+
+        try (var queries = new AsyncGraph<>(graph, options)) {
+            // when
+            var first = queries.neighbours(1);
+            var second = queries.neighbours(2);
+            var third = queries.neighbours(3);
+            gate.countDown();
+
+            // then
+            assertAll(() -> assertEquals(graph.neighbours(1), first.join()),
+                      () -> assertEquals(graph.neighbours(2), second.join()),
+                      () -> assertTrue(third.isCompletedExceptionally()),
+                      () -> assertThrows(RejectedExecutionException.class, () -> {
+                          try {
+                              third.join();
+                          } catch (CompletionException e) {
+                              throw e.getCause();
+                          }
+                      }));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failsAfterTheDeadline() throws InterruptedException {
+        // given
+        var graph = TestGraphs.randomGraph(DIRECTED, 200, 800, 39L);
+        var gate = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        Executor gated = task -> executor.execute(() -> {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            task.run();
+        });
+        var options = QueryOptions.builder().executor(gated).deadline(Duration.ofMillis(20)).build();
+
+        try (var queries = new AsyncGraph<>(graph, options)) {
+            // when
+            var late = queries.neighbours(1);
+            var patient = queries.neighbours(2, Duration.ofMinutes(1));
+            ExecutionException failure = assertThrows(ExecutionException.class, late::get);
+            gate.countDown();
+
+            // then
+            assertAll(() -> assertTrue(failure.getCause() instanceof TimeoutException),
+                      () -> assertEquals(graph.neighbours(2), patient.join()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void abandonsTheLookupOfATimedOutEdgeQuery() throws InterruptedException {
+        // given
+        var probed = new ConcurrentLinkedQueue<Integer>();
+        var graph = new EdgeListGraph<Integer, Edge<Integer>>(GraphProperties.builder().orientation(DIRECTED).build()) {
+            @Override
+            public Set<? extends Integer> neighbours(Integer v) {
+                probed.add(v);
+                return super.neighbours(v);
+            }
+        };
+        graph.addEdge(new UnlabelledEdge<>(1, 2));
+        graph.addEdge(new UnlabelledEdge<>(3, 4));
+        var gate = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        Executor gated = task -> executor.execute(() -> {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            task.run();
+        });
+        var options = QueryOptions.builder().executor(gated).parallelism(1).build();
+
+        try (var queries = new AsyncGraph<>(graph, options)) {
+            // when: the gate holds the drain until the late query has failed, and a waiter gives up its place before
+            // its failure can be seen, so the late lookup is always abandoned by the time it could be drained
+            var late = queries.hasEdge(1, 2, Duration.ofMillis(20));
+            ExecutionException failure = assertThrows(ExecutionException.class, late::get);
+            var patient = queries.hasEdge(3, 4, Duration.ofMinutes(1));
+            gate.countDown();
+
+            // then
+            assertAll(() -> assertTrue(failure.getCause() instanceof TimeoutException),
+                      () -> assertTrue(patient.join()),
+                      () -> assertEquals(List.of(3), new ArrayList<>(probed)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
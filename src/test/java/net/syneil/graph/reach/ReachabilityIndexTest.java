@@ -0,0 +1,101 @@
+package net.syneil.graph.reach;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.TestGraphs;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachabilityIndexTest {
+    private static Set<Integer> reachableFrom(Graph<Integer, Edge<Integer>> graph, Integer source) {
+        Set<Integer> reached = new HashSet<>(List.of(source));
+        Deque<Integer> queue = new ArrayDeque<>(reached);
+        while (!queue.isEmpty()) {
+            for (Integer w : graph.neighbours(queue.poll())) {
+                if (reached.add(w)) {
+                    queue.add(w);
+                }
+            }
+        }
+        return reached;
+    }
+
+    private static void assertAnswersAsSearches(Graph<Integer, Edge<Integer>> graph, ReachabilityIndex<Integer> index) {
+        graph.vertices().forEach(source -> {
+            Set<Integer> reached = reachableFrom(graph, source);
+            graph.vertices().forEach(target -> assertEquals(reached.contains(target), index.canReach(source, target),
+                                                            () -> source + " -> " + target));
+        });
+    }
+
+    @Test
+    void indexAnswersAsSearches() {
+        for (int edges : List.of(300, 450, 600)) {
+            // given
+            var graph = TestGraphs.randomGraph(DIRECTED, 400, edges, edges);
+
+            // when
+            var index = ReachabilityIndex.of(graph, ReachabilityOptions.builder().parallelism(4).build());
+
+            // then
+            assertAnswersAsSearches(graph, index);
+            assertFalse(index.canReach(0, -1));
+            assertTrue(index.getComponentCount() <= 400);
+        }
+    }
+
+    @Test
+    void writtenIndexIsReadBack() throws IOException {
+        // given
+        var graph = TestGraphs.randomGraph(DIRECTED, 300, 400, 51L);
+        var index = ReachabilityIndex.of(graph);
+        var bytes = new ByteArrayOutputStream();
+
+        // when
+        index.writeTo(bytes, Object::toString);
+        var read = ReachabilityIndex.readFrom(new ByteArrayInputStream(bytes.toByteArray()), Integer::valueOf);
+
+        // then
+        assertAnswersAsSearches(graph, read);
+        graph.vertices().forEach(v -> assertEquals(index.componentOf(v), read.componentOf(v)));
+        assertThrows(IOException.class, () -> ReachabilityIndex.readFrom(new ByteArrayInputStream(new byte[8]),
+                                                                         Integer::valueOf));
+    }
+
+    @Test
+    void indexIsRebuiltAfterChangesThatMatter() {
+        // given
+        var graph = new EdgeListGraph<Integer, Edge<Integer>>(GraphProperties.builder().orientation(DIRECTED).build());
+        graph.addEdge(new UnlabelledEdge<>(1, 2));
+        graph.addEdge(new UnlabelledEdge<>(2, 3));
+        graph.addEdge(new UnlabelledEdge<>(4, 3));
+        var index = ReachabilityIndex.of(graph);
+
+        Integer one = 1, three = 3, four = 4;
+
+        // when
+        boolean shortcutChangesNothing = index.isUnchangedByAdding(one, three);
+        boolean bridgeChangesReachability = index.isUnchangedByAdding(three, four);
+        graph.addEdge(new UnlabelledEdge<>(3, 4));
+        var rebuilt = index.rebuild(graph);
+
+        // then
+        assertAll(() -> assertTrue(shortcutChangesNothing),
+                  () -> assertFalse(bridgeChangesReachability),
+                  () -> assertFalse(index.canReach(one, four)),
+                  () -> assertTrue(rebuilt.canReach(one, four)),
+                  () -> assertEquals(rebuilt.componentOf(three), rebuilt.componentOf(four)),
+                  () -> assertTrue(rebuilt.canReach(four, four)),
+                  () -> assertFalse(rebuilt.canReach(four, one)));
+    }
+}
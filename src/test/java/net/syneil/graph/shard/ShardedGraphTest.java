@@ -0,0 +1,132 @@
+package net.syneil.graph.shard;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties.Orientation;
+import net.syneil.graph.TestGraphs;
+import net.syneil.graph.partition.MultilevelPartitioner;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedGraphTest {
+    private static void assertSameGraph(Graph<Integer, Edge<Integer>> expected, Graph<Integer, Edge<Integer>> actual) {
+        assertAll(() -> assertEquals(expected.numberOfVertices(), actual.numberOfVertices()),
+                  () -> assertEquals(expected.numberOfEdges(), actual.numberOfEdges()),
+                  () -> assertEquals(expected.edges().collect(Collectors.toSet()),
+                                     actual.edges().collect(Collectors.toSet())),
+                  () -> assertFalse(actual.hasVertex(-1)),
+                  () -> assertTrue(actual.neighbours(-1).isEmpty()));
+        expected.vertices().forEach(v -> assertAll(
+                () -> assertTrue(actual.hasVertex(v)),
+                () -> assertEquals(expected.neighbours(v), actual.neighbours(v)),
+                () -> expected.neighbours(v).forEach(w -> assertAll(
+                        () -> assertTrue(actual.hasEdge(v, w)),
+                        () -> assertEquals(edgesBetween(expected, v, w), Set.copyOf(actual.getEdges(v, w)))))));
+    }
+
+    private static Set<Edge<Integer>> edgesBetween(Graph<Integer, Edge<Integer>> graph, Integer v, Integer w) {
+        if (graph.getProperties().getOrientation().orElse(DIRECTED) == DIRECTED) {
+            return Set.copyOf(graph.getEdges(v, w));
+        }
+        return graph.edges().filter(edge -> edge.other(v).filter(w::equals).isPresent()).collect(Collectors.toSet());
+    }
+
+    @Test
+    void shardedGraphAnswersAsTheOriginal() {
+        for (Orientation orientation : Orientation.values()) {
+            // given
+            var graph = TestGraphs.randomGraph(orientation, 200, 600, 34L);
+
+            // when
+            var sharded = ShardedGraph.of(graph, new MultilevelPartitioner(4).partition(graph));
+
+            // then
+            assertEquals(4, sharded.shardCount());
+            assertSameGraph(graph, sharded);
+        }
+    }
+
+    @Test
+    void batchedLookupSendsOneRequestPerShard() {
+        // given
+        var graph = TestGraphs.randomGraph(DIRECTED, 200, 600, 34L);
+        var shards = Shard.split(graph, v -> v % 3, 3);
+        var executor = Executors.newFixedThreadPool(3);
+        var requests = new AtomicInteger();
+        var transport = new CountingTransport(new LoopbackTransport<>(shards, executor), requests);
+        var sharded = new ShardedGraph<>(transport, v -> v < 0 ? -1 : v % 3, graph.getProperties());
+
+        try {
+            // when
+            List<Integer> frontier = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+            Map<Integer, Set<Integer>> neighbours = sharded.neighbours(frontier);
+
+            // then
+            assertAll(() -> assertEquals(3, requests.get()),
+                      () -> assertEquals(50, neighbours.size()),
+                      () -> frontier.forEach(v -> assertEquals(graph.neighbours(v), neighbours.get(v))));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Counts the lookups made through another transport
+     */
+    private static final class CountingTransport implements ShardTransport<Integer, Edge<Integer>> {
+        private final ShardTransport<Integer, Edge<Integer>> delegate;
+        private final AtomicInteger requests;
+
+        private CountingTransport(ShardTransport<Integer, Edge<Integer>> delegate, AtomicInteger requests) {
+            this.delegate = delegate;
+            this.requests = requests;
+        }
+
+        @Override
+        public int shardCount() {
+            return delegate.shardCount();
+        }
+
+        @Override
+        public CompletableFuture<Map<Integer, List<Edge<Integer>>>> getEdges(int shard, Collection<Integer> sources) {
+            requests.incrementAndGet();
+            return delegate.getEdges(shard, sources);
+        }
+
+        @Override
+        public CompletableFuture<Set<Integer>> hasVertices(int shard, Collection<Integer> vertices) {
+            requests.incrementAndGet();
+            return delegate.hasVertices(shard, vertices);
+        }
+
+        @Override
+        public CompletableFuture<Long> numberOfVertices(int shard) {
+            return delegate.numberOfVertices(shard);
+        }
+
+        @Override
+        public CompletableFuture<Long> numberOfEdges(int shard) {
+            return delegate.numberOfEdges(shard);
+        }
+
+        @Override
+        public Stream<Integer> vertices(int shard) {
+            return delegate.vertices(shard);
+        }
+
+        @Override
+        public Stream<Edge<Integer>> edges(int shard) {
+            return delegate.edges(shard);
+        }
+    }
+}
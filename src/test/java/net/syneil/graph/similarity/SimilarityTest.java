@@ -0,0 +1,105 @@
+package net.syneil.graph.similarity;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.TestGraphs;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilarityTest {
+    private static final int USERS = 200;
+    private static final int ITEMS = 1000;
+    private static final int LIKES = 30;
+
+    private static Set<Integer> neighbours(EdgeListGraph<Integer, Edge<Integer>> graph, Integer vertex) {
+        Set<Integer> neighbours = new HashSet<>(graph.neighbours(vertex));
+        neighbours.remove(vertex);
+        return neighbours;
+    }
+
+    @Test
+    void exactScoresMatchNeighbourhoods() {
+        // given
+        var graph = TestGraphs.randomGraph(UNDIRECTED, 200, 1000, 7L);
+        var similarity = VertexSimilarity.of(graph);
+        Integer a = 3, b = 5;
+        Set<Integer> common = neighbours(graph, a);
+        common.retainAll(neighbours(graph, b));
+        Set<Integer> either = neighbours(graph, a);
+        either.addAll(neighbours(graph, b));
+        double adamicAdar = common.stream().mapToDouble(w -> 1.0 / Math.log(neighbours(graph, w).size())).sum();
+
+        // when
+        List<ScoredVertex<Integer>> similar = similarity.mostSimilar(a, 5, SimilarityMeasure.JACCARD);
+        List<ScoredVertex<Integer>> predicted = similarity.predictLinks(a, 200, SimilarityMeasure.ADAMIC_ADAR);
+
+        // then
+        double best = graph.vertices().filter(v -> !v.equals(a)).mapToDouble(v -> similarity.score(a, v,
+                SimilarityMeasure.JACCARD)).max().orElseThrow();
+        assertAll(() -> assertEquals(common.size(), similarity.score(a, b, SimilarityMeasure.COMMON_NEIGHBOURS)),
+                  () -> assertEquals((double) common.size() / either.size(),
+                                     similarity.score(a, b, SimilarityMeasure.JACCARD), 1e-12),
+                  () -> assertEquals(adamicAdar, similarity.score(a, b, SimilarityMeasure.ADAMIC_ADAR), 1e-12),
+                  () -> assertEquals(5, similar.size()),
+                  () -> assertEquals(best, similar.get(0).getScore(), 1e-12),
+                  () -> assertEquals(similarity.score(a, similar.get(4).getVertex(), SimilarityMeasure.JACCARD),
+                                     similar.get(4).getScore(), 1e-12),
+                  () -> assertTrue(predicted.stream().noneMatch(s -> graph.neighbours(a).contains(s.getVertex())
+                                                                     || s.getVertex().equals(a))),
+                  () -> assertFalse(predicted.isEmpty()),
+                  () -> assertEquals(0.0, similarity.score(a, -1, SimilarityMeasure.JACCARD)),
+                  () -> assertTrue(similarity.mostSimilar(-1, 5, SimilarityMeasure.JACCARD).isEmpty()));
+    }
+
+    @Test
+    void minHashFindsNearDuplicateNeighbourhoods() {
+        // given: pairs of users who like the same items but one
+        var graph = new EdgeListGraph<Integer, Edge<Integer>>(
+                GraphProperties.builder().orientation(UNDIRECTED).build());
+        Random random = new Random(11);
+        for (int pair = 0; pair < USERS / 2; pair++) {
+            List<Integer> liked = random.ints(USERS, USERS + ITEMS).distinct().limit(LIKES + 1).boxed()
+                                        .collect(Collectors.toList());
+            for (int i = 0; i < LIKES; i++) {
+                graph.addEdge(new UnlabelledEdge<>(2 * pair, liked.get(i)));
+                graph.addEdge(new UnlabelledEdge<>(2 * pair + 1, liked.get(i == 0 ? LIKES : i)));
+            }
+        }
+        var index = MinHashIndex.of(graph, MinHashOptions.builder().seed(42L).build());
+
+        // when
+        Map<Integer, List<ScoredVertex<Integer>>> similar = index.mostSimilar(1);
+
+        // then
+        long found = IntStream.range(0, USERS).filter(user -> {
+            List<ScoredVertex<Integer>> best = similar.get(user);
+            return best != null && !best.isEmpty() && best.get(0).getVertex() == (user ^ 1);
+        }).count();
+        Integer first = 0, twin = 1;
+        double jaccard = (LIKES - 1.0) / (LIKES + 1.0);
+        assertAll(() -> assertTrue(found >= USERS * 0.95, () -> "found " + found),
+                  () -> assertEquals(jaccard, index.estimate(first, twin), 0.15),
+                  () -> assertEquals(index.mostSimilar(first, 1), similar.get(first)),
+                  () -> assertEquals(graph.numberOfVertices(), similar.size()),
+                  () -> assertTrue(index.mostSimilar(-1, 1).isEmpty()));
+    }
+
+    @Test
+    void invalidOptionsAreRejected() {
+        var graph = TestGraphs.randomGraph(UNDIRECTED, 200, 1000, 7L);
+        assertAll(() -> assertThrows(IllegalArgumentException.class,
+                                     () -> MinHashIndex.of(graph, MinHashOptions.builder().bands(0).build())),
+                  () -> assertThrows(IllegalArgumentException.class,
+                                     () -> MinHashIndex.of(graph, MinHashOptions.builder().parallelism(0).build())),
+                  () -> assertThrows(IllegalArgumentException.class,
+                                     () -> VertexSimilarity.of(graph).mostSimilar(1, -1, SimilarityMeasure.JACCARD)));
+    }
+}
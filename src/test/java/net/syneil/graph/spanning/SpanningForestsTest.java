@@ -0,0 +1,102 @@
+package net.syneil.graph.spanning;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpanningForestsTest {
+    private final EdgeListGraph<String, LabelledEdge<String, Double>> graph =
+            new EdgeListGraph<>(GraphProperties.builder().orientation(UNDIRECTED).build());
+
+    private void connect(String a, String b, double weight) {
+        graph.addEdge(new ObjectLabelledEdge<>(a, b, weight));
+    }
+
+    @Test
+    void findsLightestTreeOfEachComponent() {
+        // given
+        connect("a", "b", 4.0);
+        connect("b", "c", 1.0);
+        connect("a", "c", 2.0);
+        connect("c", "d", 5.0);
+        connect("b", "d", -3.0);
+        connect("d", "d", -10.0);
+        connect("x", "y", 7.0);
+        graph.addVertex("lonely");
+
+        // when
+        var forest = SpanningForests.kruskal(graph, LabelledEdge::getLabel);
+
+        // then
+        Set<Double> weights = forest.getEdges().stream().map(LabelledEdge::getLabel).collect(Collectors.toSet());
+        assertAll(() -> assertEquals(Set.of(1.0, 2.0, -3.0, 7.0), weights),
+                  () -> assertEquals(7.0, forest.getTotalWeight()),
+                  () -> assertEquals(3, forest.numberOfTrees()),
+                  () -> assertEquals(7L, forest.asGraph().numberOfVertices()),
+                  () -> assertEquals(4L, forest.asGraph().numberOfEdges()),
+                  () -> assertTrue(forest.asGraph().hasEdge("d", "b")),
+                  () -> assertFalse(forest.asGraph().hasEdge("a", "b")));
+    }
+
+    @Test
+    void nanWeightsAreRejected() {
+        // given
+        connect("a", "b", Double.NaN);
+
+        // then
+        assertThrows(IllegalArgumentException.class, () -> SpanningForests.minimum(graph, LabelledEdge::getLabel));
+    }
+
+    @Test
+    void boruvkaAgreesWithKruskal() {
+        var random = new Random(33L);
+        for (int trial = 0; trial < 20; trial++) {
+            // given
+            var sparse = new EdgeListGraph<Integer, LabelledEdge<Integer, Double>>(
+                    GraphProperties.builder().orientation(UNDIRECTED).build());
+            int n = 1 + random.nextInt(3000);
+            for (int v = 0; v < n; v++) {
+                sparse.addVertex(v);
+            }
+            int m = random.nextInt(3 * n);
+            for (int i = 0; i < m; i++) {
+                // few distinct weights, so that ties must be broken consistently
+                sparse.addEdge(new ObjectLabelledEdge<>(random.nextInt(n), random.nextInt(n),
+                                                        (double) (random.nextInt(10) - 5)));
+            }
+
+            // when
+            var kruskal = SpanningForests.kruskal(sparse, LabelledEdge::getLabel);
+            var boruvka = SpanningForests.boruvka(sparse, LabelledEdge::getLabel, 4);
+
+            // then
+            assertAll(() -> assertArrayEquals(kruskal.edgeIndices(), boruvka.edgeIndices()),
+                      () -> assertEquals(kruskal.getTotalWeight(), boruvka.getTotalWeight()),
+                      () -> assertEquals(kruskal.numberOfTrees(), boruvka.numberOfTrees()));
+        }
+    }
+
+    @Test
+    void directedEdgesAreTreatedAsUndirected() {
+        // given
+        var directed = new EdgeListGraph<Integer, Edge<Integer>>();
+        directed.addEdge(new ObjectLabelledEdge<>(1, 2, 1.0));
+        directed.addEdge(new ObjectLabelledEdge<>(3, 2, 1.0));
+
+        // when
+        var forest = SpanningForests.minimum(directed, edge -> 1.0);
+
+        // then
+        assertEquals(1, forest.numberOfTrees());
+    }
+}
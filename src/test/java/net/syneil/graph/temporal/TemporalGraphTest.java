@@ -0,0 +1,157 @@
+package net.syneil.graph.temporal;
+
+import net.syneil.graph.Graph;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.TemporalEdge;
+import net.syneil.graph.edge.IntervalEdge;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemporalGraphTest {
+    private static TemporalGraph<Integer, TemporalEdge<Integer>> randomGraph(GraphProperties.Orientation orientation,
+                                                                             List<TemporalEdge<Integer>> edges) {
+        var graph = new TemporalGraph<Integer, TemporalEdge<Integer>>(
+                GraphProperties.builder().orientation(orientation).build());
+        var random = new Random(42L);
+        IntStream.range(0, 30).forEach(graph::addVertex);
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(1000);
+            var edge = random.nextInt(10) == 0
+                    ? IntervalEdge.from(random.nextInt(30), random.nextInt(30), start)
+                    : new IntervalEdge<>(random.nextInt(30), random.nextInt(30), start, start + random.nextInt(100));
+            if (graph.addEdge(edge)) {
+                edges.add(edge);
+            }
+        }
+        return graph;
+    }
+
+    @Test
+    void windowQueriesFindTheEdgesValidDuringThem() {
+        for (var orientation : GraphProperties.Orientation.values()) {
+            // given
+            List<TemporalEdge<Integer>> edges = new ArrayList<>();
+            var graph = randomGraph(orientation, edges);
+
+            for (long from = -10; from < 1200; from += 37) {
+                long to = from + Math.floorMod(from, 50) + 1;
+                // when
+                Graph<Integer, TemporalEdge<Integer>> window = graph.during(from, to);
+                Graph<Integer, TemporalEdge<Integer>> snapshot = graph.asOf(from);
+
+                // then
+                long f = from;
+                Set<TemporalEdge<Integer>> expected = edges.stream().filter(edge -> edge.isValidDuring(f, to))
+                                                           .collect(Collectors.toSet());
+                assertAll(() -> assertEquals(expected, window.edges().collect(Collectors.toSet())),
+                          () -> assertEquals(expected.size(), window.numberOfEdges()),
+                          () -> assertEquals(expected, graph.edgesDuring(f, to).collect(Collectors.toSet())),
+                          () -> assertEquals(edges.stream().filter(TemporalEdge.validAt(f)).collect(Collectors.toSet()),
+                                             snapshot.edges().collect(Collectors.toSet())));
+                for (int v = 0; v < 30; v++) {
+                    int source = v;
+                    Set<Integer> neighbours = expected.stream()
+                                                      .filter(edge -> edge.getSource() == source
+                                                              || orientation == UNDIRECTED && edge.connects(source))
+                                                      .map(edge -> edge.other(source).orElseThrow())
+                                                      .collect(Collectors.toSet());
+                    assertEquals(neighbours, window.neighbours(source));
+                    neighbours.forEach(w -> assertTrue(window.hasEdge(source, w)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void edgesFromAVertexAreInOrderOfStart() {
+        // given
+        var graph = randomGraph(DIRECTED, new ArrayList<>());
+
+        // when
+        List<TemporalEdge<Integer>> edges = graph.getEdgesDuring(0, 0L, Long.MAX_VALUE);
+
+        // then
+        assertEquals(graph.getEdges(0).size(), edges.size());
+        for (int i = 1; i < edges.size(); i++) {
+            assertTrue(edges.get(i - 1).getStart() <= edges.get(i).getStart());
+        }
+        assertTrue(graph.getEdgesDuring(0, 5L, 5L).isEmpty());
+    }
+
+    @Test
+    void expiryRemovesEdgesEndedBeforeTheHorizon() {
+        for (var orientation : GraphProperties.Orientation.values()) {
+            // given
+            List<TemporalEdge<Integer>> edges = new ArrayList<>();
+            var graph = randomGraph(orientation, edges);
+            long ended = edges.stream().filter(edge -> edge.getEnd() <= 500).count();
+
+            // when
+            long expired = graph.expireBefore(500);
+
+            // then
+            assertAll(() -> assertEquals(ended, expired),
+                      () -> assertEquals(edges.size() - ended, graph.numberOfEdges()),
+                      () -> assertTrue(graph.edges().allMatch(edge -> edge.getEnd() > 500)),
+                      () -> assertTrue(graph.earliestEnd().orElseThrow() > 500),
+                      () -> assertEquals(graph.edges().collect(Collectors.toSet()),
+                                         graph.edgesDuring(Long.MIN_VALUE, Long.MAX_VALUE)
+                                              .collect(Collectors.toSet())),
+                      () -> assertEquals(0, graph.expireBefore(500)));
+        }
+    }
+
+    @Test
+    void expiryAtAHubCostsOnlyTheEdgesExpired() {
+        for (var orientation : GraphProperties.Orientation.values()) {
+            // given: a hub with an edge to each of many vertices, most of them ending early
+            var graph = new TemporalGraph<Integer, TemporalEdge<Integer>>(
+                    GraphProperties.builder().orientation(orientation).build());
+            int spokes = 40_000;
+            for (int v = 1; v <= spokes; v++) {
+                graph.addEdge(new IntervalEdge<>(0, v, 0, v % 4 == 0 ? 200 : 100));
+            }
+
+            // when
+            long expired = assertTimeout(Duration.ofSeconds(10), () -> graph.expireBefore(150));
+
+            // then
+            assertAll(() -> assertEquals(spokes * 3 / 4, expired),
+                      () -> assertEquals(spokes / 4, graph.numberOfEdges()),
+                      () -> assertEquals(spokes / 4, graph.getEdgesAt(0, 150).size()),
+                      () -> assertEquals(OptionalLong.of(200), graph.earliestEnd()));
+        }
+    }
+
+    @Test
+    void removalsAreReflectedInTheIndices() {
+        // given
+        var graph = new TemporalGraph<String, IntervalEdge<String>>(
+                GraphProperties.builder().orientation(DIRECTED).build());
+        var ab = new IntervalEdge<>("a", "b", 0, 10);
+        var bc = new IntervalEdge<>("b", "c", 5, 15);
+        var ca = IntervalEdge.from("c", "a", 8);
+        graph.addEdge(ab);
+        graph.addEdge(bc);
+        graph.addEdge(ca);
+
+        // when
+        graph.removeVertex("b");
+
+        // then
+        assertAll(() -> assertEquals(List.of(ca), graph.edgesAt(9).collect(Collectors.toList())),
+                  () -> assertTrue(graph.getEdgesAt("a", 5).isEmpty()),
+                  () -> assertEquals(Set.of("a"), graph.asOf(100).neighbours("c")),
+                  () -> assertTrue(graph.asOf(7).neighbours("c").isEmpty()),
+                  () -> assertThrows(IllegalArgumentException.class, () -> graph.during(5, 5)),
+                  () -> assertThrows(IllegalArgumentException.class, () -> new IntervalEdge<>("a", "b", 5, 4)));
+    }
+}
@@ -0,0 +1,216 @@
+package net.syneil.graph.walk;
+
+import net.syneil.graph.Edge;
+import net.syneil.graph.GraphProperties;
+import net.syneil.graph.LabelledEdge;
+import net.syneil.graph.compact.CompactGraph;
+import net.syneil.graph.edge.ObjectLabelledEdge;
+import net.syneil.graph.edge.UnlabelledEdge;
+import net.syneil.graph.edgelist.EdgeListGraph;
+import net.syneil.graph.generate.Generators;
+import net.syneil.graph.generate.WattsStrogatzGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static net.syneil.graph.GraphProperties.Orientation.DIRECTED;
+import static net.syneil.graph.GraphProperties.Orientation.UNDIRECTED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomWalkerTest {
+    private static List<int[]> walks(RandomWalker<?, ?> walker, int parallelism) {
+        List<int[]> walks = new ArrayList<>();
+        walker.walk(3, 20, 40L, parallelism, (walk, length) -> walks.add(Arrays.copyOf(walk, length)));
+        return walks;
+    }
+
+    @Test
+    void walksFollowEdgesDeterministically() {
+        // given
+        CompactGraph<Integer, Edge<Integer>> graph = Generators.toCompactGraph(
+                new WattsStrogatzGenerator(3000, 4, 0.1, 40L), 1);
+        var walker = RandomWalker.uniform(graph);
+
+        // when
+        List<int[]> sequential = walks(walker, 1);
+        List<int[]> parallel = walks(walker, 4);
+
+        // then
+        assertEquals(3 * 3000, sequential.size());
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            int[] walk = sequential.get(i);
+            int start = i % 3000;
+            assertArrayEquals(walk, parallel.get(i));
+            assertAll(() -> assertEquals(20, walk.length),
+                      () -> assertEquals(start, walk[0]));
+            for (int step = 1; step < walk.length; step++) {
+                assertTrue(graph.hasEdge(walk[step - 1], walk[step]));
+            }
+        }
+    }
+
+    @Test
+    void walksEndAtVerticesWithoutEdges() {
+        // given
+        var graph = new EdgeListGraph<String, Edge<String>>(GraphProperties.builder().orientation(DIRECTED).build());
+        graph.addEdge(new UnlabelledEdge<>("a", "b"));
+        graph.addEdge(new UnlabelledEdge<>("b", "c"));
+        var walker = RandomWalker.uniform(graph);
+        int a = walker.getGraph().indexOf("a"), c = walker.getGraph().indexOf("c");
+
+        // when
+        int[] walk = new int[10];
+        int length = walker.walk(a, walk, new SplittableRandom(40L));
+
+        // then
+        assertAll(() -> assertEquals(3, length),
+                  () -> assertEquals(c, walk[2]),
+                  () -> assertEquals(1, walker.walk(c, walk, new SplittableRandom(40L))));
+    }
+
+    @Test
+    void weightedStepsFollowTheirWeights() {
+        // given
+        var graph = new EdgeListGraph<String, LabelledEdge<String, Double>>(
+                GraphProperties.builder().orientation(DIRECTED).build());
+        graph.addEdge(new ObjectLabelledEdge<>("hub", "a", 1.0));
+        graph.addEdge(new ObjectLabelledEdge<>("hub", "b", 2.0));
+        graph.addEdge(new ObjectLabelledEdge<>("hub", "c", 7.0));
+        graph.addEdge(new ObjectLabelledEdge<>("hub", "d", 0.0));
+        var walker = RandomWalker.weighted(graph, LabelledEdge::getLabel);
+        var compact = walker.getGraph();
+        int hub = compact.indexOf("hub");
+
+        // when
+        int[] counts = new int[compact.index().size()];
+        int[] walk = new int[2];
+        var random = new SplittableRandom(40L);
+        for (int i = 0; i < 100_000; i++) {
+            walker.walk(hub, walk, random);
+            counts[walk[1]]++;
+        }
+
+        // then
+        assertAll(() -> assertEquals(0.1, counts[compact.indexOf("a")] / 100_000.0, 0.01),
+                  () -> assertEquals(0.2, counts[compact.indexOf("b")] / 100_000.0, 0.01),
+                  () -> assertEquals(0.7, counts[compact.indexOf("c")] / 100_000.0, 0.01),
+                  () -> assertEquals(0, counts[compact.indexOf("d")]),
+                  () -> assertThrows(IllegalArgumentException.class,
+                                     () -> RandomWalker.weighted(graph, edge -> -edge.getLabel())));
+    }
+
+    @Test
+    void node2vecStepsBackFromLeavesWhateverTheReturnParameter() {
+        // given: a path, whose ends can only be left by stepping back
+        var path = new EdgeListGraph<Integer, Edge<Integer>>(GraphProperties.builder().orientation(UNDIRECTED).build());
+        path.addEdge(new UnlabelledEdge<>(0, 1));
+        path.addEdge(new UnlabelledEdge<>(1, 2));
+        var walker = RandomWalker.node2vec(path, 1e9, 1.0);
+
+        // when
+        List<int[]> walks = assertTimeout(Duration.ofSeconds(10), () -> walks(walker, 1));
+
+        // then
+        assertAll(() -> assertEquals(9, walks.size()),
+                  () -> assertTrue(walks.stream().allMatch(walk -> walk.length == 20)),
+                  () -> assertTrue(walks.stream().allMatch(walk -> {
+                      for (int i = 1; i < walk.length; i++) {
+                          if (Math.abs(walk[i] - walk[i - 1]) != 1) {
+                              return false;
+                          }
+                      }
+                      return true;
+                  })));
+    }
+
+    @Test
+    void weightedNode2vecStepsBackFromLeavesWhateverTheReturnParameter() {
+        // given: a weighted path, whose ends can only be left by stepping back
+        var path = new EdgeListGraph<String, LabelledEdge<String, Double>>(
+                GraphProperties.builder().orientation(UNDIRECTED).build());
+        path.addEdge(new ObjectLabelledEdge<>("a", "b", 1.0));
+        path.addEdge(new ObjectLabelledEdge<>("b", "c", 2.0));
+        var walker = RandomWalker.node2vec(path, LabelledEdge::getLabel, 1e9, 1.0);
+        var compact = walker.getGraph();
+
+        // when
+        List<int[]> walks = assertTimeout(Duration.ofSeconds(10), () -> walks(walker, 1));
+
+        // then
+        assertAll(() -> assertEquals(9, walks.size()),
+                  () -> assertTrue(walks.stream().allMatch(walk -> walk.length == 20)),
+                  () -> assertTrue(walks.stream().allMatch(walk -> {
+                      for (int i = 1; i < walk.length; i++) {
+                          if (!compact.hasEdge(walk[i - 1], walk[i])) {
+                              return false;
+                          }
+                      }
+                      return true;
+                  })));
+    }
+
+    @Test
+    void weightedNode2vecStepsDrawnExactlyFollowTheirBiasedWeights() {
+        // given: steps from "v" after "u" that are all so unlikely to be accepted that they are drawn exactly
+        var graph = new EdgeListGraph<String, LabelledEdge<String, Double>>(
+                GraphProperties.builder().orientation(UNDIRECTED).build());
+        graph.addEdge(new ObjectLabelledEdge<>("u", "v", 1.0));
+        graph.addEdge(new ObjectLabelledEdge<>("v", "x", 1.0));
+        graph.addEdge(new ObjectLabelledEdge<>("v", "y", 3.0));
+        var walker = RandomWalker.node2vec(graph, LabelledEdge::getLabel, 1e12, 1e6);
+        var compact = walker.getGraph();
+        int u = compact.indexOf("u");
+
+        // when
+        int[] counts = new int[compact.index().size()];
+        int[] walk = new int[3];
+        var random = new SplittableRandom(40L);
+        for (int i = 0; i < 20_000; i++) {
+            walker.walk(u, walk, random);
+            counts[walk[2]]++;
+        }
+
+        // then: the step back is all but ruled out, and the others, both weighted by 1/q, follow their edge weights
+        assertAll(() -> assertEquals(0.25, counts[compact.indexOf("x")] / 20_000.0, 0.02),
+                  () -> assertEquals(0.75, counts[compact.indexOf("y")] / 20_000.0, 0.02),
+                  () -> assertEquals(0, counts[u]));
+    }
+
+    @Test
+    void node2vecParametersBiasReturns() {
+        // given
+        CompactGraph<Integer, Edge<Integer>> graph = Generators.toCompactGraph(
+                new WattsStrogatzGenerator(1000, 6, 0.1, 40L), 1);
+        assertEquals(UNDIRECTED, graph.getProperties().getOrientation().orElseThrow());
+
+        // when
+        double homing = returnRate(RandomWalker.node2vec(graph, 0.05, 1.0));
+        double unbiased = returnRate(RandomWalker.node2vec(graph, 1.0, 1.0));
+        double exploring = returnRate(RandomWalker.node2vec(graph, 20.0, 0.05));
+
+        // then
+        assertAll(() -> assertTrue(homing > 0.7, () -> "homing " + homing),
+                  () -> assertTrue(unbiased > 0.1 && unbiased < 0.25, () -> "unbiased " + unbiased),
+                  () -> assertTrue(exploring < 0.01, () -> "exploring " + exploring),
+                  () -> assertThrows(IllegalArgumentException.class, () -> RandomWalker.node2vec(graph, 0.0, 1.0)));
+    }
+
+    /**
+     * @return the proportion of steps after the first that return to the vertex visited before
+     */
+    private static double returnRate(RandomWalker<?, ?> walker) {
+        long[] steps = new long[2];
+        walker.walk(2, 30, 40L, 2, (walk, length) -> {
+            for (int i = 2; i < length; i++) {
+                steps[0] += walk[i] == walk[i - 2] ? 1 : 0;
+                steps[1]++;
+            }
+        });
+        return (double) steps[0] / steps[1];
+    }
+}